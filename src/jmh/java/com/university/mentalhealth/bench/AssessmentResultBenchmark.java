@@ -0,0 +1,93 @@
+package com.university.mentalhealth.bench;
+
+import com.university.mentalhealth.entity.Assessment;
+import com.university.mentalhealth.entity.AssessmentDetail;
+import com.university.mentalhealth.entity.AssessmentSession;
+import com.university.mentalhealth.service.AssessmentService;
+import com.university.mentalhealth.util.JSONUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测评结果解释和报告生成（不访问数据库）。
+ * assessment 参数对应 getDetailedAssessmentResult 的各个分支，"其他" 走通用解释。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AssessmentResultBenchmark {
+    @Param({"PHQ-9抑郁症筛查", "GAD-7焦虑症筛查", "压力感知量表", "其他"})
+    public String assessmentName;
+
+    private final AssessmentService assessmentService = new AssessmentService();
+    private Assessment assessment;
+    private AssessmentSession session;
+    private List<AssessmentDetail> details;
+    private int[] answerValues;
+
+    @Setup
+    public void setUp() {
+        int questionCount = 9;
+        assessment = new Assessment();
+        assessment.setId(1);
+        assessment.setName(assessmentName);
+        assessment.setTotalQuestions(questionCount);
+        assessment.setRiskThreshold(10);
+
+        String options = JSONUtil.generateStandardOptions();
+        details = new ArrayList<>();
+        answerValues = new int[questionCount];
+        int totalScore = 0;
+        for (int i = 0; i < questionCount; i++) {
+            AssessmentDetail detail = new AssessmentDetail();
+            detail.setQuestionText("第" + (i + 1) + "题：过去两周内，您是否有以下困扰？");
+            detail.setOptions(options);
+            detail.setAnswerValue(i % 4);
+            details.add(detail);
+            answerValues[i] = i % 4;
+            totalScore += i % 4;
+        }
+
+        session = new AssessmentSession();
+        session.setId(100);
+        session.setAssessmentId(1);
+        session.setTotalScore(totalScore);
+        session.setEndTime(LocalDateTime.of(2024, 5, 20, 10, 30));
+    }
+
+    /**
+     * 计分（答案求和）加风险等级和详细解释，对应提交测评后显示结果
+     */
+    @Benchmark
+    public void scoreAndInterpret(Blackhole blackhole) {
+        int totalScore = 0;
+        for (int value : answerValues) {
+            totalScore += value;
+        }
+        blackhole.consume(assessmentService.getRiskLevel(assessment, totalScore));
+        blackhole.consume(assessmentService.getDetailedAssessmentResult(assessment, totalScore));
+    }
+
+    @Benchmark
+    public String generateReportText() {
+        return assessmentService.generateReportText(session, assessment, details);
+    }
+}
@@ -0,0 +1,72 @@
+package com.university.mentalhealth.bench;
+
+import com.university.mentalhealth.util.JSONUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测评选项的 JSON 解析和生成。
+ * parseOptions 命中解析缓存（同一量表的题目共享选项，是实际的常见情况）；
+ * parseOptionsUncached 在缓存已满后解析从未见过的 JSON，反映真正的解析开销。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JSONUtilBenchmark {
+    // 与 JSONUtil 的缓存上限一致
+    private static final int CACHE_LIMIT = 1024;
+    private static final int UNCACHED_VARIANTS = 4096;
+
+    private String standardJson;
+    private String[] uncachedJson;
+    private List<Map<String, Object>> options;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        standardJson = JSONUtil.generateStandardOptions();
+        // 先让标准选项进入缓存，再用其他 JSON 填满缓存，之后的新 JSON 都不会被缓存
+        JSONUtil.parseOptions(standardJson);
+        for (int i = 0; i < CACHE_LIMIT; i++) {
+            JSONUtil.parseQuestionOptions("[{\"text\":\"填充" + i + "\",\"value\":0}]");
+        }
+        uncachedJson = new String[UNCACHED_VARIANTS];
+        for (int i = 0; i < UNCACHED_VARIANTS; i++) {
+            uncachedJson[i] = "[{\"text\":\"完全没有\",\"value\":0},{\"text\":\"有几天\",\"value\":1},"
+                    + "{\"text\":\"一半以上时间\",\"value\":2},{\"text\":\"几乎每天#" + i + "\",\"value\":3}]";
+        }
+        options = JSONUtil.parseOptions(standardJson);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> parseOptions() {
+        return JSONUtil.parseOptions(standardJson);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> parseOptionsUncached() {
+        String json = uncachedJson[next];
+        next = (next + 1) % UNCACHED_VARIANTS;
+        return JSONUtil.parseOptions(json);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JSONUtil.toJson(options);
+    }
+}
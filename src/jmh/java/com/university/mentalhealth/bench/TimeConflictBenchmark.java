@@ -0,0 +1,89 @@
+package com.university.mentalhealth.bench;
+
+import com.university.mentalhealth.util.IntervalIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时间冲突检查。AppointmentService.hasAppointmentConflict 和 TimeSlotService 的批量检查
+ * 都通过 IntervalIndex.overlaps 在内存中完成，这里用桩加载器给一个所有者准备 intervals 个
+ * 连续的一小时区间（每天 8 个），分别测量命中和不命中；
+ * linearScan 是逐个比较全部区间的做法（即 TimeSlotDAO.hasTimeConflict 的 SQL 条件在内存中的等价写法），作为对照。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimeConflictBenchmark {
+    private static final int OWNER_ID = 1;
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.now().plusDays(1).withHour(0)
+            .withMinute(0).withSecond(0).withNano(0);
+
+    @Param({"10", "100", "1000"})
+    public int intervals;
+
+    private IntervalIndex index;
+    private LocalDateTime[] starts;
+    private LocalDateTime[] ends;
+    private LocalDateTime hitStart;
+    private LocalDateTime hitEnd;
+    private LocalDateTime missStart;
+    private LocalDateTime missEnd;
+
+    @Setup
+    public void setUp() {
+        starts = new LocalDateTime[intervals];
+        ends = new LocalDateTime[intervals];
+        List<IntervalIndex.Interval> loaded = new ArrayList<>();
+        for (int i = 0; i < intervals; i++) {
+            starts[i] = FIRST_DAY.plusDays(i / 8).withHour(9 + i % 8);
+            ends[i] = starts[i].plusHours(1);
+            loaded.add(IntervalIndex.Interval.of(i + 1, starts[i], ends[i]));
+        }
+        index = new IntervalIndex("bench", (ownerId, from) -> loaded, Long.MAX_VALUE, 1);
+        index.preload(OWNER_ID);
+
+        // 命中：与中间的区间重叠半小时；不命中：最后一天晚上
+        LocalDateTime middle = starts[intervals / 2];
+        hitStart = middle.plusMinutes(30);
+        hitEnd = middle.plusMinutes(90);
+        missStart = FIRST_DAY.plusDays(intervals / 8).withHour(20);
+        missEnd = missStart.plusHours(1);
+    }
+
+    @Benchmark
+    public boolean indexHit() {
+        return index.overlaps(OWNER_ID, hitStart, hitEnd);
+    }
+
+    @Benchmark
+    public boolean indexMiss() {
+        return index.overlaps(OWNER_ID, missStart, missEnd);
+    }
+
+    @Benchmark
+    public boolean linearScanMiss() {
+        for (int i = 0; i < intervals; i++) {
+            if (starts[i].isBefore(missEnd) && ends[i].isAfter(missStart)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,116 @@
+package com.university.mentalhealth.dao;
+
+import com.university.mentalhealth.entity.Appointment;
+import com.university.mentalhealth.entity.AssessmentQuestion;
+import com.university.mentalhealth.entity.Student;
+import com.university.mentalhealth.entity.TimeSlot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DAO 行映射（extractXxxFromResultSet）：每次调用映射一行，结果集为 StubResultSet
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RowMappingBenchmark {
+    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private final TimeSlotDAO timeSlotDAO = new TimeSlotDAO();
+    private final StudentDAO studentDAO = new StudentDAO();
+    private final AssessmentDAO assessmentDAO = new AssessmentDAO();
+
+    private ResultSet appointmentRow;
+    private ResultSet timeSlotRow;
+    private ResultSet studentRow;
+    private ResultSet questionRow;
+
+    @Setup
+    public void setUp() {
+        Timestamp start = Timestamp.valueOf(LocalDateTime.of(2024, 5, 20, 9, 0));
+        Timestamp end = Timestamp.valueOf(LocalDateTime.of(2024, 5, 20, 10, 0));
+
+        Map<String, Object> appointment = new HashMap<>();
+        appointment.put("id", 1024);
+        appointment.put("student_id", 17);
+        appointment.put("counselor_id", 3);
+        appointment.put("time_slot_id", 512);
+        appointment.put("status", "confirmed");
+        appointment.put("notes", "最近压力较大，希望聊聊时间安排");
+        appointment.put("created_at", Timestamp.valueOf(LocalDateTime.of(2024, 5, 18, 14, 30)));
+        appointment.put("student_name", "张三");
+        appointment.put("counselor_name", "李老师");
+        appointment.put("start_time", start);
+        appointment.put("end_time", end);
+        appointmentRow = StubResultSet.of(appointment);
+
+        Map<String, Object> timeSlot = new HashMap<>();
+        timeSlot.put("id", 512);
+        timeSlot.put("counselor_id", 3);
+        timeSlot.put("start_time", start);
+        timeSlot.put("end_time", end);
+        timeSlot.put("status", "booked");
+        timeSlot.put("counselor_name", "李老师");
+        timeSlot.put("title", "心理咨询师");
+        timeSlotRow = StubResultSet.of(timeSlot);
+
+        Map<String, Object> student = new HashMap<>();
+        student.put("user_id", 17);
+        student.put("student_id", "2021001234");
+        student.put("name", "张三");
+        student.put("department", "计算机学院");
+        student.put("contact_phone", "13800000000");
+        student.put("emergency_contact", "张父");
+        student.put("emergency_phone", "13900000000");
+        student.put("username", "zhangsan");
+        student.put("user_created_at", Timestamp.valueOf(LocalDateTime.of(2023, 9, 1, 8, 0)));
+        studentRow = StubResultSet.of(student);
+
+        Map<String, Object> question = new HashMap<>();
+        question.put("id", 88);
+        question.put("assessment_id", 1);
+        question.put("question_text", "做事时提不起劲或没有兴趣");
+        question.put("question_order", 1);
+        question.put("options", "[{\"text\":\"完全没有\",\"value\":0},{\"text\":\"有几天\",\"value\":1},"
+                + "{\"text\":\"一半以上时间\",\"value\":2},{\"text\":\"几乎每天\",\"value\":3}]");
+        questionRow = StubResultSet.of(question);
+    }
+
+    @Benchmark
+    public Appointment appointment() throws SQLException {
+        return appointmentDAO.extractAppointmentFromResultSet(appointmentRow);
+    }
+
+    @Benchmark
+    public TimeSlot timeSlot() throws SQLException {
+        return timeSlotDAO.extractTimeSlotFromResultSet(timeSlotRow);
+    }
+
+    @Benchmark
+    public Student student() throws SQLException {
+        return studentDAO.extractStudentFromResultSet(studentRow);
+    }
+
+    @Benchmark
+    public AssessmentQuestion question() throws SQLException {
+        return assessmentDAO.extractQuestionFromResultSet(questionRow);
+    }
+}
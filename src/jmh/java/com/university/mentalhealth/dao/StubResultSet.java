@@ -0,0 +1,38 @@
+package com.university.mentalhealth.dao;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基准测试用的单行结果集：getXxx(列名) 从预先准备的 Map 中取值，不访问数据库。
+ * 按列名查找的开销与 MySQL 驱动的 findColumn 相近，映射方法之间的比较不受影响。
+ */
+final class StubResultSet {
+    private StubResultSet() {
+    }
+
+    static ResultSet of(Map<String, Object> row) {
+        Map<String, Object> values = new HashMap<>(row);
+        return (ResultSet) Proxy.newProxyInstance(StubResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (args == null || args.length != 1 || !(args[0] instanceof String) || !name.startsWith("get")) {
+                        throw new SQLException("StubResultSet 不支持: " + method);
+                    }
+                    Object value = values.get(args[0]);
+                    switch (name) {
+                        case "getInt":
+                            return value != null ? ((Number) value).intValue() : 0;
+                        case "getLong":
+                            return value != null ? ((Number) value).longValue() : 0L;
+                        case "getBoolean":
+                            return value != null && (Boolean) value;
+                        default:
+                            return value;
+                    }
+                });
+    }
+}
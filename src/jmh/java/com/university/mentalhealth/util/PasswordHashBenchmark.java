@@ -0,0 +1,52 @@
+package com.university.mentalhealth.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录时的密码校验吞吐量。PasswordHasher 只有 1 个计算线程，结果（次/秒）即每个 CPU 核每秒能完成的登录数；
+ * 乘以 password.hashThreads 得到登录高峰时的上限，据此选择 password.pbkdf2.iterations。
+ * verify 包括提交到线程池和等待结果的开销，与实际登录的路径相同。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+    private static final String PASSWORD = "Student2024!";
+
+    @Param({"100000", "210000", "600000"})
+    public int iterations;
+
+    private PasswordHasher hasher;
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        hasher = new PasswordHasher(iterations, 1, 64, TimeUnit.MINUTES.toMillis(1));
+        stored = hasher.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.verify(PASSWORD, stored);
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.hash(PASSWORD);
+    }
+}
@@ -1,43 +1,62 @@
 package com.university.mentalhealth;
 
+import com.university.mentalhealth.client.ApiClient;
+import com.university.mentalhealth.client.ServiceFactory;
+import com.university.mentalhealth.metrics.QueryMetrics;
+import com.university.mentalhealth.service.AssessmentCatalogCache;
+import com.university.mentalhealth.service.OutboxDispatcher;
 import com.university.mentalhealth.ui.LoginFrame;
+import com.university.mentalhealth.util.AppConfig;
 import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.util.logging.ConsoleHandler;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 public class Main {
-    private static final Logger logger = Logger.getLogger(Main.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(Main.class);
 
     public static void main(String[] args) {
-        // 配置日志级别
-        Logger.getLogger("").setLevel(Level.ALL);
-
-        // 控制台处理器
-        ConsoleHandler handler = new ConsoleHandler();
-        handler.setLevel(Level.ALL);
-        Logger.getLogger("").addHandler(handler);
-
+        // 日志级别和输出在 logback.xml 中配置
         logger.info("应用程序启动...");
-        logger.info("Java版本: " + System.getProperty("java.version"));
-        logger.info("当前目录: " + System.getProperty("user.dir"));
+        logger.info("Java版本: {}", System.getProperty("java.version"));
+        logger.info("当前目录: {}", System.getProperty("user.dir"));
 
         // 设置Swing外观为系统默认
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
             logger.info("Swing外观设置成功");
         } catch (Exception e) {
-            logger.warning("设置系统外观失败: " + e.getMessage());
+            logger.warn("设置系统外观失败: {}", e.getMessage());
         }
 
-        // 测试数据库连接
-        testDatabaseConnection();
+        if (ServiceFactory.isThinClient()) {
+            // 瘦客户端：学生功能通过服务器调用，缓存、通知投递和统计都在服务器上
+            logger.info("瘦客户端模式，服务器: {}", ApiClient.getInstance().getBaseUrl());
+        } else {
+            // 测试数据库连接
+            testDatabaseConnection();
+
+            // 后台预热测评量表缓存，学生打开问卷时不再访问数据库
+            Thread catalogWarmUp = new Thread(AssessmentCatalogCache::warmUp, "assessment-catalog-warmup");
+            catalogWarmUp.setDaemon(true);
+            catalogWarmUp.start();
+
+            // 发件箱通常由 ApiServer 投递，每个客户端都投递只会多出轮询和重复认领；
+            // 没有部署服务器时在一个客户端上打开
+            if (AppConfig.getBoolean("notification.outbox.dispatcher.enabled", false)) {
+                OutboxDispatcher.startDefault();
+            }
+
+            // 定期把数据库操作统计写入日志：客户端默认关闭，统计仍可通过 JMX 查看
+            if (AppConfig.getBoolean("metrics.reporter.enabled", false)) {
+                QueryMetrics.startReporter();
+            }
+        }
 
         setupGlobalStyles();
 
@@ -76,7 +95,7 @@ public class Main {
             UIManager.put("RadioButton.foreground", Color.BLACK);
 
         } catch (Exception e) {
-            Logger.getLogger(Main.class.getName()).warning("设置全局样式失败: " + e.getMessage());
+            logger.warn("设置全局样式失败: {}", e.getMessage());
         }
     }
 
@@ -93,17 +112,18 @@ public class Main {
                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) as count FROM users");
                 if (rs.next()) {
                     int count = rs.getInt("count");
-                    logger.info("用户表记录数: " + count);
+                    logger.info("用户表记录数: {}", count);
                 }
                 rs.close();
                 stmt.close();
             } else {
-                logger.severe("数据库连接测试失败: 连接为null或已关闭");
+                logger.error("数据库连接测试失败: 连接为null或已关闭");
             }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "数据库连接测试异常", e);
+            logger.error("数据库连接测试异常", e);
         } finally {
             DatabaseUtil.closeConnection(conn);
         }
+        logger.info("连接池状态: {}", DatabaseUtil.getPoolStats());
     }
 }
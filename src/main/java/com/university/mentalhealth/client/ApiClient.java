@@ -0,0 +1,136 @@
+package com.university.mentalhealth.client;
+
+import com.university.mentalhealth.entity.UserType;
+import com.university.mentalhealth.server.ApiMessages;
+import com.university.mentalhealth.util.AppConfig;
+import com.university.mentalhealth.util.JsonCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 瘦客户端访问服务器接口的 HTTP/JSON 客户端。
+ * 登录后保存服务器返回的会话令牌，之后的请求都带上 "Authorization: Bearer 令牌"。
+ * 调用失败（网络错误、非 2xx 响应）时记录日志并返回调用方给出的默认值，
+ * 与本地服务在数据库出错时返回空列表 / false 的方式一致。
+ * HttpURLConnection 在响应体读完后复用底层连接（keep-alive）。
+ */
+public class ApiClient {
+    private static final Logger logger = LoggerFactory.getLogger(ApiClient.class);
+
+    private static final ApiClient INSTANCE = new ApiClient(AppConfig.getString("client.serverUrl", ""));
+
+    private final String baseUrl;
+    private final int connectTimeoutMillis = AppConfig.getInt("client.connectTimeoutMillis", 5000);
+    private final int readTimeoutMillis = AppConfig.getInt("client.readTimeoutMillis", 30000);
+    private volatile String token;
+
+    /**
+     * 独立的客户端，有自己的令牌（例如压力测试中每个模拟学生一个）；桌面客户端用 getInstance()
+     */
+    public ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public static ApiClient getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 配置了 client.serverUrl 时桌面客户端以瘦客户端模式运行
+     */
+    public boolean isEnabled() {
+        return !baseUrl.isEmpty();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * 登录服务器并保存返回的令牌，失败时返回 null
+     */
+    public ApiMessages.LoginResponse login(String username, String password, UserType type) {
+        ApiMessages.LoginRequest request = new ApiMessages.LoginRequest();
+        request.username = username;
+        request.password = password;
+        request.type = type;
+        ApiMessages.LoginResponse response = post("/api/login", request, ApiMessages.LoginResponse.class, null);
+        if (response == null || response.token == null) {
+            return null;
+        }
+        this.token = response.token;
+        return response;
+    }
+
+    public <T> T get(String path, Type type, T defaultValue) {
+        return call("GET", path, null, type, defaultValue);
+    }
+
+    public <T> T post(String path, Object body, Type type, T defaultValue) {
+        return call("POST", path, body, type, defaultValue);
+    }
+
+    public <T> T put(String path, Object body, Type type, T defaultValue) {
+        return call("PUT", path, body, type, defaultValue);
+    }
+
+    private <T> T call(String method, String path, Object body, Type type, T defaultValue) {
+        try {
+            HttpURLConnection conn = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            conn.setRequestMethod(method);
+            conn.setConnectTimeout(connectTimeoutMillis);
+            conn.setReadTimeout(readTimeoutMillis);
+            conn.setRequestProperty("Accept", "application/json");
+            String currentToken = token;
+            if (currentToken != null) {
+                conn.setRequestProperty("Authorization", "Bearer " + currentToken);
+            }
+            if (body != null) {
+                byte[] json = JsonCodec.toJson(body).getBytes(StandardCharsets.UTF_8);
+                conn.setDoOutput(true);
+                conn.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+                conn.setFixedLengthStreamingMode(json.length);
+                try (OutputStream out = conn.getOutputStream()) {
+                    out.write(json);
+                }
+            }
+
+            int status = conn.getResponseCode();
+            if (status >= 200 && status < 300) {
+                T value = JsonCodec.fromJson(readFully(conn.getInputStream()), type);
+                return value != null ? value : defaultValue;
+            }
+            InputStream error = conn.getErrorStream();
+            logger.warn("接口调用失败: {} {} -> {} {}", method, path, status, error != null ? readFully(error) : "");
+        } catch (IOException | RuntimeException e) {
+            logger.error("接口调用异常: {} {}", method, path, e);
+        }
+        // 不调用 disconnect()：响应体已读完并关闭，底层连接留给下次请求复用
+        return defaultValue;
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
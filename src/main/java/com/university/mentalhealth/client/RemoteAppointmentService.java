@@ -0,0 +1,43 @@
+package com.university.mentalhealth.client;
+
+import com.google.gson.reflect.TypeToken;
+import com.university.mentalhealth.entity.Appointment;
+import com.university.mentalhealth.server.ApiMessages;
+import com.university.mentalhealth.service.AppointmentOperations;
+import com.university.mentalhealth.service.AppointmentService.BookingResult;
+import com.university.mentalhealth.service.AppointmentService.BookingStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 瘦客户端的预约服务：所有方法都通过服务器调用，不访问数据库
+ */
+public class RemoteAppointmentService implements AppointmentOperations {
+    private final ApiClient client;
+
+    public RemoteAppointmentService(ApiClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public BookingResult bookAppointment(int timeSlotId, String notes) {
+        ApiMessages.BookingRequest request = new ApiMessages.BookingRequest();
+        request.timeSlotId = timeSlotId;
+        request.notes = notes;
+        // 请求失败时无法确定服务器是否已完成预约，按系统错误返回，界面提示刷新后确认
+        return client.post("/api/appointments", request, BookingResult.class,
+                new BookingResult(BookingStatus.ERROR, null));
+    }
+
+    @Override
+    public boolean cancelAppointment(int appointmentId) {
+        return client.post("/api/appointments/" + appointmentId + "/cancel", null, Boolean.class, false);
+    }
+
+    @Override
+    public List<Appointment> getStudentAppointments() {
+        return client.get("/api/appointments/mine", new TypeToken<List<Appointment>>() {}.getType(),
+                new ArrayList<Appointment>());
+    }
+}
@@ -0,0 +1,86 @@
+package com.university.mentalhealth.client;
+
+import com.google.gson.reflect.TypeToken;
+import com.university.mentalhealth.entity.Assessment;
+import com.university.mentalhealth.entity.AssessmentAnswer;
+import com.university.mentalhealth.entity.AssessmentDetail;
+import com.university.mentalhealth.entity.AssessmentQuestion;
+import com.university.mentalhealth.entity.AssessmentSession;
+import com.university.mentalhealth.server.ApiMessages;
+import com.university.mentalhealth.service.AssessmentOperations;
+import com.university.mentalhealth.service.AssessmentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 瘦客户端的测评服务：读写数据的方法通过服务器调用；
+ * startAssessmentSession、风险等级和结果解释不访问数据库，交给本地的 AssessmentService 计算
+ */
+public class RemoteAssessmentService implements AssessmentOperations {
+    private final ApiClient client;
+    // 只用于上述不访问数据库的方法
+    private final AssessmentService scoring = new AssessmentService();
+
+    public RemoteAssessmentService(ApiClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public List<Assessment> getAvailableAssessments() {
+        return client.get("/api/assessments", new TypeToken<List<Assessment>>() {}.getType(),
+                new ArrayList<Assessment>());
+    }
+
+    @Override
+    public Optional<Assessment> getAssessmentById(int assessmentId) {
+        return Optional.ofNullable(client.get("/api/assessments/" + assessmentId, Assessment.class, null));
+    }
+
+    @Override
+    public List<AssessmentQuestion> getAssessmentQuestions(int assessmentId) {
+        return client.get("/api/assessments/" + assessmentId + "/questions",
+                new TypeToken<List<AssessmentQuestion>>() {}.getType(), new ArrayList<AssessmentQuestion>());
+    }
+
+    @Override
+    public boolean hasCompletedAssessment(int assessmentId) {
+        return client.get("/api/assessments/" + assessmentId + "/completed", Boolean.class, false);
+    }
+
+    @Override
+    public AssessmentSession startAssessmentSession(int assessmentId) {
+        return scoring.startAssessmentSession(assessmentId);
+    }
+
+    @Override
+    public AssessmentSession submitAssessment(AssessmentSession session, List<AssessmentAnswer> answers) {
+        ApiMessages.SubmitAssessmentRequest request = new ApiMessages.SubmitAssessmentRequest();
+        request.session = session;
+        request.answers = answers;
+        return client.post("/api/assessment-sessions", request, AssessmentSession.class, null);
+    }
+
+    @Override
+    public List<AssessmentSession> getStudentAssessmentHistory() {
+        return client.get("/api/assessment-sessions/mine", new TypeToken<List<AssessmentSession>>() {}.getType(),
+                new ArrayList<AssessmentSession>());
+    }
+
+    @Override
+    public List<AssessmentDetail> getAssessmentDetails(int sessionId) {
+        return client.get("/api/assessment-sessions/" + sessionId + "/details",
+                new TypeToken<List<AssessmentDetail>>() {}.getType(), new ArrayList<AssessmentDetail>());
+    }
+
+    @Override
+    public String getRiskLevel(Assessment assessment, int totalScore) {
+        return scoring.getRiskLevel(assessment, totalScore);
+    }
+
+    @Override
+    public String getDetailedAssessmentResult(Assessment assessment, int totalScore) {
+        return scoring.getDetailedAssessmentResult(assessment, totalScore);
+    }
+}
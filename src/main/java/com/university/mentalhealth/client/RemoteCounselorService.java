@@ -0,0 +1,25 @@
+package com.university.mentalhealth.client;
+
+import com.google.gson.reflect.TypeToken;
+import com.university.mentalhealth.entity.Counselor;
+import com.university.mentalhealth.service.CounselorOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 瘦客户端的咨询师服务：通过服务器调用，不访问数据库
+ */
+public class RemoteCounselorService implements CounselorOperations {
+    private final ApiClient client;
+
+    public RemoteCounselorService(ApiClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public List<Counselor> getAvailableCounselors() {
+        return client.get("/api/counselors/available", new TypeToken<List<Counselor>>() {}.getType(),
+                new ArrayList<Counselor>());
+    }
+}
@@ -0,0 +1,32 @@
+package com.university.mentalhealth.client;
+
+import com.university.mentalhealth.entity.Student;
+import com.university.mentalhealth.server.ApiMessages;
+import com.university.mentalhealth.service.StudentOperations;
+
+import java.util.Optional;
+
+/**
+ * 瘦客户端的学生服务：所有方法都通过服务器调用，不访问数据库
+ */
+public class RemoteStudentService implements StudentOperations {
+    private final ApiClient client;
+
+    public RemoteStudentService(ApiClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Optional<Student> getCurrentStudent() {
+        return Optional.ofNullable(client.get("/api/students/me", Student.class, null));
+    }
+
+    @Override
+    public boolean updateContactInfo(String contactPhone, String emergencyContact, String emergencyPhone) {
+        ApiMessages.ContactInfoRequest request = new ApiMessages.ContactInfoRequest();
+        request.contactPhone = contactPhone;
+        request.emergencyContact = emergencyContact;
+        request.emergencyPhone = emergencyPhone;
+        return client.put("/api/students/me/contact", request, Boolean.class, false);
+    }
+}
@@ -0,0 +1,26 @@
+package com.university.mentalhealth.client;
+
+import com.google.gson.reflect.TypeToken;
+import com.university.mentalhealth.entity.TimeSlot;
+import com.university.mentalhealth.service.TimeSlotOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 瘦客户端的时间段服务：通过服务器调用，不访问数据库
+ */
+public class RemoteTimeSlotService implements TimeSlotOperations {
+    private final ApiClient client;
+
+    public RemoteTimeSlotService(ApiClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public List<TimeSlot> getBookableTimeSlots(int counselorId, LocalDateTime startDate, LocalDateTime endDate) {
+        return client.get("/api/timeslots/bookable?counselorId=" + counselorId + "&from=" + startDate + "&to=" + endDate,
+                new TypeToken<List<TimeSlot>>() {}.getType(), new ArrayList<TimeSlot>());
+    }
+}
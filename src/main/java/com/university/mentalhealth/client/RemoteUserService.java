@@ -0,0 +1,44 @@
+package com.university.mentalhealth.client;
+
+import com.university.mentalhealth.entity.User;
+import com.university.mentalhealth.entity.UserType;
+import com.university.mentalhealth.server.ApiMessages;
+import com.university.mentalhealth.service.UserOperations;
+import com.university.mentalhealth.util.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 瘦客户端的用户服务：登录和登出通过服务器完成，不访问数据库。
+ * 登录成功后保存令牌，并在本地建立默认会话，界面照常通过 SessionManager 判断用户类型
+ */
+public class RemoteUserService implements UserOperations {
+    private static final Logger logger = LoggerFactory.getLogger(RemoteUserService.class);
+
+    private final ApiClient client;
+
+    public RemoteUserService(ApiClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public boolean login(String username, String password, UserType expectedType) {
+        ApiMessages.LoginResponse response = client.login(username, password, expectedType);
+        if (response == null) {
+            return false;
+        }
+        User user = new User(response.userId, response.username, null, response.type, null);
+        SessionManager.login(user, response.type);
+        logger.info("登录成功: {} (服务器 {})", username, client.getBaseUrl());
+        return true;
+    }
+
+    @Override
+    public void logout() {
+        if (SessionManager.isLoggedIn()) {
+            client.post("/api/logout", null, Boolean.class, false);
+            client.setToken(null);
+            SessionManager.logout();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.university.mentalhealth.client;
+
+import com.university.mentalhealth.service.AppointmentOperations;
+import com.university.mentalhealth.service.AppointmentService;
+import com.university.mentalhealth.service.AssessmentOperations;
+import com.university.mentalhealth.service.AssessmentService;
+import com.university.mentalhealth.service.CounselorOperations;
+import com.university.mentalhealth.service.CounselorService;
+import com.university.mentalhealth.service.StudentOperations;
+import com.university.mentalhealth.service.StudentService;
+import com.university.mentalhealth.service.TimeSlotOperations;
+import com.university.mentalhealth.service.TimeSlotService;
+import com.university.mentalhealth.service.UserOperations;
+import com.university.mentalhealth.service.UserService;
+
+/**
+ * 学生界面获取服务对象的入口，返回只包含学生界面所用方法的 *Operations 接口。
+ * 配置了 client.serverUrl 时返回通过服务器调用的瘦客户端实现（Remote*Service），
+ * 否则返回直接访问数据库的本地服务
+ */
+public final class ServiceFactory {
+    private ServiceFactory() {
+    }
+
+    public static boolean isThinClient() {
+        return ApiClient.getInstance().isEnabled();
+    }
+
+    public static UserOperations userService() {
+        return isThinClient() ? new RemoteUserService(ApiClient.getInstance()) : new UserService();
+    }
+
+    public static AppointmentOperations appointmentService() {
+        return isThinClient() ? new RemoteAppointmentService(ApiClient.getInstance()) : new AppointmentService();
+    }
+
+    public static TimeSlotOperations timeSlotService() {
+        return isThinClient() ? new RemoteTimeSlotService(ApiClient.getInstance()) : new TimeSlotService();
+    }
+
+    public static CounselorOperations counselorService() {
+        return isThinClient() ? new RemoteCounselorService(ApiClient.getInstance()) : new CounselorService();
+    }
+
+    public static StudentOperations studentService() {
+        return isThinClient() ? new RemoteStudentService(ApiClient.getInstance()) : new StudentService();
+    }
+
+    public static AssessmentOperations assessmentService() {
+        return isThinClient() ? new RemoteAssessmentService(ApiClient.getInstance()) : new AssessmentService();
+    }
+}
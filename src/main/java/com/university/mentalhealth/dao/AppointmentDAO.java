@@ -2,16 +2,22 @@ package com.university.mentalhealth.dao;
 
 import com.university.mentalhealth.entity.Appointment;
 import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class AppointmentDAO implements BaseDAO<Appointment> {
-    private static final Logger logger = Logger.getLogger(AppointmentDAO.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentDAO.class);
 
     @Override
     public Optional<Appointment> findById(int id) {
@@ -38,7 +44,7 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
                 return Optional.of(appointment);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据ID查询预约失败", e);
+            logger.error("根据ID查询预约失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -72,7 +78,7 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
                 appointments.add(appointment);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据学生ID查询预约失败", e);
+            logger.error("根据学生ID查询预约失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -106,7 +112,7 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
                 appointments.add(appointment);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据咨询师ID查询预约失败", e);
+            logger.error("根据咨询师ID查询预约失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -140,7 +146,7 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
                 appointments.add(appointment);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "查询所有预约失败", e);
+            logger.error("查询所有预约失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -149,6 +155,21 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
         return appointments;
     }
 
+    /**
+     * 流式遍历所有预约（用于导出），不在内存中保留整个列表
+     */
+    @Override
+    public int streamAll(Consumer<? super Appointment> consumer) {
+        String sql = "SELECT a.*, s.name as student_name, c.name as counselor_name, " +
+                "ts.start_time, ts.end_time " +
+                "FROM appointments a " +
+                "LEFT JOIN students s ON a.student_id = s.user_id " +
+                "LEFT JOIN counselors c ON a.counselor_id = c.user_id " +
+                "LEFT JOIN counselor_time_slots ts ON a.time_slot_id = ts.id " +
+                "ORDER BY a.id";
+        return StreamingQuery.stream(sql, this::extractAppointmentFromResultSet, consumer);
+    }
+
     @Override
     public boolean save(Appointment appointment) {
         String sql = "INSERT INTO appointments (student_id, counselor_id, time_slot_id, status, notes) " +
@@ -171,13 +192,13 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         appointment.setId(generatedKeys.getInt(1));
-                        logger.info("预约保存成功: appointment_id=" + appointment.getId());
+                        logger.info("预约保存成功: appointment_id={}", appointment.getId());
                         return true;
                     }
                 }
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "保存预约失败", e);
+            logger.error("保存预约失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -201,11 +222,11 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("预约更新成功: appointment_id=" + appointment.getId());
+                logger.info("预约更新成功: appointment_id={}", appointment.getId());
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新预约失败", e);
+            logger.error("更新预约失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -227,11 +248,11 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("预约状态更新成功: appointment_id=" + appointmentId + ", status=" + status);
+                logger.info("预约状态更新成功: appointment_id={}, status={}", appointmentId, status);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新预约状态失败", e);
+            logger.error("更新预约状态失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -253,11 +274,11 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("预约删除成功: appointment_id=" + id);
+                logger.info("预约删除成功: appointment_id={}", id);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "删除预约失败", e);
+            logger.error("删除预约失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -265,6 +286,231 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
         return false;
     }
 
+    /**
+     * 按条件查询预约（状态、咨询师、学生、时间范围都在 SQL 中过滤），按预约时间排序
+     */
+    public List<Appointment> findByQuery(AppointmentQuery query) {
+        List<Appointment> appointments = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT a.*, s.name as student_name, c.name as counselor_name, " +
+                "ts.start_time, ts.end_time " +
+                "FROM appointments a " +
+                "LEFT JOIN students s ON a.student_id = s.user_id " +
+                "LEFT JOIN counselors c ON a.counselor_id = c.user_id " +
+                "LEFT JOIN counselor_time_slots ts ON a.time_slot_id = ts.id " +
+                buildWhereClause(query, params) +
+                " ORDER BY ts.start_time DESC, a.id DESC";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            bindParameters(pstmt, params);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Appointment appointment = extractAppointmentFromResultSet(rs);
+                appointments.add(appointment);
+            }
+        } catch (SQLException e) {
+            logger.error("按条件查询预约失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return appointments;
+    }
+
+    /**
+     * 当前的变更位置，用于全量加载之后的增量查询；失败返回 null
+     */
+    public ChangeToken currentChangeToken() {
+        return ChangeTracking.currentToken();
+    }
+
+    /**
+     * 查询 token 之后新增、修改或删除的预约（不按状态过滤，由调用方决定如何应用），
+     * counselorId 为 null 表示所有咨询师；token 过期时返回的 nextToken 为 null，失败返回 null
+     */
+    public ChangeSet<Appointment> findChangesSince(Integer counselorId, ChangeToken token) {
+        List<Appointment> changed = new ArrayList<>();
+        String sql = "SELECT a.*, s.name as student_name, c.name as counselor_name, " +
+                "ts.start_time, ts.end_time " +
+                "FROM appointments a " +
+                "LEFT JOIN students s ON a.student_id = s.user_id " +
+                "LEFT JOIN counselors c ON a.counselor_id = c.user_id " +
+                "LEFT JOIN counselor_time_slots ts ON a.time_slot_id = ts.id " +
+                "WHERE a.id IN (";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            ChangeTracking.ChangedRows rows = ChangeTracking.readChanges(conn, token);
+            Set<Integer> changedIds = rows.rowIds("appointments");
+
+            // 变更日志中有记录、但已查不到的行就是被删除的行
+            Set<Integer> deletedIds = new HashSet<>(changedIds);
+            for (List<Integer> batch : ChangeTracking.batches(changedIds)) {
+                pstmt = conn.prepareStatement(sql + ChangeTracking.placeholders(batch.size()) + ") ORDER BY a.id");
+                for (int i = 0; i < batch.size(); i++) {
+                    pstmt.setInt(i + 1, batch.get(i));
+                }
+                rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    Appointment appointment = extractAppointmentFromResultSet(rs);
+                    deletedIds.remove(appointment.getId());
+                    if (counselorId == null || counselorId.equals(appointment.getCounselorId())) {
+                        changed.add(appointment);
+                    }
+                }
+                DatabaseUtil.closeResultSet(rs);
+                DatabaseUtil.closeStatement(pstmt);
+            }
+            return new ChangeSet<>(changed, new ArrayList<>(deletedIds), rows.nextToken);
+        } catch (SQLException e) {
+            logger.error("查询预约变更失败", e);
+            return null;
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+
+    /**
+     * 按条件分页查询预约（键集分页，按预约时间倒序），cursor 为 null 时查询第一页。
+     * 与其他预约查询一样使用 LEFT JOIN，时间段已被删除的预约（预约时间为 NULL）排在最后。
+     * 第一页且无筛选条件时附带总行数估计值
+     */
+    public Page<Appointment> findPage(AppointmentQuery query, PageCursor cursor, int pageSize) {
+        List<Appointment> appointments = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT a.*, s.name as student_name, c.name as counselor_name, " +
+                "ts.start_time, ts.end_time " +
+                "FROM appointments a " +
+                "LEFT JOIN students s ON a.student_id = s.user_id " +
+                "LEFT JOIN counselors c ON a.counselor_id = c.user_id " +
+                "LEFT JOIN counselor_time_slots ts ON a.time_slot_id = ts.id ");
+        sql.append(buildWhereClause(query, params));
+        if (cursor != null && cursor.getSortValue() != null) {
+            sql.append(" AND (ts.start_time < ? OR (ts.start_time = ? AND a.id < ?) OR ts.start_time IS NULL)");
+            params.add(cursor.getSortValue());
+            params.add(cursor.getSortValue());
+            params.add(cursor.getLastId());
+        } else if (cursor != null) {
+            sql.append(" AND ts.start_time IS NULL AND a.id < ?");
+            params.add(cursor.getLastId());
+        }
+        sql.append(" ORDER BY ts.start_time IS NULL, ts.start_time DESC, a.id DESC LIMIT ?");
+        params.add(pageSize + 1);
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql.toString());
+            bindParameters(pstmt, params);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Appointment appointment = extractAppointmentFromResultSet(rs);
+                appointments.add(appointment);
+            }
+        } catch (SQLException e) {
+            logger.error("分页查询预约失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+
+        long estimatedTotal = (cursor == null && query.isUnfiltered()) ? DatabaseUtil.estimateRowCount("appointments") : -1;
+        return Page.fromRows(appointments, pageSize, last -> new PageCursor(
+                last.getStartTime() != null ? Timestamp.valueOf(last.getStartTime()) : null, last.getId()), estimatedTotal);
+    }
+
+    /**
+     * 按条件统计各状态的预约数量（GROUP BY status），只返回数量不返回预约记录。
+     * 没有时间范围条件时不关联时间段表
+     */
+    public Map<String, Integer> countByStatus(AppointmentQuery query) {
+        Map<String, Integer> counts = new HashMap<>();
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT a.status, COUNT(*) AS cnt FROM appointments a " +
+                (query.hasTimeRange() ? "JOIN counselor_time_slots ts ON a.time_slot_id = ts.id " : "") +
+                buildWhereClause(query, params) +
+                " GROUP BY a.status";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            bindParameters(pstmt, params);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                counts.put(rs.getString("status"), rs.getInt("cnt"));
+            }
+        } catch (SQLException e) {
+            logger.error("统计预约状态数量失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return counts;
+    }
+
+    /**
+     * 根据查询条件生成 WHERE 子句（表别名 a 为预约表，ts 为时间段表），参数按顺序加入 params
+     */
+    private String buildWhereClause(AppointmentQuery query, List<Object> params) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (query.getCounselorId() != null) {
+            where.append(" AND a.counselor_id = ?");
+            params.add(query.getCounselorId());
+        }
+        if (query.getStudentId() != null) {
+            where.append(" AND a.student_id = ?");
+            params.add(query.getStudentId());
+        }
+        if (!query.getStatuses().isEmpty()) {
+            where.append(" AND a.status IN (");
+            for (int i = 0; i < query.getStatuses().size(); i++) {
+                where.append(i == 0 ? "?" : ", ?");
+                params.add(query.getStatuses().get(i));
+            }
+            where.append(")");
+        }
+        if (query.getFrom() != null) {
+            where.append(" AND ts.start_time >= ?");
+            params.add(Timestamp.valueOf(query.getFrom()));
+        }
+        if (query.getTo() != null) {
+            where.append(" AND ts.start_time < ?");
+            params.add(Timestamp.valueOf(query.getTo()));
+        }
+        return where.toString();
+    }
+
+    private void bindParameters(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
     public boolean isTimeSlotBooked(int timeSlotId) {
         String sql = "SELECT COUNT(*) FROM appointments WHERE time_slot_id = ? AND status IN ('pending', 'confirmed')";
 
@@ -282,7 +528,7 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
                 return rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "检查时间段是否被预约失败", e);
+            logger.error("检查时间段是否被预约失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -291,7 +537,293 @@ public class AppointmentDAO implements BaseDAO<Appointment> {
         return false;
     }
 
-    private Appointment extractAppointmentFromResultSet(ResultSet rs) throws SQLException {
+    /**
+     * 查询学生从指定时间起所有未取消预约的时间区间（不关联学生和咨询师信息），
+     * 用于构建预约冲突检查的区间索引
+     */
+    public List<Appointment> findActiveIntervalsByStudentId(int studentId, LocalDateTime from) {
+        List<Appointment> appointments = new ArrayList<>();
+        String sql = "SELECT a.id, a.student_id, a.counselor_id, a.time_slot_id, a.status, ts.start_time, ts.end_time " +
+                "FROM appointments a " +
+                "JOIN counselor_time_slots ts ON a.time_slot_id = ts.id " +
+                "WHERE a.student_id = ? AND a.status != 'cancelled' AND ts.end_time > ?";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, studentId);
+            pstmt.setTimestamp(2, Timestamp.valueOf(from));
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Appointment appointment = new Appointment();
+                appointment.setId(rs.getInt("id"));
+                appointment.setStudentId(rs.getInt("student_id"));
+                appointment.setCounselorId(rs.getInt("counselor_id"));
+                appointment.setTimeSlotId(rs.getInt("time_slot_id"));
+                appointment.setStatus(rs.getString("status"));
+                appointment.setStartTime(rs.getTimestamp("start_time").toLocalDateTime());
+                appointment.setEndTime(rs.getTimestamp("end_time").toLocalDateTime());
+                appointments.add(appointment);
+            }
+        } catch (SQLException e) {
+            logger.error("查询学生预约时间区间失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return appointments;
+    }
+
+    /**
+     * 预约时间段的结果
+     */
+    public enum ReservationStatus {
+        BOOKED,         // 预约成功
+        ALREADY_TAKEN,  // 时间段已被预约或不可用
+        CONFLICT,       // 与学生已有预约时间冲突
+        NOT_FOUND,      // 时间段不存在
+        ERROR           // 数据库出错（连接池耗尽、死锁、表缺失等），事务已回滚，时间段是否可用未知
+    }
+
+    /**
+     * 预约状态变更的结果
+     */
+    public enum TransitionStatus {
+        UPDATED,    // 变更成功
+        REJECTED,   // 当前状态不允许变更，或无权操作该预约
+        NOT_FOUND   // 预约不存在
+    }
+
+    /**
+     * 在同一事务中占用时间段并创建预约。
+     * 先用条件更新抢占 counselor_time_slots 行（status='available' 才能更新成功），
+     * 抢占成功后插入预约记录，并发请求中只有一个能够成功。
+     * 插入前在同一事务中检查该学生是否已有与该时间段重叠的未取消预约，有则回滚并返回 CONFLICT。
+     * 事务开始时锁定学生行（students ... FOR UPDATE），同一学生的并发预约（包括其他进程发起的）依次执行，
+     * 后执行的一定能查到先提交的预约。
+     * 成功时会回填 appointment 的 id、counselorId、startTime 和 endTime。
+     */
+    public ReservationStatus reserveTimeSlot(Appointment appointment) {
+        String lockStudentSql = "SELECT user_id FROM students WHERE user_id = ? FOR UPDATE";
+        String claimSql = "UPDATE counselor_time_slots SET status = 'booked' WHERE id = ? AND status = 'available'";
+        String slotSql = "SELECT counselor_id, start_time, end_time FROM counselor_time_slots WHERE id = ?";
+        String conflictSql = "SELECT 1 FROM appointments a " +
+                "JOIN counselor_time_slots ts ON a.time_slot_id = ts.id " +
+                "WHERE a.student_id = ? AND a.status != 'cancelled' AND ts.start_time < ? AND ts.end_time > ?";
+        String insertSql = "INSERT INTO appointments (student_id, counselor_id, time_slot_id, status, notes) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            // 必须是事务中的第一条语句：MySQL 可重复读隔离级别在第一次普通读取时建立快照，
+            // 先拿到学生锁再读取，才能看到刚释放该锁的事务提交的预约
+            pstmt = conn.prepareStatement(lockStudentSql);
+            pstmt.setInt(1, appointment.getStudentId());
+            rs = pstmt.executeQuery();
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+
+            pstmt = conn.prepareStatement(claimSql);
+            pstmt.setInt(1, appointment.getTimeSlotId());
+            int claimed = pstmt.executeUpdate();
+            DatabaseUtil.closeStatement(pstmt);
+
+            if (claimed == 0) {
+                conn.rollback();
+                return timeSlotExists(conn, appointment.getTimeSlotId()) ?
+                        ReservationStatus.ALREADY_TAKEN : ReservationStatus.NOT_FOUND;
+            }
+
+            pstmt = conn.prepareStatement(slotSql);
+            pstmt.setInt(1, appointment.getTimeSlotId());
+            rs = pstmt.executeQuery();
+            if (rs.next()) {
+                appointment.setCounselorId(rs.getInt("counselor_id"));
+                appointment.setStartTime(rs.getTimestamp("start_time").toLocalDateTime());
+                appointment.setEndTime(rs.getTimestamp("end_time").toLocalDateTime());
+            }
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+
+            pstmt = conn.prepareStatement(conflictSql);
+            pstmt.setInt(1, appointment.getStudentId());
+            pstmt.setTimestamp(2, Timestamp.valueOf(appointment.getEndTime()));
+            pstmt.setTimestamp(3, Timestamp.valueOf(appointment.getStartTime()));
+            rs = pstmt.executeQuery();
+            boolean conflict = rs.next();
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            if (conflict) {
+                conn.rollback();
+                return ReservationStatus.CONFLICT;
+            }
+
+            pstmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+            pstmt.setInt(1, appointment.getStudentId());
+            pstmt.setInt(2, appointment.getCounselorId());
+            pstmt.setInt(3, appointment.getTimeSlotId());
+            pstmt.setString(4, appointment.getStatus());
+            pstmt.setString(5, appointment.getNotes());
+            pstmt.executeUpdate();
+
+            rs = pstmt.getGeneratedKeys();
+            if (!rs.next()) {
+                conn.rollback();
+                logger.error("预约保存失败: 未返回预约ID, time_slot_id={}", appointment.getTimeSlotId());
+                return ReservationStatus.ERROR;
+            }
+            appointment.setId(rs.getInt(1));
+
+            // 通知记录与预约在同一事务中写入，预约提交成功就一定会投递通知
+            OutboxDAO.enqueue(conn, appointment.getId(), "created");
+
+            conn.commit();
+            logger.info("预约保存成功: appointment_id={}", appointment.getId());
+            return ReservationStatus.BOOKED;
+        } catch (SQLException e) {
+            DatabaseUtil.rollback(conn);
+            logger.error("预约时间段失败: time_slot_id={}", appointment.getTimeSlotId(), e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return ReservationStatus.ERROR;
+    }
+
+    /**
+     * 在同一事务中按条件变更预约状态。
+     * 只有当前状态属于 fromStatuses（且 studentId/counselorId 不为 null 时归属匹配）才会更新，
+     * releaseTimeSlot 为 true 时同时把对应时间段恢复为可预约。
+     * 同一事务中写入一条通知发件箱记录，事件类型为新的状态。
+     */
+    public TransitionStatus transitionStatus(int appointmentId, String toStatus, List<String> fromStatuses,
+                                             Integer studentId, Integer counselorId, boolean releaseTimeSlot) {
+        return transitionStatus(appointmentId, toStatus, fromStatuses, studentId, counselorId, releaseTimeSlot, null);
+    }
+
+    /**
+     * 同 {@link #transitionStatus(int, String, List, Integer, Integer, boolean)}，
+     * 变更成功且 updated 不为 null 时，回填该预约的 id、studentId、counselorId、timeSlotId 和新状态
+     * （在同一事务中读取，调用方不必再查一次库就能知道预约属于哪个学生）
+     */
+    public TransitionStatus transitionStatus(int appointmentId, String toStatus, List<String> fromStatuses,
+                                             Integer studentId, Integer counselorId, boolean releaseTimeSlot,
+                                             Appointment updated) {
+        StringBuilder sql = new StringBuilder("UPDATE appointments SET status = ? WHERE id = ? AND status IN (");
+        for (int i = 0; i < fromStatuses.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        if (studentId != null) {
+            sql.append(" AND student_id = ?");
+        }
+        if (counselorId != null) {
+            sql.append(" AND counselor_id = ?");
+        }
+        String releaseSql = "UPDATE counselor_time_slots SET status = 'available' " +
+                "WHERE id = (SELECT time_slot_id FROM appointments WHERE id = ?) AND status = 'booked'";
+        String ownerSql = "SELECT student_id, counselor_id, time_slot_id FROM appointments WHERE id = ?";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            pstmt = conn.prepareStatement(sql.toString());
+            int index = 1;
+            pstmt.setString(index++, toStatus);
+            pstmt.setInt(index++, appointmentId);
+            for (String fromStatus : fromStatuses) {
+                pstmt.setString(index++, fromStatus);
+            }
+            if (studentId != null) {
+                pstmt.setInt(index++, studentId);
+            }
+            if (counselorId != null) {
+                pstmt.setInt(index, counselorId);
+            }
+            int affectedRows = pstmt.executeUpdate();
+            DatabaseUtil.closeStatement(pstmt);
+
+            if (affectedRows == 0) {
+                conn.rollback();
+                return appointmentExists(conn, appointmentId) ? TransitionStatus.REJECTED : TransitionStatus.NOT_FOUND;
+            }
+
+            if (releaseTimeSlot) {
+                pstmt = conn.prepareStatement(releaseSql);
+                pstmt.setInt(1, appointmentId);
+                pstmt.executeUpdate();
+                DatabaseUtil.closeStatement(pstmt);
+            }
+
+            if (updated != null) {
+                // 预约行已被本事务更新并锁定，读到的归属与刚才的变更一致
+                pstmt = conn.prepareStatement(ownerSql);
+                pstmt.setInt(1, appointmentId);
+                rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    updated.setId(appointmentId);
+                    updated.setStudentId(rs.getInt("student_id"));
+                    updated.setCounselorId(rs.getInt("counselor_id"));
+                    updated.setTimeSlotId(rs.getInt("time_slot_id"));
+                    updated.setStatus(toStatus);
+                }
+                DatabaseUtil.closeResultSet(rs);
+                DatabaseUtil.closeStatement(pstmt);
+            }
+
+            OutboxDAO.enqueue(conn, appointmentId, toStatus);
+
+            conn.commit();
+            logger.info("预约状态更新成功: appointment_id={}, status={}", appointmentId, toStatus);
+            return TransitionStatus.UPDATED;
+        } catch (SQLException e) {
+            DatabaseUtil.rollback(conn);
+            logger.error("更新预约状态失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return TransitionStatus.REJECTED;
+    }
+
+    private boolean timeSlotExists(Connection conn, int timeSlotId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM counselor_time_slots WHERE id = ?")) {
+            pstmt.setInt(1, timeSlotId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private boolean appointmentExists(Connection conn, int appointmentId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM appointments WHERE id = ?")) {
+            pstmt.setInt(1, appointmentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    Appointment extractAppointmentFromResultSet(ResultSet rs) throws SQLException {
         Appointment appointment = new Appointment();
         appointment.setId(rs.getInt("id"));
         appointment.setStudentId(rs.getInt("student_id"));
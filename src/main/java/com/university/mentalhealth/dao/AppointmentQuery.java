@@ -0,0 +1,60 @@
+package com.university.mentalhealth.dao;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 预约查询条件，所有条件均可为空，为空表示不限制。
+ * 时间范围按预约时间段的开始时间过滤：from <= start_time < to
+ */
+public class AppointmentQuery {
+    private Integer counselorId;
+    private Integer studentId;
+    private List<String> statuses = Collections.emptyList();
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public static AppointmentQuery all() {
+        return new AppointmentQuery();
+    }
+
+    public static AppointmentQuery forCounselor(int counselorId) {
+        AppointmentQuery query = new AppointmentQuery();
+        query.counselorId = counselorId;
+        return query;
+    }
+
+    public static AppointmentQuery forStudent(int studentId) {
+        AppointmentQuery query = new AppointmentQuery();
+        query.studentId = studentId;
+        return query;
+    }
+
+    public AppointmentQuery withStatuses(String... statuses) {
+        this.statuses = new ArrayList<>(Arrays.asList(statuses));
+        return this;
+    }
+
+    public AppointmentQuery between(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+
+    public boolean isUnfiltered() {
+        return counselorId == null && studentId == null && statuses.isEmpty() && !hasTimeRange();
+    }
+
+    public Integer getCounselorId() { return counselorId; }
+    public Integer getStudentId() { return studentId; }
+    public List<String> getStatuses() { return statuses; }
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+}
@@ -5,14 +5,15 @@ import com.university.mentalhealth.entity.AssessmentQuestion;
 import com.university.mentalhealth.entity.AssessmentSession;
 import com.university.mentalhealth.entity.AssessmentAnswer;
 import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.*;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.function.Consumer;
 
 public class AssessmentDAO {
-    private static final Logger logger = Logger.getLogger(AssessmentDAO.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(AssessmentDAO.class);
 
     // Assessment 相关方法
     public List<Assessment> getAllAssessments() {
@@ -25,36 +26,26 @@ public class AssessmentDAO {
         try {
             conn = DatabaseUtil.getConnection();
             if (conn == null) {
-                logger.severe("数据库连接为null");
+                logger.error("数据库连接为null");
                 return assessments;
             }
             if (conn.isClosed()) {
-                logger.severe("数据库连接已关闭");
+                logger.error("数据库连接已关闭");
                 return assessments;
             }
 
-            logger.info("执行SQL: " + sql);
             pstmt = conn.prepareStatement(sql);
             rs = pstmt.executeQuery();
 
-            int count = 0;
             while (rs.next()) {
-                count++;
                 Assessment assessment = extractAssessmentFromResultSet(rs);
                 assessments.add(assessment);
-                logger.info("成功加载量表: " + assessment.getName() +
-                        ", ID: " + assessment.getId() +
-                        ", 状态: " + rs.getBoolean("is_active"));
             }
 
-            logger.info("数据库查询完成，找到 " + count + " 个量表");
+            logger.debug("数据库查询完成，找到 {} 个量表", assessments.size());
 
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "数据库查询失败", e);
-            // 添加详细的错误信息
-            logger.severe("SQLState: " + e.getSQLState());
-            logger.severe("Error Code: " + e.getErrorCode());
-            logger.severe("Message: " + e.getMessage());
+            logger.error("数据库查询失败: SQLState={}, ErrorCode={}", e.getSQLState(), e.getErrorCode(), e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -81,7 +72,7 @@ public class AssessmentDAO {
                 return Optional.of(assessment);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据ID获取测评量表失败", e);
+            logger.error("根据ID获取测评量表失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -110,7 +101,40 @@ public class AssessmentDAO {
                 questions.add(question);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "获取测评题目失败", e);
+            logger.error("获取测评题目失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+
+        return questions;
+    }
+
+    /**
+     * 一次查询出所有启用量表的题目，按量表ID和题目顺序排序（用于预热量表缓存）
+     */
+    public List<AssessmentQuestion> getAllActiveQuestions() {
+        List<AssessmentQuestion> questions = new ArrayList<>();
+        String sql = "SELECT q.* FROM assessment_questions q " +
+                "JOIN assessments a ON q.assessment_id = a.id " +
+                "WHERE a.is_active = true " +
+                "ORDER BY q.assessment_id, q.question_order";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                AssessmentQuestion question = extractQuestionFromResultSet(rs);
+                questions.add(question);
+            }
+        } catch (SQLException e) {
+            logger.error("获取全部测评题目失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -141,19 +165,19 @@ public class AssessmentDAO {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         session.setId(generatedKeys.getInt(1));
-                        logger.info("测评会话保存成功: session_id=" + session.getId());
+                        logger.info("测评会话保存成功: session_id={}", session.getId());
                         return true;
                     }
                 }
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "保存测评会话失败", e);
+            logger.error("保存测评会话失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        logger.warning("保存测评会话失败");
+        logger.warn("保存测评会话失败");
         return false;
     }
 
@@ -179,10 +203,10 @@ public class AssessmentDAO {
             }
 
             int[] results = pstmt.executeBatch();
-            logger.info("保存测评答案成功，共保存 " + results.length + " 个答案");
+            logger.info("保存测评答案成功，共保存 {} 个答案", results.length);
             return true;
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "保存测评答案失败", e);
+            logger.error("保存测评答案失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -214,7 +238,7 @@ public class AssessmentDAO {
                 sessions.add(session);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "获取学生测评历史失败", e);
+            logger.error("获取学生测评历史失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -224,6 +248,30 @@ public class AssessmentDAO {
         return sessions;
     }
 
+    /**
+     * 流式遍历所有测评记录（用于导出和统计分析），不在内存中保留整个列表
+     *
+     * @return 处理的记录数，查询失败返回 -1
+     */
+    public int streamSessions(Consumer<? super AssessmentSession> consumer) {
+        String sql = "SELECT s.*, a.name as assessment_name " +
+                "FROM assessment_sessions s " +
+                "JOIN assessments a ON s.assessment_id = a.id " +
+                "ORDER BY s.id";
+        return StreamingQuery.stream(sql, this::extractSessionFromResultSet, consumer);
+    }
+
+    /**
+     * 流式遍历所有答题记录（按测评记录分组顺序），不在内存中保留整个列表
+     *
+     * @return 处理的记录数，查询失败返回 -1
+     */
+    public int streamAnswers(Consumer<? super AssessmentAnswer> consumer) {
+        String sql = "SELECT id, session_id, question_id, answer_value FROM assessment_answers " +
+                "ORDER BY session_id, id";
+        return StreamingQuery.stream(sql, this::extractAnswerFromResultSet, consumer);
+    }
+
     // 提取方法
     private Assessment extractAssessmentFromResultSet(ResultSet rs) throws SQLException {
         Assessment assessment = new Assessment();
@@ -241,13 +289,13 @@ public class AssessmentDAO {
             boolean isActive = rs.getBoolean("is_active");
             // 如果需要，可以在Assessment实体类中添加这个字段
         } catch (SQLException e) {
-            logger.warning("is_active字段不存在或无法访问: " + e.getMessage());
+            logger.warn("is_active字段不存在或无法访问: {}", e.getMessage());
         }
 
         return assessment;
     }
 
-    private AssessmentQuestion extractQuestionFromResultSet(ResultSet rs) throws SQLException {
+    AssessmentQuestion extractQuestionFromResultSet(ResultSet rs) throws SQLException {
         AssessmentQuestion question = new AssessmentQuestion();
         question.setId(rs.getInt("id"));
         question.setAssessmentId(rs.getInt("assessment_id"));
@@ -257,6 +305,16 @@ public class AssessmentDAO {
         return question;
     }
 
+    private AssessmentAnswer extractAnswerFromResultSet(ResultSet rs) throws SQLException {
+        AssessmentAnswer answer = new AssessmentAnswer();
+        answer.setId(rs.getInt("id"));
+        answer.setSessionId(rs.getInt("session_id"));
+        answer.setQuestionId(rs.getInt("question_id"));
+        int value = rs.getInt("answer_value");
+        answer.setAnswerValue(rs.wasNull() ? null : value);
+        return answer;
+    }
+
     private AssessmentSession extractSessionFromResultSet(ResultSet rs) throws SQLException {
         AssessmentSession session = new AssessmentSession();
         session.setId(rs.getInt("id"));
@@ -297,7 +355,7 @@ public class AssessmentDAO {
                 completionStatus.put(assessmentId, count);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "获取学生测评完成情况失败", e);
+            logger.error("获取学生测评完成情况失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -329,7 +387,7 @@ public class AssessmentDAO {
                 return rs.getDouble("average_score");
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "获取测评平均分失败", e);
+            logger.error("获取测评平均分失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
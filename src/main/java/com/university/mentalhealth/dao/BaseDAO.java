@@ -2,6 +2,7 @@ package com.university.mentalhealth.dao;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BaseDAO<T> {
     Optional<T> findById(int id);
@@ -9,4 +10,14 @@ public interface BaseDAO<T> {
     boolean save(T entity);
     boolean update(T entity);
     boolean delete(int id);
+
+    /**
+     * 逐行遍历 findAll() 的全部记录并交给 consumer 处理，返回处理的行数，查询失败返回 -1。
+     * 默认实现先加载整个列表；数据量大的 DAO 应覆盖为流式查询，保持内存占用不随表大小增长
+     */
+    default int streamAll(Consumer<? super T> consumer) {
+        List<T> all = findAll();
+        all.forEach(consumer);
+        return all.size();
+    }
 }
\ No newline at end of file
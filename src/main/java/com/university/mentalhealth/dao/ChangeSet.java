@@ -0,0 +1,27 @@
+package com.university.mentalhealth.dao;
+
+import java.util.List;
+
+/**
+ * 某个 ChangeToken 之后的变更：新增或修改的行、被删除的行ID，以及下一次查询使用的 token。
+ * nextToken 为 null 表示原 token 已过期（变更日志已被清理），调用方需要全量重新加载
+ */
+public class ChangeSet<T> {
+    private final List<T> changed;
+    private final List<Integer> deletedIds;
+    private final ChangeToken nextToken;
+
+    public ChangeSet(List<T> changed, List<Integer> deletedIds, ChangeToken nextToken) {
+        this.changed = changed;
+        this.deletedIds = deletedIds;
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getChanged() { return changed; }
+    public List<Integer> getDeletedIds() { return deletedIds; }
+    public ChangeToken getNextToken() { return nextToken; }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
@@ -0,0 +1,40 @@
+package com.university.mentalhealth.dao;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 增量查询的位置标记：已读到的最大变更序号（change_log.seq），以及比它小但还没有读到的序号。
+ * 序号在写入时分配、在事务提交时才可见，未提交事务的序号会暂时空缺，之后的几次查询会补读这些空缺
+ */
+public class ChangeToken {
+    private final long lastSeq;
+    // 空缺序号 -> 还要补读的次数
+    private final Map<Long, Integer> gaps;
+    // 数据库服务器签发该 token 的时间，只用于判断变更日志是否可能已被清理
+    private final Timestamp issuedAt;
+
+    ChangeToken(long lastSeq, Map<Long, Integer> gaps, Timestamp issuedAt) {
+        this.lastSeq = lastSeq;
+        this.gaps = Collections.unmodifiableMap(gaps);
+        this.issuedAt = issuedAt;
+    }
+
+    long getLastSeq() {
+        return lastSeq;
+    }
+
+    Map<Long, Integer> getGaps() {
+        return gaps;
+    }
+
+    Timestamp getIssuedAt() {
+        return issuedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeToken{seq=" + lastSeq + ", gaps=" + gaps.size() + '}';
+    }
+}
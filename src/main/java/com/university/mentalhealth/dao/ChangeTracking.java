@@ -0,0 +1,207 @@
+package com.university.mentalhealth.dao;
+
+import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 change_log 表的变更跟踪（见 sql/change_tracking.sql）：触发器为每次插入、修改和删除写入一行，
+ * 自增的 seq 作为读取位置，不依赖服务器时钟
+ */
+final class ChangeTracking {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeTracking.class);
+
+    // 空缺序号补读的次数：未提交事务通常在一两次刷新内提交，回滚留下的空缺永远不会出现，补读几次后放弃
+    private static final int GAP_POLLS = 10;
+    // 最多跟踪的空缺序号数量，超出时放弃最早的
+    private static final int MAX_GAPS = 1000;
+    // 签发 token 时向前检查空缺的序号范围，覆盖全量加载开始时尚未提交的写入
+    private static final int INITIAL_GAP_WINDOW = 200;
+    // change_log 保留 1 天（清理事件见 sql/change_tracking.sql），更早的 token 可能已漏掉被清理的变更
+    private static final long MAX_TOKEN_AGE_MILLIS = TimeUnit.HOURS.toMillis(23);
+    // 按ID查询变更行时每条语句的ID数量
+    static final int ID_BATCH_SIZE = 500;
+
+    private ChangeTracking() {
+    }
+
+    /**
+     * 当前的变更位置，作为下一次增量查询的起点；失败返回 null
+     */
+    static ChangeToken currentToken() {
+        Connection conn = DatabaseUtil.getConnection();
+        if (conn == null) {
+            return null;
+        }
+        try {
+            return currentToken(conn);
+        } catch (SQLException e) {
+            logger.error("读取变更位置失败", e);
+            return null;
+        } finally {
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+
+    static ChangeToken currentToken(Connection conn) throws SQLException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = conn.prepareStatement("SELECT COALESCE(MAX(seq), 0), NOW(3) FROM change_log");
+            rs = pstmt.executeQuery();
+            rs.next();
+            long maxSeq = rs.getLong(1);
+            Timestamp now = rs.getTimestamp(2);
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+
+            // 最近一段序号中的空缺可能属于仍在进行的事务，记为待补读
+            long windowStart = Math.max(0, maxSeq - INITIAL_GAP_WINDOW);
+            pstmt = conn.prepareStatement("SELECT seq FROM change_log WHERE seq > ? ORDER BY seq");
+            pstmt.setLong(1, windowStart);
+            rs = pstmt.executeQuery();
+            List<Long> seen = new ArrayList<>();
+            while (rs.next()) {
+                seen.add(rs.getLong(1));
+            }
+            return advance(new ChangeToken(windowStart, Collections.<Long, Integer>emptyMap(), now), seen, now);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+        }
+    }
+
+    /**
+     * 读取 token 之后的变更，按表分组返回变更行的ID（新增、修改和删除不区分，由调用方按ID回表判断）。
+     * token 过期（变更日志可能已被清理）时返回的 nextToken 为 null，调用方需要全量重新加载
+     */
+    static ChangedRows readChanges(Connection conn, ChangeToken token) throws SQLException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = conn.prepareStatement("SELECT NOW(3)");
+            rs = pstmt.executeQuery();
+            rs.next();
+            Timestamp now = rs.getTimestamp(1);
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+
+            if (now.getTime() - token.getIssuedAt().getTime() > MAX_TOKEN_AGE_MILLIS) {
+                logger.info("变更位置已过期，需要全量重新加载: {}", token);
+                return new ChangedRows(Collections.<String, Set<Integer>>emptyMap(), null);
+            }
+
+            Set<Long> gaps = token.getGaps().keySet();
+            pstmt = conn.prepareStatement("SELECT seq, table_name, row_id FROM change_log WHERE seq > ?" +
+                    (gaps.isEmpty() ? "" : " OR seq IN (" + placeholders(gaps.size()) + ")") + " ORDER BY seq");
+            int index = 1;
+            pstmt.setLong(index++, token.getLastSeq());
+            for (Long gap : gaps) {
+                pstmt.setLong(index++, gap);
+            }
+            rs = pstmt.executeQuery();
+
+            List<Long> seen = new ArrayList<>();
+            Map<String, Set<Integer>> rowIds = new HashMap<>();
+            while (rs.next()) {
+                seen.add(rs.getLong("seq"));
+                rowIds.computeIfAbsent(rs.getString("table_name"), k -> new HashSet<>()).add(rs.getInt("row_id"));
+            }
+            return new ChangedRows(rowIds, advance(token, seen, now));
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+        }
+    }
+
+    /**
+     * 根据本次读到的序号（升序）计算下一个 token：读到的空缺移除，没读到的减少一次补读次数，
+     * 新的最大序号之前没有出现的序号记为空缺
+     */
+    static ChangeToken advance(ChangeToken token, List<Long> seenSeqs, Timestamp now) {
+        Set<Long> seen = new HashSet<>(seenSeqs);
+        TreeMap<Long, Integer> gaps = new TreeMap<>();
+        for (Map.Entry<Long, Integer> gap : token.getGaps().entrySet()) {
+            if (!seen.contains(gap.getKey()) && gap.getValue() > 1) {
+                gaps.put(gap.getKey(), gap.getValue() - 1);
+            }
+        }
+
+        long lastSeq = token.getLastSeq();
+        for (long seq : seenSeqs) {
+            if (seq <= lastSeq) {
+                continue;
+            }
+            // 序号跳跃很大时只记录最后 MAX_GAPS 个
+            for (long missing = Math.max(lastSeq + 1, seq - MAX_GAPS); missing < seq; missing++) {
+                gaps.put(missing, GAP_POLLS);
+            }
+            lastSeq = seq;
+        }
+        while (gaps.size() > MAX_GAPS) {
+            gaps.pollFirstEntry();
+        }
+        return new ChangeToken(lastSeq, gaps, now);
+    }
+
+    /**
+     * 把ID分成每批不超过 ID_BATCH_SIZE 个，用于 IN (...) 查询
+     */
+    static List<List<Integer>> batches(Collection<Integer> ids) {
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> batch = new ArrayList<>();
+        for (Integer id : ids) {
+            batch.add(id);
+            if (batch.size() == ID_BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 一次读取到的变更行ID和下一次查询使用的 token（过期时为 null）
+     */
+    static final class ChangedRows {
+        private final Map<String, Set<Integer>> rowIds;
+        final ChangeToken nextToken;
+
+        ChangedRows(Map<String, Set<Integer>> rowIds, ChangeToken nextToken) {
+            this.rowIds = rowIds;
+            this.nextToken = nextToken;
+        }
+
+        Set<Integer> rowIds(String table) {
+            Set<Integer> ids = rowIds.get(table);
+            return ids != null ? ids : Collections.<Integer>emptySet();
+        }
+    }
+}
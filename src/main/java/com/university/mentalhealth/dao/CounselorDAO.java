@@ -2,16 +2,16 @@ package com.university.mentalhealth.dao;
 
 import com.university.mentalhealth.entity.Counselor;
 import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 public class CounselorDAO implements BaseDAO<Counselor> {
-    private static final Logger logger = Logger.getLogger(CounselorDAO.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(CounselorDAO.class);
 
     @Override
     public Optional<Counselor> findById(int id) {
@@ -35,7 +35,7 @@ public class CounselorDAO implements BaseDAO<Counselor> {
                 return Optional.of(counselor);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据ID查询咨询师失败", e);
+            logger.error("根据ID查询咨询师失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -65,7 +65,7 @@ public class CounselorDAO implements BaseDAO<Counselor> {
                 return Optional.of(counselor);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据用户ID查询咨询师失败", e);
+            logger.error("根据用户ID查询咨询师失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -97,7 +97,7 @@ public class CounselorDAO implements BaseDAO<Counselor> {
                 counselors.add(counselor);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "查询所有咨询师失败", e);
+            logger.error("查询所有咨询师失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -128,7 +128,7 @@ public class CounselorDAO implements BaseDAO<Counselor> {
                 counselors.add(counselor);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "查询可用咨询师失败", e);
+            logger.error("查询可用咨询师失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -162,11 +162,11 @@ public class CounselorDAO implements BaseDAO<Counselor> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("咨询师信息更新成功: user_id=" + counselor.getId());
+                logger.info("咨询师信息更新成功: user_id={}", counselor.getId());
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新咨询师信息失败", e);
+            logger.error("更新咨询师信息失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -188,11 +188,11 @@ public class CounselorDAO implements BaseDAO<Counselor> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("咨询师可用状态更新成功: user_id=" + counselorId + ", is_available=" + isAvailable);
+                logger.info("咨询师可用状态更新成功: user_id={}, is_available={}", counselorId, isAvailable);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新咨询师可用状态失败", e);
+            logger.error("更新咨询师可用状态失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -215,11 +215,11 @@ public class CounselorDAO implements BaseDAO<Counselor> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("咨询师禁用成功: user_id=" + id);
+                logger.info("咨询师禁用成功: user_id={}", id);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "禁用咨询师失败", e);
+            logger.error("禁用咨询师失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
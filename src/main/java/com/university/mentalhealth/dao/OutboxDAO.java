@@ -0,0 +1,254 @@
+package com.university.mentalhealth.dao;
+
+import com.university.mentalhealth.entity.Appointment;
+import com.university.mentalhealth.entity.OutboxMessage;
+import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 通知发件箱（见 sql/notification_outbox.sql）。
+ * 写入由 AppointmentDAO 在预约事务中调用 enqueue() 完成；投递进程先认领一批到期的行，
+ * 投递后批量标记为已投递，失败的行推后 next_attempt_at 重试。
+ */
+public class OutboxDAO {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDAO.class);
+
+    /**
+     * 在调用方的事务中写入一条待投递记录
+     */
+    static void enqueue(Connection conn, int appointmentId, String eventType) throws SQLException {
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = conn.prepareStatement("INSERT INTO notification_outbox (appointment_id, event_type) VALUES (?, ?)");
+            pstmt.setInt(1, appointmentId);
+            pstmt.setString(2, eventType);
+            pstmt.executeUpdate();
+        } finally {
+            DatabaseUtil.closeStatement(pstmt);
+        }
+    }
+
+    /**
+     * 认领最多 limit 条到期的待投递记录并返回它们（按写入顺序）。
+     * 认领的行 next_attempt_at 推后 leaseSeconds 秒，租约内其他投递进程不会再认领；失败返回空列表
+     *
+     * @param claimId 本次认领的唯一标识
+     */
+    public List<OutboxMessage> claimDue(String claimId, int limit, int leaseSeconds) {
+        String claimSql = "UPDATE notification_outbox SET claimed_by = ?, " +
+                "next_attempt_at = NOW(3) + INTERVAL ? SECOND " +
+                "WHERE status = 'pending' AND next_attempt_at <= NOW(3) ORDER BY id LIMIT ?";
+        String selectSql = "SELECT o.id, o.appointment_id, o.event_type, o.attempts, o.created_at, " +
+                "a.id AS a_id, a.student_id, a.counselor_id, a.time_slot_id, a.status, a.notes, " +
+                "s.name AS student_name, c.name AS counselor_name, ts.start_time, ts.end_time, " +
+                "su.username AS student_username, cu.username AS counselor_username " +
+                "FROM notification_outbox o " +
+                "LEFT JOIN appointments a ON o.appointment_id = a.id " +
+                "LEFT JOIN students s ON a.student_id = s.user_id " +
+                "LEFT JOIN counselors c ON a.counselor_id = c.user_id " +
+                "LEFT JOIN users su ON a.student_id = su.id " +
+                "LEFT JOIN users cu ON a.counselor_id = cu.id " +
+                "LEFT JOIN counselor_time_slots ts ON a.time_slot_id = ts.id " +
+                "WHERE o.claimed_by = ? AND o.status = 'pending' ORDER BY o.id";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            if (conn == null) {
+                return Collections.emptyList();
+            }
+            pstmt = conn.prepareStatement(claimSql);
+            pstmt.setString(1, claimId);
+            pstmt.setInt(2, leaseSeconds);
+            pstmt.setInt(3, limit);
+            int claimed = pstmt.executeUpdate();
+            DatabaseUtil.closeStatement(pstmt);
+            if (claimed == 0) {
+                return Collections.emptyList();
+            }
+
+            List<OutboxMessage> messages = new ArrayList<>(claimed);
+            pstmt = conn.prepareStatement(selectSql);
+            pstmt.setString(1, claimId);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                messages.add(extractMessageFromResultSet(rs));
+            }
+            return messages;
+        } catch (SQLException e) {
+            logger.error("认领待投递通知失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 批量标记为已投递（一条语句），返回更新的行数，失败返回 -1。
+     * 只更新仍由 claimId 认领的行：租约过期后被其他投递进程重新认领的行由新的认领方标记
+     */
+    public int markDelivered(String claimId, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE notification_outbox SET status = 'delivered', " +
+                "delivered_at = NOW(3), attempts = attempts + 1, last_error = NULL WHERE claimed_by = ? AND id IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            if (conn == null) {
+                return -1;
+            }
+            pstmt = conn.prepareStatement(sql.toString());
+            pstmt.setString(1, claimId);
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setLong(i + 2, ids.get(i));
+            }
+            int updated = pstmt.executeUpdate();
+            if (updated < ids.size()) {
+                logger.warn("{} 条已投递的通知已被其他投递进程重新认领: claimId={}", ids.size() - updated, claimId);
+            }
+            return updated;
+        } catch (SQLException e) {
+            logger.error("标记通知已投递失败", e);
+        } finally {
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return -1;
+    }
+
+    /**
+     * 记录一批投递失败：retryAfterMillis 为 null 的行不再重试（标记为 failed），
+     * 其余行在对应的毫秒数之后重试。三个列表按下标对应，批处理执行；只更新仍由 claimId 认领的行
+     */
+    public boolean markFailed(String claimId, List<Long> ids, List<Long> retryAfterMillis, List<String> errors) {
+        if (ids.isEmpty()) {
+            return true;
+        }
+        String sql = "UPDATE notification_outbox SET attempts = attempts + 1, last_error = ?, " +
+                "status = CASE WHEN ? THEN 'pending' ELSE 'failed' END, " +
+                "next_attempt_at = NOW(3) + INTERVAL ? MICROSECOND, claimed_by = NULL WHERE id = ? AND claimed_by = ?";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            if (conn == null) {
+                return false;
+            }
+            pstmt = conn.prepareStatement(sql);
+            for (int i = 0; i < ids.size(); i++) {
+                Long retryAfter = retryAfterMillis.get(i);
+                String error = errors.get(i);
+                pstmt.setString(1, error != null && error.length() > 500 ? error.substring(0, 500) : error);
+                pstmt.setBoolean(2, retryAfter != null);
+                pstmt.setLong(3, retryAfter != null ? retryAfter * 1000 : 0);
+                pstmt.setLong(4, ids.get(i));
+                pstmt.setString(5, claimId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.error("记录通知投递失败时出错", e);
+        } finally {
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return false;
+    }
+
+    /**
+     * 待投递的积压情况：条数和最早一条的写入时间，失败返回 null
+     */
+    public Backlog getBacklog() {
+        String sql = "SELECT COUNT(*), MIN(created_at) FROM notification_outbox WHERE status = 'pending'";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            if (conn == null) {
+                return null;
+            }
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            Backlog backlog = new Backlog();
+            if (rs.next()) {
+                backlog.pendingCount = rs.getLong(1);
+                Timestamp oldest = rs.getTimestamp(2);
+                backlog.oldestCreatedAt = oldest != null ? oldest.toLocalDateTime() : null;
+            }
+            return backlog;
+        } catch (SQLException e) {
+            logger.error("查询通知积压失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return null;
+    }
+
+    private OutboxMessage extractMessageFromResultSet(ResultSet rs) throws SQLException {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(rs.getLong("id"));
+        message.setAppointmentId(rs.getInt("appointment_id"));
+        message.setEventType(rs.getString("event_type"));
+        message.setAttempts(rs.getInt("attempts"));
+        message.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+
+        if (rs.getObject("a_id") != null) {
+            Appointment appointment = new Appointment();
+            appointment.setId(rs.getInt("a_id"));
+            appointment.setStudentId(rs.getInt("student_id"));
+            appointment.setCounselorId(rs.getInt("counselor_id"));
+            appointment.setTimeSlotId(rs.getInt("time_slot_id"));
+            appointment.setStatus(rs.getString("status"));
+            appointment.setNotes(rs.getString("notes"));
+            appointment.setStudentName(rs.getString("student_name"));
+            appointment.setCounselorName(rs.getString("counselor_name"));
+            if (rs.getTimestamp("start_time") != null) {
+                appointment.setStartTime(rs.getTimestamp("start_time").toLocalDateTime());
+            }
+            if (rs.getTimestamp("end_time") != null) {
+                appointment.setEndTime(rs.getTimestamp("end_time").toLocalDateTime());
+            }
+            message.setAppointment(appointment);
+            message.setStudentUsername(rs.getString("student_username"));
+            message.setCounselorUsername(rs.getString("counselor_username"));
+        }
+        return message;
+    }
+
+    /**
+     * 发件箱积压
+     */
+    public static class Backlog {
+        public long pendingCount;
+        public LocalDateTime oldestCreatedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.university.mentalhealth.dao;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 分页查询结果
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final PageCursor nextCursor;
+    private final long estimatedTotal;
+
+    /**
+     * @param items          本页数据
+     * @param nextCursor     下一页游标，没有下一页时为 null
+     * @param estimatedTotal 总行数估计值，未知时为 -1
+     */
+    public Page(List<T> items, PageCursor nextCursor, long estimatedTotal) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    public List<T> getItems() { return items; }
+    public PageCursor getNextCursor() { return nextCursor; }
+    public long getEstimatedTotal() { return estimatedTotal; }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * 由多查询一行（pageSize + 1）的结果构造分页：多出的一行说明还有下一页，
+     * 下一页游标取本页最后一行
+     */
+    static <T> Page<T> fromRows(List<T> rows, int pageSize, Function<T, PageCursor> cursorOf, long estimatedTotal) {
+        if (rows.size() <= pageSize) {
+            return new Page<>(rows, null, estimatedTotal);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new Page<>(items, cursorOf.apply(items.get(pageSize - 1)), estimatedTotal);
+    }
+}
@@ -0,0 +1,23 @@
+package com.university.mentalhealth.dao;
+
+/**
+ * 键集分页（seek method）的游标：上一页最后一行的排序键值和ID。
+ * 下一页从该位置之后继续读取，不使用 OFFSET，翻页代价与页码无关
+ */
+public class PageCursor {
+    private final Object sortValue;
+    private final int lastId;
+
+    public PageCursor(Object sortValue, int lastId) {
+        this.sortValue = sortValue;
+        this.lastId = lastId;
+    }
+
+    public Object getSortValue() { return sortValue; }
+    public int getLastId() { return lastId; }
+
+    @Override
+    public String toString() {
+        return "PageCursor{sortValue=" + sortValue + ", lastId=" + lastId + '}';
+    }
+}
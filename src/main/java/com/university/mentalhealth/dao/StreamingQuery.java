@@ -0,0 +1,76 @@
+package com.university.mentalhealth.dao;
+
+import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * 流式查询：使用只进、只读的 ResultSet 并限制每次抓取的行数（db.stream.fetchSize），
+ * 每读到一行就交给回调处理，不在内存中保留整个结果集。
+ * 连接在遍历期间一直被占用，遍历结束（包括回调抛出异常）后归还连接池
+ */
+final class StreamingQuery {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingQuery.class);
+
+    /**
+     * 设置 SQL 参数
+     */
+    interface ParameterSetter {
+        void setParameters(PreparedStatement pstmt) throws SQLException;
+    }
+
+    /**
+     * 把当前行映射为实体
+     */
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private StreamingQuery() {
+    }
+
+    static <T> int stream(String sql, RowMapper<T> mapper, Consumer<? super T> consumer) {
+        return stream(sql, null, mapper, consumer);
+    }
+
+    /**
+     * 执行查询并逐行回调
+     *
+     * @return 处理的行数，查询失败返回 -1
+     */
+    static <T> int stream(String sql, ParameterSetter setter, RowMapper<T> mapper, Consumer<? super T> consumer) {
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        int count = 0;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(DatabaseUtil.getStreamFetchSize());
+            if (setter != null) {
+                setter.setParameters(pstmt);
+            }
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                consumer.accept(mapper.map(rs));
+                count++;
+            }
+            return count;
+        } catch (SQLException e) {
+            logger.error("流式查询失败，已处理 {} 行", count, e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return -1;
+    }
+}
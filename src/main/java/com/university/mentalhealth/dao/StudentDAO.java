@@ -2,16 +2,17 @@ package com.university.mentalhealth.dao;
 
 import com.university.mentalhealth.entity.Student;
 import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.function.Consumer;
 
 public class StudentDAO implements BaseDAO<Student> {
-    private static final Logger logger = Logger.getLogger(StudentDAO.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(StudentDAO.class);
 
     @Override
     public Optional<Student> findById(int id) {
@@ -34,7 +35,7 @@ public class StudentDAO implements BaseDAO<Student> {
                 return Optional.of(student);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据ID查询学生失败", e);
+            logger.error("根据ID查询学生失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -64,7 +65,7 @@ public class StudentDAO implements BaseDAO<Student> {
                 return Optional.of(student);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据学号查询学生失败", e);
+            logger.error("根据学号查询学生失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -96,7 +97,7 @@ public class StudentDAO implements BaseDAO<Student> {
                 students.add(student);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据院系查询学生失败", e);
+            logger.error("根据院系查询学生失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -128,7 +129,7 @@ public class StudentDAO implements BaseDAO<Student> {
                 students.add(student);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "查询所有学生失败", e);
+            logger.error("查询所有学生失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -138,6 +139,63 @@ public class StudentDAO implements BaseDAO<Student> {
         return students;
     }
 
+    /**
+     * 分页查询所有学生（键集分页，按学号排序），cursor 为 null 时查询第一页并附带总行数估计值
+     */
+    public Page<Student> findPage(PageCursor cursor, int pageSize) {
+        List<Student> students = new ArrayList<>();
+        String sql = "SELECT s.*, u.username, u.created_at as user_created_at " +
+                "FROM students s " +
+                "JOIN users u ON s.user_id = u.id " +
+                "WHERE u.is_active = true " +
+                (cursor != null ? "AND (s.student_id > ? OR (s.student_id = ? AND s.user_id > ?)) " : "") +
+                "ORDER BY s.student_id, s.user_id LIMIT ?";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (cursor != null) {
+                pstmt.setObject(index++, cursor.getSortValue());
+                pstmt.setObject(index++, cursor.getSortValue());
+                pstmt.setInt(index++, cursor.getLastId());
+            }
+            pstmt.setInt(index, pageSize + 1);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Student student = extractStudentFromResultSet(rs);
+                students.add(student);
+            }
+        } catch (SQLException e) {
+            logger.error("分页查询学生失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+
+        long estimatedTotal = cursor == null ? DatabaseUtil.estimateRowCount("students") : -1;
+        return Page.fromRows(students, pageSize,
+                last -> new PageCursor(last.getStudentId(), last.getId()), estimatedTotal);
+    }
+
+    /**
+     * 流式遍历所有学生，不在内存中保留整个列表
+     */
+    @Override
+    public int streamAll(Consumer<? super Student> consumer) {
+        String sql = "SELECT s.*, u.username, u.created_at as user_created_at " +
+                "FROM students s " +
+                "JOIN users u ON s.user_id = u.id " +
+                "WHERE u.is_active = true " +
+                "ORDER BY s.user_id";
+        return StreamingQuery.stream(sql, this::extractStudentFromResultSet, consumer);
+    }
+
     @Override
     public boolean save(Student student) {
         String sql = "INSERT INTO students (user_id, student_id, name, department, contact_phone, emergency_contact, emergency_phone) " +
@@ -158,17 +216,17 @@ public class StudentDAO implements BaseDAO<Student> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("学生信息保存成功: " + student.getStudentId());
+                logger.info("学生信息保存成功: {}", student.getStudentId());
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "保存学生信息失败", e);
+            logger.error("保存学生信息失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        logger.warning("学生信息保存失败: " + student.getStudentId());
+        logger.warn("学生信息保存失败: {}", student.getStudentId());
         return false;
     }
 
@@ -193,17 +251,17 @@ public class StudentDAO implements BaseDAO<Student> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("学生信息更新成功: " + student.getStudentId());
+                logger.info("学生信息更新成功: {}", student.getStudentId());
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新学生信息失败", e);
+            logger.error("更新学生信息失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        logger.warning("学生信息更新失败: " + student.getStudentId());
+        logger.warn("学生信息更新失败: {}", student.getStudentId());
         return false;
     }
 
@@ -230,21 +288,21 @@ public class StudentDAO implements BaseDAO<Student> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("学生联系信息更新成功: user_id=" + userId);
+                logger.info("学生联系信息更新成功: user_id={}", userId);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新学生联系信息失败", e);
+            logger.error("更新学生联系信息失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        logger.warning("学生联系信息更新失败: user_id=" + userId);
+        logger.warn("学生联系信息更新失败: user_id={}", userId);
         return false;
     }
 
-    private Student extractStudentFromResultSet(ResultSet rs) throws SQLException {
+    Student extractStudentFromResultSet(ResultSet rs) throws SQLException {
         int userId = rs.getInt("user_id");
         String studentId = rs.getString("student_id");
         String name = rs.getString("name");
@@ -2,17 +2,20 @@ package com.university.mentalhealth.dao;
 
 import com.university.mentalhealth.entity.TimeSlot;
 import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class TimeSlotDAO implements BaseDAO<TimeSlot> {
-    private static final Logger logger = Logger.getLogger(TimeSlotDAO.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(TimeSlotDAO.class);
 
     @Override
     public Optional<TimeSlot> findById(int id) {
@@ -36,7 +39,7 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
                 return Optional.of(timeSlot);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据ID查询时间段失败", e);
+            logger.error("根据ID查询时间段失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -67,7 +70,7 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
                 timeSlots.add(timeSlot);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据咨询师ID查询时间段失败", e);
+            logger.error("根据咨询师ID查询时间段失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -102,7 +105,47 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
                 timeSlots.add(timeSlot);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "查询可用时间段失败", e);
+            logger.error("查询可用时间段失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return timeSlots;
+    }
+
+    /**
+     * 一次查询出咨询师在时间范围内可预约的时间段：状态为 available，且没有待确认或已确认的预约
+     */
+    public List<TimeSlot> findBookableTimeSlots(int counselorId, LocalDateTime startDate, LocalDateTime endDate) {
+        List<TimeSlot> timeSlots = new ArrayList<>();
+        String sql = "SELECT ts.*, c.name as counselor_name, c.title " +
+                "FROM counselor_time_slots ts " +
+                "LEFT JOIN counselors c ON ts.counselor_id = c.user_id " +
+                "WHERE ts.counselor_id = ? AND ts.status = 'available' " +
+                "AND ts.start_time >= ? AND ts.end_time <= ? " +
+                "AND NOT EXISTS (SELECT 1 FROM appointments a " +
+                "WHERE a.time_slot_id = ts.id AND a.status IN ('pending', 'confirmed')) " +
+                "ORDER BY ts.start_time";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setInt(1, counselorId);
+            pstmt.setTimestamp(2, Timestamp.valueOf(startDate));
+            pstmt.setTimestamp(3, Timestamp.valueOf(endDate));
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                TimeSlot timeSlot = extractTimeSlotFromResultSet(rs);
+                timeSlots.add(timeSlot);
+            }
+        } catch (SQLException e) {
+            logger.error("查询可预约时间段失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -135,7 +178,7 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
                 timeSlots.add(timeSlot);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "查询所有可用时间段失败", e);
+            logger.error("查询所有可用时间段失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -166,7 +209,7 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
                 timeSlots.add(timeSlot);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "查询所有时间段失败", e);
+            logger.error("查询所有时间段失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -175,6 +218,62 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
         return timeSlots;
     }
 
+    /**
+     * 分页查询所有时间段（键集分页，按开始时间倒序），cursor 为 null 时查询第一页并附带总行数估计值
+     */
+    public Page<TimeSlot> findPage(PageCursor cursor, int pageSize) {
+        List<TimeSlot> timeSlots = new ArrayList<>();
+        String sql = "SELECT ts.*, c.name as counselor_name, c.title " +
+                "FROM counselor_time_slots ts " +
+                "LEFT JOIN counselors c ON ts.counselor_id = c.user_id " +
+                (cursor != null ? "WHERE ts.start_time < ? OR (ts.start_time = ? AND ts.id < ?) " : "") +
+                "ORDER BY ts.start_time DESC, ts.id DESC LIMIT ?";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (cursor != null) {
+                pstmt.setObject(index++, cursor.getSortValue());
+                pstmt.setObject(index++, cursor.getSortValue());
+                pstmt.setInt(index++, cursor.getLastId());
+            }
+            pstmt.setInt(index, pageSize + 1);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                TimeSlot timeSlot = extractTimeSlotFromResultSet(rs);
+                timeSlots.add(timeSlot);
+            }
+        } catch (SQLException e) {
+            logger.error("分页查询时间段失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+
+        long estimatedTotal = cursor == null ? DatabaseUtil.estimateRowCount("counselor_time_slots") : -1;
+        return Page.fromRows(timeSlots, pageSize,
+                last -> new PageCursor(Timestamp.valueOf(last.getStartTime()), last.getId()), estimatedTotal);
+    }
+
+    /**
+     * 流式遍历所有时间段，不在内存中保留整个列表
+     */
+    @Override
+    public int streamAll(Consumer<? super TimeSlot> consumer) {
+        String sql = "SELECT ts.*, c.name as counselor_name, c.title " +
+                "FROM counselor_time_slots ts " +
+                "LEFT JOIN counselors c ON ts.counselor_id = c.user_id " +
+                "ORDER BY ts.id";
+        return StreamingQuery.stream(sql, this::extractTimeSlotFromResultSet, consumer);
+    }
+
     @Override
     public boolean save(TimeSlot timeSlot) {
         String sql = "INSERT INTO counselor_time_slots (counselor_id, start_time, end_time, status) " +
@@ -196,13 +295,13 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         timeSlot.setId(generatedKeys.getInt(1));
-                        logger.info("时间段保存成功: time_slot_id=" + timeSlot.getId());
+                        logger.info("时间段保存成功: time_slot_id={}", timeSlot.getId());
                         return true;
                     }
                 }
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "保存时间段失败", e);
+            logger.error("保存时间段失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -225,11 +324,11 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("时间段状态更新成功: time_slot_id=" + timeSlot.getId());
+                logger.info("时间段状态更新成功: time_slot_id={}", timeSlot.getId());
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新时间段状态失败", e);
+            logger.error("更新时间段状态失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -251,11 +350,11 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("时间段状态更新成功: time_slot_id=" + timeSlotId + ", status=" + status);
+                logger.info("时间段状态更新成功: time_slot_id={}, status={}", timeSlotId, status);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新时间段状态失败", e);
+            logger.error("更新时间段状态失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -277,11 +376,11 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("时间段删除成功: time_slot_id=" + id);
+                logger.info("时间段删除成功: time_slot_id={}", id);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "删除时间段失败", e);
+            logger.error("删除时间段失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
@@ -289,10 +388,13 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
         return false;
     }
 
+    /**
+     * 检查时间冲突（半开区间 [start, end)，首尾相接的时间段不算冲突）
+     */
     public boolean hasTimeConflict(int counselorId, LocalDateTime startTime, LocalDateTime endTime) {
         String sql = "SELECT COUNT(*) FROM counselor_time_slots " +
                 "WHERE counselor_id = ? AND status != 'cancelled' " +
-                "AND ((start_time <= ? AND end_time > ?) OR (start_time < ? AND end_time >= ?))";
+                "AND start_time < ? AND end_time > ?";
 
         Connection conn = null;
         PreparedStatement pstmt = null;
@@ -302,17 +404,15 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
             conn = DatabaseUtil.getConnection();
             pstmt = conn.prepareStatement(sql);
             pstmt.setInt(1, counselorId);
-            pstmt.setTimestamp(2, Timestamp.valueOf(endTime));     // 修正参数索引
-            pstmt.setTimestamp(3, Timestamp.valueOf(startTime));   // 修正参数索引
-            pstmt.setTimestamp(4, Timestamp.valueOf(endTime));     // 修正参数索引
-            pstmt.setTimestamp(5, Timestamp.valueOf(startTime));   // 修正参数索引
+            pstmt.setTimestamp(2, Timestamp.valueOf(endTime));
+            pstmt.setTimestamp(3, Timestamp.valueOf(startTime));
             rs = pstmt.executeQuery();
 
             if (rs.next()) {
                 return rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "检查时间冲突失败", e);
+            logger.error("检查时间冲突失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -321,7 +421,222 @@ public class TimeSlotDAO implements BaseDAO<TimeSlot> {
         return false;
     }
 
-    private TimeSlot extractTimeSlotFromResultSet(ResultSet rs) throws SQLException {
+    /**
+     * 一次性查询咨询师在指定范围内所有未取消的时间段（只包含ID、时间和状态），
+     * 用于在内存中批量检查时间冲突
+     */
+    public List<TimeSlot> findActiveIntervals(int counselorId, LocalDateTime from, LocalDateTime to) {
+        Connection conn = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            return findActiveIntervals(conn, counselorId, from, to);
+        } catch (SQLException e) {
+            logger.error("查询咨询师时间区间失败", e);
+        } finally {
+            DatabaseUtil.closeConnection(conn);
+        }
+        return new ArrayList<>();
+    }
+
+    private List<TimeSlot> findActiveIntervals(Connection conn, int counselorId, LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        List<TimeSlot> timeSlots = new ArrayList<>();
+        String sql = "SELECT id, counselor_id, start_time, end_time, status FROM counselor_time_slots " +
+                "WHERE counselor_id = ? AND status != 'cancelled' AND start_time < ? AND end_time > ? " +
+                "ORDER BY start_time";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, counselorId);
+            pstmt.setTimestamp(2, Timestamp.valueOf(to));
+            pstmt.setTimestamp(3, Timestamp.valueOf(from));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    TimeSlot timeSlot = new TimeSlot();
+                    timeSlot.setId(rs.getInt("id"));
+                    timeSlot.setCounselorId(rs.getInt("counselor_id"));
+                    timeSlot.setStartTime(rs.getTimestamp("start_time").toLocalDateTime());
+                    timeSlot.setEndTime(rs.getTimestamp("end_time").toLocalDateTime());
+                    timeSlot.setStatus(rs.getString("status"));
+                    timeSlots.add(timeSlot);
+                }
+            }
+        }
+        return timeSlots;
+    }
+
+    /**
+     * 在同一事务中为咨询师批量插入时间段，跳过与数据库中已有的未取消时间段重叠的候选（半开区间）。
+     * 事务开始时锁定咨询师行（counselors ... FOR UPDATE），同一咨询师的并发创建（包括其他进程发起的）依次执行，
+     * 之后一次查询出候选范围内已有的时间段在内存中检查重叠，再用 JDBC 批处理插入不冲突的时间段。
+     * 候选时间段之间互不重叠由调用方保证。
+     * 返回实际插入的时间段（已回填生成的ID，全部冲突时为空列表）；
+     * 出错或未能取得每一行的生成ID时整体回滚并返回 null。
+     */
+    public List<TimeSlot> saveBatch(int counselorId, List<TimeSlot> timeSlots) {
+        if (timeSlots.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<TimeSlot> sorted = new ArrayList<>(timeSlots);
+        sorted.sort((ts1, ts2) -> ts1.getStartTime().compareTo(ts2.getStartTime()));
+        LocalDateTime rangeStart = sorted.get(0).getStartTime();
+        LocalDateTime rangeEnd = rangeStart;
+        for (TimeSlot timeSlot : sorted) {
+            if (timeSlot.getEndTime().isAfter(rangeEnd)) {
+                rangeEnd = timeSlot.getEndTime();
+            }
+        }
+
+        String lockSql = "SELECT user_id FROM counselors WHERE user_id = ? FOR UPDATE";
+        String sql = "INSERT INTO counselor_time_slots (counselor_id, start_time, end_time, status) " +
+                "VALUES (?, ?, ?, ?)";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<TimeSlot> accepted = new ArrayList<>();
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            // 必须是事务中的第一条语句：MySQL 可重复读隔离级别在第一次普通读取时建立快照，
+            // 先拿到咨询师锁再读取，才能看到刚释放该锁的事务插入的时间段
+            pstmt = conn.prepareStatement(lockSql);
+            pstmt.setInt(1, counselorId);
+            rs = pstmt.executeQuery();
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+
+            // 已有时间段按开始时间排序，maxEnd 为开始时间早于候选结束时间的已有时间段的最晚结束时间，
+            // 晚于候选开始时间即冲突
+            List<TimeSlot> existing = findActiveIntervals(conn, counselorId, rangeStart, rangeEnd);
+            LocalDateTime maxEnd = null;
+            int index = 0;
+            for (TimeSlot candidate : sorted) {
+                while (index < existing.size() && existing.get(index).getStartTime().isBefore(candidate.getEndTime())) {
+                    LocalDateTime end = existing.get(index).getEndTime();
+                    if (maxEnd == null || end.isAfter(maxEnd)) {
+                        maxEnd = end;
+                    }
+                    index++;
+                }
+                if (maxEnd == null || !maxEnd.isAfter(candidate.getStartTime())) {
+                    accepted.add(candidate);
+                }
+            }
+            if (accepted.isEmpty()) {
+                conn.rollback();
+                logger.info("批量保存时间段: {} 个全部与已有时间段冲突", timeSlots.size());
+                return accepted;
+            }
+
+            pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+
+            for (TimeSlot timeSlot : accepted) {
+                pstmt.setInt(1, timeSlot.getCounselorId());
+                pstmt.setTimestamp(2, Timestamp.valueOf(timeSlot.getStartTime()));
+                pstmt.setTimestamp(3, Timestamp.valueOf(timeSlot.getEndTime()));
+                pstmt.setString(4, timeSlot.getStatus());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+
+            // 调用方用回填的ID更新冲突索引，驱动返回的生成ID少于插入行数时整体回滚，不留下ID为 0 的时间段
+            rs = pstmt.getGeneratedKeys();
+            int keyCount = 0;
+            for (TimeSlot timeSlot : accepted) {
+                if (!rs.next()) {
+                    break;
+                }
+                timeSlot.setId(rs.getInt(1));
+                keyCount++;
+            }
+            if (keyCount < accepted.size()) {
+                conn.rollback();
+                for (TimeSlot timeSlot : accepted) {
+                    timeSlot.setId(0);
+                }
+                logger.error("批量保存时间段失败: 插入 {} 个，只返回了 {} 个生成的ID，已回滚", accepted.size(), keyCount);
+                return null;
+            }
+
+            conn.commit();
+            logger.info("批量保存时间段成功: {} 个，与已有时间段冲突跳过 {} 个", accepted.size(),
+                    timeSlots.size() - accepted.size());
+            return accepted;
+        } catch (SQLException e) {
+            DatabaseUtil.rollback(conn);
+            for (TimeSlot timeSlot : accepted) {
+                timeSlot.setId(0);
+            }
+            logger.error("批量保存时间段失败: counselor_id={}", counselorId, e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        return null;
+    }
+
+    /**
+     * 当前的变更位置，用于全量加载之后的增量查询；失败返回 null
+     */
+    public ChangeToken currentChangeToken() {
+        return ChangeTracking.currentToken();
+    }
+
+    /**
+     * 查询 token 之后新增、修改或删除的时间段（不按状态过滤，由调用方决定如何应用），
+     * counselorId 为 null 表示所有咨询师；token 过期时返回的 nextToken 为 null，失败返回 null
+     */
+    public ChangeSet<TimeSlot> findChangesSince(Integer counselorId, ChangeToken token) {
+        List<TimeSlot> changed = new ArrayList<>();
+        String sql = "SELECT ts.*, c.name as counselor_name, c.title " +
+                "FROM counselor_time_slots ts " +
+                "LEFT JOIN counselors c ON ts.counselor_id = c.user_id " +
+                "WHERE ts.id IN (";
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            ChangeTracking.ChangedRows rows = ChangeTracking.readChanges(conn, token);
+            Set<Integer> changedIds = rows.rowIds("counselor_time_slots");
+
+            // 变更日志中有记录、但已查不到的行就是被删除的行
+            Set<Integer> deletedIds = new HashSet<>(changedIds);
+            for (List<Integer> batch : ChangeTracking.batches(changedIds)) {
+                pstmt = conn.prepareStatement(sql + ChangeTracking.placeholders(batch.size()) + ") ORDER BY ts.id");
+                for (int i = 0; i < batch.size(); i++) {
+                    pstmt.setInt(i + 1, batch.get(i));
+                }
+                rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    TimeSlot timeSlot = extractTimeSlotFromResultSet(rs);
+                    deletedIds.remove(timeSlot.getId());
+                    if (counselorId == null || counselorId.equals(timeSlot.getCounselorId())) {
+                        changed.add(timeSlot);
+                    }
+                }
+                DatabaseUtil.closeResultSet(rs);
+                DatabaseUtil.closeStatement(pstmt);
+            }
+            return new ChangeSet<>(changed, new ArrayList<>(deletedIds), rows.nextToken);
+        } catch (SQLException e) {
+            logger.error("查询时间段变更失败", e);
+            return null;
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+
+    TimeSlot extractTimeSlotFromResultSet(ResultSet rs) throws SQLException {
         TimeSlot timeSlot = new TimeSlot();
         timeSlot.setId(rs.getInt("id"));
         timeSlot.setCounselorId(rs.getInt("counselor_id"));
@@ -3,26 +3,21 @@ package com.university.mentalhealth.dao;
 import com.university.mentalhealth.entity.User;
 import com.university.mentalhealth.entity.UserType;
 import com.university.mentalhealth.util.DatabaseUtil;
+import com.university.mentalhealth.util.PasswordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.function.Consumer;
 
 public class UserDAO implements BaseDAO<User> {
-    private static final Logger logger = Logger.getLogger(UserDAO.class.getName());
-
-    // 添加密码加密验证（简单示例，实际应该使用BCrypt等加密方式）
-    private String encryptPassword(String password) {
-        // 这里使用简单加密，实际项目中应该使用BCryptPasswordEncoder
-        return password; // 暂时不加密，直接存储明文（仅用于演示）
-    }
-
-    // 修改authenticate方法中使用加密  pstmt.setString(2, encryptPassword(password));
-
+    private static final Logger logger = LoggerFactory.getLogger(UserDAO.class);
 
     @Override
     public Optional<User> findById(int id) {
@@ -42,7 +37,7 @@ public class UserDAO implements BaseDAO<User> {
                 return Optional.of(user);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据ID查询用户失败", e);
+            logger.error("根据ID查询用户失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -69,7 +64,7 @@ public class UserDAO implements BaseDAO<User> {
                 return Optional.of(user);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据用户名查询用户失败", e);
+            logger.error("根据用户名查询用户失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -79,53 +74,40 @@ public class UserDAO implements BaseDAO<User> {
         return Optional.empty();
     }
 
+    /**
+     * 一次查询完成认证：按用户名取活跃用户，再用 PasswordUtil 校验密码。
+     * 不区分“用户不存在”和“密码错误”，需要区分时（例如登录限制）用 findByUsername 自行校验
+     */
     public Optional<User> authenticate(String username, String password) {
-        String sql = "SELECT * FROM users WHERE username = ?";
+        Optional<User> userOpt = findByUsername(username);
+        if (userOpt.isPresent() && PasswordUtil.verifyPassword(password, userOpt.get().getPasswordHash())) {
+            return userOpt;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 只更新密码摘要，password_hash 必须是 PasswordUtil.encryptPassword 的结果
+     */
+    public boolean updatePasswordHash(int userId, String passwordHash) {
+        String sql = "UPDATE users SET password_hash = ? WHERE id = ?";
         Connection conn = null;
         PreparedStatement pstmt = null;
-        ResultSet rs = null;
 
         try {
             conn = DatabaseUtil.getConnection();
             pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, username);
-            rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                // 检查用户状态
-                boolean isActive = rs.getBoolean("is_active");
-                String storedPassword = rs.getString("password_hash");
-                String userType = rs.getString("type");
-
-                logger.info("用户状态检查 - 活跃: " + isActive);
-                logger.info("用户类型: " + userType);
-                logger.info("密码比较 - 存储的: '" + storedPassword + "' vs 输入的: '" + password + "'");
-
-                if (!isActive) {
-                    logger.warning("用户账户未激活: " + username);
-                    return Optional.empty();
-                }
-
-                // 直接比较明文密码
-                if (storedPassword.equals(password)) {
-                    User user = extractUserFromResultSet(rs);
-                    logger.info("密码匹配成功，返回用户对象");
-                    return Optional.of(user);
-                } else {
-                    logger.warning("密码不匹配");
-                }
-            } else {
-                logger.warning("用户不存在: " + username);
-            }
+            pstmt.setString(1, passwordHash);
+            pstmt.setLong(2, userId);
+            return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "用户认证失败", e);
+            logger.error("更新密码失败: ID={}", userId, e);
         } finally {
-            DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        return Optional.empty();
+        return false;
     }
 
     @Override
@@ -146,7 +128,7 @@ public class UserDAO implements BaseDAO<User> {
                 users.add(user);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "查询所有用户失败", e);
+            logger.error("查询所有用户失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -174,7 +156,7 @@ public class UserDAO implements BaseDAO<User> {
                 users.add(user);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "根据类型查询用户失败", e);
+            logger.error("根据类型查询用户失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -184,6 +166,115 @@ public class UserDAO implements BaseDAO<User> {
         return users;
     }
 
+    /**
+     * 分页查询活跃用户（键集分页，按注册时间倒序，注册时间为 NULL 的早期数据排在最后），userType 为 null 表示全部类型，
+     * keyword 不为空时按用户名或ID模糊匹配。cursor 为 null 时查询第一页，无筛选条件时附带活跃用户总数
+     */
+    public Page<User> findPage(UserType userType, String keyword, PageCursor cursor, int pageSize) {
+        List<User> users = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM users WHERE is_active = true");
+        boolean hasKeyword = keyword != null && !keyword.trim().isEmpty();
+        if (userType != null) {
+            sql.append(" AND type = ?");
+        }
+        if (hasKeyword) {
+            sql.append(" AND (username LIKE ? OR CAST(id AS CHAR) LIKE ?)");
+        }
+        if (cursor != null && cursor.getSortValue() != null) {
+            sql.append(" AND (created_at < ? OR (created_at = ? AND id < ?) OR created_at IS NULL)");
+        } else if (cursor != null) {
+            sql.append(" AND created_at IS NULL AND id < ?");
+        }
+        sql.append(" ORDER BY created_at IS NULL, created_at DESC, id DESC LIMIT ?");
+
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql.toString());
+            int index = 1;
+            if (userType != null) {
+                pstmt.setString(index++, userType.name());
+            }
+            if (hasKeyword) {
+                String pattern = "%" + keyword.trim() + "%";
+                pstmt.setString(index++, pattern);
+                pstmt.setString(index++, pattern);
+            }
+            if (cursor != null && cursor.getSortValue() != null) {
+                pstmt.setObject(index++, cursor.getSortValue());
+                pstmt.setObject(index++, cursor.getSortValue());
+                pstmt.setInt(index++, cursor.getLastId());
+            } else if (cursor != null) {
+                pstmt.setInt(index++, cursor.getLastId());
+            }
+            pstmt.setInt(index, pageSize + 1);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                User user = extractUserFromResultSet(rs);
+                users.add(user);
+            }
+        } catch (SQLException e) {
+            logger.error("分页查询用户失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+
+        // 表行数统计包含已停用的用户，与分页条件不一致；活跃用户按类型计数只需一次分组查询
+        long estimatedTotal = -1;
+        if (cursor == null && userType == null && !hasKeyword) {
+            estimatedTotal = 0;
+            for (int count : countByType().values()) {
+                estimatedTotal += count;
+            }
+        }
+        return Page.fromRows(users, pageSize, last -> new PageCursor(
+                last.getCreatedAt() != null ? Timestamp.valueOf(last.getCreatedAt()) : null, last.getId()), estimatedTotal);
+    }
+
+    /**
+     * 按用户类型统计活跃用户数量
+     */
+    public Map<UserType, Integer> countByType() {
+        Map<UserType, Integer> counts = new EnumMap<>(UserType.class);
+        String sql = "SELECT type, COUNT(*) AS cnt FROM users WHERE is_active = true GROUP BY type";
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                counts.put(UserType.valueOf(rs.getString("type")), rs.getInt("cnt"));
+            }
+        } catch (SQLException e) {
+            logger.error("按类型统计用户数量失败", e);
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+
+        return counts;
+    }
+
+    /**
+     * 流式遍历所有活跃用户，不在内存中保留整个列表
+     */
+    @Override
+    public int streamAll(Consumer<? super User> consumer) {
+        String sql = "SELECT * FROM users WHERE is_active = true ORDER BY id";
+        return StreamingQuery.stream(sql, this::extractUserFromResultSet, consumer);
+    }
+
     @Override
     public boolean save(User user) {
         String sql = "INSERT INTO users (username, password_hash, type, created_at, is_active) VALUES (?, ?, ?, ?, ?)";
@@ -194,7 +285,7 @@ public class UserDAO implements BaseDAO<User> {
             conn = DatabaseUtil.getConnection();
             pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, encryptPassword(user.getPasswordHash()));
+            pstmt.setString(2, user.getPasswordHash());
             pstmt.setString(3, user.getType().name());
             pstmt.setTimestamp(4, Timestamp.valueOf(user.getCreatedAt()));
             pstmt.setBoolean(5, true);
@@ -205,19 +296,19 @@ public class UserDAO implements BaseDAO<User> {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         user.setId(generatedKeys.getInt(1));
-                        logger.info("用户保存成功: " + user.getUsername());
+                        logger.info("用户保存成功: {}", user.getUsername());
                         return true;
                     }
                 }
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "保存用户失败", e);
+            logger.error("保存用户失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        logger.warning("用户保存失败: " + user.getUsername());
+        logger.warn("用户保存失败: {}", user.getUsername());
         return false;
     }
 
@@ -231,23 +322,23 @@ public class UserDAO implements BaseDAO<User> {
             conn = DatabaseUtil.getConnection();
             pstmt = conn.prepareStatement(sql);
             pstmt.setString(1, user.getUsername());
-            pstmt.setString(2, encryptPassword(user.getPasswordHash()));
+            pstmt.setString(2, user.getPasswordHash());
             pstmt.setString(3, user.getType().name());
             pstmt.setLong(4, user.getId());
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("用户更新成功: " + user.getUsername());
+                logger.info("用户更新成功: {}", user.getUsername());
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新用户失败", e);
+            logger.error("更新用户失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        logger.warning("用户更新失败: " + user.getUsername());
+        logger.warn("用户更新失败: {}", user.getUsername());
         return false;
     }
 
@@ -264,17 +355,17 @@ public class UserDAO implements BaseDAO<User> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("用户状态更新成功: ID=" + userId + ", 状态=" + isActive);
+                logger.info("用户状态更新成功: ID={}, 状态={}", userId, isActive);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "更新用户状态失败", e);
+            logger.error("更新用户状态失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        logger.warning("用户状态更新失败: ID=" + userId);
+        logger.warn("用户状态更新失败: ID={}", userId);
         return false;
     }
 
@@ -296,17 +387,17 @@ public class UserDAO implements BaseDAO<User> {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                logger.info("用户永久删除成功: ID=" + id);
+                logger.info("用户永久删除成功: ID={}", id);
                 return true;
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "永久删除用户失败", e);
+            logger.error("永久删除用户失败", e);
         } finally {
             DatabaseUtil.closeStatement(pstmt);
             DatabaseUtil.closeConnection(conn);
         }
 
-        logger.warning("用户永久删除失败: ID=" + id);
+        logger.warn("用户永久删除失败: ID={}", id);
         return false;
     }
 
@@ -315,7 +406,8 @@ public class UserDAO implements BaseDAO<User> {
         String username = rs.getString("username");
         String passwordHash = rs.getString("password_hash");
         UserType type = UserType.valueOf(rs.getString("type"));
-        LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
+        Timestamp createdTimestamp = rs.getTimestamp("created_at");
+        LocalDateTime createdAt = createdTimestamp != null ? createdTimestamp.toLocalDateTime() : null;
         boolean isActive = rs.getBoolean("is_active");
 
         User user = new User(id, username, passwordHash, type, createdAt);
@@ -1,5 +1,7 @@
 package com.university.mentalhealth.entity;
 
+import com.university.mentalhealth.util.JSONUtil;
+
 /**
  * 测评详情实体类
  */
@@ -15,6 +17,19 @@ public class AssessmentDetail {
     public String getOptions() { return options; }
     public void setOptions(String options) { this.options = options; }
 
+    /**
+     * 解析后的选项（相同 JSON 共享同一实例）
+     */
+    public QuestionOptions getParsedOptions() { return JSONUtil.parseQuestionOptions(options); }
+
+    /**
+     * 所选答案的选项文本
+     */
+    public String getAnswerText() {
+        String text = answerValue != null ? getParsedOptions().textOf(answerValue) : null;
+        return text != null ? text : "未知";
+    }
+
     public Integer getAnswerValue() { return answerValue; }
     public void setAnswerValue(Integer answerValue) { this.answerValue = answerValue; }
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.university.mentalhealth.entity;
 
+import com.university.mentalhealth.util.JSONUtil;
+
 public class AssessmentQuestion {
     private int id;
     private int assessmentId;
     private String questionText;
     private Integer questionOrder;
     private String options; // JSON格式存储选项
+    private volatile QuestionOptions parsedOptions; // 解析后的选项，第一次使用时解析
 
     // Getter和Setter方法
     public int getId() { return id; }
@@ -21,7 +24,22 @@ public class AssessmentQuestion {
     public void setQuestionOrder(Integer questionOrder) { this.questionOrder = questionOrder; }
 
     public String getOptions() { return options; }
-    public void setOptions(String options) { this.options = options; }
+    public void setOptions(String options) {
+        this.options = options;
+        this.parsedOptions = null;
+    }
+
+    /**
+     * 解析后的选项（随题目一起缓存，只解析一次）
+     */
+    public QuestionOptions getParsedOptions() {
+        QuestionOptions result = parsedOptions;
+        if (result == null) {
+            result = JSONUtil.parseQuestionOptions(options);
+            parsedOptions = result;
+        }
+        return result;
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,48 @@
+package com.university.mentalhealth.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * 通知发件箱中的一条待投递记录，附带投递时读取的预约信息
+ */
+public class OutboxMessage {
+    private long id;
+    private int appointmentId;
+    private String eventType; // created, confirmed, cancelled, completed
+    private int attempts;
+    private LocalDateTime createdAt;
+    private Appointment appointment;
+    private String studentUsername;
+    private String counselorUsername;
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public int getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(int appointmentId) { this.appointmentId = appointmentId; }
+
+    public String getEventType() { return eventType; }
+    public void setEventType(String eventType) { this.eventType = eventType; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    /** 预约已被删除时为 null */
+    public Appointment getAppointment() { return appointment; }
+    public void setAppointment(Appointment appointment) { this.appointment = appointment; }
+
+    public String getStudentUsername() { return studentUsername; }
+    public void setStudentUsername(String studentUsername) { this.studentUsername = studentUsername; }
+
+    public String getCounselorUsername() { return counselorUsername; }
+    public void setCounselorUsername(String counselorUsername) { this.counselorUsername = counselorUsername; }
+
+    @Override
+    public String toString() {
+        return "OutboxMessage{id=" + id + ", appointmentId=" + appointmentId + ", eventType='" + eventType +
+                "', attempts=" + attempts + "}";
+    }
+}
@@ -0,0 +1,43 @@
+package com.university.mentalhealth.entity;
+
+/**
+ * 测评题目的选项（已解析，不可变）。
+ * 选项文本和分值按顺序保存在两个平行数组中，相同 JSON 的题目共享同一个实例。
+ */
+public final class QuestionOptions {
+    /**
+     * 标准四级选项（选项缺失或格式错误时的后备）
+     */
+    public static final QuestionOptions STANDARD = new QuestionOptions(
+            new String[]{"完全没有", "有几天", "一半以上时间", "几乎每天"},
+            new int[]{0, 1, 2, 3});
+
+    private final String[] texts;
+    private final int[] values;
+
+    public QuestionOptions(String[] texts, int[] values) {
+        if (texts.length != values.length) {
+            throw new IllegalArgumentException("选项文本和分值数量不一致");
+        }
+        this.texts = texts.clone();
+        this.values = values.clone();
+    }
+
+    public int size() { return values.length; }
+
+    public String getText(int index) { return texts[index]; }
+
+    public int getValue(int index) { return values[index]; }
+
+    /**
+     * 按分值查找选项文本，找不到时返回 null
+     */
+    public String textOf(int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return texts[i];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.university.mentalhealth.event;
+
+import com.university.mentalhealth.entity.Appointment;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 预约生命周期事件：创建、确认、取消、完成。
+ * 状态变更事件只携带预约ID，预约详情在订阅者第一次调用 getAppointment() 时才读取，
+ * 读取在订阅者的线程中进行，多个订阅者共用同一次读取的结果。
+ */
+public final class AppointmentEvent {
+
+    public enum Type {
+        CREATED("创建"),
+        CONFIRMED("确认"),
+        CANCELLED("取消"),
+        COMPLETED("完成");
+
+        private final String action;
+
+        Type(String action) {
+            this.action = action;
+        }
+
+        public String getAction() {
+            return action;
+        }
+    }
+
+    private final Type type;
+    private final int appointmentId;
+    private final LocalDateTime occurredAt;
+    // 保护延迟读取；loader 会查询数据库，不用 synchronized 以免钉住虚拟线程的载体线程
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private Supplier<Appointment> loader;
+    private Appointment appointment;
+
+    /**
+     * 已有预约详情时使用（例如刚创建的预约）
+     */
+    public AppointmentEvent(Type type, Appointment appointment) {
+        this.type = type;
+        this.appointmentId = appointment.getId();
+        this.occurredAt = LocalDateTime.now();
+        this.appointment = appointment;
+    }
+
+    /**
+     * 预约详情由 loader 延迟读取，loader 找不到预约时返回 null
+     */
+    public AppointmentEvent(Type type, int appointmentId, Supplier<Appointment> loader) {
+        this.type = type;
+        this.appointmentId = appointmentId;
+        this.occurredAt = LocalDateTime.now();
+        this.loader = loader;
+    }
+
+    public Type getType() { return type; }
+
+    public int getAppointmentId() { return appointmentId; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+
+    /**
+     * 预约详情（事件发生后的状态），预约已不存在时返回 null
+     */
+    public Appointment getAppointment() {
+        loadLock.lock();
+        try {
+            if (loader != null) {
+                appointment = loader.get();
+                loader = null;
+            }
+            return appointment;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentEvent{type=" + type + ", appointmentId=" + appointmentId + ", occurredAt=" + occurredAt + "}";
+    }
+}
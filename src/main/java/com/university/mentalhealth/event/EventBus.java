@@ -0,0 +1,126 @@
+package com.university.mentalhealth.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 进程内的异步事件总线。
+ * 每个订阅者有自己的有界队列和分发线程，publish() 只把事件放入各订阅者的队列后立即返回，
+ * 因此慢的订阅者（例如发送邮件）不会拖慢发布者，也不会拖慢其他订阅者。
+ * 订阅者的队列已满时丢弃该订阅者的这条事件并记录日志，发布者永远不会被阻塞。
+ * 同一订阅者按发布顺序收到事件。
+ */
+public class EventBus<E> {
+    private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
+
+    private final String name;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public EventBus(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 注册订阅者，listener 在该订阅者专用的后台线程中调用
+     *
+     * @param subscriberName 订阅者名称（用于线程名和日志）
+     * @param capacity       队列容量，积压超过该数量的事件会被丢弃
+     */
+    public Subscription subscribe(String subscriberName, int capacity, Consumer<? super E> listener) {
+        Subscription subscription = new Subscription(subscriberName, capacity, listener);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        logger.info("事件订阅: {} -> {}", name, subscriberName);
+        return subscription;
+    }
+
+    /**
+     * 发布事件，不等待订阅者处理
+     */
+    public void publish(E event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * 一个订阅者：有界队列和分发线程。close() 后不再接收事件，队列中剩余的事件被丢弃
+     */
+    public final class Subscription implements AutoCloseable {
+        private final String subscriberName;
+        private final BlockingQueue<E> queue;
+        private final Consumer<? super E> listener;
+        private final Thread thread;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean closed;
+
+        private Subscription(String subscriberName, int capacity, Consumer<? super E> listener) {
+            this.subscriberName = subscriberName;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.listener = listener;
+            this.thread = new Thread(this::dispatch, "event-" + name + "-" + subscriberName);
+            this.thread.setDaemon(true);
+        }
+
+        private void offer(E event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                long count = dropped.incrementAndGet();
+                logger.warn("事件队列已满，丢弃事件: {} -> {}, 累计丢弃={}, event={}", name, subscriberName, count, event);
+            }
+        }
+
+        private void dispatch() {
+            while (!closed) {
+                E event;
+                try {
+                    event = queue.take();
+                } catch (InterruptedException e) {
+                    // close() 时中断
+                    break;
+                }
+                try {
+                    listener.accept(event);
+                    delivered.incrementAndGet();
+                } catch (RuntimeException e) {
+                    logger.error("事件处理失败: {} -> {}, event={}", name, subscriberName, event, e);
+                }
+            }
+        }
+
+        /**
+         * 已处理的事件数
+         */
+        public long getDeliveredCount() {
+            return delivered.get();
+        }
+
+        /**
+         * 因队列已满而丢弃的事件数
+         */
+        public long getDroppedCount() {
+            return dropped.get();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscriptions.remove(this);
+            queue.clear();
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.university.mentalhealth.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * JDBC 代理：给 Connection 创建的语句计时并统计行数。
+ * 预编译语句在 prepareStatement 时按 SQL 确定所属操作，普通 Statement 在执行时确定；
+ * execute* 的耗时计入延迟，查询结果每读到一行、更新每影响一行计一行。
+ * 流式查询（服务器端游标）读取结果的时间不计入延迟。
+ * 启用慢查询日志时还记录预编译语句的绑定参数，超过阈值的执行交给 SlowQueryLog。
+ */
+final class InstrumentedJdbc {
+    private static final ClassLoader LOADER = InstrumentedJdbc.class.getClassLoader();
+
+    private InstrumentedJdbc() {
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(LOADER, new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedJdbc.invoke(target, method, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement) {
+                return wrapStatement(CallableStatement.class, (Statement) result, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement && name.equals("prepareStatement")) {
+                return wrapStatement(PreparedStatement.class, (Statement) result, (String) args[0]);
+            }
+            if (result instanceof Statement && name.equals("createStatement")) {
+                return wrapStatement(Statement.class, (Statement) result, null);
+            }
+            return result;
+        }
+    }
+
+    private static Object wrapStatement(Class<?> type, Statement statement, String preparedSql) {
+        return Proxy.newProxyInstance(LOADER, new Class<?>[]{type}, new StatementHandler(statement, preparedSql));
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        // 预编译语句的 SQL 和操作；普通 Statement 为 null，执行时按 SQL 确定
+        private final String preparedSql;
+        private final OperationMetrics preparedOperation;
+        private OperationMetrics lastOperation;
+        // 绑定参数（仅在启用慢查询日志时记录），parameters[i] 对应第 i+1 个占位符
+        private Object[] parameters;
+        private int parameterCount;
+        // 尚未写日志的慢查询（等待结果集读取完毕）
+        private SlowQueryLog.Entry pendingSlow;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.preparedOperation = preparedSql != null ? QueryMetrics.forSql(preparedSql) : null;
+            this.lastOperation = preparedOperation;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("close")) {
+                    flushSlow();
+                } else if (preparedSql != null && SlowQueryLog.isEnabled()) {
+                    captureParameter(name, args);
+                }
+                Object result = InstrumentedJdbc.invoke(target, method, args);
+                if (name.equals("getResultSet") && result != null && lastOperation != null) {
+                    return wrapResultSet((ResultSet) result, lastOperation, null);
+                }
+                return result;
+            }
+            flushSlow();
+
+            String sql = preparedSql;
+            OperationMetrics operation = preparedOperation;
+            if (operation == null && args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+                operation = QueryMetrics.forSql(sql);
+            }
+            if (operation == null) {
+                // addBatch 后的 executeBatch：沿用上一次的操作
+                operation = lastOperation != null ? lastOperation : QueryMetrics.forSql("(batch)");
+            }
+            lastOperation = operation;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedJdbc.invoke(target, method, args);
+            } catch (Throwable e) {
+                operation.record(System.nanoTime() - start, true);
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            operation.record(elapsed, false);
+            SlowQueryLog.Entry slow = SlowQueryLog.isSlow(elapsed) && sql != null
+                    ? new SlowQueryLog.Entry(operation, sql, copyParameters(), elapsed) : null;
+
+            if (result instanceof ResultSet) {
+                // 查询的行数在结果集读取完才知道，慢查询日志推迟到结果集关闭时
+                pendingSlow = slow;
+                return wrapResultSet((ResultSet) result, operation, slow);
+            }
+            long rows = 0;
+            if (name.equals("executeUpdate") || name.equals("executeLargeUpdate")) {
+                rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            operation.addRows(rows);
+            if (slow != null) {
+                slow.addRows(rows);
+                slow.log();
+            }
+            return result;
+        }
+
+        private void captureParameter(String name, Object[] args) {
+            if (name.equals("clearParameters")) {
+                parameters = null;
+                parameterCount = 0;
+                return;
+            }
+            if (!name.startsWith("set") || args == null || args.length < 2 || !(args[0] instanceof Integer)) {
+                return;
+            }
+            int index = (Integer) args[0] - 1;
+            if (index < 0) {
+                return;
+            }
+            if (parameters == null || parameters.length <= index) {
+                parameters = Arrays.copyOf(parameters != null ? parameters : new Object[0], Math.max(index + 1, 8));
+            }
+            parameters[index] = name.equals("setNull") ? null : args[1];
+            parameterCount = Math.max(parameterCount, index + 1);
+        }
+
+        private Object[] copyParameters() {
+            return parameters != null ? Arrays.copyOf(parameters, parameterCount) : null;
+        }
+
+        private void flushSlow() {
+            if (pendingSlow != null) {
+                SlowQueryLog.Entry slow = pendingSlow;
+                pendingSlow = null;
+                slow.log();
+            }
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet, OperationMetrics operation, SlowQueryLog.Entry slow) {
+        return (ResultSet) Proxy.newProxyInstance(LOADER, new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            String name = method.getName();
+            if (Boolean.TRUE.equals(result) && name.equals("next")) {
+                operation.addRows(1);
+                if (slow != null) {
+                    slow.addRows(1);
+                }
+            } else if (slow != null && name.equals("close")) {
+                slow.log();
+            }
+            return result;
+        });
+    }
+}
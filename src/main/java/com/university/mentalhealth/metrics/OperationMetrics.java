@@ -0,0 +1,78 @@
+package com.university.mentalhealth.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个数据库操作（通常是一个 DAO 方法）的调用次数、错误次数、返回/影响的行数和执行延迟
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 记录一次语句执行
+     */
+    void record(long elapsedNanos, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        latency.record(elapsedNanos / 1000);
+    }
+
+    void addRows(long count) {
+        rows.add(count);
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public long getCalls() { return calls.sum(); }
+
+    @Override
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public long getRows() { return rows.sum(); }
+
+    @Override
+    public double getMeanMillis() { return latency.getMeanMicros() / 1000.0; }
+
+    @Override
+    public double getP50Millis() { return latency.getPercentileMicros(50) / 1000.0; }
+
+    @Override
+    public double getP90Millis() { return latency.getPercentileMicros(90) / 1000.0; }
+
+    @Override
+    public double getP99Millis() { return latency.getPercentileMicros(99) / 1000.0; }
+
+    @Override
+    public double getP999Millis() { return latency.getPercentileMicros(99.9) / 1000.0; }
+
+    @Override
+    public double getMaxMillis() { return latency.getMaxMicros() / 1000.0; }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{calls=%d, errors=%d, rows=%d, mean=%.2fms, p50=%.2fms, p99=%.2fms, max=%.2fms}",
+                name, getCalls(), getErrors(), getRows(), getMeanMillis(), getP50Millis(), getP99Millis(),
+                getMaxMillis());
+    }
+}
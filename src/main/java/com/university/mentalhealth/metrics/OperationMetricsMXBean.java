@@ -0,0 +1,28 @@
+package com.university.mentalhealth.metrics;
+
+/**
+ * 单个数据库操作的统计（JMX），时间单位为毫秒
+ */
+public interface OperationMetricsMXBean {
+    String getName();
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,255 @@
+package com.university.mentalhealth.metrics;
+
+import com.university.mentalhealth.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据库操作统计。DatabaseUtil 借出的连接经 wrap() 包装后，每条语句的执行都计入所属的操作：
+ * 操作名取自准备该语句的方法（通常是 "AppointmentDAO.findByCounselorId" 这样的 DAO 方法），
+ * 只在第一次遇到某条 SQL 时解析调用栈，之后按 SQL 文本直接查到。
+ * 统计通过 JMX（com.university.mentalhealth:type=QueryMetrics）和定期日志输出查看。
+ */
+public final class QueryMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetrics.class);
+    private static final String JMX_DOMAIN = "com.university.mentalhealth";
+    // 缓存的 SQL 文本数量上限，超过后新的 SQL 每次都解析调用栈
+    private static final int MAX_CACHED_SQL = 4096;
+
+    private static final boolean ENABLED = AppConfig.getBoolean("metrics.enabled", true);
+    private static final boolean JMX_ENABLED = AppConfig.getBoolean("metrics.jmx.enabled", true);
+
+    // 通用的查询辅助类和方法：语句计入调用它们的方法，而不是全部计入辅助方法本身
+    private static final String[] HELPER_CLASSES = {"com.university.mentalhealth.dao.StreamingQuery"};
+    private static final String[] HELPER_METHODS = {"com.university.mentalhealth.util.DatabaseUtil.queryLong"};
+
+    private static final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private static final Map<String, OperationMetrics> operationsBySql = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService reporter;
+
+    static {
+        if (ENABLED && JMX_ENABLED) {
+            register(objectName("type=QueryMetrics"), new Control());
+        }
+    }
+
+    private QueryMetrics() {
+    }
+
+    /**
+     * 包装连接以记录语句统计；统计关闭时原样返回
+     */
+    public static Connection wrap(Connection connection) {
+        if (!ENABLED || connection == null) {
+            return connection;
+        }
+        return InstrumentedJdbc.wrap(connection);
+    }
+
+    /**
+     * 某条 SQL 所属的操作
+     */
+    static OperationMetrics forSql(String sql) {
+        OperationMetrics operation = operationsBySql.get(sql);
+        if (operation != null) {
+            return operation;
+        }
+        operation = getOperation(resolveOperationName());
+        if (operationsBySql.size() < MAX_CACHED_SQL) {
+            operationsBySql.put(sql, operation);
+        }
+        return operation;
+    }
+
+    /**
+     * 按名称获取（必要时创建并注册到 JMX）操作统计
+     */
+    public static OperationMetrics getOperation(String name) {
+        OperationMetrics operation = operations.get(name);
+        if (operation != null) {
+            return operation;
+        }
+        OperationMetrics created = new OperationMetrics(name);
+        operation = operations.putIfAbsent(name, created);
+        if (operation != null) {
+            return operation;
+        }
+        if (JMX_ENABLED) {
+            register(objectName("type=QueryMetrics,operation=" + ObjectName.quote(name)), created);
+        }
+        return created;
+    }
+
+    /**
+     * 所有操作的统计，按名称排序
+     */
+    public static List<OperationMetrics> getOperations() {
+        List<OperationMetrics> list = new ArrayList<>(operations.values());
+        list.sort(Comparator.comparing(OperationMetrics::getName));
+        return list;
+    }
+
+    public static void resetAll() {
+        for (OperationMetrics operation : operations.values()) {
+            operation.reset();
+        }
+    }
+
+    /**
+     * 文本报表：每个操作一行，按总耗时估计（调用次数 × 平均延迟）从高到低排列
+     */
+    public static String formatReport() {
+        List<OperationMetrics> list = new ArrayList<>(operations.values());
+        list.sort(Comparator.comparingDouble((OperationMetrics m) -> m.getCalls() * m.getMeanMillis()).reversed());
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-50s %10s %8s %12s %9s %9s %9s %9s %9s%n",
+                "operation", "calls", "errors", "rows", "mean(ms)", "p50", "p99", "p99.9", "max"));
+        for (OperationMetrics m : list) {
+            if (m.getCalls() == 0) {
+                continue;
+            }
+            sb.append(String.format("%-50s %10d %8d %12d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    m.getName(), m.getCalls(), m.getErrors(), m.getRows(), m.getMeanMillis(),
+                    m.getP50Millis(), m.getP99Millis(), m.getP999Millis(), m.getMaxMillis()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 按 metrics.dumpIntervalSeconds 定期把报表写入日志（0 表示不输出），重复调用只启动一次。
+     * ApiServer 启动时调用；桌面客户端只在 metrics.reporter.enabled=true 时调用
+     */
+    public static synchronized void startReporter() {
+        long intervalSeconds = AppConfig.getLong("metrics.dumpIntervalSeconds", 300);
+        if (!ENABLED || intervalSeconds <= 0 || reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            if (!operations.isEmpty()) {
+                logger.info("数据库操作统计（启动以来）:\n{}", formatReport());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 调用栈中第一个应用代码的方法（跳过 JDBC、代理、本包和查询辅助方法），例如 "AppointmentDAO.findById"
+     */
+    private static String resolveOperationName() {
+        StackTraceElement frame = findCaller();
+        return frame != null ? simpleClassName(frame) + "." + frame.getMethodName() : "unknown";
+    }
+
+    /**
+     * 带行号的调用位置，例如 "AppointmentDAO.findById(AppointmentDAO.java:120)"，用于慢查询日志
+     */
+    static String resolveCallSite() {
+        StackTraceElement frame = findCaller();
+        if (frame == null) {
+            return "unknown";
+        }
+        return simpleClassName(frame) + "." + frame.getMethodName()
+                + "(" + frame.getFileName() + ":" + frame.getLineNumber() + ")";
+    }
+
+    private static StackTraceElement findCaller() {
+        String packageName = QueryMetrics.class.getPackage().getName();
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("com.university.mentalhealth.") && !className.startsWith(packageName)
+                    && !isHelperFrame(frame)) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isHelperFrame(StackTraceElement frame) {
+        String className = frame.getClassName();
+        for (String helper : HELPER_CLASSES) {
+            if (className.equals(helper) || className.startsWith(helper + "$")) {
+                return true;
+            }
+        }
+        String method = className + "." + frame.getMethodName();
+        for (String helper : HELPER_METHODS) {
+            if (method.equals(helper)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String simpleClassName(StackTraceElement frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int inner = simpleName.indexOf('$');
+        return inner > 0 ? simpleName.substring(0, inner) : simpleName;
+    }
+
+    private static void register(ObjectName name, Object mbean) {
+        if (name == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+            }
+        } catch (JMException e) {
+            logger.warn("注册JMX MBean失败: {}", name, e);
+        }
+    }
+
+    /**
+     * 本应用域下的 ObjectName，名称无效时记录日志并返回 null
+     */
+    private static ObjectName objectName(String properties) {
+        try {
+            return new ObjectName(JMX_DOMAIN + ":" + properties);
+        } catch (JMException e) {
+            logger.warn("无效的JMX名称: {}", properties, e);
+            return null;
+        }
+    }
+
+    private static final class Control implements QueryMetricsMXBean {
+        @Override
+        public String[] getOperationNames() {
+            List<OperationMetrics> list = getOperations();
+            String[] names = new String[list.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = list.get(i).getName();
+            }
+            return names;
+        }
+
+        @Override
+        public String getReport() {
+            return formatReport();
+        }
+
+        @Override
+        public void resetAll() {
+            QueryMetrics.resetAll();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.university.mentalhealth.metrics;
+
+/**
+ * 数据库操作统计的汇总（JMX）：各操作的统计另外注册为 OperationMetricsMXBean
+ */
+public interface QueryMetricsMXBean {
+    /**
+     * 已记录的操作名称
+     */
+    String[] getOperationNames();
+
+    /**
+     * 与定期输出的日志相同的文本报表
+     */
+    String getReport();
+
+    /**
+     * 清空所有操作的统计
+     */
+    void resetAll();
+}
@@ -0,0 +1,389 @@
+package com.university.mentalhealth.metrics;
+
+import com.university.mentalhealth.util.AppConfig;
+import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 慢查询日志：执行时间超过 metrics.slowQuery.thresholdMillis 的语句记录 SQL、绑定参数、行数和调用位置。
+ * 敏感列（metrics.slowQuery.redactColumns，默认密码和联系方式）对应的参数以 *** 代替；
+ * 同一条 SQL 第一次变慢时可以另外记录执行计划（EXPLAIN），用于查找缺少的索引。
+ * EXPLAIN 在后台线程中用连接池的另一个连接执行，不占用原查询的连接，也不延长业务请求。
+ */
+final class SlowQueryLog {
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final String REDACTED = "***";
+    private static final int MAX_VALUE_LENGTH = 100;
+    // 缓存的 SQL 数量上限（参数脱敏位置、已 EXPLAIN 的 SQL）
+    private static final int MAX_CACHED_SQL = 1024;
+    private static final Pattern INSERT_COLUMNS = Pattern.compile(
+            "^\\s*(?:INSERT|REPLACE)\\s+(?:INTO\\s+)?\\S+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    private static final long THRESHOLD_NANOS =
+            AppConfig.getLong("metrics.slowQuery.thresholdMillis", 500) * 1_000_000L;
+    private static final boolean EXPLAIN_ENABLED = AppConfig.getBoolean("metrics.slowQuery.explain", true);
+    private static final Set<String> REDACT_COLUMNS = parseColumns(AppConfig.getString(
+            "metrics.slowQuery.redactColumns", "password_hash,contact_phone,emergency_contact,emergency_phone"));
+
+    // 等待执行的 EXPLAIN 数量上限，排满时放弃，该 SQL 下次变慢时再试
+    private static final int EXPLAIN_QUEUE_CAPACITY = 16;
+
+    private static final Map<String, BitSet> redactedParameters = new ConcurrentHashMap<>();
+    private static final Set<String> explainedSql = ConcurrentHashMap.newKeySet();
+    private static final ThreadPoolExecutor explainExecutor = createExplainExecutor();
+
+    private SlowQueryLog() {
+    }
+
+    static boolean isEnabled() {
+        return THRESHOLD_NANOS > 0;
+    }
+
+    static boolean isSlow(long elapsedNanos) {
+        return THRESHOLD_NANOS > 0 && elapsedNanos >= THRESHOLD_NANOS;
+    }
+
+    /**
+     * 一次慢执行。查询的行数在结果集关闭时才知道，因此先捕获参数和调用位置，读取完再写日志
+     */
+    static final class Entry {
+        private final OperationMetrics operation;
+        private final String sql;
+        private final Object[] parameters;
+        private final long elapsedNanos;
+        private final String callSite;
+        private long rows;
+        private boolean logged;
+
+        Entry(OperationMetrics operation, String sql, Object[] parameters, long elapsedNanos) {
+            this.operation = operation;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.elapsedNanos = elapsedNanos;
+            this.callSite = QueryMetrics.resolveCallSite();
+        }
+
+        void addRows(long count) {
+            rows += count;
+        }
+
+        /**
+         * 写日志（只写一次），需要时提交后台 EXPLAIN
+         */
+        void log() {
+            if (logged) {
+                return;
+            }
+            logged = true;
+            logger.warn("慢查询: {} 耗时 {} ms, 行数={}, 调用位置={}\n  SQL: {}\n  参数: {}",
+                    operation.getName(), String.format("%.1f", elapsedNanos / 1_000_000.0), rows, callSite,
+                    normalize(sql), formatParameters(sql, parameters));
+            if (EXPLAIN_ENABLED) {
+                explainOnce(operation.getName(), sql, parameters);
+            }
+        }
+    }
+
+    /**
+     * 参数列表，敏感列的参数以 *** 代替。parameters[i] 对应第 i+1 个占位符
+     */
+    static String formatParameters(String sql, Object[] parameters) {
+        if (parameters == null || parameters.length == 0) {
+            return "[]";
+        }
+        BitSet redacted = redactedParameters(sql);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(redacted.get(i) ? REDACTED : formatValue(parameters[i]));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        if (value instanceof CharSequence || value instanceof java.util.Date || value instanceof java.time.temporal.Temporal) {
+            String text = value.toString();
+            if (text.length() > MAX_VALUE_LENGTH) {
+                text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+            }
+            return "'" + text + "'";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+
+    /**
+     * 需要脱敏的参数位置（从 0 开始）。INSERT 按列清单对应 VALUES 中每一行的占位符，
+     * 其余语句取占位符前面比较运算符左侧的列名（例如 "u.password_hash = ?"），
+     * IN (?, ?) 列表和函数参数（例如 "password_hash = SHA2(?, 256)"）取括号前面的列名
+     */
+    static BitSet redactedParameters(String sql) {
+        BitSet cached = redactedParameters.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        BitSet redacted = new BitSet();
+        int valuesStart = -1;
+        String[] insertColumns = null;
+        Matcher matcher = INSERT_COLUMNS.matcher(sql);
+        if (matcher.find()) {
+            insertColumns = matcher.group(1).split(",");
+            valuesStart = matcher.end();
+        }
+
+        int parameterIndex = 0;
+        int valueIndex = 0;
+        // VALUES 之后的括号深度：1 表示在某一行的值列表中，0 表示各行之间或之后（ON DUPLICATE KEY UPDATE）
+        int depth = 1;
+        boolean inQuote = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+                continue;
+            }
+            if (inQuote) {
+                continue;
+            }
+            if (insertColumns != null && i >= valuesStart) {
+                if (c == '(') {
+                    if (++depth == 1) {
+                        valueIndex = 0;
+                    }
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == ',' && depth == 1) {
+                    valueIndex++;
+                }
+            }
+            if (c != '?') {
+                continue;
+            }
+            String column;
+            if (insertColumns != null && i >= valuesStart && depth >= 1) {
+                column = valueIndex < insertColumns.length ? insertColumns[valueIndex] : null;
+            } else {
+                column = columnBefore(sql, i);
+            }
+            if (column != null && REDACT_COLUMNS.contains(stripQualifier(column))) {
+                redacted.set(parameterIndex);
+            }
+            parameterIndex++;
+        }
+        if (redactedParameters.size() < MAX_CACHED_SQL) {
+            redactedParameters.put(sql, redacted);
+        }
+        return redacted;
+    }
+
+    /**
+     * 位置 end 处占位符（或关键字）左侧的列名：跳过空白、比较运算符（= <> != 等）和 NOT/LIKE/IN，
+     * 占位符在括号中时（IN 列表或函数参数）取括号前面的列名
+     */
+    private static String columnBefore(String sql, int end) {
+        int i = skipWhitespaceBackward(sql, end - 1);
+        if (i >= 0 && (sql.charAt(i) == ',' || sql.charAt(i) == '(')) {
+            int open = openingParenthesis(sql, i);
+            if (open < 0) {
+                return null;
+            }
+            // "col IN (" 或 "col = FUNC(" 中括号前的 IN / 函数名也按关键字跳过
+            int wordEnd = skipWhitespaceBackward(sql, open - 1) + 1;
+            int wordStart = identifierStart(sql, wordEnd);
+            return wordStart < wordEnd ? columnBefore(sql, wordStart) : null;
+        }
+        while (i >= 0 && "=<>!".indexOf(sql.charAt(i)) >= 0) {
+            i--;
+        }
+        int wordEnd = skipWhitespaceBackward(sql, i) + 1;
+        int wordStart = identifierStart(sql, wordEnd);
+        String word = sql.substring(wordStart, wordEnd);
+        if (word.equalsIgnoreCase("LIKE") || word.equalsIgnoreCase("NOT") || word.equalsIgnoreCase("IN")) {
+            return columnBefore(sql, wordStart);
+        }
+        return word.isEmpty() ? null : word;
+    }
+
+    private static int skipWhitespaceBackward(String sql, int i) {
+        while (i >= 0 && Character.isWhitespace(sql.charAt(i))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static int identifierStart(String sql, int wordEnd) {
+        int wordStart = wordEnd;
+        while (wordStart > 0 && isIdentifierChar(sql.charAt(wordStart - 1))) {
+            wordStart--;
+        }
+        return wordStart;
+    }
+
+    /**
+     * 从位置 i 向前找到包含它的左括号，找不到返回 -1
+     */
+    private static int openingParenthesis(String sql, int i) {
+        int depth = 0;
+        for (; i >= 0; i--) {
+            char c = sql.charAt(i);
+            if (c == ')') {
+                depth++;
+            } else if (c == '(') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '`' || c == '"';
+    }
+
+    private static String stripQualifier(String column) {
+        String name = column.trim().replace("`", "").replace("\"", "");
+        int dot = name.lastIndexOf('.');
+        return (dot >= 0 ? name.substring(dot + 1) : name).toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> parseColumns(String value) {
+        Set<String> columns = new HashSet<>();
+        for (String column : value.split(",")) {
+            if (!column.trim().isEmpty()) {
+                columns.add(stripQualifier(column));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 同一条 SQL 只 EXPLAIN 一次，只解释 SELECT；在后台线程中执行，结果单独写一条日志
+     */
+    private static void explainOnce(String operationName, String sql, Object[] parameters) {
+        if (!sql.trim().regionMatches(true, 0, "SELECT", 0, 6)
+                || explainedSql.size() >= MAX_CACHED_SQL || !explainedSql.add(sql)) {
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> {
+                String plan = explain(sql, parameters);
+                if (plan != null) {
+                    logger.warn("慢查询执行计划: {}\n  SQL: {}\n  执行计划:\n{}", operationName, normalize(sql), plan);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            explainedSql.remove(sql);
+        }
+    }
+
+    /**
+     * 从连接池另取一个连接执行 EXPLAIN（不经过语句统计），失败时返回 null（不影响业务）
+     */
+    private static String explain(String sql, Object[] parameters) {
+        DataSource dataSource = DatabaseUtil.getDataSource();
+        if (dataSource == null) {
+            return null;
+        }
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            conn = dataSource.getConnection();
+            pstmt = conn.prepareStatement("EXPLAIN " + sql);
+            if (parameters != null) {
+                for (int i = 0; i < parameters.length; i++) {
+                    pstmt.setObject(i + 1, parameters[i]);
+                }
+            }
+            rs = pstmt.executeQuery();
+            return formatPlan(rs);
+        } catch (SQLException | RuntimeException e) {
+            // 执行计划只用于诊断
+            logger.debug("获取执行计划失败: {}", normalize(sql), e);
+            return null;
+        } finally {
+            closeQuietly(rs);
+            closeQuietly(pstmt);
+            closeQuietly(conn);
+        }
+    }
+
+    private static ThreadPoolExecutor createExplainExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static String formatPlan(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columnCount = meta.getColumnCount();
+        StringBuilder sb = new StringBuilder();
+        while (rs.next()) {
+            StringJoiner row = new StringJoiner(", ", "    ", "\n");
+            for (int i = 1; i <= columnCount; i++) {
+                Object value = rs.getObject(i);
+                if (value != null) {
+                    row.add(meta.getColumnLabel(i) + "=" + value);
+                }
+            }
+            sb.append(row);
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            logger.debug("关闭执行计划查询失败", e);
+        }
+    }
+
+    /**
+     * 合并 SQL 中的连续空白，便于在一行中阅读
+     */
+    private static String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+}
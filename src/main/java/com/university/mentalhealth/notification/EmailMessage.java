@@ -0,0 +1,31 @@
+package com.university.mentalhealth.notification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一封纯文本邮件
+ */
+public class EmailMessage {
+    private final List<String> recipients;
+    private final String subject;
+    private final String body;
+
+    public EmailMessage(List<String> recipients, String subject, String body) {
+        this.recipients = Collections.unmodifiableList(new ArrayList<>(recipients));
+        this.subject = subject;
+        this.body = body;
+    }
+
+    public List<String> getRecipients() { return recipients; }
+
+    public String getSubject() { return subject; }
+
+    public String getBody() { return body; }
+
+    @Override
+    public String toString() {
+        return "EmailMessage{recipients=" + recipients + ", subject='" + subject + "'}";
+    }
+}
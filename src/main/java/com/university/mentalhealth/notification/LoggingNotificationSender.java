@@ -0,0 +1,24 @@
+package com.university.mentalhealth.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 只记录日志的通知发送方式（未配置 SMTP 服务器时使用）
+ */
+public class LoggingNotificationSender implements NotificationSender {
+    private static final Logger logger = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    @Override
+    public List<String> sendBatch(List<EmailMessage> messages) {
+        List<String> results = new ArrayList<>(messages.size());
+        for (EmailMessage message : messages) {
+            logger.info("预约通知: {} - {}\n{}", message.getRecipients(), message.getSubject(), message.getBody());
+            results.add(null);
+        }
+        return results;
+    }
+}
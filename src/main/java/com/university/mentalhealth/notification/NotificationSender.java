@@ -0,0 +1,14 @@
+package com.university.mentalhealth.notification;
+
+import java.util.List;
+
+/**
+ * 通知发送方式
+ */
+public interface NotificationSender {
+    /**
+     * 发送一批邮件，返回与 messages 一一对应的结果：null 表示已发送，否则为失败原因。
+     * 实现应尽量复用同一个连接发送整批邮件
+     */
+    List<String> sendBatch(List<EmailMessage> messages);
+}
@@ -0,0 +1,188 @@
+package com.university.mentalhealth.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * 最简单的 SMTP 发送方式：一批邮件复用同一个连接，每封邮件一次 MAIL/RCPT/DATA 事务，
+ * 某封邮件被拒绝时 RSET 后继续发送下一封。正文和主题按 UTF-8 Base64 编码。
+ * 不支持 TLS 和认证，用于内网中继或本地 SMTP 模拟服务器（如 MailHog、smtp4dev）。
+ */
+public class SmtpNotificationSender implements NotificationSender {
+    private static final Logger logger = LoggerFactory.getLogger(SmtpNotificationSender.class);
+    private static final String CRLF = "\r\n";
+
+    private final String host;
+    private final int port;
+    private final int timeoutMillis;
+    private final String from;
+
+    public SmtpNotificationSender(String host, int port, int timeoutMillis, String from) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMillis = timeoutMillis;
+        this.from = from;
+    }
+
+    @Override
+    public List<String> sendBatch(List<EmailMessage> messages) {
+        List<String> results = new ArrayList<>(messages.size());
+        if (messages.isEmpty()) {
+            return results;
+        }
+
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+
+            expect(reader, 220);
+            String hostname = localHostName();
+            if (command(out, reader, "EHLO " + hostname) != 250) {
+                expectCommand(out, reader, "HELO " + hostname, 250);
+            }
+
+            for (EmailMessage message : messages) {
+                results.add(sendOne(out, reader, message));
+            }
+
+            command(out, reader, "QUIT");
+        } catch (IOException e) {
+            logger.warn("SMTP发送失败: {}:{}", host, port, e);
+            // 连接出错时，尚未确认发送成功的邮件都算失败
+            while (results.size() < messages.size()) {
+                results.add("SMTP连接失败: " + e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 发送一封邮件，返回 null 表示成功，否则为失败原因；连接错误抛出 IOException
+     */
+    private String sendOne(OutputStream out, BufferedReader reader, EmailMessage message) throws IOException {
+        try {
+            expectCommand(out, reader, "MAIL FROM:<" + from + ">", 250);
+            for (String recipient : message.getRecipients()) {
+                expectCommand(out, reader, "RCPT TO:<" + recipient + ">", 250, 251);
+            }
+            expectCommand(out, reader, "DATA", 354);
+            write(out, formatMessage(message) + CRLF + ".");
+            expect(reader, 250);
+            return null;
+        } catch (SmtpRejectedException e) {
+            command(out, reader, "RSET");
+            return e.getMessage();
+        }
+    }
+
+    private String formatMessage(EmailMessage message) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("From: <").append(from).append(">").append(CRLF);
+        sb.append("To: ");
+        for (int i = 0; i < message.getRecipients().size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append("<").append(message.getRecipients().get(i)).append(">");
+        }
+        sb.append(CRLF);
+        sb.append("Subject: =?UTF-8?B?")
+                .append(Base64.getEncoder().encodeToString(message.getSubject().getBytes(StandardCharsets.UTF_8)))
+                .append("?=").append(CRLF);
+        sb.append("MIME-Version: 1.0").append(CRLF);
+        sb.append("Content-Type: text/plain; charset=UTF-8").append(CRLF);
+        sb.append("Content-Transfer-Encoding: base64").append(CRLF);
+        sb.append(CRLF);
+        // Base64 正文按每行 76 个字符换行，不会出现需要转义的 "." 开头的行
+        sb.append(Base64.getMimeEncoder().encodeToString(message.getBody().getBytes(StandardCharsets.UTF_8)));
+        return sb.toString();
+    }
+
+    private int command(OutputStream out, BufferedReader reader, String line) throws IOException {
+        write(out, line);
+        return readReply(reader).code;
+    }
+
+    private void expectCommand(OutputStream out, BufferedReader reader, String line, int... expected)
+            throws IOException {
+        write(out, line);
+        expect(reader, expected);
+    }
+
+    private void expect(BufferedReader reader, int... expected) throws IOException {
+        Reply reply = readReply(reader);
+        for (int code : expected) {
+            if (reply.code == code) {
+                return;
+            }
+        }
+        throw new SmtpRejectedException("SMTP服务器拒绝: " + reply.text);
+    }
+
+    private void write(OutputStream out, String line) throws IOException {
+        out.write((line + CRLF).getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * 读取一个（可能多行的）应答，"250-..." 表示后面还有行
+     */
+    private Reply readReply(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                throw new IOException("SMTP服务器关闭了连接");
+            }
+        } while (line.length() > 3 && line.charAt(3) == '-');
+        if (line.length() < 3) {
+            throw new IOException("无法解析的SMTP应答: " + line);
+        }
+        try {
+            return new Reply(Integer.parseInt(line.substring(0, 3)), line);
+        } catch (NumberFormatException e) {
+            throw new IOException("无法解析的SMTP应答: " + line);
+        }
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+
+    private static final class Reply {
+        final int code;
+        final String text;
+
+        Reply(int code, String text) {
+            this.code = code;
+            this.text = text;
+        }
+    }
+
+    /**
+     * 服务器拒绝了某封邮件（连接仍可继续使用）
+     */
+    private static final class SmtpRejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        SmtpRejectedException(String message) {
+            super(message);
+        }
+    }
+}
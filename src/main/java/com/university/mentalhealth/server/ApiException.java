@@ -0,0 +1,29 @@
+package com.university.mentalhealth.server;
+
+/**
+ * 处理请求时返回给客户端的错误：HTTP 状态码和错误信息
+ */
+public class ApiException extends Exception {
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    static ApiException badRequest(String message) {
+        return new ApiException(400, message);
+    }
+
+    static ApiException unauthorized(String message) {
+        return new ApiException(401, message);
+    }
+
+    static ApiException notFound(String message) {
+        return new ApiException(404, message);
+    }
+}
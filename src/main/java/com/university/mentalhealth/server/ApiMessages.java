@@ -0,0 +1,45 @@
+package com.university.mentalhealth.server;
+
+import com.university.mentalhealth.entity.AssessmentAnswer;
+import com.university.mentalhealth.entity.AssessmentSession;
+import com.university.mentalhealth.entity.UserType;
+
+import java.util.List;
+
+/**
+ * HTTP 接口的请求体和响应体（服务器和瘦客户端共用）。
+ * 其余接口直接传输实体类，见 ServiceEndpoints
+ */
+public final class ApiMessages {
+    private ApiMessages() {
+    }
+
+    public static class LoginRequest {
+        public String username;
+        public String password;
+        public UserType type;
+    }
+
+    public static class LoginResponse {
+        public String token;
+        public int userId;
+        public String username;
+        public UserType type;
+    }
+
+    public static class BookingRequest {
+        public int timeSlotId;
+        public String notes;
+    }
+
+    public static class ContactInfoRequest {
+        public String contactPhone;
+        public String emergencyContact;
+        public String emergencyPhone;
+    }
+
+    public static class SubmitAssessmentRequest {
+        public AssessmentSession session;
+        public List<AssessmentAnswer> answers;
+    }
+}
@@ -0,0 +1,138 @@
+package com.university.mentalhealth.server;
+
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.university.mentalhealth.util.JsonCodec;
+import com.university.mentalhealth.util.UserSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 一次接口调用：路径参数、查询参数和 JSON 请求体
+ */
+public class ApiRequest {
+    // 请求体上限，接口只接收表单级别的小数据
+    private static final int MAX_BODY_BYTES = 256 * 1024;
+
+    private final HttpExchange exchange;
+    private final Map<String, String> pathParams;
+    private final UserSession session;
+    private Map<String, String> queryParams;
+
+    ApiRequest(HttpExchange exchange, Map<String, String> pathParams, UserSession session) {
+        this.exchange = exchange;
+        this.pathParams = pathParams;
+        this.session = session;
+    }
+
+    /**
+     * 请求携带的令牌对应的会话，没有令牌或令牌无效时为 null
+     */
+    public UserSession session() {
+        return session;
+    }
+
+    public int pathInt(String name) throws ApiException {
+        return parseInt(name, pathParams.get(name));
+    }
+
+    public String query(String name) {
+        if (queryParams == null) {
+            queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+        return queryParams.get(name);
+    }
+
+    public int queryInt(String name) throws ApiException {
+        return parseInt(name, query(name));
+    }
+
+    public LocalDateTime queryDateTime(String name) throws ApiException {
+        String value = query(name);
+        if (value == null) {
+            throw ApiException.badRequest("缺少参数: " + name);
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw ApiException.badRequest("参数格式错误: " + name + "=" + value);
+        }
+    }
+
+    /**
+     * 把 JSON 请求体解析为指定类型，请求体为空或格式错误时返回 400
+     */
+    public <T> T body(Class<T> type) throws ApiException {
+        String json;
+        try {
+            json = readBody(exchange.getRequestBody());
+        } catch (IOException e) {
+            throw ApiException.badRequest("读取请求体失败: " + e.getMessage());
+        }
+        T value;
+        try {
+            value = JsonCodec.fromJson(json, type);
+        } catch (JsonParseException e) {
+            throw ApiException.badRequest("请求体不是有效的 JSON");
+        }
+        if (value == null) {
+            throw ApiException.badRequest("缺少请求体");
+        }
+        return value;
+    }
+
+    private static String readBody(InputStream in) throws IOException, ApiException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+            if (out.size() > MAX_BODY_BYTES) {
+                throw new ApiException(413, "请求体过大");
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static int parseInt(String name, String value) throws ApiException {
+        if (value == null) {
+            throw ApiException.badRequest("缺少参数: " + name);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw ApiException.badRequest("参数格式错误: " + name + "=" + value);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(decode(key), decode(value));
+        }
+        return params;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
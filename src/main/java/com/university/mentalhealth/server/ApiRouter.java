@@ -0,0 +1,200 @@
+package com.university.mentalhealth.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.university.mentalhealth.util.JsonCodec;
+import com.university.mentalhealth.util.SessionManager;
+import com.university.mentalhealth.util.SessionRegistry;
+import com.university.mentalhealth.util.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按请求方法和路径把 HTTP 请求分发给接口处理函数。
+ * 路径模板中的 {name} 段匹配任意一段路径，处理函数通过 ApiRequest.pathInt(name) 读取。
+ * 请求头 "Authorization: Bearer 令牌" 对应的会话在处理期间绑定到工作线程（SessionManager.bind），
+ * 服务层据此识别调用者；需要登录的接口在没有有效令牌时返回 401。
+ * 处理函数的返回值序列化为 JSON 响应体，ApiException 转换为对应状态码和 {"error": "..."}。
+ * 处理函数在 RequestLimiter 的许可内执行，同时执行的请求数不超过其上限；
+ * 工作线程池的等待队列已满时（见 WorkerPools）不分发请求，直接返回 503。
+ */
+public class ApiRouter implements HttpHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ApiRouter.class);
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * 接口处理函数
+     */
+    @FunctionalInterface
+    public interface Endpoint {
+        Object handle(ApiRequest request) throws ApiException;
+    }
+
+    private final List<Route> routes = new ArrayList<>();
+    private final RequestLimiter limiter;
+
+    public ApiRouter(RequestLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    public ApiRouter get(String pattern, Endpoint endpoint) {
+        return add("GET", pattern, true, endpoint);
+    }
+
+    public ApiRouter post(String pattern, Endpoint endpoint) {
+        return add("POST", pattern, true, endpoint);
+    }
+
+    public ApiRouter put(String pattern, Endpoint endpoint) {
+        return add("PUT", pattern, true, endpoint);
+    }
+
+    /**
+     * 不需要登录的接口（登录、健康检查）
+     */
+    public ApiRouter publicRoute(String method, String pattern, Endpoint endpoint) {
+        return add(method, pattern, false, endpoint);
+    }
+
+    private ApiRouter add(String method, String pattern, boolean authenticated, Endpoint endpoint) {
+        routes.add(new Route(method, pattern, authenticated, endpoint));
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        int status;
+        try {
+            status = WorkerPools.isRejecting() ? sendError(exchange, 503, "服务器繁忙，请稍后重试")
+                    : dispatch(exchange, method, path);
+        } catch (RuntimeException e) {
+            logger.error("接口处理失败: {} {}", method, path, e);
+            status = sendError(exchange, 500, "服务器内部错误");
+        } finally {
+            exchange.close();
+        }
+        logger.debug("{} {} -> {} ({} ms)", method, path, status,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private int dispatch(HttpExchange exchange, String method, String path) throws IOException {
+        String[] segments = split(path);
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            Map<String, String> params = route.match(segments);
+            if (params == null) {
+                continue;
+            }
+            pathMatched = true;
+            if (route.method.equals(method)) {
+                return invoke(exchange, route, params);
+            }
+        }
+        return pathMatched ? sendError(exchange, 405, "不支持的请求方法: " + method)
+                : sendError(exchange, 404, "接口不存在: " + path);
+    }
+
+    private int invoke(HttpExchange exchange, Route route, Map<String, String> params) throws IOException {
+        UserSession session = SessionRegistry.getInstance().get(bearerToken(exchange));
+        if (route.authenticated && session == null) {
+            return sendError(exchange, 401, "未登录或会话已过期");
+        }
+        try {
+            if (!limiter.acquire()) {
+                return sendError(exchange, 503, "服务器繁忙，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return sendError(exchange, 503, "服务器正在停止");
+        }
+        Object result;
+        try (SessionManager.Scope ignored = SessionManager.bind(session)) {
+            result = route.endpoint.handle(new ApiRequest(exchange, params, session));
+        } catch (ApiException e) {
+            return sendError(exchange, e.getStatus(), e.getMessage());
+        } finally {
+            limiter.release();
+        }
+        return send(exchange, 200, JsonCodec.toJson(result));
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return header.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    private static int sendError(HttpExchange exchange, int status, String message) throws IOException {
+        return send(exchange, status, JsonCodec.toJson(Collections.singletonMap("error", message)));
+    }
+
+    private static int send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        return status;
+    }
+
+    private static String[] split(String path) {
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.split("/");
+    }
+
+    private static final class Route {
+        final String method;
+        final String[] segments;
+        final boolean authenticated;
+        final Endpoint endpoint;
+
+        Route(String method, String pattern, boolean authenticated, Endpoint endpoint) {
+            this.method = method;
+            this.segments = split(pattern);
+            this.authenticated = authenticated;
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * 路径匹配时返回路径参数（可能为空），不匹配时返回 null
+         */
+        Map<String, String> match(String[] path) {
+            if (path.length != segments.length) {
+                return null;
+            }
+            Map<String, String> params = null;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (params == null) {
+                        params = new HashMap<>();
+                    }
+                    params.put(segment.substring(1, segment.length() - 1), path[i]);
+                } else if (!segment.equals(path[i])) {
+                    return null;
+                }
+            }
+            return params != null ? params : Collections.<String, String>emptyMap();
+        }
+    }
+}
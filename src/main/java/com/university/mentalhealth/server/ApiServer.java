@@ -0,0 +1,180 @@
+package com.university.mentalhealth.server;
+
+import com.sun.net.httpserver.HttpServer;
+import com.university.mentalhealth.metrics.QueryMetrics;
+import com.university.mentalhealth.service.AssessmentCatalogCache;
+import com.university.mentalhealth.service.OutboxDispatcher;
+import com.university.mentalhealth.util.AppConfig;
+import com.university.mentalhealth.util.DatabaseUtil;
+import com.university.mentalhealth.util.PasswordHasher;
+import com.university.mentalhealth.util.SessionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无界面的服务器模式：通过 HTTP/JSON 提供服务层接口（见 ServiceEndpoints），
+ * 所有客户端共用这一个进程的数据库连接池、量表缓存和时间段索引，数据库连接数不再随客户端数量增长。
+ *
+ * 请求默认由固定大小的平台线程池处理（见 WorkerPools）。接口几乎都在等数据库，工作线程多于连接池上限只会排队等连接，
+ * 所以 server.workerThreads 为 0 时取连接池上限。用 java21 profile 构建并在 Java 21 上运行时，
+ * server.virtualThreads=true 改为每个请求一个虚拟线程（见 RequestExecutors）。
+ * 无论哪种执行方式，同时执行的接口调用数都由 RequestLimiter 限制在 server.maxConcurrentRequests 以内。
+ *
+ * 启动: java -cp mental-health-system.jar com.university.mentalhealth.server.ApiServer
+ * 桌面客户端在 app.properties 中设置 client.serverUrl 后以瘦客户端模式连接本服务器。
+ */
+public class ApiServer {
+    private static final Logger logger = LoggerFactory.getLogger(ApiServer.class);
+
+    private final HttpServer httpServer;
+    private final ExecutorService workers;
+    private final RequestLimiter limiter;
+    private final boolean virtualThreads;
+
+    public ApiServer(Settings settings) throws IOException {
+        this.virtualThreads = settings.virtualThreads && RequestExecutors.virtualThreadsAvailable();
+        this.workers = RequestExecutors.create(virtualThreads, settings.workerThreads, settings.queueCapacity);
+        this.limiter = new RequestLimiter(settings.maxConcurrentRequests, settings.permitTimeoutMillis);
+        this.httpServer = HttpServer.create(new InetSocketAddress(settings.host, settings.port), settings.backlog);
+
+        ApiRouter router = new ApiRouter(limiter);
+        new ServiceEndpoints().register(router);
+        router.publicRoute("GET", "/api/health", request -> health());
+        httpServer.createContext("/api/", router);
+        httpServer.setExecutor(workers);
+    }
+
+    public void start() {
+        httpServer.start();
+        logger.info("服务器已启动: {}，{}，并发上限 {}，连接池上限 {}", httpServer.getAddress(), describeWorkers(),
+                limiter.getStats().maxConcurrent, DatabaseUtil.getPoolStats().maxPoolSize);
+    }
+
+    /**
+     * 停止接收请求，最多等待 delaySeconds 秒让处理中的请求完成
+     */
+    public void stop(int delaySeconds) {
+        httpServer.stop(delaySeconds);
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(delaySeconds, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("服务器已停止");
+    }
+
+    public InetSocketAddress getAddress() {
+        return httpServer.getAddress();
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public RequestLimiter.Stats getLimiterStats() {
+        return limiter.getStats();
+    }
+
+    private String describeWorkers() {
+        if (workers instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) workers;
+            return "平台线程池 " + pool.getMaximumPoolSize() + " 个线程，等待队列 " + pool.getQueue().remainingCapacity();
+        }
+        return virtualThreads ? "每个请求一个虚拟线程" : workers.getClass().getSimpleName();
+    }
+
+    private Map<String, Object> health() {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", "UP");
+        health.put("sessions", SessionRegistry.getInstance().size());
+        health.put("virtualThreads", virtualThreads);
+        if (workers instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) workers;
+            health.put("activeWorkers", pool.getActiveCount());
+            health.put("queuedRequests", pool.getQueue().size());
+            health.put("rejectedRequests", WorkerPools.getRejectedCount());
+        }
+        health.put("limiter", limiter.getStats());
+        health.put("pool", DatabaseUtil.getPoolStats());
+        health.put("passwordHasher", PasswordHasher.getInstance().getStats());
+        return health;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // 与桌面客户端启动时相同的后台任务，服务器模式下只在这一个进程中运行
+        Thread catalogWarmUp = new Thread(AssessmentCatalogCache::warmUp, "assessment-catalog-warmup");
+        catalogWarmUp.setDaemon(true);
+        catalogWarmUp.start();
+        OutboxDispatcher.startDefault();
+        QueryMetrics.startReporter();
+
+        ApiServer server = new ApiServer(Settings.fromConfig());
+        if (AppConfig.getBoolean("server.virtualThreads", false) && !server.isVirtualThreads()) {
+            logger.warn("server.virtualThreads=true 需要用 java21 profile 构建并在 Java 21 及以上运行，当前使用平台线程池");
+        }
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(AppConfig.getInt("server.shutdownGraceSeconds", 5));
+            DatabaseUtil.shutdown();
+            stopped.countDown();
+        }, "api-server-shutdown"));
+        server.start();
+        stopped.await();
+    }
+
+    /**
+     * 服务器参数，默认值见 app.properties 中的 server.* 配置
+     */
+    public static class Settings {
+        public String host = "127.0.0.1";
+        public int port = 8080;
+        public int backlog = 1024;
+        public boolean virtualThreads;
+        public int workerThreads;
+        public int queueCapacity = 512;
+        public int maxConcurrentRequests;
+        public long permitTimeoutMillis = 30000;
+
+        /**
+         * 按连接池上限填充 workerThreads 和 maxConcurrentRequests
+         */
+        public Settings() {
+            int poolSize = Math.max(4, DatabaseUtil.getPoolStats().maxPoolSize);
+            this.workerThreads = poolSize;
+            this.maxConcurrentRequests = poolSize;
+        }
+
+        public static Settings fromConfig() {
+            Settings settings = new Settings();
+            settings.host = AppConfig.getString("server.host", settings.host);
+            settings.port = AppConfig.getInt("server.port", settings.port);
+            settings.backlog = AppConfig.getInt("server.backlog", settings.backlog);
+            settings.virtualThreads = AppConfig.getBoolean("server.virtualThreads", false);
+            settings.queueCapacity = AppConfig.getInt("server.queueCapacity", settings.queueCapacity);
+            settings.permitTimeoutMillis = AppConfig.getLong("server.permitTimeoutMillis", settings.permitTimeoutMillis);
+            // 0 表示与连接池上限相同
+            int workerThreads = AppConfig.getInt("server.workerThreads", 0);
+            if (workerThreads > 0) {
+                settings.workerThreads = workerThreads;
+            }
+            int maxConcurrent = AppConfig.getInt("server.maxConcurrentRequests", 0);
+            if (maxConcurrent > 0) {
+                settings.maxConcurrentRequests = maxConcurrent;
+            }
+            return settings;
+        }
+    }
+}
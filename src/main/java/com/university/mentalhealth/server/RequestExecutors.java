@@ -0,0 +1,30 @@
+package com.university.mentalhealth.server;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 创建处理 HTTP 请求的执行器。
+ * 这是 Java 8 版本，总是使用平台线程池。用 java21 profile 构建的多版本 JAR 中，
+ * META-INF/versions/21 下的同名类在 Java 21 及以上运行时替换本类，
+ * server.virtualThreads=true 时为每个请求创建一个虚拟线程。
+ */
+final class RequestExecutors {
+    private RequestExecutors() {
+    }
+
+    /**
+     * 当前运行时是否可以使用虚拟线程
+     */
+    static boolean virtualThreadsAvailable() {
+        return false;
+    }
+
+    /**
+     * @param virtualThreads 是否使用虚拟线程（本版本忽略）
+     * @param workerThreads  平台线程池的线程数
+     * @param queueCapacity  平台线程池的等待队列容量
+     */
+    static ExecutorService create(boolean virtualThreads, int workerThreads, int queueCapacity) {
+        return WorkerPools.platform(workerThreads, queueCapacity);
+    }
+}
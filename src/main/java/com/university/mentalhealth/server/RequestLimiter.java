@@ -0,0 +1,84 @@
+package com.university.mentalhealth.server;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 同时执行的接口调用数上限，位于服务层和数据库连接池之前。
+ * 接口几乎都要访问数据库，上限通常取连接池大小：超出的请求在这里排队（信号量），
+ * 而不是全部挤进连接池等连接，等待超过 permitTimeoutMillis 的请求返回 503。
+ * 平台线程池的线程数不超过上限时不会发生等待；每个请求一个虚拟线程时由它限制并发的数据库访问。
+ */
+public class RequestLimiter {
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long permitTimeoutMillis;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger peakWaiting = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public RequestLimiter(int maxConcurrent, long permitTimeoutMillis) {
+        // 公平模式：先到的请求先执行
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.permitTimeoutMillis = permitTimeoutMillis;
+    }
+
+    /**
+     * 等待执行许可，超时返回 false（调用方应返回 503）。成功时必须在 finally 中调用 release()
+     */
+    public boolean acquire() throws InterruptedException {
+        updatePeak(peakWaiting, waiting.incrementAndGet());
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(permitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        updatePeak(peakInFlight, inFlight.incrementAndGet());
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+        permits.release();
+    }
+
+    public Stats getStats() {
+        Stats stats = new Stats();
+        stats.maxConcurrent = maxConcurrent;
+        stats.inFlight = inFlight.get();
+        stats.peakInFlight = peakInFlight.get();
+        stats.waiting = waiting.get();
+        stats.peakWaiting = peakWaiting.get();
+        stats.rejected = rejected.get();
+        return stats;
+    }
+
+    private static void updatePeak(AtomicInteger peak, int value) {
+        int current;
+        while (value > (current = peak.get()) && !peak.compareAndSet(current, value)) {
+            // 重试
+        }
+    }
+
+    /**
+     * 限流统计
+     */
+    public static class Stats {
+        public int maxConcurrent;
+        public int inFlight;
+        public int peakInFlight;
+        public int waiting;
+        public int peakWaiting;
+        public long rejected;
+    }
+}
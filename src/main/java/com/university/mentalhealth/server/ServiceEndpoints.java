@@ -0,0 +1,134 @@
+package com.university.mentalhealth.server;
+
+import com.university.mentalhealth.entity.AssessmentSession;
+import com.university.mentalhealth.service.AppointmentService;
+import com.university.mentalhealth.service.AssessmentService;
+import com.university.mentalhealth.service.CounselorService;
+import com.university.mentalhealth.service.StudentService;
+import com.university.mentalhealth.service.TimeSlotService;
+import com.university.mentalhealth.service.UserService;
+import com.university.mentalhealth.util.PasswordHasher;
+import com.university.mentalhealth.util.SessionManager;
+import com.university.mentalhealth.util.UserSession;
+
+import java.util.Optional;
+
+/**
+ * 服务层的 HTTP 接口。所有请求共用同一组服务对象，也就共用进程内的连接池和缓存；
+ * 调用者身份来自请求令牌绑定的会话，与桌面客户端直接调用服务时的权限检查相同。
+ *
+ * <pre>
+ * POST /api/login                               {username, password, type} -> {token, userId, username, type}
+ * POST /api/logout
+ * GET  /api/counselors/available
+ * GET  /api/timeslots/bookable?counselorId=&from=&to=   时间为 ISO-8601，例如 2026-10-17T09:00
+ * GET  /api/appointments/mine
+ * POST /api/appointments                        {timeSlotId, notes} -> {status, appointment}
+ * POST /api/appointments/{id}/cancel
+ * GET  /api/students/me
+ * PUT  /api/students/me/contact                 {contactPhone, emergencyContact, emergencyPhone}
+ * GET  /api/assessments
+ * GET  /api/assessments/{id}
+ * GET  /api/assessments/{id}/questions
+ * GET  /api/assessments/{id}/completed
+ * GET  /api/assessment-sessions/mine
+ * POST /api/assessment-sessions                 {session, answers} -> 提交后的测评会话
+ * GET  /api/assessment-sessions/{id}/details
+ * </pre>
+ */
+public class ServiceEndpoints {
+    private final UserService userService = new UserService();
+    private final AppointmentService appointmentService = new AppointmentService();
+    private final TimeSlotService timeSlotService = new TimeSlotService();
+    private final CounselorService counselorService = new CounselorService();
+    private final StudentService studentService = new StudentService();
+    private final AssessmentService assessmentService = new AssessmentService();
+
+    public void register(ApiRouter router) {
+        router.publicRoute("POST", "/api/login", this::login);
+        router.post("/api/logout", request -> {
+            userService.closeSession(request.session().getToken());
+            return true;
+        });
+
+        router.get("/api/counselors/available", request -> counselorService.getAvailableCounselors());
+        router.get("/api/timeslots/bookable", request -> timeSlotService.getBookableTimeSlots(
+                request.queryInt("counselorId"), request.queryDateTime("from"), request.queryDateTime("to")));
+
+        router.get("/api/appointments/mine", request -> appointmentService.getStudentAppointments());
+        router.post("/api/appointments", request -> {
+            ApiMessages.BookingRequest body = request.body(ApiMessages.BookingRequest.class);
+            return appointmentService.bookAppointment(body.timeSlotId, body.notes);
+        });
+        router.post("/api/appointments/{id}/cancel", request -> appointmentService.cancelAppointment(request.pathInt("id")));
+
+        router.get("/api/students/me", request -> studentService.getCurrentStudent()
+                .orElseThrow(() -> ApiException.notFound("学生信息不存在")));
+        router.put("/api/students/me/contact", request -> {
+            ApiMessages.ContactInfoRequest body = request.body(ApiMessages.ContactInfoRequest.class);
+            return studentService.updateContactInfo(body.contactPhone, body.emergencyContact, body.emergencyPhone);
+        });
+
+        router.get("/api/assessments", request -> assessmentService.getAvailableAssessments());
+        router.get("/api/assessments/{id}", request -> assessmentService.getAssessmentById(request.pathInt("id"))
+                .orElseThrow(() -> ApiException.notFound("测评量表不存在")));
+        router.get("/api/assessments/{id}/questions", request -> assessmentService.getAssessmentQuestions(request.pathInt("id")));
+        router.get("/api/assessments/{id}/completed", request -> assessmentService.hasCompletedAssessment(request.pathInt("id")));
+        router.get("/api/assessment-sessions/mine", request -> assessmentService.getStudentAssessmentHistory());
+        router.post("/api/assessment-sessions", this::submitAssessment);
+        router.get("/api/assessment-sessions/{id}/details", this::assessmentDetails);
+    }
+
+    private Object login(ApiRequest request) throws ApiException {
+        ApiMessages.LoginRequest body = request.body(ApiMessages.LoginRequest.class);
+        Optional<UserSession> session;
+        try {
+            session = userService.openSession(body.username, body.password, body.type);
+        } catch (PasswordHasher.BusyException e) {
+            throw new ApiException(503, "登录人数较多，请稍后重试");
+        }
+        if (!session.isPresent()) {
+            if (userService.isLoginLocked(body.username)) {
+                throw new ApiException(429, "登录失败次数过多，请稍后再试");
+            }
+            throw ApiException.unauthorized("用户名、密码或用户类型错误");
+        }
+        ApiMessages.LoginResponse response = new ApiMessages.LoginResponse();
+        response.token = session.get().getToken();
+        response.userId = session.get().getUserId();
+        response.username = session.get().getUser().getUsername();
+        response.type = session.get().getUserType();
+        return response;
+    }
+
+    private Object submitAssessment(ApiRequest request) throws ApiException {
+        if (!SessionManager.isStudent()) {
+            throw new ApiException(403, "只有学生可以提交测评");
+        }
+        ApiMessages.SubmitAssessmentRequest body = request.body(ApiMessages.SubmitAssessmentRequest.class);
+        if (body.session == null) {
+            throw ApiException.badRequest("缺少测评会话");
+        }
+        // 测评记录总是属于提交者本人，不信任客户端传来的学生ID
+        body.session.setStudentId(SessionManager.getCurrentUserId());
+        return assessmentService.submitAssessment(body.session, body.answers);
+    }
+
+    private Object assessmentDetails(ApiRequest request) throws ApiException {
+        int sessionId = request.pathInt("id");
+        // 学生只能查看自己的测评记录
+        if (SessionManager.isStudent()) {
+            boolean own = false;
+            for (AssessmentSession session : assessmentService.getStudentAssessmentHistory()) {
+                if (session.getId() == sessionId) {
+                    own = true;
+                    break;
+                }
+            }
+            if (!own) {
+                throw ApiException.notFound("测评记录不存在");
+            }
+        }
+        return assessmentService.getAssessmentDetails(sessionId);
+    }
+}
@@ -0,0 +1,63 @@
+package com.university.mentalhealth.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 平台线程的请求工作线程池，所有 Java 版本共用（见 RequestExecutors）
+ */
+final class WorkerPools {
+    // 当前线程正在处理一个被线程池拒绝的请求，ApiRouter 直接返回 503
+    private static final ThreadLocal<Boolean> REJECTING = new ThreadLocal<>();
+    private static final AtomicLong rejected = new AtomicLong();
+
+    private WorkerPools() {
+    }
+
+    /**
+     * 固定大小的线程池，等待队列有上限，不会无限堆积在内存中。
+     * 队列满时请求不进入线程池：HttpServer 的接收线程只读取请求头并立即返回 503（见 ApiRouter），
+     * 不执行接口本身，接收线程不会因为处理慢请求而停止接收新连接
+     */
+    static ThreadPoolExecutor platform(int workerThreads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "api-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, rejectWith503());
+    }
+
+    /**
+     * 当前线程是否在处理被拒绝的请求
+     */
+    static boolean isRejecting() {
+        return REJECTING.get() != null;
+    }
+
+    /**
+     * 因队列已满返回 503 的请求数
+     */
+    static long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private static RejectedExecutionHandler rejectWith503() {
+        return (task, pool) -> {
+            rejected.incrementAndGet();
+            REJECTING.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                REJECTING.remove();
+            }
+        };
+    }
+}
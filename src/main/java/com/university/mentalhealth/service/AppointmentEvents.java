@@ -0,0 +1,32 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.event.AppointmentEvent;
+import com.university.mentalhealth.event.EventBus;
+
+/**
+ * 预约事件总线。AppointmentService 在预约创建、确认、取消、完成后发布事件，界面可以订阅它来刷新显示。
+ * 通知记录已在预约事务中写入发件箱，这里只唤醒投递进程，让通知尽快发出。
+ * 冲突索引不在这里维护：订阅者队列满时事件会被丢弃，索引由 AppointmentService 在状态变更成功后同步更新。
+ */
+public final class AppointmentEvents {
+    public static final EventBus<AppointmentEvent> BUS = new EventBus<>("appointment");
+
+    private static final int NOTIFICATION_QUEUE_CAPACITY = 16;
+
+    static {
+        // 唤醒只需合并触发，队列满时丢弃也没有关系，投递进程仍会按间隔轮询
+        BUS.subscribe("notification", NOTIFICATION_QUEUE_CAPACITY, event -> {
+            OutboxDispatcher dispatcher = OutboxDispatcher.getDefault();
+            if (dispatcher != null) {
+                dispatcher.wakeUp();
+            }
+        });
+    }
+
+    private AppointmentEvents() {
+    }
+
+    static void publish(AppointmentEvent event) {
+        BUS.publish(event);
+    }
+}
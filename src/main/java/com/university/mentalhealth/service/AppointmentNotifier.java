@@ -0,0 +1,64 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.entity.Appointment;
+import com.university.mentalhealth.entity.OutboxMessage;
+import com.university.mentalhealth.notification.EmailMessage;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把发件箱记录转换为发给学生和咨询师的通知邮件
+ */
+class AppointmentNotifier {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final String recipientDomain;
+
+    AppointmentNotifier(String recipientDomain) {
+        this.recipientDomain = recipientDomain;
+    }
+
+    /**
+     * 生成通知邮件；预约已不存在或没有收件人时返回 null
+     */
+    EmailMessage render(OutboxMessage outboxMessage) {
+        Appointment appointment = outboxMessage.getAppointment();
+        if (appointment == null) {
+            return null;
+        }
+
+        // 用户表没有邮箱字段，收件地址为 用户名@域名
+        List<String> recipients = new ArrayList<>(2);
+        if (outboxMessage.getStudentUsername() != null) {
+            recipients.add(outboxMessage.getStudentUsername() + "@" + recipientDomain);
+        }
+        if (outboxMessage.getCounselorUsername() != null) {
+            recipients.add(outboxMessage.getCounselorUsername() + "@" + recipientDomain);
+        }
+        if (recipients.isEmpty()) {
+            return null;
+        }
+
+        String action = getActionText(outboxMessage.getEventType());
+        String body = String.format(
+                "预约%s通知: 学生%s 预约了 %s 在 %s 进行咨询",
+                action,
+                appointment.getStudentName() != null ? appointment.getStudentName() : "未知学生",
+                appointment.getCounselorName() != null ? appointment.getCounselorName() : "未知咨询师",
+                appointment.getStartTime() != null ? appointment.getStartTime().format(FORMATTER) : "未知时间"
+        );
+        return new EmailMessage(recipients, "心理咨询预约" + action + "通知", body);
+    }
+
+    private String getActionText(String eventType) {
+        switch (eventType) {
+            case "created": return "创建";
+            case "confirmed": return "确认";
+            case "cancelled": return "取消";
+            case "completed": return "完成";
+            default: return eventType;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.entity.Appointment;
+
+import java.util.List;
+
+/**
+ * 学生界面使用的预约操作，由 AppointmentService（直接访问数据库）和瘦客户端的 RemoteAppointmentService 实现
+ */
+public interface AppointmentOperations {
+
+    /**
+     * 当前学生预约时间段
+     */
+    AppointmentService.BookingResult bookAppointment(int timeSlotId, String notes);
+
+    /**
+     * 当前学生取消自己的预约
+     */
+    boolean cancelAppointment(int appointmentId);
+
+    /**
+     * 当前学生的预约列表
+     */
+    List<Appointment> getStudentAppointments();
+}
@@ -1,23 +1,35 @@
 package com.university.mentalhealth.service;
 
 import com.university.mentalhealth.dao.AppointmentDAO;
+import com.university.mentalhealth.dao.AppointmentQuery;
+import com.university.mentalhealth.dao.ChangeSet;
+import com.university.mentalhealth.dao.ChangeToken;
 import com.university.mentalhealth.dao.CounselorDAO;
+import com.university.mentalhealth.dao.Page;
+import com.university.mentalhealth.dao.PageCursor;
 import com.university.mentalhealth.dao.TimeSlotDAO;
 import com.university.mentalhealth.entity.Appointment;
 import com.university.mentalhealth.entity.Counselor;
 import com.university.mentalhealth.entity.TimeSlot;
+import com.university.mentalhealth.event.AppointmentEvent;
 import com.university.mentalhealth.util.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.function.Consumer;
 
-public class AppointmentService {
-    private static final Logger logger = Logger.getLogger(AppointmentService.class.getName());
+public class AppointmentService implements AppointmentOperations {
+    private static final Logger logger = LoggerFactory.getLogger(AppointmentService.class);
+    // 未取消的预约状态
+    private static final String[] ACTIVE_STATUSES = {"pending", "confirmed", "completed"};
     private final AppointmentDAO appointmentDAO;
     private final CounselorDAO counselorDAO;
     private final TimeSlotDAO timeSlotDAO;
@@ -32,179 +44,179 @@ public class AppointmentService {
      * 创建新的预约
      */
     public Optional<Appointment> createAppointment(int timeSlotId, String notes) {
+        return bookAppointment(timeSlotId, notes).getAppointment();
+    }
+
+    /**
+     * 创建新的预约，并返回具体的预约结果（成功 / 已被预约 / 时间段不存在 / 系统错误）
+     */
+    public BookingResult bookAppointment(int timeSlotId, String notes) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isStudent()) {
-            logger.warning("只有学生可以创建预约");
-            return Optional.empty();
+            logger.warn("只有学生可以创建预约");
+            return new BookingResult(BookingStatus.NOT_ALLOWED, null);
         }
 
-        try {
-            // 检查时间段是否存在且可用
-            Optional<TimeSlot> timeSlotOpt = timeSlotDAO.findById(timeSlotId);
-            if (!timeSlotOpt.isPresent()) {
-                logger.warning("时间段不存在: time_slot_id=" + timeSlotId);
-                return Optional.empty();
-            }
-
-            TimeSlot timeSlot = timeSlotOpt.get();
-            if (!"available".equals(timeSlot.getStatus())) {
-                logger.warning("时间段不可用: time_slot_id=" + timeSlotId + ", status=" + timeSlot.getStatus());
-                return Optional.empty();
-            }
-
-            // 检查时间段是否已被预约
-            if (appointmentDAO.isTimeSlotBooked(timeSlotId)) {
-                logger.warning("时间段已被预约: time_slot_id=" + timeSlotId);
-                return Optional.empty();
-            }
+        return bookAppointment(SessionManager.getCurrentUserId(), timeSlotId, notes);
+    }
 
-            // 创建预约
-            int studentId = SessionManager.currentUser.getId();
-            Appointment appointment = new Appointment(
-                    studentId,
-                    timeSlot.getCounselorId(),
-                    timeSlotId,
-                    notes
-            );
-
-            boolean saved = appointmentDAO.save(appointment);
-            if (saved) {
-                // 更新时间段状态为已预约
-                timeSlotDAO.updateStatus(timeSlotId, "booked");
-                logger.info("预约创建成功: appointment_id=" + appointment.getId());
-
-                // 发送通知
-                sendAppointmentNotification(appointment, "创建");
-                return Optional.of(appointment);
+    /**
+     * 为指定学生创建预约。
+     * 时间段的抢占、学生时间冲突检查和预约记录的插入在同一事务中完成，并发预约同一时间段时只有一个请求能成功，
+     * 同一学生并发预约两个重叠的时间段（不同咨询师）时只有一个能成功（见 AppointmentDAO.reserveTimeSlot）。
+     */
+    public BookingResult bookAppointment(int studentId, int timeSlotId, String notes) {
+        try {
+            Appointment appointment = new Appointment(studentId, 0, timeSlotId, notes);
+
+            AppointmentDAO.ReservationStatus status = appointmentDAO.reserveTimeSlot(appointment);
+            switch (status) {
+                case BOOKED:
+                    ScheduleIndex.STUDENT_APPOINTMENTS.add(studentId, appointment.getId(),
+                            appointment.getStartTime(), appointment.getEndTime());
+                    logger.info("预约创建成功: appointment_id={}", appointment.getId());
+
+                    // 通知等后续处理由事件订阅者在后台完成
+                    AppointmentEvents.publish(new AppointmentEvent(AppointmentEvent.Type.CREATED, appointment));
+                    return new BookingResult(BookingStatus.BOOKED, appointment);
+                case CONFLICT:
+                    logger.warn("与已有预约时间冲突: student_id={}, time_slot_id={}", studentId, timeSlotId);
+                    return new BookingResult(BookingStatus.CONFLICT, null);
+                case NOT_FOUND:
+                    logger.warn("时间段不存在: time_slot_id={}", timeSlotId);
+                    return new BookingResult(BookingStatus.NOT_FOUND, null);
+                case ALREADY_TAKEN:
+                    logger.warn("时间段不可用或已被预约: time_slot_id={}", timeSlotId);
+                    return new BookingResult(BookingStatus.ALREADY_TAKEN, null);
+                case ERROR:
+                    // 原因已由 AppointmentDAO 记录
+                    return new BookingResult(BookingStatus.ERROR, null);
+                default:
+                    logger.error("未知的预约结果 {}: time_slot_id={}", status, timeSlotId);
+                    return new BookingResult(BookingStatus.ERROR, null);
             }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "创建预约过程中发生错误", e);
+            logger.error("创建预约过程中发生错误: student_id={}, time_slot_id={}", studentId, timeSlotId, e);
         }
-        return Optional.empty();
+        return new BookingResult(BookingStatus.ERROR, null);
     }
 
     /**
      * 取消预约
+     * 只有待确认或已确认的预约可以取消，取消时在同一事务中释放时间段
      */
     public boolean cancelAppointment(int appointmentId) {
-        try {
-            Optional<Appointment> appointmentOpt = appointmentDAO.findById(appointmentId);
-            if (!appointmentOpt.isPresent()) {
-                logger.warning("预约不存在: appointment_id=" + appointmentId);
-                return false;
-            }
-
-            Appointment appointment = appointmentOpt.get();
-
-            // 权限检查：学生只能取消自己的预约，咨询师和管理员可以取消任何预约
-            if (SessionManager.isStudent() &&
-                    appointment.getStudentId() != SessionManager.currentUser.getId()) {
-                logger.warning("学生只能取消自己的预约");
-                return false;
-            }
+        if (!SessionManager.isLoggedIn()) {
+            logger.warn("请先登录");
+            return false;
+        }
 
-            // 更新预约状态
-            boolean updated = appointmentDAO.updateStatus(appointmentId, "cancelled");
-            if (updated) {
-                // 恢复时间段状态为可用
-                timeSlotDAO.updateStatus(appointment.getTimeSlotId(), "available");
-                logger.info("预约取消成功: appointment_id=" + appointmentId);
+        // 权限检查：学生只能取消自己的预约，咨询师和管理员可以取消任何预约
+        Integer studentId = SessionManager.isStudent() ? SessionManager.getCurrentUserId() : null;
+        return cancelAppointment(appointmentId, studentId);
+    }
 
-                // 发送通知
-                sendAppointmentNotification(appointment, "取消");
+    /**
+     * 取消预约，studentId 不为 null 时只能取消该学生自己的预约。
+     * 取消成功后立即把预约从所属学生的预约索引中移除，该学生紧接着预约同一时间的其他时段不会被误判为冲突
+     */
+    public boolean cancelAppointment(int appointmentId, Integer studentId) {
+        try {
+            Appointment cancelled = new Appointment();
+            AppointmentDAO.TransitionStatus status = appointmentDAO.transitionStatus(appointmentId, "cancelled",
+                    Arrays.asList("pending", "confirmed"), studentId, null, true, cancelled);
+            if (status == AppointmentDAO.TransitionStatus.UPDATED) {
+                if (cancelled.getStudentId() != null) {
+                    ScheduleIndex.STUDENT_APPOINTMENTS.remove(cancelled.getStudentId(), appointmentId);
+                }
+                logger.info("预约取消成功: appointment_id={}", appointmentId);
+                publishStatusEvent(AppointmentEvent.Type.CANCELLED, appointmentId);
                 return true;
             }
+            logTransitionFailure(appointmentId, status, "取消");
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "取消预约过程中发生错误", e);
+            logger.error("取消预约过程中发生错误", e);
         }
         return false;
     }
 
     /**
      * 确认预约
+     * 只有待确认的预约可以确认
      */
     public boolean confirmAppointment(int appointmentId) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以确认预约");
+            logger.warn("只有咨询师可以确认预约");
             return false;
         }
 
         try {
-            Optional<Appointment> appointmentOpt = appointmentDAO.findById(appointmentId);
-            if (!appointmentOpt.isPresent()) {
-                logger.warning("预约不存在: appointment_id=" + appointmentId);
-                return false;
-            }
-
-            Appointment appointment = appointmentOpt.get();
-
-            // 检查咨询师权限
-            if (appointment.getCounselorId() != SessionManager.currentUser.getId()) {
-                logger.warning("咨询师只能确认自己的预约");
-                return false;
-            }
-
-            boolean updated = appointmentDAO.updateStatus(appointmentId, "confirmed");
-            if (updated) {
-                logger.info("预约确认成功: appointment_id=" + appointmentId);
-
-                // 发送通知
-                sendAppointmentNotification(appointment, "确认");
+            // 咨询师只能确认自己的预约
+            AppointmentDAO.TransitionStatus status = appointmentDAO.transitionStatus(appointmentId, "confirmed",
+                    Collections.singletonList("pending"), null, SessionManager.getCurrentUserId(), false);
+            if (status == AppointmentDAO.TransitionStatus.UPDATED) {
+                logger.info("预约确认成功: appointment_id={}", appointmentId);
+                publishStatusEvent(AppointmentEvent.Type.CONFIRMED, appointmentId);
                 return true;
             }
+            logTransitionFailure(appointmentId, status, "确认");
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "确认预约过程中发生错误", e);
+            logger.error("确认预约过程中发生错误", e);
         }
         return false;
     }
 
     /**
      * 完成预约
+     * 只有已确认的预约可以标记为完成
      */
     public boolean completeAppointment(int appointmentId) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以完成预约");
+            logger.warn("只有咨询师可以完成预约");
             return false;
         }
 
         try {
-            Optional<Appointment> appointmentOpt = appointmentDAO.findById(appointmentId);
-            if (!appointmentOpt.isPresent()) {
-                logger.warning("预约不存在: appointment_id=" + appointmentId);
-                return false;
-            }
-
-            Appointment appointment = appointmentOpt.get();
-
-            // 检查咨询师权限
-            if (appointment.getCounselorId() != SessionManager.currentUser.getId()) {
-                logger.warning("咨询师只能完成自己的预约");
-                return false;
-            }
-
-            boolean updated = appointmentDAO.updateStatus(appointmentId, "completed");
-            if (updated) {
-                logger.info("预约完成成功: appointment_id=" + appointmentId);
-
-                // 发送通知
-                sendAppointmentNotification(appointment, "完成");
+            // 咨询师只能完成自己的预约
+            AppointmentDAO.TransitionStatus status = appointmentDAO.transitionStatus(appointmentId, "completed",
+                    Collections.singletonList("confirmed"), null, SessionManager.getCurrentUserId(), false);
+            if (status == AppointmentDAO.TransitionStatus.UPDATED) {
+                logger.info("预约完成成功: appointment_id={}", appointmentId);
+                publishStatusEvent(AppointmentEvent.Type.COMPLETED, appointmentId);
                 return true;
             }
+            logTransitionFailure(appointmentId, status, "完成");
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "完成预约过程中发生错误", e);
+            logger.error("完成预约过程中发生错误", e);
         }
         return false;
     }
 
+    /**
+     * 发布状态变更事件，预约详情由订阅者在后台读取
+     */
+    private void publishStatusEvent(AppointmentEvent.Type type, int appointmentId) {
+        AppointmentEvents.publish(new AppointmentEvent(type, appointmentId,
+                () -> appointmentDAO.findById(appointmentId).orElse(null)));
+    }
+
+    private void logTransitionFailure(int appointmentId, AppointmentDAO.TransitionStatus status, String action) {
+        if (status == AppointmentDAO.TransitionStatus.NOT_FOUND) {
+            logger.warn("预约不存在: appointment_id={}", appointmentId);
+        } else {
+            logger.warn("预约当前状态不允许{}或无权操作: appointment_id={}", action, appointmentId);
+        }
+    }
+
     /**
      * 获取当前学生的预约列表
      */
     public List<Appointment> getStudentAppointments() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isStudent()) {
-            logger.warning("只有学生可以查看自己的预约");
+            logger.warn("只有学生可以查看自己的预约");
             return Collections.emptyList(); // 使用 Collections.emptyList() 替代 List.of()
         }
 
-        int studentId = SessionManager.currentUser.getId();
+        int studentId = SessionManager.getCurrentUserId();
         return appointmentDAO.findByStudentId(studentId);
     }
 
@@ -213,11 +225,11 @@ public class AppointmentService {
      */
     public List<Appointment> getCounselorAppointments() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以查看自己的预约");
+            logger.warn("只有咨询师可以查看自己的预约");
             return Collections.emptyList(); // 使用 Collections.emptyList() 替代 List.of()
         }
 
-        int counselorId = SessionManager.currentUser.getId();
+        int counselorId = SessionManager.getCurrentUserId();
         return appointmentDAO.findByCounselorId(counselorId);
     }
 
@@ -226,13 +238,25 @@ public class AppointmentService {
      */
     public List<Appointment> getAllAppointments() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
-            logger.warning("只有管理员可以查看所有预约");
+            logger.warn("只有管理员可以查看所有预约");
             return Collections.emptyList(); // 使用 Collections.emptyList() 替代 List.of()
         }
 
         return appointmentDAO.findAll();
     }
 
+    /**
+     * 流式遍历所有预约（管理员导出用），返回处理的预约数，失败返回 -1
+     */
+    public int streamAllAppointments(Consumer<? super Appointment> consumer) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
+            logger.warn("只有管理员可以导出所有预约");
+            return -1;
+        }
+
+        return appointmentDAO.streamAll(consumer);
+    }
+
     /**
      * 根据ID获取预约详情
      */
@@ -269,93 +293,186 @@ public class AppointmentService {
     }
 
     /**
-     * 检查预约冲突
+     * 检查预约冲突（使用学生预约区间索引，不查询全部历史预约）。
+     * 索引可能落后于数据库，只用于界面提示，预约时以事务中的数据库检查为准
      */
     public boolean hasAppointmentConflict(int studentId, LocalDateTime startTime, LocalDateTime endTime) {
-        List<Appointment> appointments = appointmentDAO.findByStudentId(studentId);
-
-        for (Appointment appointment : appointments) {
-            if (appointment.getStartTime() != null && appointment.getEndTime() != null &&
-                    !"cancelled".equals(appointment.getStatus()) &&
-                    isTimeOverlap(appointment.getStartTime(), appointment.getEndTime(), startTime, endTime)) {
-                return true;
-            }
-        }
-        return false;
+        return ScheduleIndex.STUDENT_APPOINTMENTS.overlaps(studentId, startTime, endTime);
     }
 
     /**
-     * 检查时间重叠
+     * 获取待处理的预约数量（咨询师用）
      */
-    private boolean isTimeOverlap(LocalDateTime start1, LocalDateTime end1,
-                                  LocalDateTime start2, LocalDateTime end2) {
-        return start1.isBefore(end2) && end1.isAfter(start2);
+    public int getPendingAppointmentCount() {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
+            return 0;
+        }
+
+        int counselorId = SessionManager.getCurrentUserId();
+        Map<String, Integer> counts = appointmentDAO.countByStatus(
+                AppointmentQuery.forCounselor(counselorId).withStatuses("pending"));
+        return counts.getOrDefault("pending", 0);
     }
 
     /**
-     * 发送预约通知（模拟）
+     * 获取今日预约（咨询师用）
      */
-    public void sendAppointmentNotification(Appointment appointment, String action) {
-        // 这里可以集成邮件或短信服务
-        logger.info("预约通知: " + action + " - " + appointment.toString());
+    public List<Appointment> getTodayAppointments() {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
+            return Collections.emptyList();
+        }
 
-        // 模拟发送通知
-        String message = String.format(
-                "预约%s通知: 学生%s 预约了 %s 在 %s 进行咨询",
-                action,
-                appointment.getStudentName() != null ? appointment.getStudentName() : "未知学生",
-                appointment.getCounselorName() != null ? appointment.getCounselorName() : "未知咨询师",
-                appointment.getStartTime() != null ? appointment.getStartTime().toString() : "未知时间"
-        );
+        int counselorId = SessionManager.getCurrentUserId();
+        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
+        LocalDateTime todayEnd = todayStart.plusDays(1);
 
-        logger.info(message);
+        return appointmentDAO.findByQuery(AppointmentQuery.forCounselor(counselorId)
+                .withStatuses(ACTIVE_STATUSES)
+                .between(todayStart, todayEnd));
     }
 
     /**
-     * 获取待处理的预约数量（咨询师用）
+     * 获取接下来若干分钟内开始的预约数量（咨询师用）
      */
-    public int getPendingAppointmentCount() {
+    public int getUpcomingAppointmentCount(int minutes) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
             return 0;
         }
 
-        int counselorId = SessionManager.currentUser.getId();
-        List<Appointment> appointments = appointmentDAO.findByCounselorId(counselorId);
+        int counselorId = SessionManager.getCurrentUserId();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Integer> counts = appointmentDAO.countByStatus(AppointmentQuery.forCounselor(counselorId)
+                .withStatuses(ACTIVE_STATUSES)
+                .between(now, now.plusMinutes(minutes)));
+        return new StatusCounts(counts).total;
+    }
 
-        int count = 0;
-        for (Appointment appointment : appointments) {
-            if ("pending".equals(appointment.getStatus())) {
-                count++;
-            }
+    /**
+     * 按状态和时间范围查询当前咨询师的预约，status 为 null 表示全部状态
+     */
+    public List<Appointment> searchCounselorAppointments(String status, LocalDateTime from, LocalDateTime to) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
+            logger.warn("只有咨询师可以查看自己的预约");
+            return Collections.emptyList();
+        }
+
+        AppointmentQuery query = AppointmentQuery.forCounselor(SessionManager.getCurrentUserId()).between(from, to);
+        if (status != null) {
+            query.withStatuses(status);
         }
-        return count;
+        return appointmentDAO.findByQuery(query);
     }
 
     /**
-     * 获取今日预约（咨询师用）
+     * 按状态和时间范围分页查询当前咨询师的预约，cursor 为 null 表示第一页
      */
-    public List<Appointment> getTodayAppointments() {
+    public Page<Appointment> searchCounselorAppointmentsPage(String status, LocalDateTime from, LocalDateTime to,
+                                                             PageCursor cursor, int pageSize) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
+            logger.warn("只有咨询师可以查看自己的预约");
+            return new Page<>(Collections.<Appointment>emptyList(), null, 0);
+        }
+
+        AppointmentQuery query = AppointmentQuery.forCounselor(SessionManager.getCurrentUserId()).between(from, to);
+        if (status != null) {
+            query.withStatuses(status);
+        }
+        return appointmentDAO.findPage(query, cursor, pageSize);
+    }
+
+    /**
+     * 当前的预约变更位置，全量加载前调用，之后用它查询增量变更
+     */
+    public ChangeToken getAppointmentChangeToken() {
+        return appointmentDAO.currentChangeToken();
+    }
+
+    /**
+     * 当前咨询师的预约在 token 之后的变更，失败返回 null
+     */
+    public ChangeSet<Appointment> getCounselorAppointmentChanges(ChangeToken token) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
+            logger.warn("只有咨询师可以查看自己的预约");
+            return null;
+        }
+        return appointmentDAO.findChangesSince(SessionManager.getCurrentUserId(), token);
+    }
+
+    /**
+     * 所有预约在 token 之后的变更（管理员用），失败返回 null
+     */
+    public ChangeSet<Appointment> getAppointmentChanges(ChangeToken token) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
+            logger.warn("只有管理员可以查看所有预约");
+            return null;
+        }
+        return appointmentDAO.findChangesSince(null, token);
+    }
+
+    /**
+     * 按状态和时间范围查询所有预约（管理员用），status 为 null 表示全部状态
+     */
+    public List<Appointment> searchAppointments(String status, LocalDateTime from, LocalDateTime to) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
+            logger.warn("只有管理员可以查看所有预约");
             return Collections.emptyList();
         }
 
-        int counselorId = SessionManager.currentUser.getId();
-        List<Appointment> appointments = appointmentDAO.findByCounselorId(counselorId);
+        AppointmentQuery query = AppointmentQuery.all().between(from, to);
+        if (status != null) {
+            query.withStatuses(status);
+        }
+        return appointmentDAO.findByQuery(query);
+    }
+
+    /**
+     * 按状态和时间范围分页查询所有预约（管理员用），cursor 为 null 表示第一页
+     */
+    public Page<Appointment> searchAppointmentsPage(String status, LocalDateTime from, LocalDateTime to,
+                                                    PageCursor cursor, int pageSize) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
+            logger.warn("只有管理员可以查看所有预约");
+            return new Page<>(Collections.<Appointment>emptyList(), null, 0);
+        }
 
-        LocalDateTime todayStart = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime todayEnd = todayStart.plusDays(1);
+        AppointmentQuery query = AppointmentQuery.all().between(from, to);
+        if (status != null) {
+            query.withStatuses(status);
+        }
+        return appointmentDAO.findPage(query, cursor, pageSize);
+    }
 
-        List<Appointment> todayAppointments = new ArrayList<>();
-        for (Appointment appointment : appointments) {
-            if (appointment.getStartTime() != null &&
-                    !appointment.getStartTime().isBefore(todayStart) &&
-                    appointment.getStartTime().isBefore(todayEnd) &&
-                    !"cancelled".equals(appointment.getStatus())) {
-                todayAppointments.add(appointment);
-            }
+    /**
+     * 统计时间范围内各状态的预约数量（管理员用）
+     */
+    public StatusCounts getAppointmentStatusCounts(LocalDateTime from, LocalDateTime to) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
+            logger.warn("只有管理员可以查看预约统计");
+            return new StatusCounts(Collections.emptyMap());
         }
 
-        return todayAppointments;
+        return new StatusCounts(appointmentDAO.countByStatus(AppointmentQuery.all().between(from, to)));
+    }
+
+    /**
+     * 预约状态统计类
+     */
+    public static class StatusCounts {
+        public int total;
+        public int pending;
+        public int confirmed;
+        public int completed;
+        public int cancelled;
+
+        public StatusCounts(Map<String, Integer> counts) {
+            pending = counts.getOrDefault("pending", 0);
+            confirmed = counts.getOrDefault("confirmed", 0);
+            completed = counts.getOrDefault("completed", 0);
+            cancelled = counts.getOrDefault("cancelled", 0);
+            for (int count : counts.values()) {
+                total += count;
+            }
+        }
     }
 
     /**
@@ -364,4 +481,41 @@ public class AppointmentService {
     public boolean canStudentMakeAppointment(int studentId, LocalDateTime startTime, LocalDateTime endTime) {
         return !hasAppointmentConflict(studentId, startTime, endTime);
     }
-}
\ No newline at end of file
+
+    /**
+     * 预约结果状态
+     */
+    public enum BookingStatus {
+        BOOKED,         // 预约成功
+        ALREADY_TAKEN,  // 时间段已被预约或不可用
+        CONFLICT,       // 与学生已有预约时间冲突
+        NOT_FOUND,      // 时间段不存在
+        NOT_ALLOWED,    // 当前用户无权预约
+        ERROR           // 系统错误：数据库出错时预约未完成；瘦客户端网络出错时结果未知，需要刷新确认
+    }
+
+    /**
+     * 预约结果类
+     */
+    public static class BookingResult {
+        private final BookingStatus status;
+        private final Appointment appointment;
+
+        public BookingResult(BookingStatus status, Appointment appointment) {
+            this.status = status;
+            this.appointment = appointment;
+        }
+
+        public BookingStatus getStatus() {
+            return status;
+        }
+
+        public boolean isBooked() {
+            return status == BookingStatus.BOOKED;
+        }
+
+        public Optional<Appointment> getAppointment() {
+            return Optional.ofNullable(appointment);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.dao.AssessmentDAO;
+import com.university.mentalhealth.entity.Assessment;
+import com.university.mentalhealth.entity.AssessmentQuestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 测评量表和题库的进程内只读缓存。
+ * 第一次访问时用两条查询加载全部启用的量表及其题目（按题目顺序），之后打开问卷不再访问数据库。
+ * 量表或题目被修改后应调用 invalidate()，下次访问时重新加载；版本号每次加载递增，
+ * 调用方可以据此判断手里的量表数据是否已过期。
+ */
+public final class AssessmentCatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(AssessmentCatalogCache.class);
+
+    private static final AtomicLong versionCounter = new AtomicLong();
+    private static volatile Catalog catalog;
+    // 持有期间查询数据库；等待该锁的虚拟线程会让出载体线程（synchronized 在 Java 21 上会钉住载体线程）
+    private static final ReentrantLock loadLock = new ReentrantLock();
+
+    private AssessmentCatalogCache() {
+    }
+
+    /**
+     * 预先加载量表缓存（例如在启动时后台调用）
+     */
+    public static void warmUp() {
+        getCatalog();
+    }
+
+    /**
+     * 丢弃缓存，下次访问时从数据库重新加载
+     */
+    public static void invalidate() {
+        loadLock.lock();
+        try {
+            catalog = null;
+        } finally {
+            loadLock.unlock();
+        }
+        logger.info("测评量表缓存已失效");
+    }
+
+    /**
+     * 当前缓存的版本号，尚未加载时为 0
+     */
+    public static long getVersion() {
+        Catalog current = catalog;
+        return current != null ? current.version : 0;
+    }
+
+    /**
+     * 所有启用的量表，顺序与数据库查询一致（按创建时间倒序）
+     */
+    static List<Assessment> getAssessments() {
+        return new ArrayList<>(getCatalog().assessments);
+    }
+
+    /**
+     * 按ID获取启用的量表，未缓存时返回 null
+     */
+    static Assessment getAssessment(int assessmentId) {
+        return getCatalog().assessmentsById.get(assessmentId);
+    }
+
+    /**
+     * 按ID获取量表题目（按题目顺序），量表未缓存时返回 null
+     */
+    static List<AssessmentQuestion> getQuestions(int assessmentId) {
+        List<AssessmentQuestion> questions = getCatalog().questionsByAssessment.get(assessmentId);
+        return questions != null ? new ArrayList<>(questions) : null;
+    }
+
+    private static Catalog getCatalog() {
+        Catalog current = catalog;
+        if (current != null) {
+            return current;
+        }
+        loadLock.lock();
+        try {
+            if (catalog != null) {
+                return catalog;
+            }
+            Catalog loaded = load();
+            // 没有加载到量表（通常是数据库不可用）时不缓存，下次访问重试
+            if (!loaded.assessments.isEmpty()) {
+                catalog = loaded;
+            }
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private static Catalog load() {
+        AssessmentDAO assessmentDAO = new AssessmentDAO();
+        List<Assessment> assessments = assessmentDAO.getAllAssessments();
+        List<AssessmentQuestion> questions = assessmentDAO.getAllActiveQuestions();
+
+        Map<Integer, Assessment> assessmentsById = new LinkedHashMap<>();
+        Map<Integer, List<AssessmentQuestion>> questionsByAssessment = new HashMap<>();
+        for (Assessment assessment : assessments) {
+            assessmentsById.put(assessment.getId(), assessment);
+            questionsByAssessment.put(assessment.getId(), new ArrayList<>());
+        }
+        for (AssessmentQuestion question : questions) {
+            List<AssessmentQuestion> list = questionsByAssessment.get(question.getAssessmentId());
+            if (list != null) {
+                // 预先解析选项，渲染问卷时直接使用
+                question.getParsedOptions();
+                list.add(question);
+            }
+        }
+        for (Map.Entry<Integer, List<AssessmentQuestion>> entry : questionsByAssessment.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        Catalog loaded = new Catalog(versionCounter.incrementAndGet(),
+                Collections.unmodifiableList(assessments),
+                Collections.unmodifiableMap(assessmentsById),
+                Collections.unmodifiableMap(questionsByAssessment));
+        logger.info("测评量表缓存加载完成: 版本={}, 量表数={}, 题目数={}", loaded.version, assessments.size(), questions.size());
+        return loaded;
+    }
+
+    /**
+     * 某一版本的量表快照，加载后不再修改
+     */
+    private static final class Catalog {
+        final long version;
+        final List<Assessment> assessments;
+        final Map<Integer, Assessment> assessmentsById;
+        final Map<Integer, List<AssessmentQuestion>> questionsByAssessment;
+
+        Catalog(long version, List<Assessment> assessments, Map<Integer, Assessment> assessmentsById,
+                Map<Integer, List<AssessmentQuestion>> questionsByAssessment) {
+            this.version = version;
+            this.assessments = assessments;
+            this.assessmentsById = assessmentsById;
+            this.questionsByAssessment = questionsByAssessment;
+        }
+    }
+}
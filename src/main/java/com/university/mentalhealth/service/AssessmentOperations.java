@@ -0,0 +1,45 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.entity.Assessment;
+import com.university.mentalhealth.entity.AssessmentAnswer;
+import com.university.mentalhealth.entity.AssessmentDetail;
+import com.university.mentalhealth.entity.AssessmentQuestion;
+import com.university.mentalhealth.entity.AssessmentSession;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 学生界面使用的测评操作，由 AssessmentService 和瘦客户端的 RemoteAssessmentService 实现
+ */
+public interface AssessmentOperations {
+
+    List<Assessment> getAvailableAssessments();
+
+    Optional<Assessment> getAssessmentById(int assessmentId);
+
+    List<AssessmentQuestion> getAssessmentQuestions(int assessmentId);
+
+    boolean hasCompletedAssessment(int assessmentId);
+
+    /**
+     * 为当前学生创建测评会话（只在内存中创建，提交时才保存）
+     */
+    AssessmentSession startAssessmentSession(int assessmentId);
+
+    AssessmentSession submitAssessment(AssessmentSession session, List<AssessmentAnswer> answers);
+
+    List<AssessmentSession> getStudentAssessmentHistory();
+
+    List<AssessmentDetail> getAssessmentDetails(int sessionId);
+
+    /**
+     * 按量表的风险阈值给出风险等级，不访问数据库
+     */
+    String getRiskLevel(Assessment assessment, int totalScore);
+
+    /**
+     * 按量表和总分给出结果解释，不访问数据库
+     */
+    String getDetailedAssessmentResult(Assessment assessment, int totalScore);
+}
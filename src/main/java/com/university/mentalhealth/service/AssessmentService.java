@@ -4,6 +4,8 @@ import com.university.mentalhealth.dao.AssessmentDAO;
 import com.university.mentalhealth.entity.*;
 import com.university.mentalhealth.util.DatabaseUtil;
 import com.university.mentalhealth.util.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -11,11 +13,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.function.Consumer;
 
-public class AssessmentService {
-    private static final Logger logger = Logger.getLogger(AssessmentService.class.getName());
+public class AssessmentService implements AssessmentOperations {
+    private static final Logger logger = LoggerFactory.getLogger(AssessmentService.class);
     private final AssessmentDAO assessmentDAO;
 
     public AssessmentService() {
@@ -26,34 +27,49 @@ public class AssessmentService {
      * 获取所有可用的测评量表
      */
     public List<Assessment> getAvailableAssessments() {
-        return assessmentDAO.getAllAssessments();
+        return AssessmentCatalogCache.getAssessments();
     }
 
     /**
-     * 根据ID获取测评量表
+     * 根据ID获取测评量表（优先读缓存）
      */
     public Optional<Assessment> getAssessmentById(int assessmentId) {
+        Assessment assessment = AssessmentCatalogCache.getAssessment(assessmentId);
+        if (assessment != null) {
+            return Optional.of(assessment);
+        }
         return assessmentDAO.getAssessmentById(assessmentId);
     }
 
     /**
-     * 获取测评量表的题目
+     * 获取测评量表的题目（优先读缓存）
      */
     public List<AssessmentQuestion> getAssessmentQuestions(int assessmentId) {
+        List<AssessmentQuestion> questions = AssessmentCatalogCache.getQuestions(assessmentId);
+        if (questions != null) {
+            return questions;
+        }
         return assessmentDAO.getQuestionsByAssessmentId(assessmentId);
     }
 
+    /**
+     * 量表或题目被修改后调用，使缓存失效
+     */
+    public void refreshAssessmentCatalog() {
+        AssessmentCatalogCache.invalidate();
+    }
+
     /**
      * 开始新的测评会话
      */
     public AssessmentSession startAssessmentSession(int assessmentId) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isStudent()) {
-            logger.warning("只有学生可以开始测评");
+            logger.warn("只有学生可以开始测评");
             return null;
         }
 
         AssessmentSession session = new AssessmentSession();
-        session.setStudentId(SessionManager.currentUser.getId());
+        session.setStudentId(SessionManager.getCurrentUserId());
         session.setAssessmentId(assessmentId);
         session.setStartTime(LocalDateTime.now());
         session.setTotalScore(0);
@@ -66,7 +82,7 @@ public class AssessmentService {
      */
     public AssessmentSession submitAssessment(AssessmentSession session, List<AssessmentAnswer> answers) {
         if (session == null || answers == null || answers.isEmpty()) {
-            logger.warning("测评数据不完整");
+            logger.warn("测评数据不完整");
             return null;
         }
 
@@ -79,7 +95,7 @@ public class AssessmentService {
             // 保存测评会话
             boolean sessionSaved = assessmentDAO.saveAssessmentSession(session);
             if (!sessionSaved) {
-                logger.severe("保存测评会话失败");
+                logger.error("保存测评会话失败");
                 return null;
             }
 
@@ -90,15 +106,15 @@ public class AssessmentService {
 
             boolean answersSaved = assessmentDAO.saveAssessmentAnswers(answers);
             if (!answersSaved) {
-                logger.severe("保存测评答案失败");
+                logger.error("保存测评答案失败");
                 return null;
             }
 
-            logger.info("测评提交成功: session_id=" + session.getId() + ", 分数=" + totalScore);
+            logger.info("测评提交成功: session_id={}, 分数={}", session.getId(), totalScore);
             return session;
 
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "提交测评过程中发生错误", e);
+            logger.error("提交测评过程中发生错误", e);
             return null;
         }
     }
@@ -136,11 +152,11 @@ public class AssessmentService {
      */
     public List<AssessmentSession> getStudentAssessmentHistory() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isStudent()) {
-            logger.warning("只有学生可以查看测评历史");
+            logger.warn("只有学生可以查看测评历史");
             return new ArrayList<>();
         }
 
-        int studentId = SessionManager.currentUser.getId();
+        int studentId = SessionManager.getCurrentUserId();
         return assessmentDAO.getStudentSessions(studentId);
     }
 
@@ -152,7 +168,7 @@ public class AssessmentService {
             return false;
         }
 
-        int studentId = SessionManager.currentUser.getId();
+        int studentId = SessionManager.getCurrentUserId();
         List<AssessmentSession> sessions = assessmentDAO.getStudentSessions(studentId);
 
         for (AssessmentSession session : sessions) {
@@ -332,14 +348,14 @@ public class AssessmentService {
      * 获取推荐测评
      */
     public List<Assessment> getRecommendedAssessments() {
-        List<Assessment> allAssessments = assessmentDAO.getAllAssessments();
+        List<Assessment> allAssessments = getAvailableAssessments();
         List<Assessment> recommended = new ArrayList<>();
 
         if (!SessionManager.isLoggedIn() || !SessionManager.isStudent()) {
             return recommended;
         }
 
-        int studentId = SessionManager.currentUser.getId();
+        int studentId = SessionManager.getCurrentUserId();
 
         // 简单推荐逻辑：推荐未完成或最近未做的测评
         for (Assessment assessment : allAssessments) {
@@ -406,7 +422,7 @@ public class AssessmentService {
                 details.add(detail);
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "获取测评详情失败", e);
+            logger.error("获取测评详情失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -447,7 +463,7 @@ public class AssessmentService {
                 stats.put("minScore", rs.getInt("min_score"));
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "获取测评统计失败", e);
+            logger.error("获取测评统计失败", e);
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -457,6 +473,28 @@ public class AssessmentService {
         return stats;
     }
 
+    /**
+     * 流式遍历全部测评记录（管理员导出、统计用），返回处理的记录数，失败返回 -1
+     */
+    public int streamAllSessions(Consumer<? super AssessmentSession> consumer) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
+            logger.warn("只有管理员可以导出全部测评记录");
+            return -1;
+        }
+        return assessmentDAO.streamSessions(consumer);
+    }
+
+    /**
+     * 流式遍历全部答题记录（管理员导出、统计用），返回处理的记录数，失败返回 -1
+     */
+    public int streamAllAnswers(Consumer<? super AssessmentAnswer> consumer) {
+        if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
+            logger.warn("只有管理员可以导出全部答题记录");
+            return -1;
+        }
+        return assessmentDAO.streamAnswers(consumer);
+    }
+
     /**
      * 生成测评报告文本
      */
@@ -483,7 +521,7 @@ public class AssessmentService {
         for (int i = 0; i < details.size(); i++) {
             AssessmentDetail detail = details.get(i);
             report.append(i + 1).append(". ").append(detail.getQuestionText()).append("\n");
-            report.append("   答案: ").append(getAnswerText(detail.getAnswerValue())).append("\n");
+            report.append("   答案: ").append(detail.getAnswerText()).append("\n");
         }
 
         return report.toString();
@@ -507,16 +545,6 @@ public class AssessmentService {
         }
         return result.toString();
     }
-
-    private String getAnswerText(int value) {
-        switch (value) {
-            case 0: return "完全没有";
-            case 1: return "有几天";
-            case 2: return "一半以上时间";
-            case 3: return "几乎每天";
-            default: return "未知";
-        }
-    }
 }
 
 /**
@@ -0,0 +1,16 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.entity.Counselor;
+
+import java.util.List;
+
+/**
+ * 学生界面使用的咨询师查询，由 CounselorService 和瘦客户端的 RemoteCounselorService 实现
+ */
+public interface CounselorOperations {
+
+    /**
+     * 可以预约的咨询师
+     */
+    List<Counselor> getAvailableCounselors();
+}
@@ -5,23 +5,25 @@ import com.university.mentalhealth.dao.TimeSlotDAO;
 import com.university.mentalhealth.entity.Counselor;
 import com.university.mentalhealth.entity.TimeSlot;
 import com.university.mentalhealth.util.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
-public class CounselorService {
-    private static final Logger logger = Logger.getLogger(CounselorService.class.getName());
+public class CounselorService implements CounselorOperations {
+    private static final Logger logger = LoggerFactory.getLogger(CounselorService.class);
     private final CounselorDAO counselorDAO;
     private final TimeSlotDAO timeSlotDAO;
+    private final TimeSlotService timeSlotService;
 
     public CounselorService() {
         this.counselorDAO = new CounselorDAO();
         this.timeSlotDAO = new TimeSlotDAO();
+        this.timeSlotService = new TimeSlotService();
     }
 
     /**
@@ -43,11 +45,11 @@ public class CounselorService {
      */
     public Optional<Counselor> getCurrentCounselor() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("当前用户不是咨询师或未登录");
+            logger.warn("当前用户不是咨询师或未登录");
             return Optional.empty();
         }
 
-        int userId = SessionManager.currentUser.getId();
+        int userId = SessionManager.getCurrentUserId();
         return counselorDAO.findByUserId(userId);
     }
 
@@ -56,15 +58,15 @@ public class CounselorService {
      */
     public boolean updateCounselorAvailability(boolean isAvailable) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以更新自己的可用状态");
+            logger.warn("只有咨询师可以更新自己的可用状态");
             return false;
         }
 
-        int counselorId = SessionManager.currentUser.getId();
+        int counselorId = SessionManager.getCurrentUserId();
         boolean updated = counselorDAO.updateAvailability(counselorId, isAvailable);
 
         if (updated) {
-            logger.info("咨询师可用状态更新成功: counselor_id=" + counselorId + ", is_available=" + isAvailable);
+            logger.info("咨询师可用状态更新成功: counselor_id={}, is_available={}", counselorId, isAvailable);
         }
 
         return updated;
@@ -75,34 +77,41 @@ public class CounselorService {
      */
     public Optional<TimeSlot> addTimeSlot(LocalDateTime startTime, LocalDateTime endTime) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以添加工作时间段");
+            logger.warn("只有咨询师可以添加工作时间段");
             return Optional.empty();
         }
 
         try {
-            int counselorId = SessionManager.currentUser.getId();
+            int counselorId = SessionManager.getCurrentUserId();
 
-            // 检查时间冲突
-            if (timeSlotDAO.hasTimeConflict(counselorId, startTime, endTime)) {
-                logger.warning("时间段冲突: counselor_id=" + counselorId);
+            // 检查时间有效性（至少30分钟）
+            if (startTime.plusMinutes(30).isAfter(endTime)) {
+                logger.warn("时间段太短，至少需要30分钟");
                 return Optional.empty();
             }
 
-            // 检查时间有效性（至少30分钟）
-            if (startTime.plusMinutes(30).isAfter(endTime)) {
-                logger.warning("时间段太短，至少需要30分钟");
+            // 用索引预检查时间冲突，明显冲突时不必开启写事务
+            if (ScheduleIndex.COUNSELOR_SLOTS.overlaps(counselorId, startTime, endTime)) {
+                logger.warn("时间段冲突: counselor_id={}", counselorId);
                 return Optional.empty();
             }
 
+            // 插入事务中锁定咨询师并用数据库再检查一次冲突（其他客户端可能刚写入）
             TimeSlot timeSlot = new TimeSlot(counselorId, startTime, endTime);
-            boolean saved = timeSlotDAO.save(timeSlot);
+            List<TimeSlot> saved = timeSlotDAO.saveBatch(counselorId, Collections.singletonList(timeSlot));
 
-            if (saved) {
-                logger.info("时间段添加成功: time_slot_id=" + timeSlot.getId());
+            if (saved != null && !saved.isEmpty()) {
+                ScheduleIndex.COUNSELOR_SLOTS.add(counselorId, timeSlot.getId(), startTime, endTime);
+                logger.info("时间段添加成功: time_slot_id={}", timeSlot.getId());
                 return Optional.of(timeSlot);
             }
+            if (saved != null) {
+                // 索引落后于数据库，丢弃后下次查询重新加载
+                ScheduleIndex.COUNSELOR_SLOTS.invalidate(counselorId);
+                logger.warn("时间段冲突: counselor_id={}", counselorId);
+            }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "添加时间段过程中发生错误", e);
+            logger.error("添加时间段过程中发生错误", e);
         }
         return Optional.empty();
     }
@@ -112,38 +121,39 @@ public class CounselorService {
      */
     public boolean deleteTimeSlot(int timeSlotId) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以删除自己的时间段");
+            logger.warn("只有咨询师可以删除自己的时间段");
             return false;
         }
 
         try {
             Optional<TimeSlot> timeSlotOpt = timeSlotDAO.findById(timeSlotId);
             if (!timeSlotOpt.isPresent()) {
-                logger.warning("时间段不存在: time_slot_id=" + timeSlotId);
+                logger.warn("时间段不存在: time_slot_id={}", timeSlotId);
                 return false;
             }
 
             TimeSlot timeSlot = timeSlotOpt.get();
 
             // 检查权限
-            if (timeSlot.getCounselorId() != SessionManager.currentUser.getId()) {
-                logger.warning("只能删除自己的时间段");
+            if (timeSlot.getCounselorId() != SessionManager.getCurrentUserId()) {
+                logger.warn("只能删除自己的时间段");
                 return false;
             }
 
             // 检查时间段是否已被预约
             if ("booked".equals(timeSlot.getStatus())) {
-                logger.warning("已被预约的时间段不能删除");
+                logger.warn("已被预约的时间段不能删除");
                 return false;
             }
 
             boolean deleted = timeSlotDAO.delete(timeSlotId);
             if (deleted) {
-                logger.info("时间段删除成功: time_slot_id=" + timeSlotId);
+                ScheduleIndex.COUNSELOR_SLOTS.remove(timeSlot.getCounselorId(), timeSlotId);
+                logger.info("时间段删除成功: time_slot_id={}", timeSlotId);
                 return true;
             }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "删除时间段过程中发生错误", e);
+            logger.error("删除时间段过程中发生错误", e);
         }
         return false;
     }
@@ -153,11 +163,11 @@ public class CounselorService {
      */
     public List<TimeSlot> getCounselorTimeSlots() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以查看自己的时间段");
+            logger.warn("只有咨询师可以查看自己的时间段");
             return Collections.emptyList(); // 替换 List.of()
         }
 
-        int counselorId = SessionManager.currentUser.getId();
+        int counselorId = SessionManager.getCurrentUserId();
         return timeSlotDAO.findByCounselorId(counselorId);
     }
 
@@ -166,11 +176,11 @@ public class CounselorService {
      */
     public CounselorWorkload getWorkloadStatistics() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以查看工作统计");
+            logger.warn("只有咨询师可以查看工作统计");
             return new CounselorWorkload();
         }
 
-        int counselorId = SessionManager.currentUser.getId();
+        int counselorId = SessionManager.getCurrentUserId();
         List<TimeSlot> timeSlots = timeSlotDAO.findByCounselorId(counselorId);
 
         CounselorWorkload workload = new CounselorWorkload();
@@ -211,7 +221,7 @@ public class CounselorService {
      */
     public boolean updateCounselorInfo(String title, String specialization) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以更新个人信息");
+            logger.warn("只有咨询师可以更新个人信息");
             return false;
         }
 
@@ -227,11 +237,11 @@ public class CounselorService {
 
             boolean updated = counselorDAO.update(counselor);
             if (updated) {
-                logger.info("咨询师信息更新成功: counselor_id=" + counselor.getId());
+                logger.info("咨询师信息更新成功: counselor_id={}", counselor.getId());
                 return true;
             }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "更新咨询师信息过程中发生错误", e);
+            logger.error("更新咨询师信息过程中发生错误", e);
         }
         return false;
     }
@@ -261,7 +271,7 @@ public class CounselorService {
             return Collections.emptyList(); // 替换 List.of()
         }
 
-        int counselorId = SessionManager.currentUser.getId();
+        int counselorId = SessionManager.getCurrentUserId();
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startOfWeek = now.with(java.time.DayOfWeek.MONDAY).withHour(0).withMinute(0).withSecond(0);
         LocalDateTime endOfWeek = startOfWeek.plusDays(7);
@@ -274,36 +284,21 @@ public class CounselorService {
      */
     public int addDailyTimeSlots(LocalDateTime date, int startHour, int endHour, int durationMinutes) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以添加时间段");
+            logger.warn("只有咨询师可以添加时间段");
             return 0;
         }
 
-        int counselorId = SessionManager.currentUser.getId();
-        int addedCount = 0;
+        int counselorId = SessionManager.getCurrentUserId();
 
         LocalDateTime dayStart = date.withHour(startHour).withMinute(0).withSecond(0);
         LocalDateTime dayEnd = date.withHour(endHour).withMinute(0).withSecond(0);
 
-        LocalDateTime currentStart = dayStart;
-
-        while (currentStart.plusMinutes(durationMinutes).isBefore(dayEnd) ||
-                currentStart.plusMinutes(durationMinutes).isEqual(dayEnd)) {
-
-            LocalDateTime currentEnd = currentStart.plusMinutes(durationMinutes);
-
-            // 检查时间冲突
-            if (!timeSlotDAO.hasTimeConflict(counselorId, currentStart, currentEnd)) {
-                TimeSlot timeSlot = new TimeSlot(counselorId, currentStart, currentEnd);
-                if (timeSlotDAO.save(timeSlot)) {
-                    addedCount++;
-                }
-            }
-
-            currentStart = currentEnd;
-        }
+        // 一次加载当天已有时间段，内存中检查冲突后批量插入
+        List<TimeSlot> candidates = timeSlotService.generateTimeSlots(counselorId, dayStart, dayEnd, durationMinutes, 0);
+        TimeSlotService.BatchCreateResult result = timeSlotService.createTimeSlots(counselorId, candidates);
 
-        logger.info("每日时间段添加完成: 成功添加 " + addedCount + " 个时间段");
-        return addedCount;
+        logger.info("每日时间段添加完成: 成功添加 {} 个时间段，跳过 {} 个", result.createdCount, result.skippedCount);
+        return result.createdCount;
     }
 
     /**
@@ -314,7 +309,7 @@ public class CounselorService {
             return new AppointmentStats();
         }
 
-        int counselorId = SessionManager.currentUser.getId();
+        int counselorId = SessionManager.getCurrentUserId();
         List<TimeSlot> timeSlots = timeSlotDAO.findByCounselorId(counselorId);
 
         AppointmentStats stats = new AppointmentStats();
@@ -0,0 +1,207 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * 登录前的快速拒绝，避免开学时大量重试反复查询 users 表：
+ * 1. 查不到的用户名在 login.unknownUserCacheSeconds 秒内直接判定失败，不再查库；
+ * 2. 同一用户名在 login.lockoutSeconds 秒内连续失败 login.maxFailures 次后锁定 login.lockoutSeconds 秒，
+ *    锁定期间的尝试既不查库也不校验密码。登录成功时清零失败次数。
+ * 失败次数按小写用户名记录（MySQL 默认排序规则不区分大小写，换大小写不能绕过锁定），不存在的用户名同样计数和锁定，
+ * 锁定与否不暴露用户名是否存在；不存在的用户名缓存按原样记录，数据库区分大小写时不会误伤大小写不同的真实用户名。
+ * 记录数达到 login.maxTrackedUsernames 时先清理过期记录，仍然超出则淘汰最早的记录到上限的 90%。
+ * 锁定中的记录不会被淘汰（否则换一批用户名失败就能解除锁定），它们在 login.lockoutSeconds 后过期；
+ * 每次失败都要做一次密码计算，锁定记录的数量受密码计算线程池的吞吐量限制。
+ * 进程内所有 UserService 共用一个实例，主要在服务器模式下起作用。
+ */
+public final class LoginGuard {
+    private static final Logger logger = LoggerFactory.getLogger(LoginGuard.class);
+
+    private static final LoginGuard INSTANCE = new LoginGuard(
+            TimeUnit.SECONDS.toMillis(AppConfig.getLong("login.unknownUserCacheSeconds", 60)),
+            AppConfig.getInt("login.maxFailures", 5),
+            TimeUnit.SECONDS.toMillis(AppConfig.getLong("login.lockoutSeconds", 60)),
+            AppConfig.getInt("login.maxTrackedUsernames", 10000));
+
+    private final Map<String, Long> unknownUntil = new ConcurrentHashMap<>();
+    private final Map<String, Failures> failures = new ConcurrentHashMap<>();
+    private final long unknownTtlMillis;
+    private final int maxFailures;
+    private final long lockoutMillis;
+    private final int maxTracked;
+
+    LoginGuard(long unknownTtlMillis, int maxFailures, long lockoutMillis, int maxTracked) {
+        this.unknownTtlMillis = unknownTtlMillis;
+        this.maxFailures = maxFailures;
+        this.lockoutMillis = lockoutMillis;
+        this.maxTracked = maxTracked;
+    }
+
+    public static LoginGuard getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 用户名最近查询过且不存在
+     */
+    public boolean isKnownUnknown(String username) {
+        String key = username.trim();
+        Long until = unknownUntil.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        unknownUntil.remove(key, until);
+        return false;
+    }
+
+    /**
+     * 用户名因连续失败处于锁定期
+     */
+    public boolean isLocked(String username) {
+        Failures current = failures.get(lockKey(username));
+        return current != null && current.lockedUntilMillis > System.currentTimeMillis();
+    }
+
+    public void recordUnknown(String username) {
+        if (unknownTtlMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (unknownUntil.size() >= maxTracked) {
+            trimUnknown(now);
+        }
+        unknownUntil.put(username.trim(), now + unknownTtlMillis);
+    }
+
+    public void recordFailure(String username) {
+        if (maxFailures <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (failures.size() >= maxTracked) {
+            trimFailures(now);
+        }
+        Failures updated = failures.compute(lockKey(username), (k, current) -> {
+            if (current == null || current.isExpired(now, lockoutMillis)) {
+                current = new Failures(0, now, 0L);
+            }
+            int count = current.count + 1;
+            if (count >= maxFailures) {
+                return new Failures(0, now, now + lockoutMillis);
+            }
+            return new Failures(count, current.firstFailureMillis, current.lockedUntilMillis);
+        });
+        if (updated.lockedUntilMillis == now + lockoutMillis) {
+            logger.warn("连续登录失败 {} 次，锁定 {} 秒: {}", maxFailures,
+                    TimeUnit.MILLISECONDS.toSeconds(lockoutMillis), username);
+        }
+    }
+
+    public void recordSuccess(String username) {
+        failures.remove(lockKey(username));
+    }
+
+    /**
+     * 新建或重新启用用户后调用，使该用户名不再被当作不存在
+     */
+    public void forgetUnknown(String username) {
+        unknownUntil.remove(username.trim());
+    }
+
+    public void clearUnknown() {
+        unknownUntil.clear();
+    }
+
+    int trackedUnknownCount() {
+        return unknownUntil.size();
+    }
+
+    int trackedFailureCount() {
+        return failures.size();
+    }
+
+    private void trimUnknown(long now) {
+        unknownUntil.values().removeIf(until -> until <= now);
+        if (unknownUntil.size() >= maxTracked) {
+            // 过期时间最早的就是最早记录的
+            List<String> oldest = oldestKeys(unknownUntil, until -> until, unknownUntil.size() - retainedCount());
+            unknownUntil.keySet().removeAll(oldest);
+            logger.warn("不存在的用户名缓存达到 {} 条，淘汰最早的 {} 条", maxTracked, oldest.size());
+        }
+    }
+
+    private void trimFailures(long now) {
+        failures.values().removeIf(current -> current.isExpired(now, lockoutMillis));
+        if (failures.size() >= maxTracked) {
+            Map<String, Failures> unlocked = new HashMap<>();
+            for (Map.Entry<String, Failures> entry : failures.entrySet()) {
+                if (entry.getValue().lockedUntilMillis <= now) {
+                    unlocked.put(entry.getKey(), entry.getValue());
+                }
+            }
+            int evicted = 0;
+            for (String key : oldestKeys(unlocked, current -> current.firstFailureMillis, failures.size() - retainedCount())) {
+                evicted += failures.remove(key, unlocked.get(key)) ? 1 : 0;
+            }
+            logger.warn("登录失败记录达到 {} 条，淘汰最早的 {} 条未锁定记录，保留 {} 条", maxTracked, evicted, failures.size());
+        }
+    }
+
+    private int retainedCount() {
+        return maxTracked * 9 / 10;
+    }
+
+    /**
+     * age 最小的 count 个记录的用户名
+     */
+    private static <V> List<String> oldestKeys(Map<String, V> map, ToLongFunction<V> age, int count) {
+        List<Map.Entry<String, V>> entries = new ArrayList<>(map.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> age.applyAsLong(entry.getValue())));
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, entries.size()); i++) {
+            keys.add(entries.get(i).getKey());
+        }
+        return keys;
+    }
+
+    private static String lockKey(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一个用户名的失败记录（不可变，在 ConcurrentHashMap.compute 中整体替换）
+     */
+    private static final class Failures {
+        final int count;
+        final long firstFailureMillis;
+        final long lockedUntilMillis;
+
+        Failures(int count, long firstFailureMillis, long lockedUntilMillis) {
+            this.count = count;
+            this.firstFailureMillis = firstFailureMillis;
+            this.lockedUntilMillis = lockedUntilMillis;
+        }
+
+        /**
+         * 不在锁定期，且第一次失败已超过统计窗口
+         */
+        boolean isExpired(long now, long windowMillis) {
+            return lockedUntilMillis <= now && now - firstFailureMillis >= windowMillis;
+        }
+    }
+}
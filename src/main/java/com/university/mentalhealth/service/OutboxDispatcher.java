@@ -0,0 +1,316 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.dao.OutboxDAO;
+import com.university.mentalhealth.entity.OutboxMessage;
+import com.university.mentalhealth.notification.EmailMessage;
+import com.university.mentalhealth.notification.LoggingNotificationSender;
+import com.university.mentalhealth.notification.NotificationSender;
+import com.university.mentalhealth.notification.SmtpNotificationSender;
+import com.university.mentalhealth.util.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通知发件箱的后台投递进程。
+ * 每次认领一批到期的发件箱记录，用同一个连接发送整批邮件，然后用一条语句标记整批已投递；
+ * 发送失败的记录按指数退避推后重试，超过最大尝试次数后标记为 failed。
+ * 投递是“至少一次”的：邮件发出后、标记已投递前进程退出，租约到期后该记录会再次发送。
+ * 空闲时按轮询间隔检查发件箱，本进程内有新的预约事件时立即唤醒。
+ */
+public class OutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static OutboxDispatcher instance;
+
+    private final OutboxDAO outboxDAO;
+    private final NotificationSender sender;
+    private final AppointmentNotifier notifier;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final int leaseSeconds;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    // 认领标识的前缀，区分不同的投递进程
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    private final Object wakeLock = new Object();
+    private boolean wakeRequested;
+    private volatile boolean running;
+    private Thread thread;
+
+    // 统计
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong sendNanos = new AtomicLong();
+    private final AtomicLong totalLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile long lastLagMillis;
+
+    public OutboxDispatcher(NotificationSender sender) {
+        this.outboxDAO = new OutboxDAO();
+        this.sender = sender;
+        this.notifier = new AppointmentNotifier(AppConfig.getString("notification.recipientDomain", "university.edu.cn"));
+        this.batchSize = AppConfig.getInt("notification.outbox.batchSize", 50);
+        this.pollIntervalMillis = AppConfig.getLong("notification.outbox.pollIntervalMillis", 2000);
+        this.leaseSeconds = AppConfig.getInt("notification.outbox.leaseSeconds", 60);
+        this.maxAttempts = AppConfig.getInt("notification.outbox.maxAttempts", 8);
+        this.backoffBaseMillis = AppConfig.getLong("notification.outbox.backoffBaseMillis", 1000);
+        this.backoffMaxMillis = AppConfig.getLong("notification.outbox.backoffMaxMillis", 600000);
+    }
+
+    /**
+     * 按配置创建发送方式：配置了 notification.smtp.host 时通过 SMTP 发送，否则只记录日志
+     */
+    public static NotificationSender createConfiguredSender() {
+        String host = AppConfig.getString("notification.smtp.host", null);
+        if (host == null) {
+            return new LoggingNotificationSender();
+        }
+        return new SmtpNotificationSender(host,
+                AppConfig.getInt("notification.smtp.port", 25),
+                AppConfig.getInt("notification.smtp.timeoutMillis", 10000),
+                AppConfig.getString("notification.from", "noreply@university.edu.cn"));
+    }
+
+    /**
+     * 启动应用内的投递进程（按配置的发送方式），重复调用只启动一次。
+     * ApiServer 启动时调用；桌面客户端只在 notification.outbox.dispatcher.enabled=true 时调用
+     */
+    public static synchronized OutboxDispatcher startDefault() {
+        if (instance == null) {
+            instance = new OutboxDispatcher(createConfiguredSender());
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * 应用内的投递进程，未启动时返回 null
+     */
+    public static synchronized OutboxDispatcher getDefault() {
+        return instance;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::runLoop, "notification-outbox");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("通知投递进程已启动: batchSize={}, pollInterval={}ms", batchSize, pollIntervalMillis);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * 有新的发件箱记录时唤醒投递进程，不必等到下一次轮询
+     */
+    public void wakeUp() {
+        synchronized (wakeLock) {
+            wakeRequested = true;
+            wakeLock.notifyAll();
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            int processed;
+            try {
+                processed = runOnce();
+            } catch (RuntimeException e) {
+                logger.error("投递通知时发生错误", e);
+                processed = 0;
+            }
+            // 整批都满时说明还有积压，立即继续
+            if (processed >= batchSize) {
+                continue;
+            }
+            synchronized (wakeLock) {
+                if (!wakeRequested) {
+                    try {
+                        wakeLock.wait(pollIntervalMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                wakeRequested = false;
+            }
+        }
+    }
+
+    /**
+     * 认领并投递一批到期的记录，返回处理的条数（可在测试中直接调用）
+     */
+    public int runOnce() {
+        String claimId = instanceId + "-" + claimSequence.incrementAndGet();
+        List<OutboxMessage> claimed = outboxDAO.claimDue(claimId, batchSize, leaseSeconds);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxMessage> sending = new ArrayList<>(claimed.size());
+        List<EmailMessage> emails = new ArrayList<>(claimed.size());
+        List<Long> failedIds = new ArrayList<>();
+        List<Long> retryAfter = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (OutboxMessage message : claimed) {
+            EmailMessage email = notifier.render(message);
+            if (email == null) {
+                // 预约已被删除或没有收件人，重试也不会成功
+                failedIds.add(message.getId());
+                retryAfter.add(null);
+                errors.add("预约不存在或没有收件人");
+                continue;
+            }
+            sending.add(message);
+            emails.add(email);
+        }
+
+        long start = System.nanoTime();
+        List<String> results = sender.sendBatch(emails);
+        sendNanos.addAndGet(System.nanoTime() - start);
+
+        List<Long> deliveredIds = new ArrayList<>(sending.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < sending.size(); i++) {
+            OutboxMessage message = sending.get(i);
+            String error = results.get(i);
+            if (error == null) {
+                deliveredIds.add(message.getId());
+                recordLag(Duration.between(message.getCreatedAt(), now).toMillis());
+                continue;
+            }
+            failedIds.add(message.getId());
+            errors.add(error);
+            int attempts = message.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                retryAfter.add(null);
+                logger.warn("通知投递失败且不再重试: {}, error={}", message, error);
+            } else {
+                retryAfter.add(backoffMillis(attempts));
+            }
+        }
+
+        outboxDAO.markDelivered(claimId, deliveredIds);
+        outboxDAO.markFailed(claimId, failedIds, retryAfter, errors);
+
+        batches.incrementAndGet();
+        delivered.addAndGet(deliveredIds.size());
+        for (Long after : retryAfter) {
+            if (after != null) {
+                retried.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+        if (!failedIds.isEmpty()) {
+            logger.warn("通知投递: 成功 {} 条，失败 {} 条", deliveredIds.size(), failedIds.size());
+        }
+        return claimed.size();
+    }
+
+    private long backoffMillis(int attempts) {
+        // 第 n 次失败后等待 base * 2^(n-1)，不超过上限
+        long delay = backoffBaseMillis << Math.min(attempts - 1, 30);
+        return delay > 0 ? Math.min(delay, backoffMaxMillis) : backoffMaxMillis;
+    }
+
+    private void recordLag(long lagMillis) {
+        lagMillis = Math.max(0, lagMillis);
+        lastLagMillis = lagMillis;
+        totalLagMillis.addAndGet(lagMillis);
+        long currentMax = maxLagMillis.get();
+        while (lagMillis > currentMax && !maxLagMillis.compareAndSet(currentMax, lagMillis)) {
+            currentMax = maxLagMillis.get();
+        }
+    }
+
+    /**
+     * 投递统计；includeBacklog 为 true 时额外查询发件箱当前的积压（访问数据库）
+     */
+    public DispatcherStats getStats(boolean includeBacklog) {
+        DispatcherStats stats = new DispatcherStats();
+        stats.batches = batches.get();
+        stats.delivered = delivered.get();
+        stats.retried = retried.get();
+        stats.failed = failed.get();
+        stats.sendMillis = sendNanos.get() / 1_000_000.0;
+        stats.uptimeMillis = System.currentTimeMillis() - startedAt;
+        stats.lastLagMillis = lastLagMillis;
+        stats.maxLagMillis = maxLagMillis.get();
+        stats.averageLagMillis = stats.delivered == 0 ? 0 : (double) totalLagMillis.get() / stats.delivered;
+        stats.pendingCount = -1;
+        if (includeBacklog) {
+            OutboxDAO.Backlog backlog = outboxDAO.getBacklog();
+            if (backlog != null) {
+                stats.pendingCount = backlog.pendingCount;
+                stats.oldestPendingAgeMillis = backlog.oldestCreatedAt == null ? 0 :
+                        Math.max(0, Duration.between(backlog.oldestCreatedAt, LocalDateTime.now()).toMillis());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 投递统计类。延迟为发件箱写入到投递成功的时间（数据库时间与本机时间之差会计入其中）
+     */
+    public static class DispatcherStats {
+        public long batches;
+        public long delivered;
+        public long retried;
+        public long failed;
+        public double sendMillis;
+        public long uptimeMillis;
+        public long lastLagMillis;
+        public long maxLagMillis;
+        public double averageLagMillis;
+        public long pendingCount;          // 未查询时为 -1
+        public long oldestPendingAgeMillis;
+
+        /**
+         * 发送时的吞吐量（条/秒），只计算实际发送所用的时间
+         */
+        public double getSendThroughput() {
+            if (sendMillis <= 0) return 0.0;
+            return delivered * 1000.0 / sendMillis;
+        }
+
+        /**
+         * 启动以来的平均投递速度（条/秒）
+         */
+        public double getOverallThroughput() {
+            if (uptimeMillis <= 0) return 0.0;
+            return delivered * 1000.0 / uptimeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("DispatcherStats{batches=%d, delivered=%d, retried=%d, failed=%d, " +
+                            "sendThroughput=%.1f/s, overallThroughput=%.2f/s, lag(last=%dms, avg=%.0fms, max=%dms), " +
+                            "pending=%d, oldestPendingAge=%dms}",
+                    batches, delivered, retried, failed, getSendThroughput(), getOverallThroughput(),
+                    lastLagMillis, averageLagMillis, maxLagMillis, pendingCount, oldestPendingAgeMillis);
+        }
+    }
+}
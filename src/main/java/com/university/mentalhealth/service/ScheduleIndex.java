@@ -0,0 +1,42 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.dao.AppointmentDAO;
+import com.university.mentalhealth.dao.TimeSlotDAO;
+import com.university.mentalhealth.entity.Appointment;
+import com.university.mentalhealth.entity.TimeSlot;
+import com.university.mentalhealth.util.IntervalIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 各服务共享的时间冲突索引：咨询师的有效时间段、学生的有效预约
+ */
+final class ScheduleIndex {
+    private static final long TTL_MILLIS = 5 * 60 * 1000L;
+    private static final int HORIZON_DAYS = 1;
+    // 加载区间时的结束边界（避免 LocalDateTime.MAX 无法转换为 Timestamp）
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    /** 咨询师未取消的时间段，按 counselor_id 分组 */
+    static final IntervalIndex COUNSELOR_SLOTS = new IntervalIndex("counselor-slots", (counselorId, from) -> {
+        List<IntervalIndex.Interval> intervals = new ArrayList<>();
+        for (TimeSlot timeSlot : new TimeSlotDAO().findActiveIntervals(counselorId, from, FAR_FUTURE)) {
+            intervals.add(IntervalIndex.Interval.of(timeSlot.getId(), timeSlot.getStartTime(), timeSlot.getEndTime()));
+        }
+        return intervals;
+    }, TTL_MILLIS, HORIZON_DAYS);
+
+    /** 学生未取消的预约，按 student_id 分组 */
+    static final IntervalIndex STUDENT_APPOINTMENTS = new IntervalIndex("student-appointments", (studentId, from) -> {
+        List<IntervalIndex.Interval> intervals = new ArrayList<>();
+        for (Appointment appointment : new AppointmentDAO().findActiveIntervalsByStudentId(studentId, from)) {
+            intervals.add(IntervalIndex.Interval.of(appointment.getId(), appointment.getStartTime(), appointment.getEndTime()));
+        }
+        return intervals;
+    }, TTL_MILLIS, HORIZON_DAYS);
+
+    private ScheduleIndex() {
+    }
+}
@@ -0,0 +1,21 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.entity.Student;
+
+import java.util.Optional;
+
+/**
+ * 学生界面使用的个人信息操作，由 StudentService 和瘦客户端的 RemoteStudentService 实现
+ */
+public interface StudentOperations {
+
+    /**
+     * 当前登录学生的信息
+     */
+    Optional<Student> getCurrentStudent();
+
+    /**
+     * 修改当前学生的联系方式
+     */
+    boolean updateContactInfo(String contactPhone, String emergencyContact, String emergencyPhone);
+}
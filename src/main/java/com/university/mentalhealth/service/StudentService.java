@@ -3,15 +3,15 @@ package com.university.mentalhealth.service;
 import com.university.mentalhealth.dao.StudentDAO;
 import com.university.mentalhealth.entity.Student;
 import com.university.mentalhealth.util.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
-public class StudentService {
-    private static final Logger logger = Logger.getLogger(StudentService.class.getName());
+public class StudentService implements StudentOperations {
+    private static final Logger logger = LoggerFactory.getLogger(StudentService.class);
     private final StudentDAO studentDAO;
 
     public StudentService() {
@@ -23,11 +23,11 @@ public class StudentService {
      */
     public Optional<Student> getCurrentStudent() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isStudent()) {
-            logger.warning("当前用户不是学生或未登录");
+            logger.warn("当前用户不是学生或未登录");
             return Optional.empty();
         }
 
-        int userId = SessionManager.currentUser.getId();
+        int userId = SessionManager.getCurrentUserId();
         return studentDAO.findById(userId);
     }
 
@@ -64,33 +64,33 @@ public class StudentService {
      */
     public boolean updateContactInfo(String contactPhone, String emergencyContact, String emergencyPhone) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isStudent()) {
-            logger.warning("当前用户不是学生或未登录");
+            logger.warn("当前用户不是学生或未登录");
             return false;
         }
 
-        int userId = SessionManager.currentUser.getId();
+        int userId = SessionManager.getCurrentUserId();
 
         // 验证联系信息
         if (contactPhone == null || contactPhone.trim().isEmpty()) {
-            logger.warning("联系电话不能为空");
+            logger.warn("联系电话不能为空");
             return false;
         }
 
         if (emergencyContact == null || emergencyContact.trim().isEmpty()) {
-            logger.warning("紧急联系人不能为空");
+            logger.warn("紧急联系人不能为空");
             return false;
         }
 
         if (emergencyPhone == null || emergencyPhone.trim().isEmpty()) {
-            logger.warning("紧急联系电话不能为空");
+            logger.warn("紧急联系电话不能为空");
             return false;
         }
 
         boolean result = studentDAO.updateContactInfo(userId, contactPhone, emergencyContact, emergencyPhone);
         if (result) {
-            logger.info("学生联系信息更新成功: user_id=" + userId);
+            logger.info("学生联系信息更新成功: user_id={}", userId);
         } else {
-            logger.severe("学生联系信息更新失败: user_id=" + userId);
+            logger.error("学生联系信息更新失败: user_id={}", userId);
         }
 
         return result;
@@ -102,27 +102,27 @@ public class StudentService {
     public boolean updateStudentInfo(Student student) {
         // 验证学号格式（示例：20230001）
         if (!isValidStudentId(student.getStudentId())) {
-            logger.warning("学号格式不正确: " + student.getStudentId());
+            logger.warn("学号格式不正确: {}", student.getStudentId());
             return false;
         }
 
         // 验证姓名
         if (student.getName() == null || student.getName().trim().isEmpty()) {
-            logger.warning("学生姓名不能为空");
+            logger.warn("学生姓名不能为空");
             return false;
         }
 
         // 验证院系
         if (student.getDepartment() == null || student.getDepartment().trim().isEmpty()) {
-            logger.warning("院系不能为空");
+            logger.warn("院系不能为空");
             return false;
         }
 
         boolean result = studentDAO.update(student);
         if (result) {
-            logger.info("学生信息更新成功: " + student.getStudentId());
+            logger.info("学生信息更新成功: {}", student.getStudentId());
         } else {
-            logger.severe("学生信息更新失败: " + student.getStudentId());
+            logger.error("学生信息更新失败: {}", student.getStudentId());
         }
 
         return result;
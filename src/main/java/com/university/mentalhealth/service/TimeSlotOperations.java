@@ -0,0 +1,17 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.entity.TimeSlot;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 学生界面使用的时间段查询，由 TimeSlotService 和瘦客户端的 RemoteTimeSlotService 实现
+ */
+public interface TimeSlotOperations {
+
+    /**
+     * 咨询师在时间范围内可以预约的时间段
+     */
+    List<TimeSlot> getBookableTimeSlots(int counselorId, LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -1,19 +1,21 @@
 package com.university.mentalhealth.service;
 
+import com.university.mentalhealth.dao.ChangeSet;
+import com.university.mentalhealth.dao.ChangeToken;
 import com.university.mentalhealth.dao.TimeSlotDAO;
 import com.university.mentalhealth.entity.TimeSlot;
 import com.university.mentalhealth.util.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
-public class TimeSlotService {
-    private static final Logger logger = Logger.getLogger(TimeSlotService.class.getName());
+public class TimeSlotService implements TimeSlotOperations {
+    private static final Logger logger = LoggerFactory.getLogger(TimeSlotService.class);
     private final TimeSlotDAO timeSlotDAO;
 
     public TimeSlotService() {
@@ -25,6 +27,18 @@ public class TimeSlotService {
         return timeSlotDAO.findAvailableTimeSlots(counselorId, startDate, endDate);
     }
 
+    /**
+     * 获取咨询师在时间范围内可预约的时间段（一次查询，只返回尚未开始且未被预约的时间段）
+     */
+    public List<TimeSlot> getBookableTimeSlots(int counselorId, LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = startDate.isAfter(now) ? startDate : now;
+        if (!from.isBefore(endDate)) {
+            return new ArrayList<>();
+        }
+        return timeSlotDAO.findBookableTimeSlots(counselorId, from, endDate);
+    }
+
     // 获取所有可用时间段（不限定咨询师）
     public List<TimeSlot> getAvailableTimeSlots(LocalDateTime startDate, LocalDateTime endDate) {
         return timeSlotDAO.findAvailableTimeSlots(startDate, endDate);
@@ -55,32 +69,38 @@ public class TimeSlotService {
      */
     public boolean updateTimeSlotStatus(int timeSlotId, String status) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以更新时间段状态");
+            logger.warn("只有咨询师可以更新时间段状态");
             return false;
         }
 
         try {
             Optional<TimeSlot> timeSlotOpt = timeSlotDAO.findById(timeSlotId);
             if (!timeSlotOpt.isPresent()) {
-                logger.warning("时间段不存在: time_slot_id=" + timeSlotId);
+                logger.warn("时间段不存在: time_slot_id={}", timeSlotId);
                 return false;
             }
 
             TimeSlot timeSlot = timeSlotOpt.get();
 
             // 检查权限
-            if (timeSlot.getCounselorId() != SessionManager.currentUser.getId()) {
-                logger.warning("只能更新自己的时间段");
+            if (timeSlot.getCounselorId() != SessionManager.getCurrentUserId()) {
+                logger.warn("只能更新自己的时间段");
                 return false;
             }
 
             boolean updated = timeSlotDAO.updateStatus(timeSlotId, status);
             if (updated) {
-                logger.info("时间段状态更新成功: time_slot_id=" + timeSlotId + ", status=" + status);
+                if ("cancelled".equals(status)) {
+                    ScheduleIndex.COUNSELOR_SLOTS.remove(timeSlot.getCounselorId(), timeSlotId);
+                } else {
+                    ScheduleIndex.COUNSELOR_SLOTS.add(timeSlot.getCounselorId(), timeSlotId,
+                            timeSlot.getStartTime(), timeSlot.getEndTime());
+                }
+                logger.info("时间段状态更新成功: time_slot_id={}, status={}", timeSlotId, status);
                 return true;
             }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "更新时间段状态过程中发生错误", e);
+            logger.error("更新时间段状态过程中发生错误", e);
         }
         return false;
     }
@@ -89,34 +109,111 @@ public class TimeSlotService {
      * 批量添加时间段
      */
     public int addBatchTimeSlots(LocalDateTime startTime, LocalDateTime endTime, int durationMinutes, int breakMinutes) {
+        return addBatchTimeSlotsWithResult(startTime, endTime, durationMinutes, breakMinutes).createdCount;
+    }
+
+    /**
+     * 批量添加时间段，并返回成功添加和因冲突跳过的数量
+     */
+    public BatchCreateResult addBatchTimeSlotsWithResult(LocalDateTime startTime, LocalDateTime endTime,
+                                                         int durationMinutes, int breakMinutes) {
         if (!SessionManager.isLoggedIn() || !SessionManager.isCounselor()) {
-            logger.warning("只有咨询师可以添加时间段");
-            return 0;
+            logger.warn("只有咨询师可以添加时间段");
+            return new BatchCreateResult();
         }
 
-        int counselorId = SessionManager.currentUser.getId();
-        int addedCount = 0;
+        int counselorId = SessionManager.getCurrentUserId();
+        List<TimeSlot> candidates = generateTimeSlots(counselorId, startTime, endTime, durationMinutes, breakMinutes);
+        return createTimeSlots(counselorId, candidates);
+    }
+
+    /**
+     * 按时长和间隔把 [startTime, endTime] 切分为候选时间段
+     */
+    public List<TimeSlot> generateTimeSlots(int counselorId, LocalDateTime startTime, LocalDateTime endTime,
+                                            int durationMinutes, int breakMinutes) {
+        List<TimeSlot> candidates = new ArrayList<>();
+        if (durationMinutes <= 0 || breakMinutes < 0) {
+            logger.warn("时间段时长必须大于0，间隔不能为负数");
+            return candidates;
+        }
 
         LocalDateTime currentStart = startTime;
+        while (!currentStart.plusMinutes(durationMinutes).isAfter(endTime)) {
+            LocalDateTime currentEnd = currentStart.plusMinutes(durationMinutes);
+            candidates.add(new TimeSlot(counselorId, currentStart, currentEnd));
+            currentStart = currentEnd.plusMinutes(breakMinutes);
+        }
+        return candidates;
+    }
 
-        while (currentStart.plusMinutes(durationMinutes).isBefore(endTime) ||
-                currentStart.plusMinutes(durationMinutes).isEqual(endTime)) {
+    /**
+     * 批量创建时间段：先用咨询师时间段索引在内存中排除明显冲突的候选（索引可能落后于数据库，只做预检查），
+     * 再把其余时间段交给 TimeSlotDAO.saveBatch，在锁定该咨询师的事务中用数据库再检查一次后批量插入
+     */
+    public BatchCreateResult createTimeSlots(int counselorId, List<TimeSlot> candidates) {
+        BatchCreateResult result = new BatchCreateResult();
+        if (candidates.isEmpty()) {
+            return result;
+        }
 
-            LocalDateTime currentEnd = currentStart.plusMinutes(durationMinutes);
+        List<TimeSlot> sorted = new ArrayList<>(candidates);
+        Collections.sort(sorted, (ts1, ts2) -> ts1.getStartTime().compareTo(ts2.getStartTime()));
 
-            // 检查时间冲突
-            if (!timeSlotDAO.hasTimeConflict(counselorId, currentStart, currentEnd)) {
-                TimeSlot timeSlot = new TimeSlot(counselorId, currentStart, currentEnd);
-                if (timeSlotDAO.save(timeSlot)) {
-                    addedCount++;
-                }
+        List<TimeSlot> accepted = new ArrayList<>();
+        LocalDateTime acceptedMaxEnd = null;
+        for (TimeSlot candidate : sorted) {
+            if (!candidate.getStartTime().isBefore(candidate.getEndTime())) {
+                result.skippedCount++;
+                continue;
             }
 
-            currentStart = currentEnd.plusMinutes(breakMinutes);
+            // 候选时间段按开始时间排序，已接受的时间段开始时间都不晚于当前候选，只需比较最晚结束时间
+            boolean conflict = (acceptedMaxEnd != null && acceptedMaxEnd.isAfter(candidate.getStartTime())) ||
+                    ScheduleIndex.COUNSELOR_SLOTS.overlaps(counselorId, candidate.getStartTime(), candidate.getEndTime());
+            if (conflict) {
+                result.skippedCount++;
+                continue;
+            }
+
+            candidate.setCounselorId(counselorId);
+            accepted.add(candidate);
+            if (acceptedMaxEnd == null || candidate.getEndTime().isAfter(acceptedMaxEnd)) {
+                acceptedMaxEnd = candidate.getEndTime();
+            }
         }
 
-        logger.info("批量添加时间段完成: 成功添加 " + addedCount + " 个时间段");
-        return addedCount;
+        List<TimeSlot> saved = timeSlotDAO.saveBatch(counselorId, accepted);
+        if (saved != null) {
+            result.createdCount = saved.size();
+            result.skippedCount += accepted.size() - saved.size();
+            result.createdSlots = saved;
+            if (saved.size() < accepted.size()) {
+                // 数据库中有索引不知道的时间段（其他客户端写入），丢弃索引，下次查询重新加载
+                ScheduleIndex.COUNSELOR_SLOTS.invalidate(counselorId);
+            } else {
+                for (TimeSlot timeSlot : saved) {
+                    ScheduleIndex.COUNSELOR_SLOTS.add(counselorId, timeSlot.getId(), timeSlot.getStartTime(),
+                            timeSlot.getEndTime());
+                }
+            }
+        } else {
+            result.failedCount = accepted.size();
+        }
+
+        logger.info("批量添加时间段完成: 成功添加 {} 个，冲突跳过 {} 个，失败 {} 个", result.createdCount, result.skippedCount,
+                result.failedCount);
+        return result;
+    }
+
+    /**
+     * 批量添加时间段结果类
+     */
+    public static class BatchCreateResult {
+        public int createdCount;
+        public int skippedCount;
+        public int failedCount;
+        public List<TimeSlot> createdSlots = Collections.emptyList();
     }
 
     /**
@@ -137,12 +234,26 @@ public class TimeSlotService {
         return allSlots;
     }
 
+    /**
+     * 当前的时间段变更位置，全量加载前调用，之后用它查询增量变更
+     */
+    public ChangeToken getTimeSlotChangeToken() {
+        return timeSlotDAO.currentChangeToken();
+    }
+
+    /**
+     * 所有咨询师的时间段在 token 之后的变更，失败返回 null
+     */
+    public ChangeSet<TimeSlot> getTimeSlotChanges(ChangeToken token) {
+        return timeSlotDAO.findChangesSince(null, token);
+    }
+
     /**
      * 清理过期的不可用时间段
      */
     public int cleanupExpiredTimeSlots() {
         if (!SessionManager.isLoggedIn() || !SessionManager.isAdmin()) {
-            logger.warning("只有管理员可以清理过期时间段");
+            logger.warn("只有管理员可以清理过期时间段");
             return 0;
         }
 
@@ -155,12 +266,13 @@ public class TimeSlotService {
             if (timeSlot.getEndTime().isBefore(now) &&
                     !"booked".equals(timeSlot.getStatus())) {
                 if (timeSlotDAO.delete(timeSlot.getId())) {
+                    ScheduleIndex.COUNSELOR_SLOTS.remove(timeSlot.getCounselorId(), timeSlot.getId());
                     cleanedCount++;
                 }
             }
         }
 
-        logger.info("过期时间段清理完成: 清理了 " + cleanedCount + " 个时间段");
+        logger.info("过期时间段清理完成: 清理了 {} 个时间段", cleanedCount);
         return cleanedCount;
     }
 
@@ -179,17 +291,17 @@ public class TimeSlotService {
      */
     public boolean validateTimeSlot(LocalDateTime startTime, LocalDateTime endTime) {
         if (startTime.isAfter(endTime)) {
-            logger.warning("开始时间不能晚于结束时间");
+            logger.warn("开始时间不能晚于结束时间");
             return false;
         }
 
         if (startTime.plusMinutes(30).isAfter(endTime)) {
-            logger.warning("时间段至少需要30分钟");
+            logger.warn("时间段至少需要30分钟");
             return false;
         }
 
         if (startTime.isBefore(LocalDateTime.now())) {
-            logger.warning("不能创建过去的时间段");
+            logger.warn("不能创建过去的时间段");
             return false;
         }
 
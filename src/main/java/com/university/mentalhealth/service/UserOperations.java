@@ -0,0 +1,16 @@
+package com.university.mentalhealth.service;
+
+import com.university.mentalhealth.entity.UserType;
+
+/**
+ * 登录和登出，由 UserService 和瘦客户端的 RemoteUserService 实现
+ */
+public interface UserOperations {
+
+    /**
+     * 登录成功后建立当前会话（SessionManager）
+     */
+    boolean login(String username, String password, UserType expectedType);
+
+    void logout();
+}
@@ -1,158 +1,234 @@
 package com.university.mentalhealth.service;
 
+import com.university.mentalhealth.dao.Page;
+import com.university.mentalhealth.dao.PageCursor;
 import com.university.mentalhealth.dao.UserDAO;
 import com.university.mentalhealth.entity.User;
 import com.university.mentalhealth.entity.UserType;
+import com.university.mentalhealth.util.PasswordHasher;
+import com.university.mentalhealth.util.PasswordUtil;
 import com.university.mentalhealth.util.SessionManager;
+import com.university.mentalhealth.util.SessionRegistry;
+import com.university.mentalhealth.util.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
-public class UserService {
-    private static final Logger logger = Logger.getLogger(UserService.class.getName());
+public class UserService implements UserOperations {
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final UserDAO userDAO;
+    private final LoginGuard loginGuard = LoginGuard.getInstance();
 
     public UserService() {
         this.userDAO = new UserDAO();
     }
 
     public boolean login(String username, String password, UserType expectedType) {
-        // 添加详细的调试信息
-        logger.info("登录尝试 - 用户名: " + username + ", 预期类型: " + expectedType);
-        logger.info("输入密码: " + password);
+        Optional<User> userOpt = authenticate(username, password, expectedType);
+        if (!userOpt.isPresent()) {
+            return false;
+        }
+        // 登录成功，设置桌面客户端的默认会话
+        User user = userOpt.get();
+        SessionManager.login(user, user.getType());
+        logger.info("登录成功: {}", username);
+        return true;
+    }
+
+    /**
+     * 登录并返回新的令牌会话，不改变默认会话。
+     * 用于同一进程同时服务多个用户的场景：调用方保存令牌，之后用 SessionRegistry.get() 取回会话，
+     * 再用 SessionManager.bind() 绑定到处理该用户请求的线程。密码计算线程池繁忙时抛出 PasswordHasher.BusyException
+     */
+    public Optional<UserSession> openSession(String username, String password, UserType expectedType) {
+        Optional<User> userOpt = authenticate(username, password, expectedType);
+        if (!userOpt.isPresent()) {
+            return Optional.empty();
+        }
+        User user = userOpt.get();
+        UserSession session = SessionRegistry.getInstance().open(user, user.getType());
+        logger.info("登录成功: {}", username);
+        return Optional.of(session);
+    }
+
+    /**
+     * 登出令牌会话
+     */
+    public void closeSession(String token) {
+        SessionRegistry.getInstance().close(token);
+    }
 
+    /**
+     * 同一用户名是否因连续登录失败处于锁定期（接口据此返回 429 而不是 401）。
+     * 不存在的用户名同样计数和锁定，结果不暴露用户名是否存在
+     */
+    public boolean isLoginLocked(String username) {
+        return username != null && loginGuard.isLocked(username);
+    }
+
+    /**
+     * 登录认证：LoginGuard 先拒绝锁定中的用户名，其余只查询一次 users 表（最近查过不存在的用户名不再查库），
+     * 在密码计算线程池中校验密码，再检查用户类型。用户名不存在时同样做一次密码计算并计入失败次数，
+     * 响应时间和锁定行为与密码错误相同，不能据此判断用户名是否存在。
+     * 失败原因只写日志，不返回给调用方，日志中不记录密码。线程池繁忙时抛出 PasswordHasher.BusyException
+     */
+    private Optional<User> authenticate(String username, String password, UserType expectedType) {
         // 前端验证
         if (username == null || username.trim().isEmpty()) {
-            logger.warning("登录失败: 用户名为空");
-            return false;
+            logger.warn("登录失败: 用户名为空");
+            return Optional.empty();
         }
 
         if (password == null || password.trim().isEmpty()) {
-            logger.warning("登录失败: 密码为空");
-            return false;
+            logger.warn("登录失败: 密码为空");
+            return Optional.empty();
         }
 
+        if (loginGuard.isLocked(username)) {
+            logger.warn("登录失败: 连续失败次数过多，暂时锁定 - {}", username);
+            return Optional.empty();
+        }
         try {
-            // 后端验证
-            logger.info("正在验证用户信息...");
-            Optional<User> userOpt = userDAO.authenticate(username, password);
-
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                logger.info("找到用户: " + user.getUsername() + ", 数据库中的类型: " + user.getType());
-                logger.info("用户状态: " + (userDAO.findById(user.getId()).get() != null ? "活跃" : "禁用"));
-
-                // 检查用户类型是否符合预期
-                if (user.getType() != expectedType) {
-                    logger.warning("类型不匹配 - 预期: " + expectedType + ", 实际: " + user.getType());
-                    return false;
-                }
-
-                // 登录成功，设置会话
-                SessionManager.login(user, user.getType());
-                logger.info("登录成功: " + username);
-                return true;
-            } else {
-                logger.warning("认证失败: 未找到用户或密码错误");
-                // 进一步诊断为什么认证失败
-                diagnoseAuthenticationFailure(username, password);
+            if (loginGuard.isKnownUnknown(username)) {
+                rejectUnknown(username, password);
+                logger.debug("登录失败: 用户不存在（缓存） - {}", username);
+                return Optional.empty();
             }
+
+            Optional<User> userOpt = userDAO.findByUsername(username);
+            if (!userOpt.isPresent()) {
+                loginGuard.recordUnknown(username);
+                rejectUnknown(username, password);
+                logger.warn("登录失败: 用户不存在或已禁用 - {}", username);
+                return Optional.empty();
+            }
+
+            User user = userOpt.get();
+            if (!PasswordUtil.verifyPassword(password, user.getPasswordHash())) {
+                loginGuard.recordFailure(username);
+                logger.warn("登录失败: 密码错误 - {}", username);
+                return Optional.empty();
+            }
+            // 检查用户类型是否符合预期
+            if (user.getType() != expectedType) {
+                loginGuard.recordFailure(username);
+                logger.warn("登录失败: 类型不匹配 - {}，预期: {}，实际: {}", username, expectedType, user.getType());
+                return Optional.empty();
+            }
+
+            loginGuard.recordSuccess(username);
+            if (PasswordUtil.needsRehash(user.getPasswordHash())) {
+                upgradePasswordHash(user, password);
+            }
+            return userOpt;
+        } catch (PasswordHasher.BusyException e) {
+            // 服务器繁忙不是认证失败，交给调用方提示稍后重试，也不计入失败次数
+            logger.warn("登录失败: {} - {}", e.getMessage(), username);
+            throw e;
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "登录过程发生异常", e);
+            logger.error("登录过程发生异常", e);
         }
 
-        return false;
+        return Optional.empty();
     }
 
-    // 添加诊断方法
-    private void diagnoseAuthenticationFailure(String username, String password) {
-        logger.info("开始诊断认证失败原因...");
+    /**
+     * 用户名不存在：做一次与校验真实密码相同的计算，并像密码错误一样计入失败次数
+     */
+    private void rejectUnknown(String username, String password) {
+        PasswordUtil.verifyDummyPassword(password);
+        loginGuard.recordFailure(username);
+    }
 
+    /**
+     * 旧格式或旧参数的密码摘要在用户登录成功时按当前参数重新生成，失败不影响本次登录，下次登录再试
+     */
+    private void upgradePasswordHash(User user, String password) {
+        String hash;
         try {
-            // 检查用户是否存在
-            Optional<User> userOpt = userDAO.findByUsername(username);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                logger.info("用户存在: " + user.getUsername() + ", 类型: " + user.getType() + ", 状态: 活跃");
-                logger.info("数据库存储的密码: " + user.getPasswordHash());
-                logger.info("用户输入的密码: " + password);
-                logger.info("密码匹配: " + user.getPasswordHash().equals(password));
-            } else {
-                logger.warning("用户不存在: " + username);
-            }
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "诊断过程中发生错误", e);
+            hash = PasswordUtil.encryptPassword(password);
+        } catch (PasswordHasher.BusyException e) {
+            return;
+        }
+        if (userDAO.updatePasswordHash(user.getId(), hash)) {
+            user.setPasswordHash(hash);
+            logger.info("密码摘要已升级: 用户ID={}", user.getId());
         }
     }
 
     public void logout() {
         if (SessionManager.isLoggedIn()) {
-            logger.info("用户登出: " + SessionManager.currentUser.getUsername());
+            logger.info("用户登出: {}", SessionManager.getCurrentUser().getUsername());
             SessionManager.logout();
         }
     }
 
     /**
-     * 用户注册
+     * 用户注册。密码计算线程池繁忙时抛出 PasswordHasher.BusyException，调用方应提示稍后重试
      */
     public boolean register(User user) {
         // 检查用户名是否已存在
         if (userDAO.findByUsername(user.getUsername()).isPresent()) {
-            logger.warning("注册失败: 用户名已存在 - " + user.getUsername());
+            logger.warn("注册失败: 用户名已存在 - {}", user.getUsername());
             return false;
         }
 
         // 验证密码强度
         if (!validatePasswordStrength(user.getPasswordHash())) {
-            logger.warning("注册失败: 密码强度不足 - " + user.getUsername());
+            logger.warn("注册失败: 密码强度不足 - {}", user.getUsername());
             return false;
         }
 
-        return userDAO.save(user);
+        user.setPasswordHash(PasswordUtil.encryptPassword(user.getPasswordHash()));
+        boolean saved = userDAO.save(user);
+        if (saved) {
+            loginGuard.forgetUnknown(user.getUsername());
+        }
+        return saved;
     }
 
     public boolean changePassword(int userId, String oldPassword, String newPassword) {
         // 前端验证
         if (oldPassword == null || oldPassword.trim().isEmpty()) {
-            logger.warning("修改密码失败: 旧密码为空");
+            logger.warn("修改密码失败: 旧密码为空");
             return false;
         }
 
         if (newPassword == null || newPassword.trim().isEmpty()) {
-            logger.warning("修改密码失败: 新密码为空");
+            logger.warn("修改密码失败: 新密码为空");
             return false;
         }
 
         if (newPassword.length() < 6) {
-            logger.warning("修改密码失败: 新密码长度不足6位");
+            logger.warn("修改密码失败: 新密码长度不足6位");
             return false;
         }
 
         // 获取用户
         Optional<User> userOpt = userDAO.findById(userId);
         if (!userOpt.isPresent()) {
-            logger.warning("修改密码失败: 用户不存在");
+            logger.warn("修改密码失败: 用户不存在");
             return false;
         }
 
         User user = userOpt.get();
 
         // 验证旧密码
-        if (!user.getPasswordHash().equals(oldPassword)) {
-            logger.warning("修改密码失败: 旧密码不正确");
+        if (!PasswordUtil.verifyPassword(oldPassword, user.getPasswordHash())) {
+            logger.warn("修改密码失败: 旧密码不正确");
             return false;
         }
 
         // 更新密码
-        user.setPasswordHash(newPassword);
-        boolean result = userDAO.update(user);
+        boolean result = userDAO.updatePasswordHash(userId, PasswordUtil.encryptPassword(newPassword));
         if (result) {
-            logger.info("密码修改成功: 用户ID=" + userId);
+            logger.info("密码修改成功: 用户ID={}", userId);
         } else {
-            logger.severe("密码修改失败: 用户ID=" + userId);
+            logger.error("密码修改失败: 用户ID={}", userId);
         }
 
         return result;
@@ -177,19 +253,33 @@ public class UserService {
         return userDAO.findByType(userType);
     }
 
+    /**
+     * 分页获取用户（键集分页），userType 为 null 表示全部类型，keyword 为空表示不按关键字过滤
+     */
+    public Page<User> getUsersPage(UserType userType, String keyword, PageCursor cursor, int pageSize) {
+        return userDAO.findPage(userType, keyword, cursor, pageSize);
+    }
+
+    /**
+     * 按用户类型统计活跃用户数量
+     */
+    public Map<UserType, Integer> getUserCountsByType() {
+        return userDAO.countByType();
+    }
+
     public boolean updateUser(User user) {
         // 验证用户名是否已被其他用户使用
         Optional<User> existingUser = userDAO.findByUsername(user.getUsername());
         if (existingUser.isPresent() && !(existingUser.get().getId() == user.getId())) {
-            logger.warning("更新用户失败: 用户名已被其他用户使用");
+            logger.warn("更新用户失败: 用户名已被其他用户使用");
             return false;
         }
 
         boolean result = userDAO.update(user);
         if (result) {
-            logger.info("用户信息更新成功: " + user.getUsername());
+            logger.info("用户信息更新成功: {}", user.getUsername());
         } else {
-            logger.severe("用户信息更新失败: " + user.getUsername());
+            logger.error("用户信息更新失败: {}", user.getUsername());
         }
 
         return result;
@@ -206,15 +296,20 @@ public class UserService {
      * 启用用户
      */
     public boolean enableUser(int userId) {
-        return userDAO.updateUserStatus(userId, true);
+        boolean enabled = userDAO.updateUserStatus(userId, true);
+        if (enabled) {
+            // 禁用期间该用户名可能被记为不存在
+            loginGuard.clearUnknown();
+        }
+        return enabled;
     }
 
     public boolean deleteUser(int userId) {
         boolean result = userDAO.delete(userId);
         if (result) {
-            logger.info("用户删除成功: ID=" + userId);
+            logger.info("用户删除成功: ID={}", userId);
         } else {
-            logger.severe("用户删除失败: ID=" + userId);
+            logger.error("用户删除失败: ID={}", userId);
         }
 
         return result;
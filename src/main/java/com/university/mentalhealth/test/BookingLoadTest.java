@@ -0,0 +1,598 @@
+package com.university.mentalhealth.test;
+
+import com.university.mentalhealth.client.ApiClient;
+import com.university.mentalhealth.client.RemoteAppointmentService;
+import com.university.mentalhealth.client.RemoteTimeSlotService;
+import com.university.mentalhealth.entity.Appointment;
+import com.university.mentalhealth.entity.TimeSlot;
+import com.university.mentalhealth.entity.User;
+import com.university.mentalhealth.entity.UserType;
+import com.university.mentalhealth.metrics.LatencyHistogram;
+import com.university.mentalhealth.metrics.OperationMetrics;
+import com.university.mentalhealth.metrics.QueryMetrics;
+import com.university.mentalhealth.service.AppointmentOperations;
+import com.university.mentalhealth.service.AppointmentService;
+import com.university.mentalhealth.server.ApiServer;
+import com.university.mentalhealth.server.RequestLimiter;
+import com.university.mentalhealth.service.TimeSlotOperations;
+import com.university.mentalhealth.service.TimeSlotService;
+import com.university.mentalhealth.util.DatabaseUtil;
+import com.university.mentalhealth.util.SessionManager;
+import com.university.mentalhealth.util.SessionRegistry;
+import com.university.mentalhealth.util.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 预约并发压力测试：模拟选课周大量学生同时抢预约。
+ * 默认使用内存中的 H2 数据库（MySQL 兼容模式），按 sql/loadtest-schema.sql 建表并生成咨询师、学生和时间段，
+ * 然后同时运行 N 个学生线程（各自登录并绑定会话，查询可预约时间段 → bookAppointment → 按比例 cancelAppointment）
+ * 和每个咨询师一个的生成时间段线程，结束后输出吞吐量、延迟分位数、重复预约检查和连接池使用情况。
+ *
+ * 用法: mvn -Ploadtest compile exec:java -Dloadtest.students=500 -Dloadtest.durationSeconds=60
+ * 参数（系统属性）:
+ *   loadtest.students / loadtest.counselors   学生线程数 / 咨询师数（默认 100 / 10）
+ *   loadtest.durationSeconds                 运行时长（默认 30）
+ *   loadtest.days / loadtest.slotsPerDay      初始生成的天数 / 每天的时间段数（默认 5 / 8）
+ *   loadtest.cancelRatio                     每轮取消一个已有预约的概率（默认 0.3）
+ *   loadtest.hotspotRatio                    请求集中到前 20% 热门咨询师的比例（默认 0.5）
+ *   loadtest.thinkMillis                     学生每轮之间的停顿（默认 0）
+ *   loadtest.slotIntervalMillis              咨询师每隔多久新开放一天的时间段（默认 2000）
+ *   loadtest.quiet                           把 service/dao 日志调到 WARN，避免日志量影响结果（默认 true）
+ *   loadtest.via                             direct：学生线程直接调用服务层（默认）；
+ *                                            http：在本进程启动 ApiServer，学生线程各用一个 ApiClient 通过 HTTP 调用
+ *   loadtest.virtualThreads                  http 模式下服务器每个请求一个虚拟线程（需要 java21 profile 构建、Java 21 运行），
+ *                                            否则使用平台线程池；其余参数取 server.* 配置，可用 -Dserver.workerThreads 等覆盖
+ * 比较平台线程池和虚拟线程：用同样的参数分别以 -Dloadtest.virtualThreads=false / true 运行 http 模式，
+ * 对比吞吐量、延迟分位数、限流等待和 JVM 平台线程数。
+ * 连接其他数据库时用 -Ddb.url / db.driver / db.user / db.password / db.pool.maxActive 覆盖 db.properties；
+ * 非 H2 数据库会先删除并重建测试表，必须同时指定 -Dloadtest.allowExternal=true，切勿指向生产库。
+ */
+public class BookingLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(BookingLoadTest.class);
+
+    private static final String DEFAULT_URL = "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=HIGH;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1";
+    private static final String SCHEMA_PATH = "src/main/resources/sql/loadtest-schema.sql";
+    private static final int SLOT_MINUTES = 50;
+    private static final int FIRST_SLOT_HOUR = 9;
+
+    private final int studentCount = Integer.getInteger("loadtest.students", 100);
+    private final int counselorCount = Integer.getInteger("loadtest.counselors", 10);
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+    private final int initialDays = Integer.getInteger("loadtest.days", 5);
+    private final int slotsPerDay = Integer.getInteger("loadtest.slotsPerDay", 8);
+    private final double cancelRatio = Double.parseDouble(System.getProperty("loadtest.cancelRatio", "0.3"));
+    private final double hotspotRatio = Double.parseDouble(System.getProperty("loadtest.hotspotRatio", "0.5"));
+    private final long thinkMillis = Long.getLong("loadtest.thinkMillis", 0L);
+    private final long slotIntervalMillis = Long.getLong("loadtest.slotIntervalMillis", 2000L);
+    private final boolean viaHttp = "http".equalsIgnoreCase(System.getProperty("loadtest.via", "direct"));
+    private final boolean virtualThreads = Boolean.getBoolean("loadtest.virtualThreads");
+
+    private final AppointmentService appointmentService = new AppointmentService();
+    private final TimeSlotService timeSlotService = new TimeSlotService();
+    private final LocalDate firstDay = LocalDate.now().plusDays(1);
+
+    private final OperationStats browse = new OperationStats("查询可预约时间段");
+    private final OperationStats book = new OperationStats("预约");
+    private final OperationStats cancel = new OperationStats("取消预约");
+    private final OperationStats generate = new OperationStats("生成时间段");
+    private final Map<AppointmentService.BookingStatus, LongAdder> bookingOutcomes =
+            new EnumMap<>(AppointmentService.BookingStatus.class);
+    private final LongAdder emptyBrowses = new LongAdder();
+    private final LongAdder cancelFailures = new LongAdder();
+    private final LongAdder slotsCreated = new LongAdder();
+    private final LongAdder loginFailures = new LongAdder();
+    private final PoolSampler poolSampler = new PoolSampler();
+    private ApiServer server;
+    private RequestLimiter.Stats serverLimiter;
+    private long elapsedNanos;
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("db.url");
+        if (url == null) {
+            // DatabaseUtil 初始化前设置，覆盖 db.properties 中的 MySQL 配置
+            System.setProperty("db.url", DEFAULT_URL);
+            System.setProperty("db.driver", "org.h2.Driver");
+            System.setProperty("db.user", "sa");
+            System.setProperty("db.password", "");
+        } else if (!url.startsWith("jdbc:h2:") && !Boolean.getBoolean("loadtest.allowExternal")) {
+            logger.error("压力测试会删除并重建 {} 中的测试表，确认不是生产库后加 -Dloadtest.allowExternal=true", url);
+            return;
+        }
+        if (Boolean.parseBoolean(System.getProperty("loadtest.quiet", "true"))) {
+            setLevel("com.university.mentalhealth.service", ch.qos.logback.classic.Level.WARN);
+            setLevel("com.university.mentalhealth.dao", ch.qos.logback.classic.Level.WARN);
+        }
+
+        BookingLoadTest test = new BookingLoadTest();
+        int violations;
+        try {
+            test.createSchema();
+            test.seed();
+            test.startServer();
+            test.run();
+            test.stopServer();
+            violations = test.report();
+        } finally {
+            test.stopServer();
+            DatabaseUtil.shutdown();
+        }
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void setLevel(String name, ch.qos.logback.classic.Level level) {
+        Logger target = LoggerFactory.getLogger(name);
+        if (target instanceof ch.qos.logback.classic.Logger) {
+            ((ch.qos.logback.classic.Logger) target).setLevel(level);
+        }
+    }
+
+    private BookingLoadTest() {
+        for (AppointmentService.BookingStatus status : AppointmentService.BookingStatus.values()) {
+            bookingOutcomes.put(status, new LongAdder());
+        }
+    }
+
+    private void createSchema() throws IOException, SQLException {
+        String script = new String(Files.readAllBytes(Paths.get(SCHEMA_PATH)), StandardCharsets.UTF_8);
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+
+        Connection conn = requireConnection();
+        Statement stmt = null;
+        try {
+            stmt = conn.createStatement();
+            for (String sql : withoutComments.toString().split(";")) {
+                if (!sql.trim().isEmpty()) {
+                    stmt.execute(sql);
+                }
+            }
+        } finally {
+            DatabaseUtil.closeStatement(stmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+        logger.info("测试表已创建: {}", System.getProperty("db.url"));
+    }
+
+    /**
+     * 咨询师 ID 为 1..counselorCount，学生 ID 紧随其后；每个咨询师先开放 initialDays 天的时间段
+     */
+    private void seed() throws SQLException {
+        Connection conn = requireConnection();
+        PreparedStatement users = null;
+        PreparedStatement counselors = null;
+        PreparedStatement students = null;
+        try {
+            conn.setAutoCommit(false);
+            users = conn.prepareStatement("INSERT INTO users (id, username, password_hash, type) VALUES (?, ?, ?, ?)");
+            counselors = conn.prepareStatement("INSERT INTO counselors (user_id, name, title, specialization) VALUES (?, ?, ?, ?)");
+            students = conn.prepareStatement("INSERT INTO students (user_id, student_id, name, department, contact_phone) " +
+                    "VALUES (?, ?, ?, ?, ?)");
+            for (int i = 1; i <= counselorCount; i++) {
+                addUser(users, i, "counselor" + i, "counselor");
+                counselors.setInt(1, i);
+                counselors.setString(2, "咨询师" + i);
+                counselors.setString(3, "心理咨询师");
+                counselors.setString(4, "学业压力,情绪管理");
+                counselors.addBatch();
+            }
+            for (int i = 1; i <= studentCount; i++) {
+                int id = counselorCount + i;
+                addUser(users, id, "student" + i, "student");
+                students.setInt(1, id);
+                students.setString(2, String.format("2024%06d", i));
+                students.setString(3, "学生" + i);
+                students.setString(4, "计算机学院");
+                students.setString(5, String.format("138%08d", i));
+                students.addBatch();
+            }
+            users.executeBatch();
+            counselors.executeBatch();
+            students.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            DatabaseUtil.rollback(conn);
+            throw e;
+        } finally {
+            DatabaseUtil.closeStatement(users);
+            DatabaseUtil.closeStatement(counselors);
+            DatabaseUtil.closeStatement(students);
+            DatabaseUtil.closeConnection(conn);
+        }
+
+        for (int counselorId = 1; counselorId <= counselorCount; counselorId++) {
+            for (int day = 0; day < initialDays; day++) {
+                openDay(counselorId, firstDay.plusDays(day), null);
+            }
+        }
+        logger.info("测试数据已生成: 咨询师 {} 人，学生 {} 人，时间段 {} 个", counselorCount, studentCount, slotsCreated.sum());
+    }
+
+    private static void addUser(PreparedStatement users, int id, String username, String type) throws SQLException {
+        users.setInt(1, id);
+        users.setString(2, username);
+        users.setString(3, "loadtest");
+        users.setString(4, type);
+        users.addBatch();
+    }
+
+    /**
+     * http 模式：在本机随机端口启动服务器，学生通过 HTTP 访问，咨询师线程仍直接调用服务层
+     */
+    private void startServer() throws IOException {
+        if (!viaHttp) {
+            return;
+        }
+        // 每个学生一个连接，HttpURLConnection 默认每个地址只保留 5 个空闲连接，其余请求都要重新建立 TCP 连接
+        System.setProperty("http.maxConnections", String.valueOf(Math.max(5, studentCount)));
+        ApiServer.Settings settings = ApiServer.Settings.fromConfig();
+        settings.host = "127.0.0.1";
+        settings.port = 0;
+        settings.virtualThreads = virtualThreads;
+        server = new ApiServer(settings);
+        if (virtualThreads && !server.isVirtualThreads()) {
+            logger.warn("当前运行环境不支持虚拟线程（需要 java21 profile 构建、Java 21 运行），服务器使用平台线程池");
+        }
+        server.start();
+    }
+
+    private void stopServer() {
+        if (server != null) {
+            server.stop(1);
+            serverLimiter = server.getLimiterStats();
+            server = null;
+        }
+    }
+
+    /**
+     * 为咨询师开放某一天的时间段（与界面上“批量添加时间段”走同一服务方法）
+     */
+    private void openDay(int counselorId, LocalDate day, OperationStats stats) {
+        LocalDateTime start = day.atTime(FIRST_SLOT_HOUR, 0);
+        LocalDateTime end = start.plusHours(slotsPerDay);
+        long begin = System.nanoTime();
+        List<TimeSlot> candidates = timeSlotService.generateTimeSlots(counselorId, start, end,
+                SLOT_MINUTES, 60 - SLOT_MINUTES);
+        TimeSlotService.BatchCreateResult result = timeSlotService.createTimeSlots(counselorId, candidates);
+        if (stats != null) {
+            stats.record(System.nanoTime() - begin);
+        }
+        slotsCreated.add(result.createdCount);
+    }
+
+    private void run() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 1; i <= studentCount; i++) {
+            int studentId = counselorCount + i;
+            threads.add(new Thread(() -> studentLoop(studentId, startSignal, deadline), "loadtest-student-" + i));
+        }
+        for (int counselorId = 1; counselorId <= counselorCount; counselorId++) {
+            int id = counselorId;
+            threads.add(new Thread(() -> counselorLoop(id, startSignal, deadline), "loadtest-counselor-" + id));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        logger.info("开始压力测试: 学生线程 {} 个（{}），咨询师线程 {} 个，持续 {} 秒，连接池上限 {}",
+                studentCount, describeMode(), counselorCount, durationSeconds, DatabaseUtil.getPoolStats().maxPoolSize);
+        poolSampler.start();
+        long start = System.nanoTime();
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        poolSampler.stop();
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    private String describeMode() {
+        if (!viaHttp) {
+            return "直接调用服务层";
+        }
+        return "通过 HTTP，服务器" + (server != null && server.isVirtualThreads() ? "每个请求一个虚拟线程" : "使用平台线程池");
+    }
+
+    /**
+     * 每个学生线程登录自己的会话并绑定到线程，通过会话版本的服务方法预约和取消；
+     * http 模式下改为用自己的 ApiClient 登录服务器，经由 HTTP 调用相同的服务方法
+     */
+    private void studentLoop(int studentId, CountDownLatch startSignal, long deadline) {
+        String username = "student" + (studentId - counselorCount);
+        if (viaHttp) {
+            ApiClient client = new ApiClient("http://127.0.0.1:" + server.getAddress().getPort());
+            if (client.login(username, "loadtest", UserType.student) == null) {
+                loginFailures.increment();
+                return;
+            }
+            studentLoop(new RemoteTimeSlotService(client), new RemoteAppointmentService(client), startSignal, deadline);
+            return;
+        }
+        User student = new User(studentId, username, "loadtest", UserType.student, LocalDateTime.now());
+        UserSession session = SessionRegistry.getInstance().open(student, UserType.student);
+        try (SessionManager.Scope ignored = SessionManager.bind(session)) {
+            studentLoop(timeSlotService, appointmentService, startSignal, deadline);
+        } finally {
+            SessionRegistry.getInstance().close(session.getToken());
+        }
+    }
+
+    private void studentLoop(TimeSlotOperations timeSlots, AppointmentOperations appointments,
+                             CountDownLatch startSignal, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Integer> myAppointments = new ArrayList<>();
+        LocalDateTime horizon = firstDay.plusYears(1).atStartOfDay();
+        awaitStart(startSignal);
+
+        while (System.nanoTime() < deadline) {
+            int counselorId = pickCounselor(random);
+
+            long begin = System.nanoTime();
+            List<TimeSlot> slots = timeSlots.getBookableTimeSlots(counselorId, LocalDateTime.now(), horizon);
+            browse.record(System.nanoTime() - begin);
+
+            if (slots.isEmpty()) {
+                emptyBrowses.increment();
+            } else {
+                // 大多数人抢最早的几个时间段，制造同一时间段的并发竞争
+                TimeSlot slot = slots.get(random.nextInt(Math.min(slots.size(), 3)));
+                begin = System.nanoTime();
+                AppointmentService.BookingResult result = appointments.bookAppointment(slot.getId(), "压力测试");
+                book.record(System.nanoTime() - begin);
+                bookingOutcomes.get(result.getStatus()).increment();
+                if (result.isBooked()) {
+                    myAppointments.add(result.getAppointment().map(Appointment::getId).orElse(0));
+                }
+            }
+
+            if (!myAppointments.isEmpty() && random.nextDouble() < cancelRatio) {
+                int appointmentId = myAppointments.remove(random.nextInt(myAppointments.size()));
+                begin = System.nanoTime();
+                boolean cancelled = appointments.cancelAppointment(appointmentId);
+                cancel.record(System.nanoTime() - begin);
+                if (!cancelled) {
+                    cancelFailures.increment();
+                }
+            }
+            pause(thinkMillis);
+        }
+    }
+
+    private void counselorLoop(int counselorId, CountDownLatch startSignal, long deadline) {
+        awaitStart(startSignal);
+        int day = initialDays;
+        while (System.nanoTime() < deadline) {
+            pause(slotIntervalMillis);
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+            openDay(counselorId, firstDay.plusDays(day++), generate);
+        }
+    }
+
+    /**
+     * hotspotRatio 的请求集中到前 20% 的咨询师，其余均匀分布
+     */
+    private int pickCounselor(ThreadLocalRandom random) {
+        int hotCount = Math.max(1, counselorCount / 5);
+        if (random.nextDouble() < hotspotRatio) {
+            return 1 + random.nextInt(hotCount);
+        }
+        return 1 + random.nextInt(counselorCount);
+    }
+
+    /**
+     * 输出结果，返回一致性检查发现的问题数
+     */
+    private int report() throws SQLException {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        logger.info("=== 压力测试结果（{} 秒） ===", String.format("%.1f", seconds));
+        logger.info(String.format("%-12s %10s %10s %9s %9s %9s %9s %9s",
+                "操作", "次数", "次/秒", "mean(ms)", "p50", "p90", "p99", "max"));
+        for (OperationStats stats : new OperationStats[]{browse, book, cancel, generate}) {
+            logger.info(stats.format(seconds));
+        }
+
+        StringBuilder outcomes = new StringBuilder();
+        for (Map.Entry<AppointmentService.BookingStatus, LongAdder> entry : bookingOutcomes.entrySet()) {
+            outcomes.append(entry.getKey()).append('=').append(entry.getValue().sum()).append(' ');
+        }
+        logger.info("预约结果: {}", outcomes.toString().trim());
+        logger.info("没有可预约时间段的查询: {}，取消失败: {}，运行中新开放时间段: {}",
+                emptyBrowses.sum(), cancelFailures.sum(), slotsCreated.sum());
+
+        long queryErrors = 0;
+        for (OperationMetrics operation : QueryMetrics.getOperations()) {
+            queryErrors += operation.getErrors();
+        }
+        logger.info("数据库语句错误: {}", queryErrors);
+
+        DatabaseUtil.PoolStats pool = DatabaseUtil.getPoolStats();
+        logger.info("连接池: 上限 {}，活跃连接 平均 {} / 最大 {}，等待连接的线程 最大 {}",
+                pool.maxPoolSize, String.format("%.1f", poolSampler.getAverageActive()), poolSampler.maxActive,
+                poolSampler.maxWaiting);
+        logger.info("获取连接: {} 次，失败 {} 次，平均等待 {} ms，最长等待 {} ms", pool.acquireCount, pool.acquireFailures,
+                String.format("%.2f", pool.getAverageWaitMillis()), String.format("%.2f", pool.maxWaitMillis));
+        // 平台线程数包括 studentCount + counselorCount 个模拟客户端线程，比较两种服务器模式时看差值
+        logger.info("JVM 平台线程: 最多 {} 个（其中模拟客户端线程 {} 个）", poolSampler.maxPlatformThreads,
+                studentCount + counselorCount);
+        if (serverLimiter != null) {
+            logger.info("服务器限流: 并发上限 {}，同时执行 最大 {}，等待许可 最大 {}，超时返回 503 {} 次，登录失败 {} 次",
+                    serverLimiter.maxConcurrent, serverLimiter.peakInFlight, serverLimiter.peakWaiting,
+                    serverLimiter.rejected, loginFailures.sum());
+        }
+
+        int violations = checkConsistency();
+        logger.info("数据库操作统计:\n{}", QueryMetrics.formatReport());
+        return violations;
+    }
+
+    /**
+     * 重复预约检查：同一时间段有多个有效预约、同一学生有时间重叠的有效预约、有效预约的时间段仍为可预约
+     */
+    private int checkConsistency() throws SQLException {
+        long doubleBookedSlots = queryCount("SELECT COUNT(*) FROM (SELECT time_slot_id FROM appointments " +
+                "WHERE status != 'cancelled' GROUP BY time_slot_id HAVING COUNT(*) > 1) t");
+        long overlappingStudents = queryCount("SELECT COUNT(*) FROM appointments a1 " +
+                "JOIN appointments a2 ON a1.student_id = a2.student_id AND a1.id < a2.id " +
+                "JOIN counselor_time_slots s1 ON a1.time_slot_id = s1.id " +
+                "JOIN counselor_time_slots s2 ON a2.time_slot_id = s2.id " +
+                "WHERE a1.status != 'cancelled' AND a2.status != 'cancelled' " +
+                "AND s1.start_time < s2.end_time AND s2.start_time < s1.end_time");
+        long availableButBooked = queryCount("SELECT COUNT(*) FROM appointments a " +
+                "JOIN counselor_time_slots ts ON a.time_slot_id = ts.id " +
+                "WHERE a.status IN ('pending', 'confirmed') AND ts.status = 'available'");
+        long activeAppointments = queryCount("SELECT COUNT(*) FROM appointments WHERE status != 'cancelled'");
+        long outbox = queryCount("SELECT COUNT(*) FROM notification_outbox");
+
+        logger.info("有效预约 {} 个，发件箱记录 {} 条", activeAppointments, outbox);
+        logger.info("重复预约的时间段: {}，时间重叠的学生预约对: {}，已预约但仍可预约的时间段: {}",
+                doubleBookedSlots, overlappingStudents, availableButBooked);
+        int violations = (int) (doubleBookedSlots + overlappingStudents + availableButBooked);
+        if (violations > 0) {
+            logger.error("一致性检查失败: 发现 {} 处重复预约", violations);
+        } else {
+            logger.info("一致性检查通过: 没有重复预约");
+        }
+        return violations;
+    }
+
+    private long queryCount(String sql) throws SQLException {
+        Connection conn = requireConnection();
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = conn.prepareStatement(sql);
+            rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        } finally {
+            DatabaseUtil.closeResultSet(rs);
+            DatabaseUtil.closeStatement(pstmt);
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+
+    private static Connection requireConnection() throws SQLException {
+        Connection conn = DatabaseUtil.getConnection();
+        if (conn == null) {
+            throw new SQLException("无法获取数据库连接: " + System.getProperty("db.url"));
+        }
+        return conn;
+    }
+
+    private static void awaitStart(CountDownLatch startSignal) {
+        try {
+            startSignal.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 一种操作的次数和延迟
+     */
+    private static final class OperationStats {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        OperationStats(String name) {
+            this.name = name;
+        }
+
+        void record(long elapsedNanos) {
+            latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        }
+
+        String format(double seconds) {
+            long count = latency.getCount();
+            return String.format("%-12s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f", name, count,
+                    seconds > 0 ? count / seconds : 0.0, latency.getMeanMicros() / 1000.0,
+                    latency.getPercentileMicros(50) / 1000.0, latency.getPercentileMicros(90) / 1000.0,
+                    latency.getPercentileMicros(99) / 1000.0, latency.getMaxMicros() / 1000.0);
+        }
+    }
+
+    /**
+     * 每 50 毫秒采样一次连接池的活跃连接数、等待线程数和 JVM 平台线程数（虚拟线程不计入）
+     */
+    private static final class PoolSampler {
+        private final AtomicLong activeSum = new AtomicLong();
+        private final AtomicLong samples = new AtomicLong();
+        private volatile int maxActive;
+        private volatile int maxWaiting;
+        private volatile int maxPlatformThreads;
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private ScheduledExecutorService executor;
+
+        void start() {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "loadtest-pool-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleAtFixedRate(() -> {
+                DatabaseUtil.PoolStats stats = DatabaseUtil.getPoolStats();
+                activeSum.addAndGet(stats.activeConnections);
+                samples.incrementAndGet();
+                maxActive = Math.max(maxActive, stats.activeConnections);
+                maxWaiting = Math.max(maxWaiting, stats.threadsAwaitingConnection);
+                maxPlatformThreads = Math.max(maxPlatformThreads, threads.getThreadCount());
+            }, 0, 50, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            executor.shutdownNow();
+        }
+
+        double getAverageActive() {
+            long count = samples.get();
+            return count == 0 ? 0.0 : (double) activeSum.get() / count;
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package com.university.mentalhealth.test;
 
 import com.university.mentalhealth.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.util.logging.Logger;
 
 public class ConfigTest {
-    private static final Logger logger = Logger.getLogger(ConfigTest.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(ConfigTest.class);
 
     public static void main(String[] args) {
         testDatabaseConnection();
@@ -33,11 +34,11 @@ public class ConfigTest {
 
                 if (rs.next()) {
                     int count = rs.getInt("count");
-                    logger.info("用户表记录数: " + count);
+                    logger.info("用户表记录数: {}", count);
                 }
             }
         } catch (Exception e) {
-            logger.severe("数据库连接测试失败: " + e.getMessage());
+            logger.error("数据库连接测试失败: {}", e.getMessage());
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(stmt);
@@ -48,10 +49,10 @@ public class ConfigTest {
     private static void testLogger() {
         logger.info("开始测试日志系统...");
 
-        logger.fine("这是一条FINE级别的日志");
+        logger.debug("这是一条FINE级别的日志");
         logger.info("这是一条INFO级别的日志");
-        logger.warning("这是一条WARNING级别的日志");
-        logger.severe("这是一条SEVERE级别的日志");
+        logger.warn("这是一条WARNING级别的日志");
+        logger.error("这是一条SEVERE级别的日志");
 
         logger.info("日志系统测试完成!");
     }
@@ -2,12 +2,13 @@ package com.university.mentalhealth.test;
 
 import com.university.mentalhealth.dao.AssessmentDAO;
 import com.university.mentalhealth.entity.Assessment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
-import java.util.logging.Logger;
 
 public class DataTypeValidationTest {
-    private static final Logger logger = Logger.getLogger(DataTypeValidationTest.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(DataTypeValidationTest.class);
 
     public static void main(String[] args) {
         logger.info("=== 数据类型验证测试 ===");
@@ -15,18 +16,17 @@ public class DataTypeValidationTest {
         AssessmentDAO dao = new AssessmentDAO();
         List<Assessment> assessments = dao.getAllAssessments();
 
-        logger.info("找到 " + assessments.size() + " 个量表");
+        logger.info("找到 {} 个量表", assessments.size());
 
         for (Assessment assessment : assessments) {
-            logger.info("量表: " + assessment.getName() +
-                    ", ID: " + assessment.getId() +
-                    ", ID类型: " + assessment.getId().getClass().getSimpleName());
+            logger.info("量表: {}, ID: {}, ID类型: {}", assessment.getName(), assessment.getId(),
+                    assessment.getId().getClass().getSimpleName());
 
             // 验证ID值范围
             if (assessment.getId() > 0 && assessment.getId() < 1000) {
-                logger.info("ID值 " + assessment.getId() + " 在合理范围内(INT类型)");
+                logger.info("ID值 {} 在合理范围内(INT类型)", assessment.getId());
             } else {
-                logger.warning("ID值 " + assessment.getId() + " 可能超出INT范围");
+                logger.warn("ID值 {} 可能超出INT范围", assessment.getId());
             }
         }
     }
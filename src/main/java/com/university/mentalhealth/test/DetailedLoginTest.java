@@ -3,15 +3,18 @@ package com.university.mentalhealth.test;
 import com.university.mentalhealth.dao.UserDAO;
 import com.university.mentalhealth.entity.User;
 import com.university.mentalhealth.util.DatabaseUtil;
+import com.university.mentalhealth.util.PasswordHasher;
+import com.university.mentalhealth.util.PasswordUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.Optional;
-import java.util.logging.Logger;
 
 public class DetailedLoginTest {
-    private static final Logger logger = Logger.getLogger(DetailedLoginTest.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(DetailedLoginTest.class);
 
     public static void main(String[] args) {
         testDatabaseConnection();
@@ -27,10 +30,10 @@ public class DetailedLoginTest {
             if (conn != null && !conn.isClosed()) {
                 logger.info("数据库连接成功");
             } else {
-                logger.severe("数据库连接失败");
+                logger.error("数据库连接失败");
             }
         } catch (Exception e) {
-            logger.severe("数据库连接异常: " + e.getMessage());
+            logger.error("数据库连接异常: {}", e.getMessage());
         } finally {
             DatabaseUtil.closeConnection(conn);
         }
@@ -50,15 +53,17 @@ public class DetailedLoginTest {
             rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                logger.info("用户名: " + rs.getString("username"));
-                logger.info("密码: '" + rs.getString("password_hash") + "'");
-                logger.info("类型: " + rs.getString("type"));
-                logger.info("是否激活: " + rs.getBoolean("is_active"));
+                logger.info("用户名: {}", rs.getString("username"));
+                String passwordHash = rs.getString("password_hash");
+                logger.info("密码格式: {}", PasswordHasher.describeFormat(passwordHash));
+                logger.info("下次登录时重新生成摘要: {}", PasswordUtil.needsRehash(passwordHash));
+                logger.info("类型: {}", rs.getString("type"));
+                logger.info("是否激活: {}", rs.getBoolean("is_active"));
             } else {
-                logger.warning("用户不存在: " + username);
+                logger.warn("用户不存在: {}", username);
             }
         } catch (Exception e) {
-            logger.severe("查询用户信息失败: " + e.getMessage());
+            logger.error("查询用户信息失败: {}", e.getMessage());
         } finally {
             DatabaseUtil.closeResultSet(rs);
             DatabaseUtil.closeStatement(pstmt);
@@ -76,11 +81,11 @@ public class DetailedLoginTest {
         if (userOpt.isPresent()) {
             User user = userOpt.get();
             logger.info("认证成功");
-            logger.info("用户ID: " + user.getId());
-            logger.info("用户名: " + user.getUsername());
-            logger.info("用户类型: " + user.getType());
+            logger.info("用户ID: {}", user.getId());
+            logger.info("用户名: {}", user.getUsername());
+            logger.info("用户类型: {}", user.getType());
         } else {
-            logger.warning("认证失败");
+            logger.warn("认证失败");
         }
     }
 }
@@ -0,0 +1,59 @@
+package com.university.mentalhealth.test;
+
+import com.university.mentalhealth.notification.EmailMessage;
+import com.university.mentalhealth.notification.SmtpNotificationSender;
+import com.university.mentalhealth.service.OutboxDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 通知投递测试：先直接向本地 SMTP 模拟服务器（如 MailHog，默认 localhost:1025）发送一批邮件，
+ * 再用同一个服务器把数据库发件箱中的待投递记录全部投递一遍，输出吞吐量和延迟。
+ * 用法: OutboxDeliveryTest [host] [port] [测试邮件数]
+ */
+public class OutboxDeliveryTest {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDeliveryTest.class);
+
+    public static void main(String[] args) {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 1025;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        SmtpNotificationSender sender = new SmtpNotificationSender(host, port, 10000, "noreply@university.edu.cn");
+
+        logger.info("=== SMTP批量发送测试 ===");
+        List<EmailMessage> messages = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            messages.add(new EmailMessage(Collections.singletonList("test" + i + "@university.edu.cn"),
+                    "测试通知 " + i, "这是第 " + i + " 封测试邮件。"));
+        }
+        long start = System.nanoTime();
+        List<String> results = sender.sendBatch(messages);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        int sent = 0;
+        for (String result : results) {
+            if (result == null) {
+                sent++;
+            } else {
+                logger.info("发送失败: {}", result);
+            }
+        }
+        logger.info(String.format("发送 %d/%d 封，耗时 %.1fms，%.1f 封/秒", sent, count, millis,
+                millis > 0 ? sent * 1000.0 / millis : 0.0));
+
+        logger.info("=== 发件箱投递测试 ===");
+        OutboxDispatcher dispatcher = new OutboxDispatcher(sender);
+        int processed;
+        int total = 0;
+        while ((processed = dispatcher.runOnce()) > 0) {
+            total += processed;
+        }
+        logger.info("处理发件箱记录 {} 条", total);
+        logger.info(dispatcher.getStats(true).toString());
+        logger.info("测试完成");
+    }
+}
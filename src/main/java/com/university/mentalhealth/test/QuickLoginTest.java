@@ -2,10 +2,11 @@ package com.university.mentalhealth.test;
 
 import com.university.mentalhealth.service.UserService;
 import com.university.mentalhealth.entity.UserType;
-import java.util.logging.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class QuickLoginTest {
-    private static final Logger logger = Logger.getLogger(QuickLoginTest.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(QuickLoginTest.class);
 
     public static void main(String[] args) {
         logger.info("快速登录测试开始...");
@@ -26,10 +27,9 @@ public class QuickLoginTest {
 
     private static void testLogin(UserService userService, String username, String password,
                                   UserType userType, String testName) {
-        logger.info("\n=== " + testName + " ===");
-        logger.info("用户名: " + username);
-        logger.info("密码: " + password);
-        logger.info("预期类型: " + userType);
+        logger.info("\n=== {} ===", testName);
+        logger.info("用户名: {}", username);
+        logger.info("预期类型: {}", userType);
 
         boolean result = userService.login(username, password, userType);
 
@@ -11,6 +11,7 @@ import java.util.List;
 
 public class AppointmentManagementDialog extends JDialog {
     private final AppointmentService appointmentService;
+    private final BackgroundLoader loader = new BackgroundLoader(getRootPane());
     private JTable appointmentTable;
     private JButton refreshButton;
     private JButton closeButton;
@@ -61,10 +62,13 @@ public class AppointmentManagementDialog extends JDialog {
     }
 
     private void loadAppointments() {
+        loader.load("appointments", appointmentService::getAllAppointments, this::showAppointments);
+    }
+
+    private void showAppointments(List<Appointment> appointments) {
         DefaultTableModel model = (DefaultTableModel) appointmentTable.getModel();
         model.setRowCount(0);
 
-        List<Appointment> appointments = appointmentService.getAllAppointments();
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
         for (Appointment appointment : appointments) {
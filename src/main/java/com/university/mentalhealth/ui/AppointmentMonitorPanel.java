@@ -1,15 +1,24 @@
 package com.university.mentalhealth.ui;
 
+import com.university.mentalhealth.dao.ChangeSet;
+import com.university.mentalhealth.dao.ChangeToken;
 import com.university.mentalhealth.entity.Appointment;
+import com.university.mentalhealth.service.AppointmentEvents;
 import com.university.mentalhealth.service.AppointmentService;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.time.format.DateTimeParseException;
 
 public class AppointmentMonitorPanel extends JPanel {
     private final AppointmentService appointmentService;
@@ -18,11 +27,24 @@ public class AppointmentMonitorPanel extends JPanel {
     private JComboBox<String> dateRangeFilter;
     private JTextField dateFromField;
     private JTextField dateToField;
+    private PagedTableModel<Appointment> tableModel;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
+    // 当前的筛选条件和上次读取时的变更位置，定时刷新只读取之后的变更
+    private String rangeStatus;
+    private LocalDateTime rangeStart;
+    private LocalDateTime rangeEnd;
+    private ChangeToken changeToken;
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 10;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     public AppointmentMonitorPanel() {
         this.appointmentService = new AppointmentService();
         initUI();
         loadAppointments();
+        AutoRefresh.install(this, AutoRefresh.DEFAULT_INTERVAL, this::refreshChanges);
+        AutoRefresh.refreshOnEvents(this, AppointmentEvents.BUS, this::refreshChanges);
     }
 
     private void initUI() {
@@ -72,9 +94,10 @@ public class AppointmentMonitorPanel extends JPanel {
 
         // 预约表格
         String[] columns = {"预约ID", "学生", "咨询师", "预约时间", "状态", "创建时间", "备注"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0);
+        // 按页加载，滚动到哪里加载到哪里，单元格显示时才格式化
+        tableModel = new PagedTableModel<>(columns, this::formatCell, loader, PAGE_SIZE, MAX_CACHED_PAGES);
 
-        appointmentTable = new JTable(model);
+        appointmentTable = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(appointmentTable);
         add(scrollPane, BorderLayout.CENTER);
 
@@ -109,60 +132,115 @@ public class AppointmentMonitorPanel extends JPanel {
     }
 
     private void loadAppointments() {
-        DefaultTableModel model = (DefaultTableModel) appointmentTable.getModel();
-        model.setRowCount(0);
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(dateFromField.getText().trim());
+            to = LocalDate.parse(dateToField.getText().trim());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "日期格式不正确，应为 yyyy-MM-dd", "错误", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-        List<Appointment> appointments = appointmentService.getAllAppointments();
-        updateStatistics(appointments);
+        // 结束日期当天也包含在内
+        loadAppointments(getStatusCode((String) statusFilter.getSelectedItem()),
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private void loadAppointments(String status, LocalDateTime start, LocalDateTime end) {
+        rangeStatus = status;
+        rangeStart = start;
+        rangeEnd = end;
+        changeToken = null;
+        // 状态和时间筛选都在数据库中完成，统计只查询各状态的数量，列表按需分页加载
+        loader.load("statistics", () -> {
+            // 变更位置在第一页加载的同时记录，读取变更时的重叠窗口覆盖两者之间的时间差
+            MonitorData data = new MonitorData();
+            data.changeToken = appointmentService.getAppointmentChangeToken();
+            data.counts = appointmentService.getAppointmentStatusCounts(start, end);
+            return data;
+        }, data -> {
+            changeToken = data.changeToken;
+            updateStatistics(data.counts);
+        });
+        tableModel.reset((cursor, pageSize) ->
+                appointmentService.searchAppointmentsPage(status, start, end, cursor, pageSize));
+    }
 
-        for (Appointment appointment : appointments) {
-            addAppointmentToTable(appointment, model, formatter);
+    /**
+     * 定时刷新：只读取上次之后变化的预约，替换表格中已加载的对应行，有变化时重新统计数量。
+     * 已加载的预约被删除或不再满足筛选条件时重新加载列表；新增的预约点击"应用筛选"后显示
+     */
+    private void refreshChanges() {
+        if (changeToken == null || loader.isLoading()) {
+            return;
         }
+        ChangeToken token = changeToken;
+        String status = rangeStatus;
+        LocalDateTime start = rangeStart;
+        LocalDateTime end = rangeEnd;
+        loader.load("statistics", () -> {
+            MonitorData data = new MonitorData();
+            data.changes = appointmentService.getAppointmentChanges(token);
+            if (data.changes != null && !data.changes.isEmpty()) {
+                data.counts = appointmentService.getAppointmentStatusCounts(start, end);
+            }
+            return data;
+        }, data -> {
+            if (data.changes == null) {
+                return;
+            }
+            if (data.changes.getNextToken() == null) {
+                // 变更位置已过期，按当前筛选条件全量重新加载
+                loadAppointments(status, start, end);
+                return;
+            }
+            changeToken = data.changes.getNextToken();
+            if (data.counts != null) {
+                tableModel.applyChanges(data.changes.getChanged(), data.changes.getDeletedIds(), Appointment::getId,
+                        appointment -> matchesFilter(appointment, status, start, end));
+                updateStatistics(data.counts);
+            }
+        });
     }
 
-    private void addAppointmentToTable(Appointment appointment, DefaultTableModel model, DateTimeFormatter formatter) {
-        Object[] row = {
-                appointment.getId(),
-                appointment.getStudentName(),
-                appointment.getCounselorName(),
-                appointment.getStartTime().format(formatter) + " - " +
-                        appointment.getEndTime().format(formatter).substring(11),
-                getStatusText(appointment.getStatus()),
-                appointment.getCreatedAt().format(formatter),
-                appointment.getNotes() != null ?
-                        (appointment.getNotes().length() > 30 ?
-                                appointment.getNotes().substring(0, 30) + "..." :
-                                appointment.getNotes()) : "无"
-        };
-        model.addRow(row);
-    }
-
-    private void updateStatistics(List<Appointment> appointments) {
-        int total = appointments.size();
-        int pending = 0;
-        int confirmed = 0;
-        int completed = 0;
-        int cancelled = 0;
-
-        for (Appointment appointment : appointments) {
-            switch (appointment.getStatus()) {
-                case "pending": pending++; break;
-                case "confirmed": confirmed++; break;
-                case "completed": completed++; break;
-                case "cancelled": cancelled++; break;
-            }
+    /**
+     * 与 searchAppointmentsPage 的数据库筛选条件一致
+     */
+    private boolean matchesFilter(Appointment appointment, String status, LocalDateTime start, LocalDateTime end) {
+        return (status == null || status.equals(appointment.getStatus()))
+                && appointment.getStartTime() != null
+                && !appointment.getStartTime().isBefore(start)
+                && appointment.getStartTime().isBefore(end);
+    }
+
+    private Object formatCell(Appointment appointment, int column) {
+        switch (column) {
+            case 0: return appointment.getId();
+            case 1: return appointment.getStudentName();
+            case 2: return appointment.getCounselorName();
+            case 3: return appointment.getStartTime() != null && appointment.getEndTime() != null ?
+                    appointment.getStartTime().format(FORMATTER) + " - " +
+                    appointment.getEndTime().format(FORMATTER).substring(11) : "时间段已删除";
+            case 4: return getStatusText(appointment.getStatus());
+            case 5: return appointment.getCreatedAt().format(FORMATTER);
+            case 6: return appointment.getNotes() != null ?
+                    (appointment.getNotes().length() > 30 ?
+                            appointment.getNotes().substring(0, 30) + "..." :
+                            appointment.getNotes()) : "无";
+            default: return null;
         }
+    }
 
+    private void updateStatistics(AppointmentService.StatusCounts counts) {
         JPanel statsPanel = (JPanel) getComponent(2);
         Component[] components = statsPanel.getComponents();
 
-        ((JLabel) components[0]).setText("总预约: " + total);
-        ((JLabel) components[1]).setText("待确认: " + pending);
-        ((JLabel) components[2]).setText("已确认: " + confirmed);
-        ((JLabel) components[3]).setText("已完成: " + completed);
-        ((JLabel) components[4]).setText("已取消: " + cancelled);
+        ((JLabel) components[0]).setText("总预约: " + counts.total);
+        ((JLabel) components[1]).setText("待确认: " + counts.pending);
+        ((JLabel) components[2]).setText("已确认: " + counts.confirmed);
+        ((JLabel) components[3]).setText("已完成: " + counts.completed);
+        ((JLabel) components[4]).setText("已取消: " + counts.cancelled);
     }
 
     private String getStatusText(String status) {
@@ -175,6 +253,16 @@ public class AppointmentMonitorPanel extends JPanel {
         }
     }
 
+    private String getStatusCode(String statusText) {
+        switch (statusText) {
+            case "待确认": return "pending";
+            case "已确认": return "confirmed";
+            case "已完成": return "completed";
+            case "已取消": return "cancelled";
+            default: return null; // 全部
+        }
+    }
+
     private void updateDateRange() {
         String range = (String) dateRangeFilter.getSelectedItem();
         LocalDate today = LocalDate.now();
@@ -199,8 +287,7 @@ public class AppointmentMonitorPanel extends JPanel {
     }
 
     private void filterAppointments() {
-        // 实现筛选逻辑
-        JOptionPane.showMessageDialog(this, "筛选功能开发中", "提示", JOptionPane.INFORMATION_MESSAGE);
+        loadAppointments();
     }
 
     private void exportData() {
@@ -210,7 +297,68 @@ public class AppointmentMonitorPanel extends JPanel {
 
         int result = fileChooser.showSaveDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
-            JOptionPane.showMessageDialog(this, "数据导出功能开发中", "提示", JOptionPane.INFORMATION_MESSAGE);
+            File file = fileChooser.getSelectedFile();
+            // 导出在后台执行，完成后提示结果
+            loader.load("export", () -> writeCsv(file), exported -> {
+                if (exported < 0) {
+                    JOptionPane.showMessageDialog(this, "导出失败，请查看日志", "错误", JOptionPane.ERROR_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "成功导出 " + exported + " 条预约", "成功", JOptionPane.INFORMATION_MESSAGE);
+                }
+            }, e -> JOptionPane.showMessageDialog(this, "导出失败: " + e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 把所有预约写入 CSV 文件，返回导出条数，读取失败返回 -1
+     */
+    private int writeCsv(File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.write("预约ID,学生,咨询师,开始时间,结束时间,状态,创建时间,备注");
+            writer.newLine();
+
+            // 流式读取并逐行写出，不把整张预约表加载到内存
+            return appointmentService.streamAllAppointments(appointment -> {
+                try {
+                    writer.write(toCsvLine(appointment));
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private String toCsvLine(Appointment appointment) {
+        return appointment.getId() + "," +
+                csv(appointment.getStudentName()) + "," +
+                csv(appointment.getCounselorName()) + "," +
+                (appointment.getStartTime() != null ? appointment.getStartTime().format(FORMATTER) : "") + "," +
+                (appointment.getEndTime() != null ? appointment.getEndTime().format(FORMATTER) : "") + "," +
+                getStatusText(appointment.getStatus()) + "," +
+                appointment.getCreatedAt().format(FORMATTER) + "," +
+                csv(appointment.getNotes());
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * 后台读取的统计数据和变更
+     */
+    private static class MonitorData {
+        ChangeToken changeToken;
+        ChangeSet<Appointment> changes;
+        AppointmentService.StatusCounts counts;
+    }
+}
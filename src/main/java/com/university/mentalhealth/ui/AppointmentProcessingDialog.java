@@ -4,18 +4,27 @@ import com.university.mentalhealth.entity.Appointment;
 import com.university.mentalhealth.service.AppointmentService;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 public class AppointmentProcessingDialog extends JDialog {
     private final AppointmentService appointmentService;
+    private final BackgroundLoader loader = new BackgroundLoader(getRootPane());
     private JTable appointmentsTable;
     private JButton confirmButton;
     private JButton completeButton;
     private JButton cancelButton;
     private JButton viewDetailsButton;
+    private JComboBox<String> statusComboBox;
+    private JComboBox<String> dateComboBox;
+    private PagedTableModel<Appointment> tableModel;
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 10;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     public AppointmentProcessingDialog(JFrame parent) {
         super(parent, "预约处理", true);
@@ -35,8 +44,9 @@ public class AppointmentProcessingDialog extends JDialog {
         JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
         filterPanel.setBorder(BorderFactory.createTitledBorder("筛选条件"));
 
-        JComboBox<String> statusComboBox = new JComboBox<>(new String[]{"全部", "待确认", "已确认", "已完成", "已取消"});
-        JComboBox<String> dateComboBox = new JComboBox<>(new String[]{"今天", "本周", "本月", "全部"});
+        statusComboBox = new JComboBox<>(new String[]{"全部", "待确认", "已确认", "已完成", "已取消"});
+        dateComboBox = new JComboBox<>(new String[]{"今天", "本周", "本月", "全部"});
+        dateComboBox.setSelectedItem("全部");
         JButton filterButton = new JButton("筛选");
 
         filterButton.addActionListener(e -> filterAppointments(
@@ -54,14 +64,10 @@ public class AppointmentProcessingDialog extends JDialog {
 
         // 预约表格
         String[] columns = {"预约时间", "学生", "联系方式", "预约原因", "状态", "操作"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 5; // 只有操作列可编辑
-            }
-        };
+        // 按页加载，滚动到哪里加载到哪里，单元格显示时才格式化
+        tableModel = new PagedTableModel<>(columns, this::formatCell, loader, PAGE_SIZE, MAX_CACHED_PAGES);
 
-        appointmentsTable = new JTable(model);
+        appointmentsTable = new JTable(tableModel);
         appointmentsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         appointmentsTable.getSelectionModel().addListSelectionListener(e -> updateButtonState());
 
@@ -95,7 +101,7 @@ public class AppointmentProcessingDialog extends JDialog {
     }
 
     private void loadAppointments() {
-        loadAppointmentsWithFilter("全部", "全部");
+        loadAppointmentsWithFilter((String) statusComboBox.getSelectedItem(), (String) dateComboBox.getSelectedItem());
     }
 
     private void filterAppointments(String status, String dateRange) {
@@ -103,46 +109,56 @@ public class AppointmentProcessingDialog extends JDialog {
     }
 
     private void loadAppointmentsWithFilter(String statusFilter, String dateRange) {
-        DefaultTableModel model = (DefaultTableModel) appointmentsTable.getModel();
-        model.setRowCount(0);
-
-        List<Appointment> appointments = appointmentService.getCounselorAppointments();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        // 状态和时间范围在数据库中过滤
+        String status = getStatusCode(statusFilter);
+        LocalDateTime[] range = getDateRange(dateRange);
+        tableModel.reset((cursor, pageSize) ->
+                appointmentService.searchCounselorAppointmentsPage(status, range[0], range[1], cursor, pageSize));
+    }
 
-        for (Appointment appointment : appointments) {
-            if (matchesFilter(appointment, statusFilter, dateRange)) {
-                String statusText = getStatusText(appointment.getStatus());
-
-                Object[] row = {
-                        appointment.getStartTime().format(formatter) + " - " +
-                                appointment.getEndTime().format(formatter).substring(11),
-                        appointment.getStudentName(),
-                        "138****" + (appointment.getStudentId() % 10000),
-                        appointment.getNotes() != null ?
-                                (appointment.getNotes().length() > 20 ?
-                                        appointment.getNotes().substring(0, 20) + "..." :
-                                        appointment.getNotes()) : "无",
-                        statusText,
-                        "操作"
-                };
-                model.addRow(row);
-            }
+    private Object formatCell(Appointment appointment, int column) {
+        switch (column) {
+            case 0: return appointment.getStartTime().format(FORMATTER) + " - " +
+                    appointment.getEndTime().format(FORMATTER).substring(11);
+            case 1: return appointment.getStudentName();
+            case 2: return "138****" + (appointment.getStudentId() % 10000);
+            case 3: return appointment.getNotes() != null ?
+                    (appointment.getNotes().length() > 20 ?
+                            appointment.getNotes().substring(0, 20) + "..." :
+                            appointment.getNotes()) : "无";
+            case 4: return getStatusText(appointment.getStatus());
+            case 5: return "操作";
+            default: return null;
         }
     }
 
-    private boolean matchesFilter(Appointment appointment, String statusFilter, String dateRange) {
-        // 状态过滤
-        if (!"全部".equals(statusFilter)) {
-            String actualStatus = getStatusText(appointment.getStatus());
-            if (!actualStatus.equals(statusFilter)) {
-                return false;
-            }
+    /**
+     * 时间范围筛选对应的 [开始, 结束)，"全部" 返回 null 表示不限制
+     */
+    private LocalDateTime[] getDateRange(String dateRange) {
+        LocalDate today = LocalDate.now();
+        switch (dateRange) {
+            case "今天":
+                return new LocalDateTime[]{today.atStartOfDay(), today.plusDays(1).atStartOfDay()};
+            case "本周":
+                LocalDate monday = today.with(DayOfWeek.MONDAY);
+                return new LocalDateTime[]{monday.atStartOfDay(), monday.plusWeeks(1).atStartOfDay()};
+            case "本月":
+                LocalDate firstDay = today.withDayOfMonth(1);
+                return new LocalDateTime[]{firstDay.atStartOfDay(), firstDay.plusMonths(1).atStartOfDay()};
+            default:
+                return new LocalDateTime[]{null, null};
         }
+    }
 
-        // 时间范围过滤（简化实现）
-        // 实际项目中应该根据dateRange进行时间过滤
-
-        return true;
+    private String getStatusCode(String statusText) {
+        switch (statusText) {
+            case "待确认": return "pending";
+            case "已确认": return "confirmed";
+            case "已完成": return "completed";
+            case "已取消": return "cancelled";
+            default: return null; // 全部
+        }
     }
 
     private String getStatusText(String status) {
@@ -156,8 +172,8 @@ public class AppointmentProcessingDialog extends JDialog {
     }
 
     private void updateButtonState() {
-        int selectedRow = appointmentsTable.getSelectedRow();
-        boolean hasSelection = selectedRow >= 0;
+        Appointment selected = getSelectedAppointment();
+        boolean hasSelection = selected != null;
 
         confirmButton.setEnabled(hasSelection);
         completeButton.setEnabled(hasSelection);
@@ -165,61 +181,60 @@ public class AppointmentProcessingDialog extends JDialog {
         viewDetailsButton.setEnabled(hasSelection);
 
         if (hasSelection) {
-            String status = (String) appointmentsTable.getValueAt(selectedRow, 4);
-            confirmButton.setEnabled("待确认".equals(status));
-            completeButton.setEnabled("已确认".equals(status));
-            cancelButton.setEnabled(!"已取消".equals(status) && !"已完成".equals(status));
+            String status = selected.getStatus();
+            confirmButton.setEnabled("pending".equals(status));
+            completeButton.setEnabled("confirmed".equals(status));
+            cancelButton.setEnabled(!"cancelled".equals(status) && !"completed".equals(status));
         }
     }
 
     private void processAppointment(String action) {
-        int selectedRow = appointmentsTable.getSelectedRow();
-        if (selectedRow >= 0) {
-            List<Appointment> appointments = appointmentService.getCounselorAppointments();
-            if (selectedRow < appointments.size()) {
-                Appointment appointment = appointments.get(selectedRow);
-
-                boolean success = false;
-                String message = "";
-
-                switch (action) {
-                    case "confirm":
-                        success = appointmentService.confirmAppointment(appointment.getId());
-                        message = "确认";
-                        break;
-                    case "complete":
-                        success = appointmentService.completeAppointment(appointment.getId());
-                        message = "完成";
-                        break;
-                    case "cancel":
-                        success = appointmentService.cancelAppointment(appointment.getId());
-                        message = "取消";
-                        break;
-                }
-
-                if (success) {
-                    JOptionPane.showMessageDialog(this,
-                            "预约" + message + "成功", "成功", JOptionPane.INFORMATION_MESSAGE);
-                    loadAppointments();
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                            "操作失败", "错误", JOptionPane.ERROR_MESSAGE);
-                }
+        Appointment appointment = getSelectedAppointment();
+        if (appointment != null) {
+            boolean success = false;
+            String message = "";
+
+            switch (action) {
+                case "confirm":
+                    success = appointmentService.confirmAppointment(appointment.getId());
+                    message = "确认";
+                    break;
+                case "complete":
+                    success = appointmentService.completeAppointment(appointment.getId());
+                    message = "完成";
+                    break;
+                case "cancel":
+                    success = appointmentService.cancelAppointment(appointment.getId());
+                    message = "取消";
+                    break;
+            }
+
+            if (success) {
+                JOptionPane.showMessageDialog(this,
+                        "预约" + message + "成功", "成功", JOptionPane.INFORMATION_MESSAGE);
+                loadAppointments();
+            } else {
+                JOptionPane.showMessageDialog(this,
+                        "操作失败", "错误", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
 
     private void viewAppointmentDetails() {
-        int selectedRow = appointmentsTable.getSelectedRow();
-        if (selectedRow >= 0) {
-            List<Appointment> appointments = appointmentService.getCounselorAppointments();
-            if (selectedRow < appointments.size()) {
-                Appointment appointment = appointments.get(selectedRow);
-                showAppointmentDetailDialog(appointment);
-            }
+        Appointment appointment = getSelectedAppointment();
+        if (appointment != null) {
+            showAppointmentDetailDialog(appointment);
         }
     }
 
+    /**
+     * 选中行对应的预约，未选中或所在页尚未加载时返回 null
+     */
+    private Appointment getSelectedAppointment() {
+        int selectedRow = appointmentsTable.getSelectedRow();
+        return selectedRow >= 0 ? tableModel.getItem(selectedRow) : null;
+    }
+
     private void showAppointmentDetailDialog(Appointment appointment) {
         JDialog detailDialog = new JDialog(this, "预约详情", true);
         detailDialog.setSize(500, 400);
@@ -1,8 +1,8 @@
 package com.university.mentalhealth.ui;
 
+import com.university.mentalhealth.client.ServiceFactory;
 import com.university.mentalhealth.entity.*;
-import com.university.mentalhealth.service.AssessmentService;
-import com.university.mentalhealth.util.JSONUtil;
+import com.university.mentalhealth.service.AssessmentOperations;
 
 import javax.swing.*;
 import java.awt.*;
@@ -11,13 +11,14 @@ import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
 
 import static com.university.mentalhealth.ui.LoginFrame.logger;
 
 public class AssessmentDialog extends JDialog {
+    private static final Font OPTION_FONT = new Font("微软雅黑", Font.PLAIN, 14);
+
     private Assessment assessment;
-    private AssessmentService assessmentService;
+    private AssessmentOperations assessmentService;
     private AssessmentSession currentSession;
     private List<AssessmentAnswer> answers;
     private List<AssessmentQuestion> questions;
@@ -38,7 +39,7 @@ public class AssessmentDialog extends JDialog {
     public AssessmentDialog(JFrame parent, Assessment assessment) {
         super(parent, "心理测评 - " + assessment.getName(), true);
         this.assessment = assessment;
-        this.assessmentService = new AssessmentService();
+        this.assessmentService = ServiceFactory.assessmentService();
         this.answers = new ArrayList<>();
 
         initialize();
@@ -179,18 +180,18 @@ public class AssessmentDialog extends JDialog {
         answerGroup = new ButtonGroup();
 
         try {
-            // 替换JSON解析部分：
-            String[] optionsText = {"完全没有", "有几天", "一半以上时间", "几乎每天"};
-            int[] optionsValue = {0, 1, 2, 3};
-
-            for (int i = 0; i < optionsText.length; i++) {
-                JRadioButton radioButton = new JRadioButton(optionsText[i] + " (" + optionsValue[i] + "分)");
-                radioButton.setActionCommand(String.valueOf(optionsValue[i]));
-                radioButton.setFont(new Font("微软雅黑", Font.PLAIN, 14));
+            QuestionOptions options = question.getParsedOptions();
+            int answer = getAnswerForQuestion(question.getId());
+
+            for (int i = 0; i < options.size(); i++) {
+                int value = options.getValue(i);
+                JRadioButton radioButton = new JRadioButton(options.getText(i) + " (" + value + "分)");
+                radioButton.setActionCommand(String.valueOf(value));
+                radioButton.setFont(OPTION_FONT);
                 radioButton.setBackground(Color.WHITE);
 
                 // 检查是否已经选择过该题的答案
-                if (getAnswerForQuestion(question.getId()) == optionsValue[i]) {
+                if (answer == value) {
                     radioButton.setSelected(true);
                 }
 
@@ -199,7 +200,7 @@ public class AssessmentDialog extends JDialog {
                 answersPanel.add(Box.createRigidArea(new Dimension(0, 5)));
             }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "解析题目选项失败", e);
+            logger.error("解析题目选项失败", e);
             JOptionPane.showMessageDialog(this, "题目数据格式错误", "错误", JOptionPane.ERROR_MESSAGE);
         }
 
@@ -1,7 +1,8 @@
 package com.university.mentalhealth.ui;
 
+import com.university.mentalhealth.client.ServiceFactory;
 import com.university.mentalhealth.entity.*;
-import com.university.mentalhealth.service.AssessmentService;
+import com.university.mentalhealth.service.AssessmentOperations;
 import com.university.mentalhealth.util.chart.AssessmentChartUtil;
 
 import javax.swing.*;
@@ -13,12 +14,12 @@ import java.util.List;
 import static com.university.mentalhealth.util.chart.AssessmentChartUtil.*;
 
 public class AssessmentHistoryDetailDialog extends JDialog {
-    private final AssessmentService assessmentService;
+    private final AssessmentOperations assessmentService;
     private final AssessmentSession session;
 
     public AssessmentHistoryDetailDialog(JFrame parent, AssessmentSession session) {
         super(parent, "测评详情 - " + session.getAssessmentName(), true);
-        this.assessmentService = new AssessmentService();
+        this.assessmentService = ServiceFactory.assessmentService();
         this.session = session;
 
         initialize();
@@ -103,7 +104,7 @@ public class AssessmentHistoryDetailDialog extends JDialog {
             model.addRow(new Object[]{
                     i + 1,
                     detail.getQuestionText(),
-                    getAnswerText(detail.getAnswerValue()),
+                    detail.getAnswerText(),
                     detail.getAnswerValue()
             });
         }
@@ -141,14 +142,4 @@ public class AssessmentHistoryDetailDialog extends JDialog {
         // 导出功能实现
         JOptionPane.showMessageDialog(this, "导出功能开发中", "提示", JOptionPane.INFORMATION_MESSAGE);
     }
-
-    private String getAnswerText(int value) {
-        switch (value) {
-            case 0: return "完全没有";
-            case 1: return "有几天";
-            case 2: return "一半以上时间";
-            case 3: return "几乎每天";
-            default: return "未知";
-        }
-    }
 }
\ No newline at end of file
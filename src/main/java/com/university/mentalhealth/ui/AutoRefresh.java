@@ -0,0 +1,79 @@
+package com.university.mentalhealth.ui;
+
+import com.university.mentalhealth.event.EventBus;
+
+import javax.swing.*;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
+
+/**
+ * 面板定时刷新：面板显示在窗口中时按固定间隔在 EDT 中调用 tick，面板被移除或窗口关闭后停止。
+ * 也可以订阅事件总线，本进程内发生变更时立即刷新，不必等到下一次定时刷新
+ */
+final class AutoRefresh {
+    // 默认刷新间隔（毫秒）
+    static final int DEFAULT_INTERVAL = 15000;
+    // 连续收到的事件合并为一次刷新（毫秒）
+    private static final int EVENT_COALESCE_DELAY = 300;
+    // 面板订阅的事件队列容量，刷新会合并，积压的事件只需触发一次刷新
+    private static final int EVENT_QUEUE_CAPACITY = 16;
+
+    private AutoRefresh() {
+    }
+
+    static Timer install(JComponent panel, int intervalMillis, Runnable tick) {
+        Timer timer = new Timer(intervalMillis, e -> tick.run());
+        timer.setRepeats(true);
+        panel.addAncestorListener(new AncestorListener() {
+            @Override
+            public void ancestorAdded(AncestorEvent event) {
+                timer.start();
+            }
+
+            @Override
+            public void ancestorRemoved(AncestorEvent event) {
+                timer.stop();
+            }
+
+            @Override
+            public void ancestorMoved(AncestorEvent event) {
+            }
+        });
+        if (panel.isShowing()) {
+            timer.start();
+        }
+        return timer;
+    }
+
+    /**
+     * 面板显示期间订阅 bus，收到事件后（短时间内的多个事件合并为一次）在 EDT 中调用 tick
+     */
+    static void refreshOnEvents(JComponent panel, EventBus<?> bus, Runnable tick) {
+        Timer coalesce = new Timer(EVENT_COALESCE_DELAY, e -> tick.run());
+        coalesce.setRepeats(false);
+        panel.addAncestorListener(new AncestorListener() {
+            private EventBus<?>.Subscription subscription;
+
+            @Override
+            public void ancestorAdded(AncestorEvent event) {
+                if (subscription == null) {
+                    subscription = bus.subscribe("ui-" + panel.getClass().getSimpleName(), EVENT_QUEUE_CAPACITY,
+                            e -> SwingUtilities.invokeLater(coalesce::restart));
+                }
+            }
+
+            @Override
+            public void ancestorRemoved(AncestorEvent event) {
+                if (subscription != null) {
+                    subscription.close();
+                    subscription = null;
+                }
+                coalesce.stop();
+            }
+
+            @Override
+            public void ancestorMoved(AncestorEvent event) {
+            }
+        });
+    }
+}
@@ -0,0 +1,171 @@
+package com.university.mentalhealth.ui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 面板数据的后台加载：数据库查询在共享的有界线程池中执行，结果回到事件分派线程（EDT）更新界面。
+ * 每个面板持有一个实例，同一个 key 的新请求会取消尚未完成的旧请求，旧请求的结果不再交付；
+ * 有请求在进行时面板显示等待光标。除构造外的方法都应在 EDT 中调用。
+ */
+class BackgroundLoader {
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundLoader.class);
+
+    private static final int THREADS = 4;
+    private static final int QUEUE_CAPACITY = 64;
+    private static final ThreadPoolExecutor executor = createExecutor();
+
+    private final JComponent owner;
+    private final Map<String, Request<?>> current = new HashMap<>();
+    private int pending;
+
+    BackgroundLoader(JComponent owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * 在后台执行 task，完成后在 EDT 中调用 onLoaded；失败时记录日志
+     */
+    <T> void load(String key, Callable<T> task, Consumer<? super T> onLoaded) {
+        load(key, task, onLoaded, null);
+    }
+
+    /**
+     * 在后台执行 task，完成后在 EDT 中调用 onLoaded，失败或线程池队列已满时在 EDT 中调用 onError（可为 null）
+     */
+    <T> void load(String key, Callable<T> task, Consumer<? super T> onLoaded, Consumer<Exception> onError) {
+        cancel(key);
+
+        Request<T> request = new Request<>(key, onLoaded, onError);
+        current.put(key, request);
+        loadingStarted();
+        try {
+            request.future = executor.submit(() -> request.run(task));
+        } catch (RejectedExecutionException e) {
+            logger.warn("后台加载队列已满，放弃加载: {}", key);
+            // 与执行失败一样交给 onError，调用方据此复位自己的加载状态；
+            // 延后到下一次 EDT 事件，避免在调用方的 load 调用返回前回调
+            SwingUtilities.invokeLater(() -> request.fail(e));
+        }
+    }
+
+    /**
+     * 取消某个 key 尚未完成的请求
+     */
+    void cancel(String key) {
+        Request<?> previous = current.remove(key);
+        if (previous != null) {
+            previous.cancelled = true;
+            if (previous.future != null) {
+                // 不中断正在执行的查询，只丢弃它的结果
+                previous.future.cancel(false);
+            }
+            loadingFinished();
+        }
+    }
+
+    /**
+     * 取消所有尚未完成的请求（例如面板关闭时）
+     */
+    void cancelAll() {
+        for (String key : current.keySet().toArray(new String[0])) {
+            cancel(key);
+        }
+    }
+
+    boolean isLoading() {
+        return pending > 0;
+    }
+
+    private void finish(Request<?> request) {
+        if (current.get(request.key) == request) {
+            current.remove(request.key);
+            loadingFinished();
+        }
+    }
+
+    private void loadingStarted() {
+        if (pending++ == 0) {
+            owner.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+    }
+
+    private void loadingFinished() {
+        if (--pending == 0) {
+            owner.setCursor(Cursor.getDefaultCursor());
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "ui-loader-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * 一次加载请求
+     */
+    private final class Request<T> {
+        final String key;
+        final Consumer<? super T> onLoaded;
+        final Consumer<Exception> onError;
+        volatile boolean cancelled;
+        Future<?> future;
+
+        Request(String key, Consumer<? super T> onLoaded, Consumer<Exception> onError) {
+            this.key = key;
+            this.onLoaded = onLoaded;
+            this.onError = onError;
+        }
+
+        void run(Callable<T> task) {
+            if (cancelled) {
+                return;
+            }
+            try {
+                T result = task.call();
+                SwingUtilities.invokeLater(() -> deliver(result));
+            } catch (Exception e) {
+                logger.error("后台加载失败: {}", key, e);
+                SwingUtilities.invokeLater(() -> fail(e));
+            }
+        }
+
+        private void deliver(T result) {
+            if (cancelled) {
+                return;
+            }
+            finish(this);
+            onLoaded.accept(result);
+        }
+
+        private void fail(Exception e) {
+            if (cancelled) {
+                return;
+            }
+            finish(this);
+            if (onError != null) {
+                onError.accept(e);
+            }
+        }
+    }
+}
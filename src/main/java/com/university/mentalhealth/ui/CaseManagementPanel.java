@@ -6,10 +6,14 @@ import com.university.mentalhealth.service.AppointmentService;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
 public class CaseManagementPanel extends JPanel {
     private final AppointmentService appointmentService;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
+    private PagedTableModel<Appointment> tableModel;
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 10;
     private JTable casesTable;
     private JButton viewCaseButton;
     private JButton addRecordButton;
@@ -33,14 +37,10 @@ public class CaseManagementPanel extends JPanel {
 
         // 个案表格
         String[] columns = {"学生", "最近咨询", "咨询次数", "主要问题", "风险等级", "操作"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 5; // 只有操作列可编辑
-            }
-        };
+        // 按页加载，滚动到哪里加载到哪里，单元格显示时才格式化
+        tableModel = new PagedTableModel<>(columns, this::formatCell, loader, PAGE_SIZE, MAX_CACHED_PAGES);
 
-        casesTable = new JTable(model);
+        casesTable = new JTable(tableModel);
         casesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         casesTable.getSelectionModel().addListSelectionListener(e -> updateButtonState());
 
@@ -71,25 +71,21 @@ public class CaseManagementPanel extends JPanel {
     }
 
     private void loadCases() {
-        DefaultTableModel model = (DefaultTableModel) casesTable.getModel();
-        model.setRowCount(0);
-
         // 获取已完成咨询的预约作为个案
-        List<Appointment> appointments = appointmentService.getCounselorAppointments();
-
-        for (Appointment appointment : appointments) {
-            if ("completed".equals(appointment.getStatus())) {
-                // 这里简化实现，实际应该从咨询记录中获取更多信息
-                Object[] row = {
-                        appointment.getStudentName(),
-                        appointment.getStartTime().toString().substring(0, 10),
-                        "1", // 咨询次数，实际应该统计
-                        getMainIssueFromNotes(appointment.getNotes()),
-                        assessRiskLevel(appointment),
-                        "管理"
-                };
-                model.addRow(row);
-            }
+        tableModel.reset((cursor, pageSize) ->
+                appointmentService.searchCounselorAppointmentsPage("completed", null, null, cursor, pageSize));
+    }
+
+    private Object formatCell(Appointment appointment, int column) {
+        // 这里简化实现，实际应该从咨询记录中获取更多信息
+        switch (column) {
+            case 0: return appointment.getStudentName();
+            case 1: return appointment.getStartTime().toString().substring(0, 10);
+            case 2: return "1"; // 咨询次数，实际应该统计
+            case 3: return getMainIssueFromNotes(appointment.getNotes());
+            case 4: return assessRiskLevel(appointment);
+            case 5: return "管理";
+            default: return null;
         }
     }
 
@@ -0,0 +1,8 @@
+package com.university.mentalhealth.ui;
+
+/**
+ * 表格单元格格式化：把实体的某一列转换为显示值
+ */
+interface CellFormatter<T> {
+    Object format(T item, int column);
+}
@@ -1,15 +1,19 @@
 package com.university.mentalhealth.ui;
 
+import com.university.mentalhealth.dao.ChangeSet;
+import com.university.mentalhealth.dao.ChangeToken;
 import com.university.mentalhealth.entity.Appointment;
+import com.university.mentalhealth.service.AppointmentEvents;
 import com.university.mentalhealth.service.AppointmentService;
 import com.university.mentalhealth.service.CounselorService;
 import com.university.mentalhealth.util.SessionManager;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 import java.util.List;
 
 public class CounselorDashboardPanel extends JPanel {
@@ -20,6 +24,13 @@ public class CounselorDashboardPanel extends JPanel {
     private JLabel pendingAppointmentsLabel;
     private JLabel upcomingAppointmentsLabel;
     private JTable todayAppointmentsTable;
+    // 今日预约表格中显示的预约，与表格行一一对应
+    private ListTableModel<Appointment> todayModel;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
+    // 上次读取时的变更位置，定时刷新只读取之后的变更
+    private ChangeToken changeToken;
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
 
     public CounselorDashboardPanel() {
         this.appointmentService = new AppointmentService();
@@ -27,6 +38,8 @@ public class CounselorDashboardPanel extends JPanel {
 
         initUI();
         loadDashboardData();
+        AutoRefresh.install(this, AutoRefresh.DEFAULT_INTERVAL, this::refreshChanges);
+        AutoRefresh.refreshOnEvents(this, AppointmentEvents.BUS, this::refreshChanges);
     }
 
     private void initUI() {
@@ -111,14 +124,12 @@ public class CounselorDashboardPanel extends JPanel {
 
         // 表格列
         String[] columns = {"时间", "学生", "联系方式", "状态", "操作"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 4; // 只有操作列可编辑
-            }
-        };
+        // 与 getTodayAppointments 的顺序一致：预约时间倒序
+        todayModel = new ListTableModel<>(columns, this::formatCell, Appointment::getId,
+                Comparator.comparing(Appointment::getStartTime, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                        .thenComparing(Appointment::getId).reversed());
 
-        todayAppointmentsTable = new JTable(model);
+        todayAppointmentsTable = new JTable(todayModel);
         todayAppointmentsTable.setRowHeight(30);
         JScrollPane scrollPane = new JScrollPane(todayAppointmentsTable);
 
@@ -146,58 +157,87 @@ public class CounselorDashboardPanel extends JPanel {
     }
 
     private void loadDashboardData() {
-        loadStatistics();
-        loadTodayAppointments();
+        loader.load("dashboard", () -> {
+            DashboardData data = new DashboardData();
+            // 先记录变更位置再读取，之后的定时刷新只读取这之后变化的预约
+            data.changeToken = appointmentService.getAppointmentChangeToken();
+            data.todayAppointments = appointmentService.getTodayAppointments();
+            loadCounts(data);
+            return data;
+        }, data -> {
+            changeToken = data.changeToken;
+            todayModel.setItems(data.todayAppointments);
+            showStatistics(data);
+        });
     }
 
-    private void loadStatistics() {
-        int pendingCount = appointmentService.getPendingAppointmentCount();
-        List<Appointment> todayAppointments = appointmentService.getTodayAppointments();
-        List<Appointment> upcomingAppointments = getUpcomingAppointments();
+    /**
+     * 定时刷新：只读取上次之后变化的预约并应用到今日预约表格，有变化时才重新统计数量
+     */
+    private void refreshChanges() {
+        if (loader.isLoading()) {
+            return;
+        }
+        if (changeToken == null) {
+            // 上次没有取得变更位置，退回全量加载
+            loadDashboardData();
+            return;
+        }
+        ChangeToken token = changeToken;
+        loader.load("dashboard", () -> {
+            DashboardData data = new DashboardData();
+            data.changes = appointmentService.getCounselorAppointmentChanges(token);
+            if (data.changes != null && !data.changes.isEmpty()) {
+                loadCounts(data);
+            }
+            return data;
+        }, data -> {
+            if (data.changes == null) {
+                return;
+            }
+            changeToken = data.changes.getNextToken();
+            if (changeToken == null) {
+                // 变更位置已过期，全量重新加载
+                loadDashboardData();
+                return;
+            }
+            if (!data.changes.isEmpty()) {
+                todayModel.applyChanges(data.changes.getChanged(), data.changes.getDeletedIds(), this::isTodayAppointment);
+                showStatistics(data);
+            }
+        });
+    }
 
-        todayAppointmentsLabel.setText(String.valueOf(todayAppointments.size()));
-        pendingAppointmentsLabel.setText(String.valueOf(pendingCount));
-        upcomingAppointmentsLabel.setText(String.valueOf(upcomingAppointments.size()));
+    private void loadCounts(DashboardData data) {
+        data.pendingCount = appointmentService.getPendingAppointmentCount();
+        // 未来1小时内的预约只需要数量
+        data.upcomingCount = appointmentService.getUpcomingAppointmentCount(60);
     }
 
-    private List<Appointment> getUpcomingAppointments() {
-        List<Appointment> allAppointments = appointmentService.getCounselorAppointments();
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime oneHourLater = now.plusHours(1);
-
-        // 筛选未来1小时内的预约
-        java.util.List<Appointment> upcoming = new java.util.ArrayList<>();
-        for (Appointment appointment : allAppointments) {
-            if (appointment.getStartTime() != null &&
-                    appointment.getStartTime().isAfter(now) &&
-                    appointment.getStartTime().isBefore(oneHourLater) &&
-                    !"cancelled".equals(appointment.getStatus())) {
-                upcoming.add(appointment);
-            }
-        }
-        return upcoming;
+    private boolean isTodayAppointment(Appointment appointment) {
+        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
+        return appointment.getStartTime() != null
+                && !appointment.getStartTime().isBefore(todayStart)
+                && appointment.getStartTime().isBefore(todayStart.plusDays(1))
+                && !"cancelled".equals(appointment.getStatus());
     }
 
-    private void loadTodayAppointments() {
-        DefaultTableModel model = (DefaultTableModel) todayAppointmentsTable.getModel();
-        model.setRowCount(0);
-
-        List<Appointment> appointments = appointmentService.getTodayAppointments();
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
-
-        for (Appointment appointment : appointments) {
-            String statusText = getStatusText(appointment.getStatus());
-            String actionText = getActionText(appointment.getStatus());
-
-            Object[] row = {
-                    appointment.getStartTime().format(timeFormatter) + "-" +
-                            appointment.getEndTime().format(timeFormatter),
-                    appointment.getStudentName(),
-                    "138****" + (appointment.getStudentId() % 10000),
-                    statusText,
-                    actionText
-            };
-            model.addRow(row);
+    private void showStatistics(DashboardData data) {
+        todayAppointmentsLabel.setText(String.valueOf(todayModel.getRowCount()));
+        pendingAppointmentsLabel.setText(String.valueOf(data.pendingCount));
+        upcomingAppointmentsLabel.setText(String.valueOf(data.upcomingCount));
+    }
+
+    private Object formatCell(Appointment appointment, int column) {
+        switch (column) {
+            case 0: return appointment.getStartTime() != null && appointment.getEndTime() != null ?
+                    appointment.getStartTime().format(TIME_FORMATTER) + "-" +
+                    appointment.getEndTime().format(TIME_FORMATTER) : "时间段已删除";
+            case 1: return appointment.getStudentName();
+            case 2: return "138****" + (appointment.getStudentId() % 10000);
+            case 3: return getStatusText(appointment.getStatus());
+            case 4: return getActionText(appointment.getStatus());
+            default: return null;
         }
     }
 
@@ -222,7 +262,7 @@ public class CounselorDashboardPanel extends JPanel {
     private void confirmSelectedAppointment() {
         int selectedRow = todayAppointmentsTable.getSelectedRow();
         if (selectedRow >= 0) {
-            List<Appointment> appointments = appointmentService.getTodayAppointments();
+            List<Appointment> appointments = todayModel.getItems();
             if (selectedRow < appointments.size()) {
                 Appointment appointment = appointments.get(selectedRow);
                 boolean success = appointmentService.confirmAppointment(appointment.getId());
@@ -237,7 +277,7 @@ public class CounselorDashboardPanel extends JPanel {
     private void completeSelectedAppointment() {
         int selectedRow = todayAppointmentsTable.getSelectedRow();
         if (selectedRow >= 0) {
-            List<Appointment> appointments = appointmentService.getTodayAppointments();
+            List<Appointment> appointments = todayModel.getItems();
             if (selectedRow < appointments.size()) {
                 Appointment appointment = appointments.get(selectedRow);
                 boolean success = appointmentService.completeAppointment(appointment.getId());
@@ -256,7 +296,7 @@ public class CounselorDashboardPanel extends JPanel {
                     "确定要取消这个预约吗？", "确认取消", JOptionPane.YES_NO_OPTION);
 
             if (result == JOptionPane.YES_OPTION) {
-                List<Appointment> appointments = appointmentService.getTodayAppointments();
+                List<Appointment> appointments = todayModel.getItems();
                 if (selectedRow < appointments.size()) {
                     Appointment appointment = appointments.get(selectedRow);
                     boolean success = appointmentService.cancelAppointment(appointment.getId());
@@ -268,4 +308,15 @@ public class CounselorDashboardPanel extends JPanel {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 工作台数据（后台加载）
+     */
+    private static class DashboardData {
+        ChangeToken changeToken;
+        ChangeSet<Appointment> changes;
+        List<Appointment> todayAppointments;
+        int pendingCount;
+        int upcomingCount;
+    }
+}
@@ -1,6 +1,6 @@
 package com.university.mentalhealth.ui;
 
-import com.university.mentalhealth.util.SessionManager;
+import com.university.mentalhealth.client.ServiceFactory;
 
 import javax.swing.*;
 import java.awt.*;
@@ -154,7 +154,7 @@ public class CounselorMainFrame extends JFrame {
         );
 
         if (result == JOptionPane.YES_OPTION) {
-            SessionManager.logout();
+            ServiceFactory.userService().logout();
             new LoginFrame().setVisible(true);
             this.dispose();
         }
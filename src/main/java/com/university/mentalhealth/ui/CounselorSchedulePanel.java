@@ -1,23 +1,40 @@
 package com.university.mentalhealth.ui;
 
+import com.university.mentalhealth.dao.ChangeSet;
+import com.university.mentalhealth.dao.ChangeToken;
 import com.university.mentalhealth.entity.Appointment;
 import com.university.mentalhealth.entity.TimeSlot;
+import com.university.mentalhealth.service.AppointmentEvents;
 import com.university.mentalhealth.service.AppointmentService;
 import com.university.mentalhealth.service.CounselorService;
 import com.university.mentalhealth.service.TimeSlotService;
 import com.university.mentalhealth.util.SessionManager;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
 import java.util.List;
 
 public class CounselorSchedulePanel extends JPanel {
     private final TimeSlotService timeSlotService;
     private final AppointmentService appointmentService;
     private final CounselorService counselorService;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
+
+    // 日程表显示的时间段数量上限
+    private static final int SCHEDULE_LIMIT = 50;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private ListTableModel<TimeSlot> scheduleModel;
+    private ListTableModel<Appointment> appointmentModel;
+    // 上次读取时的变更位置，定时刷新只读取之后的变更
+    private ChangeToken scheduleToken;
+    private ChangeToken appointmentToken;
 
     private JTable scheduleTable;
     private JTable appointmentTable;
@@ -33,6 +50,8 @@ public class CounselorSchedulePanel extends JPanel {
         initUI();
         loadSchedule();
         loadAppointments();
+        AutoRefresh.install(this, AutoRefresh.DEFAULT_INTERVAL, this::refreshChanges);
+        AutoRefresh.refreshOnEvents(this, AppointmentEvents.BUS, this::refreshChanges);
     }
 
     private void initUI() {
@@ -66,12 +85,9 @@ public class CounselorSchedulePanel extends JPanel {
         schedulePanel.setBorder(BorderFactory.createTitledBorder("我的工作时间表"));
 
         String[] scheduleColumns = {"开始时间", "结束时间", "状态", "操作"};
-        DefaultTableModel scheduleModel = new DefaultTableModel(scheduleColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 3; // 只有操作列可编辑
-            }
-        };
+        // 与 getRecentAvailableTimeSlots 的顺序一致：开始时间升序
+        scheduleModel = new ListTableModel<>(scheduleColumns, this::formatTimeSlotCell, TimeSlot::getId,
+                Comparator.comparing(TimeSlot::getStartTime).thenComparing(TimeSlot::getId));
 
         scheduleTable = new JTable(scheduleModel);
         JScrollPane scheduleScrollPane = new JScrollPane(scheduleTable);
@@ -82,12 +98,9 @@ public class CounselorSchedulePanel extends JPanel {
         appointmentPanel.setBorder(BorderFactory.createTitledBorder("预约管理"));
 
         String[] appointmentColumns = {"预约时间", "学生", "状态", "操作"};
-        DefaultTableModel appointmentModel = new DefaultTableModel(appointmentColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 3; // 只有操作列可编辑
-            }
-        };
+        // 与 getCounselorAppointments 的顺序一致：预约时间倒序
+        appointmentModel = new ListTableModel<>(appointmentColumns, this::formatAppointmentCell, Appointment::getId,
+                Comparator.comparing(Appointment::getStartTime).thenComparing(Appointment::getId).reversed());
 
         appointmentTable = new JTable(appointmentModel);
         JScrollPane appointmentScrollPane = new JScrollPane(appointmentTable);
@@ -113,45 +126,108 @@ public class CounselorSchedulePanel extends JPanel {
     }
 
     private void loadSchedule() {
-        DefaultTableModel model = (DefaultTableModel) scheduleTable.getModel();
-        model.setRowCount(0);
-
-        List<TimeSlot> timeSlots = timeSlotService.getRecentAvailableTimeSlots(50); // 最近50个时间段
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        loader.load("schedule", () -> {
+            // 先记录变更位置再读取，之后的定时刷新只读取这之后变化的时间段
+            ChangeToken token = timeSlotService.getTimeSlotChangeToken();
+            return new Loaded<>(token, timeSlotService.getRecentAvailableTimeSlots(SCHEDULE_LIMIT));
+        }, loaded -> {
+            scheduleToken = loaded.token;
+            scheduleModel.setItems(loaded.items);
+        });
+    }
 
-        for (TimeSlot timeSlot : timeSlots) {
-            String statusText = getStatusText(timeSlot.getStatus());
-            String actionText = "available".equals(timeSlot.getStatus()) ? "删除" : "查看";
+    private void loadAppointments() {
+        loader.load("appointments", () -> {
+            ChangeToken token = appointmentService.getAppointmentChangeToken();
+            return new Loaded<>(token, appointmentService.getCounselorAppointments());
+        }, loaded -> {
+            appointmentToken = loaded.token;
+            appointmentModel.setItems(loaded.items);
+        });
+    }
 
-            Object[] row = {
-                    timeSlot.getStartTime().format(formatter),
-                    timeSlot.getEndTime().format(formatter),
-                    statusText,
-                    actionText
-            };
-            model.addRow(row);
+    /**
+     * 定时刷新：只读取上次之后变化的时间段和预约并应用到表格，取不到变更位置时退回全量加载
+     */
+    private void refreshChanges() {
+        if (loader.isLoading()) {
+            return;
+        }
+        if (scheduleToken == null) {
+            loadSchedule();
+        } else {
+            ChangeToken token = scheduleToken;
+            loader.load("schedule", () -> timeSlotService.getTimeSlotChanges(token), this::applyScheduleChanges);
+        }
+        if (appointmentToken == null) {
+            loadAppointments();
+        } else {
+            ChangeToken token = appointmentToken;
+            loader.load("appointments", () -> appointmentService.getCounselorAppointmentChanges(token),
+                    this::applyAppointmentChanges);
         }
     }
 
-    private void loadAppointments() {
-        DefaultTableModel model = (DefaultTableModel) appointmentTable.getModel();
-        model.setRowCount(0);
+    private void applyScheduleChanges(ChangeSet<TimeSlot> changes) {
+        if (changes == null) {
+            return;
+        }
+        scheduleToken = changes.getNextToken();
+        if (scheduleToken == null) {
+            // 变更位置已过期，全量重新加载
+            loadSchedule();
+            return;
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        boolean wasFull = scheduleModel.getRowCount() >= SCHEDULE_LIMIT;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime end = now.plusWeeks(2);
+        scheduleModel.applyChanges(changes.getChanged(), changes.getDeletedIds(), timeSlot ->
+                "available".equals(timeSlot.getStatus())
+                        && !timeSlot.getStartTime().isBefore(now)
+                        && !timeSlot.getStartTime().isAfter(end));
+        // 只显示最近的 SCHEDULE_LIMIT 个时间段：超出上限，或原来已满而有行被移出时，
+        // 增量结果与全量查询不一致，重新加载
+        int rowCount = scheduleModel.getRowCount();
+        if (rowCount > SCHEDULE_LIMIT || (wasFull && rowCount < SCHEDULE_LIMIT)) {
+            loadSchedule();
+        }
+    }
 
-        List<Appointment> appointments = appointmentService.getCounselorAppointments();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private void applyAppointmentChanges(ChangeSet<Appointment> changes) {
+        if (changes == null) {
+            return;
+        }
+        appointmentToken = changes.getNextToken();
+        if (appointmentToken == null) {
+            loadAppointments();
+            return;
+        }
+        if (!changes.isEmpty()) {
+            appointmentModel.applyChanges(changes.getChanged(), changes.getDeletedIds(), appointment -> true);
+        }
+    }
 
-        for (Appointment appointment : appointments) {
-            String statusText = getStatusText(appointment.getStatus());
-            String actionText = getActionText(appointment.getStatus());
+    private Object formatTimeSlotCell(TimeSlot timeSlot, int column) {
+        switch (column) {
+            case 0: return timeSlot.getStartTime().format(DATE_TIME_FORMATTER);
+            case 1: return timeSlot.getEndTime().format(DATE_TIME_FORMATTER);
+            case 2: return getStatusText(timeSlot.getStatus());
+            case 3: return "available".equals(timeSlot.getStatus()) ? "删除" : "查看";
+            default: return null;
+        }
+    }
 
-            Object[] row = {
-                    appointment.getStartTime().format(formatter) + " - " +
-                            appointment.getEndTime().format(formatter).substring(11),
-                    appointment.getStudentName(),
-                    statusText,
-                    actionText
-            };
-            model.addRow(row);
+    private Object formatAppointmentCell(Appointment appointment, int column) {
+        switch (column) {
+            case 0: return appointment.getStartTime().format(DATE_TIME_FORMATTER) + " - " +
+                    appointment.getEndTime().format(DATE_TIME_FORMATTER).substring(11);
+            case 1: return appointment.getStudentName();
+            case 2: return getStatusText(appointment.getStatus());
+            case 3: return getActionText(appointment.getStatus());
+            default: return null;
         }
     }
 
@@ -207,9 +283,38 @@ public class CounselorSchedulePanel extends JPanel {
         JButton cancelButton = new JButton("取消");
 
         addButton.addActionListener(e -> {
-            // 这里实现添加时间段的逻辑
-            JOptionPane.showMessageDialog(dialog, "添加时间段功能开发中", "提示", JOptionPane.INFORMATION_MESSAGE);
+            LocalDateTime startTime;
+            LocalDateTime endTime;
+            int duration;
+            int breakMinutes;
+            try {
+                LocalDate date = LocalDate.parse(dateField.getText().trim());
+                startTime = LocalDateTime.of(date, LocalTime.parse(startTimeField.getText().trim()));
+                endTime = LocalDateTime.of(date, LocalTime.parse(endTimeField.getText().trim()));
+                duration = Integer.parseInt(durationField.getText().trim());
+                breakMinutes = Integer.parseInt(breakField.getText().trim());
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "日期或时间格式不正确", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            if (!timeSlotService.validateTimeSlot(startTime, endTime) || duration <= 0 || breakMinutes < 0) {
+                JOptionPane.showMessageDialog(dialog, "时间段设置不合理", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            TimeSlotService.BatchCreateResult result =
+                    timeSlotService.addBatchTimeSlotsWithResult(startTime, endTime, duration, breakMinutes);
+            if (result.failedCount > 0) {
+                JOptionPane.showMessageDialog(dialog, "添加时间段失败，请重试", "错误", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            JOptionPane.showMessageDialog(dialog,
+                    "成功添加 " + result.createdCount + " 个时间段，因时间冲突跳过 " + result.skippedCount + " 个",
+                    "成功", JOptionPane.INFORMATION_MESSAGE);
             dialog.dispose();
+            refreshData();
         });
 
         cancelButton.addActionListener(e -> dialog.dispose());
@@ -238,4 +343,17 @@ public class CounselorSchedulePanel extends JPanel {
         loadSchedule();
         loadAppointments();
     }
+
+    /**
+     * 全量加载的结果和加载前记录的变更位置
+     */
+    private static class Loaded<T> {
+        final ChangeToken token;
+        final List<T> items;
+
+        Loaded(ChangeToken token, List<T> items) {
+            this.token = token;
+            this.items = items;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.university.mentalhealth.ui;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按顺序保存实体列表的表格模型，支持只应用变更的行（增量刷新）。
+ * 单元格在第一次显示时才格式化，行被替换时只重新格式化该行。所有方法都应在 EDT 中调用。
+ */
+class ListTableModel<T> extends AbstractTableModel {
+    private final String[] columns;
+    private final CellFormatter<T> formatter;
+    private final ToIntFunction<? super T> idOf;
+    private final Comparator<? super T> order;
+    private final List<T> items = new ArrayList<>();
+    // 与 items 一一对应的已格式化单元格，未格式化时为 null
+    private final List<Object[]> cells = new ArrayList<>();
+
+    /**
+     * @param idOf  实体ID，用于匹配变更的行
+     * @param order 列表顺序，变更的行按该顺序插入
+     */
+    ListTableModel(String[] columns, CellFormatter<T> formatter, ToIntFunction<? super T> idOf,
+                   Comparator<? super T> order) {
+        this.columns = columns;
+        this.formatter = formatter;
+        this.idOf = idOf;
+        this.order = order;
+    }
+
+    /**
+     * 用全量加载的结果替换全部行（按给定顺序显示）
+     */
+    void setItems(List<T> newItems) {
+        items.clear();
+        cells.clear();
+        for (T item : newItems) {
+            items.add(item);
+            cells.add(null);
+        }
+        fireTableDataChanged();
+    }
+
+    List<T> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    T getItem(int row) {
+        return row >= 0 && row < items.size() ? items.get(row) : null;
+    }
+
+    /**
+     * 应用增量变更：删除 deletedIds 和不再满足 filter 的行，更新或按顺序插入满足 filter 的行。
+     * 返回是否有行发生变化
+     */
+    boolean applyChanges(Collection<T> changed, Collection<Integer> deletedIds, Predicate<? super T> filter) {
+        boolean modified = false;
+        for (Integer id : deletedIds) {
+            modified |= removeRow(indexOf(id));
+        }
+        for (T item : changed) {
+            int index = indexOf(idOf.applyAsInt(item));
+            if (!filter.test(item)) {
+                modified |= removeRow(index);
+            } else if (index >= 0 && isInOrder(index, item)) {
+                items.set(index, item);
+                cells.set(index, null);
+                fireTableRowsUpdated(index, index);
+                modified = true;
+            } else {
+                removeRow(index);
+                int insertAt = insertionPoint(item);
+                items.add(insertAt, item);
+                cells.add(insertAt, null);
+                fireTableRowsInserted(insertAt, insertAt);
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    @Override
+    public int getRowCount() {
+        return items.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Object[] rowCells = cells.get(row);
+        if (rowCells == null) {
+            rowCells = new Object[columns.length];
+            cells.set(row, rowCells);
+        }
+        Object value = rowCells[column];
+        if (value == null) {
+            value = formatter.format(items.get(row), column);
+            rowCells[column] = value;
+        }
+        return value;
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < items.size(); i++) {
+            if (idOf.applyAsInt(items.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean removeRow(int index) {
+        if (index < 0) {
+            return false;
+        }
+        items.remove(index);
+        cells.remove(index);
+        fireTableRowsDeleted(index, index);
+        return true;
+    }
+
+    /**
+     * 替换 index 处的行后是否仍然保持顺序
+     */
+    private boolean isInOrder(int index, T item) {
+        return (index == 0 || order.compare(items.get(index - 1), item) <= 0)
+                && (index == items.size() - 1 || order.compare(item, items.get(index + 1)) <= 0);
+    }
+
+    private int insertionPoint(T item) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(items.get(mid), item) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
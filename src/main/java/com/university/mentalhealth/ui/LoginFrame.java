@@ -1,19 +1,22 @@
 package com.university.mentalhealth.ui;
 
+import com.university.mentalhealth.client.ServiceFactory;
 import com.university.mentalhealth.entity.UserType;
-import com.university.mentalhealth.service.UserService;
+import com.university.mentalhealth.service.UserOperations;
+import com.university.mentalhealth.util.PasswordHasher;
 import com.university.mentalhealth.util.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.ExecutionException;
 
 public class LoginFrame extends JFrame {
-    protected static final Logger logger = Logger.getLogger(LoginFrame.class.getName());
+    protected static final Logger logger = LoggerFactory.getLogger(LoginFrame.class);
 
     private JTextField usernameField;
     private JPasswordField passwordField;
@@ -22,10 +25,10 @@ public class LoginFrame extends JFrame {
     private JButton exitButton;
     private JButton registerButton;
 
-    private final UserService userService;
+    private final UserOperations userService;
 
     public LoginFrame() {
-        this.userService = new UserService();
+        this.userService = ServiceFactory.userService();
         initUI();
         setupKeyboardShortcuts();
     }
@@ -206,13 +209,13 @@ public class LoginFrame extends JFrame {
             @Override
             protected Boolean doInBackground() throws Exception {
                 try {
-                    // 模拟网络延迟（可选）
-                    Thread.sleep(500);
-
                     // 执行登录验证
                     return userService.login(username, password, userType);
+                } catch (PasswordHasher.BusyException e) {
+                    // 交给 done() 提示稍后重试，不当作密码错误
+                    throw e;
                 } catch (Exception e) {
-                    logger.log(Level.SEVERE, "登录过程异常", e);
+                    logger.error("登录过程异常", e);
                     return false;
                 }
             }
@@ -234,9 +237,16 @@ public class LoginFrame extends JFrame {
                         passwordField.setText("");
                         passwordField.requestFocus();
                     }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof PasswordHasher.BusyException) {
+                        showError("登录人数较多，请稍后重试");
+                    } else {
+                        showError("登录过程中发生错误: " + e.getCause().getMessage());
+                        logger.error("登录结果处理异常", e.getCause());
+                    }
                 } catch (Exception e) {
                     showError("登录过程中发生错误: " + e.getMessage());
-                    logger.log(Level.SEVERE, "登录结果处理异常", e);
+                    logger.error("登录结果处理异常", e);
                 }
             }
         }.execute();
@@ -0,0 +1,288 @@
+package com.university.mentalhealth.ui;
+
+import com.university.mentalhealth.dao.Page;
+import com.university.mentalhealth.dao.PageCursor;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按页加载的表格模型：数据来自键集分页的 PageSource，只在表格需要显示某行时才加载所在的页。
+ * 行数随已发现的页增长，显示到最后一行时自动加载下一页；
+ * 只缓存最近访问的若干页（实体和已格式化的单元格），其余页只保留起始游标，滚动回来时重新加载。
+ * 单元格在第一次显示时才格式化，格式化结果随页缓存。所有方法都应在 EDT 中调用。
+ */
+class PagedTableModel<T> extends AbstractTableModel {
+    // 尚未加载的行显示的占位文本
+    private static final String LOADING = "加载中...";
+
+    /**
+     * 分页数据源，在后台线程中调用
+     */
+    interface PageSource<T> {
+        Page<T> loadPage(PageCursor cursor, int pageSize) throws Exception;
+    }
+
+    private final String[] columns;
+    private final CellFormatter<T> formatter;
+    private final BackgroundLoader loader;
+    private final int pageSize;
+    private final LinkedHashMap<Integer, LoadedPage<T>> cache;
+
+    private PageSource<T> source;
+    // 第 k 页的起始游标（第 0 页为 null）
+    private final List<PageCursor> pageStarts = new ArrayList<>();
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private int rowCount;
+    private boolean hasMore;
+    private long estimatedTotal = -1;
+    // 每次 reset 递增，用于丢弃旧数据源的页
+    private int generation;
+
+    PagedTableModel(String[] columns, CellFormatter<T> formatter, BackgroundLoader loader,
+                    int pageSize, int maxCachedPages) {
+        this.columns = columns;
+        this.formatter = formatter;
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.cache = new LinkedHashMap<Integer, LoadedPage<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, LoadedPage<T>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * 更换数据源（例如筛选条件改变），清空表格并加载第一页
+     */
+    void reset(PageSource<T> source) {
+        this.source = source;
+        generation++;
+        cache.clear();
+        pageStarts.clear();
+        loadingPages.clear();
+        pageStarts.add(null);
+        rowCount = 0;
+        hasMore = true;
+        estimatedTotal = -1;
+        fireTableDataChanged();
+        requestPage(0);
+    }
+
+    /**
+     * 重新加载当前数据源
+     */
+    void refresh() {
+        if (source != null) {
+            reset(source);
+        }
+    }
+
+    /**
+     * 返回某行对应的实体，所在页尚未加载时返回 null
+     */
+    T getItem(int row) {
+        LoadedPage<T> page = cache.get(row / pageSize);
+        if (page == null) {
+            return null;
+        }
+        int index = row % pageSize;
+        return index < page.items.size() ? page.items.get(index) : null;
+    }
+
+    /**
+     * 应用增量变更：用变更后的实体替换已加载页中的同一行（按ID匹配），未加载的页在下次加载时自然是新数据。
+     * 已加载的行被删除、或变更后不再满足 filter（当前数据源的筛选条件）时，后面的行号都会移动，
+     * 改为重新加载当前数据源。新增的行不会插入已加载的页，需要时调用 refresh()。
+     * 返回更新的行数，重新加载时返回 -1
+     */
+    int applyChanges(Collection<T> changed, Collection<Integer> deletedIds,
+                     ToIntFunction<? super T> idOf, Predicate<? super T> filter) {
+        for (Integer id : deletedIds) {
+            if (loadedRow(id, idOf) >= 0) {
+                refresh();
+                return -1;
+            }
+        }
+        for (T item : changed) {
+            if (!filter.test(item) && loadedRow(idOf.applyAsInt(item), idOf) >= 0) {
+                refresh();
+                return -1;
+            }
+        }
+
+        int updated = 0;
+        for (T item : changed) {
+            int id = idOf.applyAsInt(item);
+            for (Map.Entry<Integer, LoadedPage<T>> entry : cache.entrySet()) {
+                LoadedPage<T> page = entry.getValue();
+                int index = page.indexOf(id, idOf);
+                if (index >= 0) {
+                    page.items.set(index, item);
+                    page.cells[index] = null;
+                    int row = entry.getKey() * pageSize + index;
+                    fireTableRowsUpdated(row, row);
+                    updated++;
+                    break;
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * 某个ID在已加载页中的行号，不在已加载的页中时返回 -1（不改变页的访问顺序）
+     */
+    private int loadedRow(int id, ToIntFunction<? super T> idOf) {
+        for (Map.Entry<Integer, LoadedPage<T>> entry : cache.entrySet()) {
+            int index = entry.getValue().indexOf(id, idOf);
+            if (index >= 0) {
+                return entry.getKey() * pageSize + index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 第一页返回的总行数估计值，未知时为 -1
+     */
+    long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int pageIndex = row / pageSize;
+        // 显示到最后一行时加载下一页
+        if (row == rowCount - 1 && hasMore) {
+            requestPage(pageStarts.size() - 1);
+        }
+
+        LoadedPage<T> page = cache.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return LOADING;
+        }
+        int index = row % pageSize;
+        if (index >= page.items.size()) {
+            return null;
+        }
+        Object[] cells = page.cells[index];
+        if (cells == null) {
+            cells = new Object[columns.length];
+            page.cells[index] = cells;
+        }
+        Object value = cells[column];
+        if (value == null) {
+            value = formatter.format(page.items.get(index), column);
+            cells[column] = value;
+        }
+        return value;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (source == null || pageIndex >= pageStarts.size() || cache.containsKey(pageIndex)
+                || !loadingPages.add(pageIndex)) {
+            return;
+        }
+        PageSource<T> currentSource = source;
+        PageCursor cursor = pageStarts.get(pageIndex);
+        int requestGeneration = generation;
+        loader.load("page-" + pageIndex, () -> currentSource.loadPage(cursor, pageSize),
+                page -> pageLoaded(requestGeneration, pageIndex, page),
+                e -> pageFailed(requestGeneration, pageIndex));
+    }
+
+    /**
+     * 加载失败或因线程池队列已满被拒绝：清除加载中标记，该页下次显示时重新请求，
+     * 否则这一页会一直停留在“加载中”
+     */
+    private void pageFailed(int requestGeneration, int pageIndex) {
+        if (requestGeneration == generation) {
+            loadingPages.remove(pageIndex);
+        }
+    }
+
+    private void pageLoaded(int requestGeneration, int pageIndex, Page<T> page) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        loadingPages.remove(pageIndex);
+        cache.put(pageIndex, new LoadedPage<>(page.getItems()));
+        if (pageIndex == 0) {
+            estimatedTotal = page.getEstimatedTotal();
+        }
+
+        int firstRow = pageIndex * pageSize;
+        if (pageIndex == pageStarts.size() - 1) {
+            // 新发现的页：追加行，并记录下一页的起始游标
+            int oldCount = rowCount;
+            rowCount = firstRow + page.getItems().size();
+            hasMore = page.hasNext();
+            if (hasMore) {
+                pageStarts.add(page.getNextCursor());
+            }
+            if (rowCount > oldCount) {
+                fireTableRowsInserted(oldCount, rowCount - 1);
+            }
+            if (oldCount > firstRow) {
+                fireTableRowsUpdated(firstRow, Math.min(oldCount, rowCount) - 1);
+            }
+        } else if (!page.getItems().isEmpty()) {
+            // 重新加载被淘汰的页
+            fireTableRowsUpdated(firstRow, firstRow + page.getItems().size() - 1);
+        }
+    }
+
+    /**
+     * 已加载的一页
+     */
+    private static final class LoadedPage<T> {
+        final List<T> items;
+        // 已格式化的单元格，按行懒加载
+        final Object[][] cells;
+
+        LoadedPage(List<T> items) {
+            this.items = new ArrayList<>(items);
+            this.cells = new Object[items.size()][];
+        }
+
+        int indexOf(int id, ToIntFunction<? super T> idOf) {
+            for (int i = 0; i < items.size(); i++) {
+                if (idOf.applyAsInt(items.get(i)) == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
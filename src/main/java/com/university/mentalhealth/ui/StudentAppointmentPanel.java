@@ -1,11 +1,13 @@
 package com.university.mentalhealth.ui;
 
+import com.university.mentalhealth.client.ServiceFactory;
 import com.university.mentalhealth.entity.Appointment;
 import com.university.mentalhealth.entity.Counselor;
 import com.university.mentalhealth.entity.TimeSlot;
+import com.university.mentalhealth.service.AppointmentOperations;
 import com.university.mentalhealth.service.AppointmentService;
-import com.university.mentalhealth.service.CounselorService;
-import com.university.mentalhealth.service.TimeSlotService;
+import com.university.mentalhealth.service.CounselorOperations;
+import com.university.mentalhealth.service.TimeSlotOperations;
 import com.university.mentalhealth.util.SessionManager;
 
 import javax.swing.*;
@@ -13,13 +15,13 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 public class StudentAppointmentPanel extends JPanel {
-    private final AppointmentService appointmentService;
-    private final CounselorService counselorService;
-    private final TimeSlotService timeSlotService;
+    private final AppointmentOperations appointmentService;
+    private final CounselorOperations counselorService;
+    private final TimeSlotOperations timeSlotService;
 
     private JComboBox<Counselor> counselorComboBox;
     private JTable timeSlotTable;
@@ -29,10 +31,16 @@ public class StudentAppointmentPanel extends JPanel {
     private JButton cancelButton;
     private JButton refreshButton;
 
+    // 时间段表格当前显示的可预约时间段
+    private List<TimeSlot> bookableTimeSlots = new ArrayList<>();
+    // 我的预约表格当前显示的预约
+    private List<Appointment> studentAppointments = new ArrayList<>();
+    private final BackgroundLoader loader = new BackgroundLoader(this);
+
     public StudentAppointmentPanel() {
-        this.appointmentService = new AppointmentService();
-        this.counselorService = new CounselorService();
-        this.timeSlotService = new TimeSlotService();
+        this.appointmentService = ServiceFactory.appointmentService();
+        this.counselorService = ServiceFactory.counselorService();
+        this.timeSlotService = ServiceFactory.timeSlotService();
 
         initUI();
         loadCounselors();
@@ -128,8 +136,11 @@ public class StudentAppointmentPanel extends JPanel {
     }
 
     private void loadCounselors() {
+        loader.load("counselors", counselorService::getAvailableCounselors, this::showCounselors);
+    }
+
+    private void showCounselors(List<Counselor> counselors) {
         counselorComboBox.removeAllItems();
-        List<Counselor> counselors = counselorService.getAvailableCounselors();
         for (Counselor counselor : counselors) {
             counselorComboBox.addItem(counselor);
         }
@@ -139,37 +150,44 @@ public class StudentAppointmentPanel extends JPanel {
         Counselor selectedCounselor = (Counselor) counselorComboBox.getSelectedItem();
         if (selectedCounselor == null) return;
 
-        DefaultTableModel model = (DefaultTableModel) timeSlotTable.getModel();
-        model.setRowCount(0);
-
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime endDate = now.plusWeeks(2); // 未来两周
 
-        List<TimeSlot> timeSlots = timeSlotService.getAvailableTimeSlots(
-                selectedCounselor.getId(), now, endDate
-        );
+        // 一次查询得到可预约的时间段；切换咨询师时取消上一次尚未完成的加载
+        loader.load("timeSlots",
+                () -> timeSlotService.getBookableTimeSlots(selectedCounselor.getId(), now, endDate),
+                timeSlots -> showTimeSlots(selectedCounselor, timeSlots));
+    }
 
+    private void showTimeSlots(Counselor selectedCounselor, List<TimeSlot> timeSlots) {
+        DefaultTableModel model = (DefaultTableModel) timeSlotTable.getModel();
+        model.setRowCount(0);
+
+        // 表格行与列表一一对应
+        bookableTimeSlots = timeSlots;
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-        for (TimeSlot timeSlot : timeSlots) {
-            if (timeSlotService.isTimeSlotBookable(timeSlot.getId())) {
-                Object[] row = {
-                        timeSlot.getStartTime().format(formatter) + " - " +
-                                timeSlot.getEndTime().format(formatter).substring(11),
-                        selectedCounselor.getName(),
-                        "可预约",
-                        "预约"
-                };
-                model.addRow(row);
-            }
+        for (TimeSlot timeSlot : bookableTimeSlots) {
+            Object[] row = {
+                    timeSlot.getStartTime().format(formatter) + " - " +
+                            timeSlot.getEndTime().format(formatter).substring(11),
+                    selectedCounselor.getName(),
+                    "可预约",
+                    "预约"
+            };
+            model.addRow(row);
         }
     }
 
     private void loadAppointments() {
+        loader.load("appointments", appointmentService::getStudentAppointments, this::showAppointments);
+    }
+
+    private void showAppointments(List<Appointment> appointments) {
         DefaultTableModel model = (DefaultTableModel) appointmentTable.getModel();
         model.setRowCount(0);
 
-        List<Appointment> appointments = appointmentService.getStudentAppointments();
+        studentAppointments = appointments;
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
         for (Appointment appointment : appointments) {
@@ -212,27 +230,27 @@ public class StudentAppointmentPanel extends JPanel {
         Counselor selectedCounselor = (Counselor) counselorComboBox.getSelectedItem();
         if (selectedCounselor == null) return;
 
-        DefaultTableModel model = (DefaultTableModel) timeSlotTable.getModel();
-        String timeRange = (String) model.getValueAt(selectedRow, 0);
-
-        // 从表格数据中解析出时间段ID（这里需要实际的时间段ID）
-        // 在实际应用中，应该在表格中存储时间段ID
-        List<TimeSlot> timeSlots = timeSlotService.getAvailableTimeSlots(
-                selectedCounselor.getId(), LocalDateTime.now(), LocalDateTime.now().plusWeeks(2)
-        );
-
-        if (selectedRow < timeSlots.size()) {
-            TimeSlot selectedTimeSlot = timeSlots.get(selectedRow);
+        if (selectedRow < bookableTimeSlots.size()) {
+            TimeSlot selectedTimeSlot = bookableTimeSlots.get(selectedRow);
             String notes = notesTextArea.getText().trim();
 
-            Optional<Appointment> result = appointmentService.createAppointment(
+            AppointmentService.BookingResult result = appointmentService.bookAppointment(
                     selectedTimeSlot.getId(), notes
             );
 
-            if (result.isPresent()) {
+            if (result.isBooked()) {
                 JOptionPane.showMessageDialog(this, "预约成功！", "成功", JOptionPane.INFORMATION_MESSAGE);
                 refreshData();
                 notesTextArea.setText("");
+            } else if (result.getStatus() == AppointmentService.BookingStatus.CONFLICT) {
+                JOptionPane.showMessageDialog(this, "该时间段与您已有的预约冲突", "提示", JOptionPane.WARNING_MESSAGE);
+            } else if (result.getStatus() == AppointmentService.BookingStatus.ALREADY_TAKEN) {
+                JOptionPane.showMessageDialog(this, "该时间段已被预约，请选择其他时间段", "提示", JOptionPane.WARNING_MESSAGE);
+                refreshData();
+            } else if (result.getStatus() == AppointmentService.BookingStatus.ERROR) {
+                JOptionPane.showMessageDialog(this, "系统暂时无法确认预约结果，请在“我的预约”中查看后再重试",
+                        "错误", JOptionPane.ERROR_MESSAGE);
+                refreshData();
             } else {
                 JOptionPane.showMessageDialog(this, "预约失败，请重试", "错误", JOptionPane.ERROR_MESSAGE);
             }
@@ -243,7 +261,7 @@ public class StudentAppointmentPanel extends JPanel {
         int selectedRow = appointmentTable.getSelectedRow();
         if (selectedRow < 0) return;
 
-        List<Appointment> appointments = appointmentService.getStudentAppointments();
+        List<Appointment> appointments = studentAppointments;
         if (selectedRow < appointments.size()) {
             Appointment appointment = appointments.get(selectedRow);
 
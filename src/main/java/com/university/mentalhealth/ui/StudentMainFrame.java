@@ -1,10 +1,13 @@
 package com.university.mentalhealth.ui;
 
+import com.university.mentalhealth.client.ServiceFactory;
 import com.university.mentalhealth.entity.*;
-import com.university.mentalhealth.service.AssessmentService;
-import com.university.mentalhealth.service.StudentService;
+import com.university.mentalhealth.service.AssessmentOperations;
+import com.university.mentalhealth.service.StudentOperations;
 import com.university.mentalhealth.util.SessionManager;
 import com.university.mentalhealth.ui.StudentAppointmentPanel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
@@ -14,15 +17,14 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Logger;
 
 public class StudentMainFrame extends JFrame {
-    private static final Logger logger = Logger.getLogger(StudentMainFrame.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(StudentMainFrame.class);
 
     private JTabbedPane tabbedPane;
-    private StudentService studentService;
+    private StudentOperations studentService;
     private Student currentStudent;
-    private AssessmentService assessmentService;
+    private AssessmentOperations assessmentService;
 
     // 个人信息面板的组件
     private JTextField studentIdField;
@@ -33,8 +35,8 @@ public class StudentMainFrame extends JFrame {
     private JTextField emergencyPhoneField;
 
     public StudentMainFrame() {
-        this.studentService = new StudentService();
-        this.assessmentService = new AssessmentService();
+        this.studentService = ServiceFactory.studentService();
+        this.assessmentService = ServiceFactory.assessmentService();
         loadCurrentStudent();
         initUI();
     }
@@ -43,9 +45,9 @@ public class StudentMainFrame extends JFrame {
         Optional<Student> studentOpt = studentService.getCurrentStudent();
         if (studentOpt.isPresent()) {
             currentStudent = studentOpt.get();
-            logger.info("加载当前学生信息: " + currentStudent.getDisplayInfo());
+            logger.info("加载当前学生信息: {}", currentStudent.getDisplayInfo());
         } else {
-            logger.warning("无法加载当前学生信息");
+            logger.warn("无法加载当前学生信息");
             JOptionPane.showMessageDialog(this, "无法加载学生信息，请重新登录", "错误", JOptionPane.ERROR_MESSAGE);
             new LoginFrame().setVisible(true);
             this.dispose();
@@ -427,6 +429,7 @@ public class StudentMainFrame extends JFrame {
         );
 
         if (result == JOptionPane.YES_OPTION) {
+            ServiceFactory.userService().logout();
             // 回到登录界面
             new LoginFrame().setVisible(true);
             this.dispose();
@@ -3,6 +3,7 @@ package com.university.mentalhealth.ui;
 import com.university.mentalhealth.entity.User;
 import com.university.mentalhealth.entity.UserType;
 import com.university.mentalhealth.service.UserService;
+import com.university.mentalhealth.util.PasswordHasher;
 import com.university.mentalhealth.util.PasswordUtil;
 
 import javax.swing.*;
@@ -19,6 +20,8 @@ public class UserDialog extends JDialog {
     private JPasswordField confirmPasswordField;
     private JComboBox<UserType> userTypeComboBox;
     private JCheckBox activeCheckBox;
+    private JButton saveButton;
+    private final BackgroundLoader loader = new BackgroundLoader(getRootPane());
 
     public UserDialog(Frame parent, String title, User user) {
         super(parent, title, true);
@@ -71,7 +74,7 @@ public class UserDialog extends JDialog {
 
         // 按钮面板
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 10));
-        JButton saveButton = new JButton("保存");
+        saveButton = new JButton("保存");
         JButton cancelButton = new JButton("取消");
 
         saveButton.addActionListener(e -> saveUser());
@@ -100,54 +103,66 @@ public class UserDialog extends JDialog {
             return;
         }
 
-        try {
-            String username = usernameField.getText().trim();
-            String password = new String(passwordField.getPassword());
-            UserType userType = (UserType) userTypeComboBox.getSelectedItem();
-            boolean isActive = activeCheckBox.isSelected();
-
-            if (existingUser == null) {
-                // 新建用户
-                User newUser = new User();
-                newUser.setUsername(username);
-                newUser.setPasswordHash(password);
-                newUser.setType(userType);
-                newUser.setCreatedAt(LocalDateTime.now());
-
-                boolean saved = userService.register(newUser);
-                if (saved) {
-                    success = true;
-                    JOptionPane.showMessageDialog(this, "用户创建成功", "成功", JOptionPane.INFORMATION_MESSAGE);
-                    dispose();
-                } else {
-                    JOptionPane.showMessageDialog(this, "用户创建失败", "错误", JOptionPane.ERROR_MESSAGE);
-                }
-            } else {
-                // 编辑用户
-                existingUser.setType(userType);
+        String username = usernameField.getText().trim();
+        String password = new String(passwordField.getPassword());
+        UserType userType = (UserType) userTypeComboBox.getSelectedItem();
+        boolean isActive = activeCheckBox.isSelected();
 
-                // 如果密码不为空，则更新密码
-                if (!password.isEmpty()) {
-                    existingUser.setPasswordHash(password);
-                }
+        // 密码摘要计算要几十毫秒到数秒（排队时），和数据库写入一起放到后台执行，保存期间不能重复提交
+        saveButton.setEnabled(false);
+        loader.load("save", () -> existingUser == null ? createUser(username, password, userType)
+                : updateUser(password, userType, isActive), this::saveFinished, this::saveFailed);
+    }
 
-                boolean updated = userService.updateUser(existingUser);
-                if (updated) {
-                    // 更新激活状态
-                    if (isActive) {
-                        userService.enableUser(existingUser.getId());
-                    } else {
-                        userService.disableUser(existingUser.getId());
-                    }
-
-                    success = true;
-                    JOptionPane.showMessageDialog(this, "用户更新成功", "成功", JOptionPane.INFORMATION_MESSAGE);
-                    dispose();
-                } else {
-                    JOptionPane.showMessageDialog(this, "用户更新失败", "错误", JOptionPane.ERROR_MESSAGE);
-                }
+    /**
+     * 后台执行：新建用户
+     */
+    private boolean createUser(String username, String password, UserType userType) {
+        User newUser = new User();
+        newUser.setUsername(username);
+        newUser.setPasswordHash(password);
+        newUser.setType(userType);
+        newUser.setCreatedAt(LocalDateTime.now());
+        return userService.register(newUser);
+    }
+
+    /**
+     * 后台执行：修改用户类型、状态，密码不为空时同时修改密码
+     */
+    private boolean updateUser(String password, UserType userType, boolean isActive) {
+        existingUser.setType(userType);
+        if (!password.isEmpty()) {
+            existingUser.setPasswordHash(PasswordUtil.encryptPassword(password));
+        }
+
+        boolean updated = userService.updateUser(existingUser);
+        if (updated) {
+            if (isActive) {
+                userService.enableUser(existingUser.getId());
+            } else {
+                userService.disableUser(existingUser.getId());
             }
-        } catch (Exception e) {
+        }
+        return updated;
+    }
+
+    private void saveFinished(boolean saved) {
+        saveButton.setEnabled(true);
+        String action = existingUser == null ? "创建" : "更新";
+        if (saved) {
+            success = true;
+            JOptionPane.showMessageDialog(this, "用户" + action + "成功", "成功", JOptionPane.INFORMATION_MESSAGE);
+            dispose();
+        } else {
+            JOptionPane.showMessageDialog(this, "用户" + action + "失败", "错误", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void saveFailed(Exception e) {
+        saveButton.setEnabled(true);
+        if (e instanceof PasswordHasher.BusyException) {
+            JOptionPane.showMessageDialog(this, "系统繁忙，暂时无法处理密码，请稍后重试", "提示", JOptionPane.WARNING_MESSAGE);
+        } else {
             JOptionPane.showMessageDialog(this, "操作失败: " + e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
         }
     }
@@ -5,9 +5,8 @@ import com.university.mentalhealth.entity.UserType;
 import com.university.mentalhealth.service.UserService;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class UserManagementPanel extends JPanel {
@@ -15,6 +14,11 @@ public class UserManagementPanel extends JPanel {
     private JTable userTable;
     private JTextField searchField;
     private JComboBox<UserType> userTypeFilter;
+    private PagedTableModel<User> tableModel;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 10;
 
     public UserManagementPanel() {
         this.userService = new UserService();
@@ -73,14 +77,10 @@ public class UserManagementPanel extends JPanel {
 
         // 用户表格
         String[] columns = {"ID", "用户名", "用户类型", "状态", "注册时间", "最后登录", "操作"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 6; // 只有操作列可编辑
-            }
-        };
+        // 按页加载，滚动到哪里加载到哪里，单元格显示时才格式化
+        tableModel = new PagedTableModel<>(columns, this::formatCell, loader, PAGE_SIZE, MAX_CACHED_PAGES);
 
-        userTable = new JTable(model);
+        userTable = new JTable(tableModel);
         userTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane scrollPane = new JScrollPane(userTable);
         add(scrollPane, BorderLayout.CENTER);
@@ -105,107 +105,55 @@ public class UserManagementPanel extends JPanel {
     }
 
     private void loadUsers() {
-        DefaultTableModel model = (DefaultTableModel) userTable.getModel();
-        model.setRowCount(0);
-
-        List<User> users = userService.getAllUsers();
-        updateStatistics(users);
-
-        for (User user : users) {
-            String status = user.toString().contains("is_active=true") ? "活跃" : "禁用";
-            String lastLogin = "从未登录"; // 实际应该从数据库获取
-
-            Object[] row = {
-                    user.getId(),
-                    user.getUsername(),
-                    user.getType().getDisplayName(),
-                    status,
-                    user.getCreatedAt().toString().substring(0, 10),
-                    lastLogin,
-                    "操作"
-            };
-            model.addRow(row);
-        }
+        UserType type = (UserType) userTypeFilter.getSelectedItem();
+        String keyword = searchField.getText().trim();
+
+        loader.load("statistics", userService::getUserCountsByType, this::updateStatistics);
+        tableModel.reset((cursor, pageSize) -> userService.getUsersPage(type, keyword, cursor, pageSize));
     }
 
-    private void updateStatistics(List<User> users) {
-        int total = users.size();
-        int students = 0;
-        int counselors = 0;
-        int admins = 0;
-        int active = 0;
-
-        for (User user : users) {
-            switch (user.getType()) {
-                case student: students++; break;
-                case counselor: counselors++; break;
-                case admin: admins++; break;
-            }
-            if (user.toString().contains("is_active=true")) {
-                active++;
-            }
-        }
+    private void updateStatistics(Map<UserType, Integer> counts) {
+        int students = counts.getOrDefault(UserType.student, 0);
+        int counselors = counts.getOrDefault(UserType.counselor, 0);
+        int admins = counts.getOrDefault(UserType.admin, 0);
+        int total = students + counselors + admins;
 
-        // 更新统计标签
+        // 更新统计标签（列表中只包含活跃用户）
         Component[] components = ((JPanel) getComponent(2)).getComponents();
         ((JLabel) components[0]).setText("总用户: " + total);
         ((JLabel) components[1]).setText("学生: " + students);
         ((JLabel) components[2]).setText("咨询师: " + counselors);
         ((JLabel) components[3]).setText("管理员: " + admins);
-        ((JLabel) components[4]).setText("活跃: " + active);
+        ((JLabel) components[4]).setText("活跃: " + total);
     }
 
     private void searchUsers() {
-        String keyword = searchField.getText().trim();
-        if (keyword.isEmpty()) {
-            loadUsers();
-            return;
-        }
-
-        DefaultTableModel model = (DefaultTableModel) userTable.getModel();
-        model.setRowCount(0);
-
-        List<User> users = userService.getAllUsers();
-        for (User user : users) {
-            if (user.getUsername().contains(keyword) ||
-                    String.valueOf(user.getId()).contains(keyword)) {
-                addUserToTable(user, model);
-            }
-        }
+        loadUsers();
     }
 
     private void filterUsers() {
-        UserType selectedType = (UserType) userTypeFilter.getSelectedItem();
-        if (selectedType == null) {
-            loadUsers();
-            return;
-        }
-
-        DefaultTableModel model = (DefaultTableModel) userTable.getModel();
-        model.setRowCount(0);
+        loadUsers();
+    }
 
-        List<User> users = userService.getAllUsers();
-        for (User user : users) {
-            if (user.getType() == selectedType) {
-                addUserToTable(user, model);
-            }
+    private Object formatCell(User user, int column) {
+        switch (column) {
+            case 0: return user.getId();
+            case 1: return user.getUsername();
+            case 2: return user.getType().getDisplayName();
+            case 3: return user.toString().contains("is_active=true") ? "活跃" : "禁用";
+            case 4: return user.getCreatedAt() != null ? user.getCreatedAt().toString().substring(0, 10) : "";
+            case 5: return "从未登录";
+            case 6: return "操作";
+            default: return null;
         }
     }
 
-    private void addUserToTable(User user, DefaultTableModel model) {
-        String status = user.toString().contains("is_active=true") ? "活跃" : "禁用";
-        String lastLogin = "从未登录";
-
-        Object[] row = {
-                user.getId(),
-                user.getUsername(),
-                user.getType().getDisplayName(),
-                status,
-                user.getCreatedAt().toString().substring(0, 10),
-                lastLogin,
-                "操作"
-        };
-        model.addRow(row);
+    /**
+     * 选中行对应的用户，未选中或所在页尚未加载时返回 null
+     */
+    private User getSelectedUser() {
+        int selectedRow = userTable.getSelectedRow();
+        return selectedRow >= 0 ? tableModel.getItem(selectedRow) : null;
     }
 
     private void addUser() {
@@ -217,10 +165,9 @@ public class UserManagementPanel extends JPanel {
     }
 
     private void editUser() {
-        int selectedRow = userTable.getSelectedRow();
-        if (selectedRow >= 0) {
-            int userId = (Integer) userTable.getValueAt(selectedRow, 0);
-            Optional<User> userOpt = userService.getUserById(userId);
+        User selectedUser = getSelectedUser();
+        if (selectedUser != null) {
+            Optional<User> userOpt = userService.getUserById(selectedUser.getId());
             if (userOpt.isPresent()) {
                 UserDialog dialog = new UserDialog((Frame) SwingUtilities.getWindowAncestor(this), "编辑用户", userOpt.get());
                 dialog.setVisible(true);
@@ -234,10 +181,10 @@ public class UserManagementPanel extends JPanel {
     }
 
     private void toggleUserStatus() {
-        int selectedRow = userTable.getSelectedRow();
-        if (selectedRow >= 0) {
-            int userId = (Integer) userTable.getValueAt(selectedRow, 0);
-            String currentStatus = (String) userTable.getValueAt(selectedRow, 3);
+        User selectedUser = getSelectedUser();
+        if (selectedUser != null) {
+            int userId = selectedUser.getId();
+            String currentStatus = (String) formatCell(selectedUser, 3);
             boolean newStatus = !"活跃".equals(currentStatus);
 
             int confirm = JOptionPane.showConfirmDialog(this,
@@ -259,10 +206,10 @@ public class UserManagementPanel extends JPanel {
     }
 
     private void resetPassword() {
-        int selectedRow = userTable.getSelectedRow();
-        if (selectedRow >= 0) {
-            int userId = (Integer) userTable.getValueAt(selectedRow, 0);
-            String username = (String) userTable.getValueAt(selectedRow, 1);
+        User selectedUser = getSelectedUser();
+        if (selectedUser != null) {
+            int userId = selectedUser.getId();
+            String username = selectedUser.getUsername();
 
             String newPassword = JOptionPane.showInputDialog(this,
                     "为用户 " + username + " 设置新密码:", "重置密码", JOptionPane.QUESTION_MESSAGE);
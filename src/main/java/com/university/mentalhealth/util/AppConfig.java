@@ -0,0 +1,73 @@
+package com.university.mentalhealth.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * 应用配置（app.properties），数据库配置仍在 db.properties 中
+ */
+public final class AppConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
+    private static final Properties prop = new Properties();
+
+    static {
+        loadProperties();
+    }
+
+    private AppConfig() {
+    }
+
+    private static void loadProperties() {
+        // 与 db.properties 相同，临时使用文件路径
+        String configPath = "src/main/resources/app.properties";
+        try (InputStream input = new FileInputStream(configPath)) {
+            prop.load(new InputStreamReader(input, StandardCharsets.UTF_8));
+            logger.info("应用配置文件加载成功");
+        } catch (IOException e) {
+            logger.warn("加载应用配置失败，使用默认配置", e);
+        }
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = prop.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = prop.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("配置项格式错误: {}={}，使用默认值 {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = prop.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("配置项格式错误: {}={}，使用默认值 {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = prop.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+}
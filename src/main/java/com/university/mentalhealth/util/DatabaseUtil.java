@@ -1,20 +1,38 @@
 package com.university.mentalhealth.util;
 
+import com.university.mentalhealth.metrics.QueryMetrics;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DatabaseUtil {
-    private static final Logger logger = Logger.getLogger(DatabaseUtil.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseUtil.class);
     private static Properties prop = new Properties();
+    private static HikariDataSource dataSource;
+    private static int streamFetchSize;
+
+    // 获取连接的等待时间统计（纳秒）
+    private static final AtomicLong acquireCount = new AtomicLong();
+    private static final AtomicLong acquireWaitNanos = new AtomicLong();
+    private static final AtomicLong maxAcquireWaitNanos = new AtomicLong();
+    private static final AtomicLong acquireFailures = new AtomicLong();
 
     static {
         loadProperties();
         loadDriver();
+        initDataSource();
     }
 
     private static void loadProperties() {
@@ -26,7 +44,15 @@ public class DatabaseUtil {
                 logger.info("数据库配置文件加载成功");
             }
         } catch (IOException e) {
-            logger.log(Level.SEVERE, "加载数据库配置失败", e);
+            logger.error("加载数据库配置失败", e);
+        }
+
+        // 同名的系统属性（-Ddb.url=... 等）优先，用于压力测试等连接其他数据库的场景
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("db.")) {
+                prop.setProperty(name, System.getProperty(name));
+                logger.info("数据库配置由系统属性覆盖: {}", name);
+            }
         }
     }
 
@@ -35,32 +61,157 @@ public class DatabaseUtil {
             Class.forName(prop.getProperty("db.driver"));
             logger.info("数据库驱动加载成功");
         } catch (ClassNotFoundException e) {
-            logger.log(Level.SEVERE, "加载数据库驱动失败", e);
+            logger.error("加载数据库驱动失败", e);
+        }
+    }
+
+    /**
+     * 根据db.pool.*配置初始化HikariCP连接池
+     */
+    private static void initDataSource() {
+        int initialSize = getIntProperty("db.pool.initialSize", 5);
+        int maxActive = getIntProperty("db.pool.maxActive", 20);
+        int minIdle = getIntProperty("db.pool.minIdle", initialSize);
+        long maxWait = getIntProperty("db.pool.maxWait", 3000);
+        long leakDetectionThreshold = getIntProperty("db.pool.leakDetectionThreshold", 0);
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("mental-health-pool");
+        config.setDriverClassName(prop.getProperty("db.driver"));
+        config.setJdbcUrl(prop.getProperty("db.url"));
+        config.setUsername(prop.getProperty("db.user"));
+        config.setPassword(prop.getProperty("db.password"));
+        config.setMaximumPoolSize(maxActive);
+        config.setMinimumIdle(Math.min(minIdle, maxActive));
+        // HikariCP 要求 connectionTimeout 至少 250ms
+        config.setConnectionTimeout(Math.max(250L, maxWait));
+        if (leakDetectionThreshold > 0) {
+            // HikariCP 要求泄漏检测阈值至少 2000ms
+            config.setLeakDetectionThreshold(Math.max(2000L, leakDetectionThreshold));
+        }
+        config.setRegisterMbeans(true);
+        // 数据库暂不可用时不阻止应用启动，getConnection() 时再报错
+        config.setInitializationFailTimeout(-1);
+
+        // 以下是 MySQL 驱动的连接属性，其他驱动（如压力测试用的 H2）不认识这些属性
+        String url = prop.getProperty("db.url", "");
+        if (url.startsWith("jdbc:mysql:")) {
+            // MySQL 驱动端预编译语句缓存
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            // 批处理插入改写为多值 INSERT，减少往返
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+            // 设置了 fetchSize 的查询使用服务器端游标分批读取（流式查询）
+            config.addDataSourceProperty("useCursorFetch", "true");
+        }
+        streamFetchSize = getIntProperty("db.stream.fetchSize", 500);
+
+        try {
+            dataSource = new HikariDataSource(config);
+            logger.info("数据库连接池初始化成功: maxActive={}, minIdle={}", maxActive, config.getMinimumIdle());
+            warmUp(initialSize);
+        } catch (RuntimeException e) {
+            logger.error("初始化数据库连接池失败", e);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseUtil::shutdown, "db-pool-shutdown"));
+    }
+
+    /**
+     * 预热连接池：启动时预先建立 initialSize 个物理连接
+     */
+    private static void warmUp(int initialSize) {
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < initialSize; i++) {
+                connections.add(dataSource.getConnection());
+            }
+            logger.info("数据库连接池预热完成: {} 个连接", connections.size());
+        } catch (SQLException e) {
+            logger.warn("数据库连接池预热失败，已建立 {} 个连接", connections.size(), e);
+        } finally {
+            for (Connection conn : connections) {
+                closeConnection(conn);
+            }
+        }
+    }
+
+    private static int getIntProperty(String key, int defaultValue) {
+        String value = prop.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("配置项格式错误: {}={}，使用默认值 {}", key, value, defaultValue);
+            return defaultValue;
         }
     }
 
+    /**
+     * 流式查询每次从服务器抓取的行数
+     */
+    public static int getStreamFetchSize() {
+        return streamFetchSize;
+    }
+
+    public static DataSource getDataSource() {
+        return dataSource;
+    }
+
     public static Connection getConnection() {
-        Connection conn = null;
+        if (dataSource == null) {
+            logger.error("数据库连接池未初始化");
+            return null;
+        }
+
+        long start = System.nanoTime();
         try {
-            conn = DriverManager.getConnection(
-                    prop.getProperty("db.url"),
-                    prop.getProperty("db.user"),
-                    prop.getProperty("db.password")
-            );
-            logger.info("数据库连接成功");
+            Connection conn = dataSource.getConnection();
+            recordAcquireWait(System.nanoTime() - start);
+            // 记录每条语句的耗时和行数，按DAO方法汇总
+            return QueryMetrics.wrap(conn);
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "获取数据库连接失败", e);
+            acquireFailures.incrementAndGet();
+            logger.error("获取数据库连接失败", e);
         }
-        return conn;
+        return null;
     }
 
+    private static void recordAcquireWait(long waitNanos) {
+        acquireCount.incrementAndGet();
+        acquireWaitNanos.addAndGet(waitNanos);
+        long currentMax = maxAcquireWaitNanos.get();
+        while (waitNanos > currentMax && !maxAcquireWaitNanos.compareAndSet(currentMax, waitNanos)) {
+            currentMax = maxAcquireWaitNanos.get();
+        }
+    }
+
+    /**
+     * 归还连接到连接池
+     */
     public static void closeConnection(Connection conn) {
         if (conn != null) {
             try {
                 conn.close();
-                logger.info("数据库连接已关闭");
             } catch (SQLException e) {
-                logger.log(Level.SEVERE, "关闭数据库连接失败", e);
+                logger.error("关闭数据库连接失败", e);
+            }
+        }
+    }
+
+    /**
+     * 回滚事务，失败时仅记录日志
+     */
+    public static void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                logger.error("回滚事务失败", e);
             }
         }
     }
@@ -70,7 +221,7 @@ public class DatabaseUtil {
             try {
                 stmt.close();
             } catch (SQLException e) {
-                logger.log(Level.SEVERE, "关闭Statement失败", e);
+                logger.error("关闭Statement失败", e);
             }
         }
     }
@@ -80,8 +231,123 @@ public class DatabaseUtil {
             try {
                 rs.close();
             } catch (SQLException e) {
-                logger.log(Level.SEVERE, "关闭ResultSet失败", e);
+                logger.error("关闭ResultSet失败", e);
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 估计表的总行数（用于分页显示）。
+     * 优先读取 information_schema.TABLES.TABLE_ROWS（InnoDB 为统计近似值，不扫描表），
+     * 读取不到时退回 COUNT(*)，失败返回 -1
+     */
+    public static long estimateRowCount(String table) {
+        Connection conn = getConnection();
+        if (conn == null) {
+            return -1;
+        }
+
+        try {
+            try {
+                long estimate = queryLong(conn, "SELECT TABLE_ROWS FROM information_schema.TABLES " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", table);
+                if (estimate >= 0) {
+                    return estimate;
+                }
+            } catch (SQLException e) {
+                logger.debug("读取表行数统计失败，改用 COUNT(*): {}", table, e);
+            }
+
+            try {
+                return queryLong(conn, "SELECT COUNT(*) FROM " + table, null);
+            } catch (SQLException e) {
+                logger.error("统计表行数失败: {}", table, e);
+            }
+            return -1;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * 执行返回单个数值的查询，没有结果或结果为 NULL 时返回 -1；不关闭 conn
+     */
+    private static long queryLong(Connection conn, String sql, String param) throws SQLException {
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = conn.prepareStatement(sql);
+            if (param != null) {
+                pstmt.setString(1, param);
+            }
+            rs = pstmt.executeQuery();
+            if (rs.next() && rs.getObject(1) != null) {
+                return rs.getLong(1);
+            }
+            return -1;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(pstmt);
+        }
+    }
+
+    /**
+     * 获取连接池运行状态（用于监控）
+     */
+    public static PoolStats getPoolStats() {
+        PoolStats stats = new PoolStats();
+        if (dataSource != null) {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                stats.activeConnections = pool.getActiveConnections();
+                stats.idleConnections = pool.getIdleConnections();
+                stats.totalConnections = pool.getTotalConnections();
+                stats.threadsAwaitingConnection = pool.getThreadsAwaitingConnection();
+            }
+            stats.maxPoolSize = dataSource.getMaximumPoolSize();
+        }
+        stats.acquireCount = acquireCount.get();
+        stats.acquireFailures = acquireFailures.get();
+        stats.totalWaitMillis = acquireWaitNanos.get() / 1_000_000.0;
+        stats.maxWaitMillis = maxAcquireWaitNanos.get() / 1_000_000.0;
+        return stats;
+    }
+
+    /**
+     * 关闭连接池
+     */
+    public static void shutdown() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+            logger.info("数据库连接池已关闭");
+        }
+    }
+
+    /**
+     * 连接池统计类
+     */
+    public static class PoolStats {
+        public int activeConnections;
+        public int idleConnections;
+        public int totalConnections;
+        public int threadsAwaitingConnection;
+        public int maxPoolSize;
+        public long acquireCount;
+        public long acquireFailures;
+        public double totalWaitMillis;
+        public double maxWaitMillis;
+
+        public double getAverageWaitMillis() {
+            if (acquireCount == 0) return 0.0;
+            return totalWaitMillis / acquireCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PoolStats{active=%d, idle=%d, total=%d/%d, waiting=%d, acquired=%d, failures=%d, avgWait=%.2fms, maxWait=%.2fms}",
+                    activeConnections, idleConnections, totalConnections, maxPoolSize,
+                    threadsAwaitingConnection, acquireCount, acquireFailures,
+                    getAverageWaitMillis(), maxWaitMillis);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.university.mentalhealth.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按所有者（咨询师或学生）分组的时间区间索引，用于在内存中检查时间冲突。
+ * 区间按开始时间（epoch 分钟）排序，区间为半开区间 [start, end)。
+ * 重叠查询只需检查开始时间落在 [start - 最长区间长度, end) 内的区间，复杂度 O(log n + k)。
+ *
+ * 每个所有者的区间在第一次查询时通过 Loader 从数据库加载，超过 ttl 后重新加载，
+ * 以便感知其他客户端写入的数据；本进程内的写操作应调用 add / remove 保持同步。
+ * 索引可能落后于数据库（其他进程的写入要等重新加载后才能看到），只适合做预检查，
+ * 需要保证不冲突的写操作应在写入事务中再用数据库检查一次。
+ *
+ * 同一所有者的“加载并替换”与 add / remove / invalidate 在该所有者的锁内执行，
+ * 加载期间到达的写操作等新区间集合发布后再应用到它上面，不会写到即将被替换的旧集合而丢失。
+ * 所有者锁是 ReentrantLock（虚拟线程等待时不占用载体线程），只在有线程持有或等待时保留在表中，
+ * 表的大小不超过同时访问索引的线程数。不同所有者互不等待。
+ */
+public class IntervalIndex {
+    private static final Logger logger = LoggerFactory.getLogger(IntervalIndex.class);
+
+    private static final Comparator<Interval> ORDER = (a, b) -> {
+        int result = Long.compare(a.start, b.start);
+        return result != 0 ? result : Integer.compare(a.id, b.id);
+    };
+
+    /**
+     * 加载某个所有者从 from 开始（结束时间晚于 from）的全部有效区间
+     */
+    public interface Loader {
+        List<Interval> load(int ownerId, LocalDateTime from);
+    }
+
+    private final String name;
+    private final Loader loader;
+    private final long ttlMillis;
+    private final int horizonDays;
+    private final Map<Integer, OwnerIntervals> owners = new ConcurrentHashMap<>();
+    private final Map<Integer, OwnerLock> ownerLocks = new ConcurrentHashMap<>();
+
+    /**
+     * @param name        索引名称（用于日志）
+     * @param loader      区间加载器
+     * @param ttlMillis   每个所有者的区间缓存有效期
+     * @param horizonDays 默认只加载最近 horizonDays 天之后的区间，查询更早的时间时会扩展加载范围
+     */
+    public IntervalIndex(String name, Loader loader, long ttlMillis, int horizonDays) {
+        this.name = name;
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * 检查所有者是否有与 [start, end) 重叠的区间
+     */
+    public boolean overlaps(int ownerId, LocalDateTime start, LocalDateTime end) {
+        long startMinute = toEpochMinute(start);
+        long endMinute = toEpochMinute(end);
+        if (startMinute >= endMinute) {
+            return false;
+        }
+
+        OwnerIntervals intervals = getOrLoad(ownerId, start);
+        synchronized (intervals) {
+            Interval from = new Interval(Integer.MIN_VALUE, startMinute - intervals.maxLength, 0);
+            Interval to = new Interval(Integer.MIN_VALUE, endMinute, 0);
+            for (Interval interval : intervals.sorted.subSet(from, true, to, false)) {
+                if (interval.end > startMinute) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 预先加载所有者的区间（例如在持有数据库连接的事务开始前调用，避免事务中再借用连接）
+     */
+    public void preload(int ownerId) {
+        getOrLoad(ownerId, LocalDateTime.now());
+    }
+
+    /**
+     * 写入成功后添加（或更新）区间；所有者尚未加载时忽略，下次加载时会从数据库读到
+     */
+    public void add(int ownerId, int id, LocalDateTime start, LocalDateTime end) {
+        OwnerLock lock = lock(ownerId);
+        try {
+            OwnerIntervals intervals = owners.get(ownerId);
+            if (intervals == null) {
+                return;
+            }
+            synchronized (intervals) {
+                intervals.put(new Interval(id, toEpochMinute(start), toEpochMinute(end)));
+            }
+        } finally {
+            unlock(ownerId, lock);
+        }
+    }
+
+    /**
+     * 删除或取消成功后移除区间
+     */
+    public void remove(int ownerId, int id) {
+        OwnerLock lock = lock(ownerId);
+        try {
+            OwnerIntervals intervals = owners.get(ownerId);
+            if (intervals == null) {
+                return;
+            }
+            synchronized (intervals) {
+                intervals.remove(id);
+            }
+        } finally {
+            unlock(ownerId, lock);
+        }
+    }
+
+    /**
+     * 丢弃某个所有者的区间，下次查询时重新加载
+     */
+    public void invalidate(int ownerId) {
+        OwnerLock lock = lock(ownerId);
+        try {
+            owners.remove(ownerId);
+        } finally {
+            unlock(ownerId, lock);
+        }
+    }
+
+    public void clear() {
+        owners.clear();
+    }
+
+    private OwnerIntervals getOrLoad(int ownerId, LocalDateTime queryStart) {
+        long now = System.currentTimeMillis();
+        long queryMinute = toEpochMinute(queryStart);
+
+        OwnerIntervals intervals = owners.get(ownerId);
+        if (isUsable(intervals, now, queryMinute)) {
+            return intervals;
+        }
+
+        OwnerLock lock = lock(ownerId);
+        try {
+            // 等锁期间可能已有其他线程加载完成
+            intervals = owners.get(ownerId);
+            if (isUsable(intervals, now, queryMinute)) {
+                return intervals;
+            }
+
+            LocalDateTime from = LocalDateTime.now().minusDays(horizonDays);
+            if (queryStart.isBefore(from)) {
+                from = queryStart;
+            }
+
+            OwnerIntervals loaded = new OwnerIntervals(toEpochMinute(from), now);
+            for (Interval interval : loader.load(ownerId, from)) {
+                loaded.put(interval);
+            }
+            owners.put(ownerId, loaded);
+            logger.debug("{} 区间索引加载完成: owner_id={}, 区间数={}", name, ownerId, loaded.byId.size());
+            return loaded;
+        } finally {
+            unlock(ownerId, lock);
+        }
+    }
+
+    private boolean isUsable(OwnerIntervals intervals, long now, long queryMinute) {
+        return intervals != null && now - intervals.loadedAt < ttlMillis && queryMinute >= intervals.loadedFrom;
+    }
+
+    /**
+     * 取得并锁定所有者锁。引用计数在 compute 中增减，计数归零时从表中移除，
+     * 等待中的线程持有的仍是表中同一个锁对象
+     */
+    private OwnerLock lock(int ownerId) {
+        OwnerLock lock = ownerLocks.compute(ownerId, (id, current) -> {
+            OwnerLock result = current != null ? current : new OwnerLock();
+            result.users++;
+            return result;
+        });
+        lock.lock.lock();
+        return lock;
+    }
+
+    private void unlock(int ownerId, OwnerLock lock) {
+        lock.lock.unlock();
+        ownerLocks.computeIfPresent(ownerId, (id, current) -> --current.users == 0 ? null : current);
+    }
+
+    /**
+     * 当前持有或等待锁的线程数（测试用）
+     */
+    int lockedOwnerCount() {
+        return ownerLocks.size();
+    }
+
+    public static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * 所有者锁和使用它的线程数（只在 ConcurrentHashMap.compute 中读写）
+     */
+    private static final class OwnerLock {
+        final ReentrantLock lock = new ReentrantLock();
+        int users;
+    }
+
+    /**
+     * 单个所有者的区间集合
+     */
+    private static class OwnerIntervals {
+        final long loadedFrom;
+        final long loadedAt;
+        final NavigableSet<Interval> sorted = new TreeSet<>(ORDER);
+        final Map<Integer, Interval> byId = new HashMap<>();
+        long maxLength;
+
+        OwnerIntervals(long loadedFrom, long loadedAt) {
+            this.loadedFrom = loadedFrom;
+            this.loadedAt = loadedAt;
+        }
+
+        void put(Interval interval) {
+            remove(interval.id);
+            sorted.add(interval);
+            byId.put(interval.id, interval);
+            // 最长区间长度只增不减，移除区间后仍然是正确的上界
+            maxLength = Math.max(maxLength, interval.end - interval.start);
+        }
+
+        void remove(int id) {
+            Interval existing = byId.remove(id);
+            if (existing != null) {
+                sorted.remove(existing);
+            }
+        }
+    }
+
+    /**
+     * 时间区间（epoch 分钟，半开区间）
+     */
+    public static final class Interval {
+        final int id;
+        final long start;
+        final long end;
+
+        Interval(int id, long start, long end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+
+        public static Interval of(int id, LocalDateTime start, LocalDateTime end) {
+            return new Interval(id, toEpochMinute(start), toEpochMinute(end));
+        }
+    }
+}
@@ -1,70 +1,111 @@
 package com.university.mentalhealth.util;
 
+import com.google.gson.stream.JsonReader;
+import com.university.mentalhealth.entity.QuestionOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class JSONUtil {
-    private static final Logger logger = Logger.getLogger(JSONUtil.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(JSONUtil.class);
+
+    // 按原始 JSON 缓存解析结果，同一量表的题目通常共享同一份选项；
+    // 按访问顺序淘汰最久未使用的条目，缓存满后新量表的选项仍能进入缓存
+    private static final int OPTIONS_CACHE_LIMIT = 1024;
+    private static final Map<String, QuestionOptions> optionsCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, QuestionOptions>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, QuestionOptions> eldest) {
+                    return size() > OPTIONS_CACHE_LIMIT;
+                }
+            });
 
     /**
-     * 简单的JSON解析器 - 解析测评题目的JSON选项
+     * 解析测评题目的JSON选项，格式为 [{"text":"...","value":0}, ...]。
+     * 相同的 JSON 只解析一次；选项为空或格式错误时返回标准选项
      */
-    public static List<Map<String, Object>> parseOptions(String jsonOptions) {
-        List<Map<String, Object>> options = new ArrayList<>();
+    public static QuestionOptions parseQuestionOptions(String jsonOptions) {
+        if (jsonOptions == null || jsonOptions.trim().isEmpty()) {
+            return QuestionOptions.STANDARD;
+        }
 
-        try {
-            // 简单的JSON解析逻辑，适用于固定格式的选项数组
-            if (jsonOptions == null || jsonOptions.trim().isEmpty()) {
-                return options;
-            }
+        QuestionOptions cached = optionsCache.get(jsonOptions);
+        if (cached != null) {
+            return cached;
+        }
 
-            // 移除空格和换行
-            String cleanJson = jsonOptions.replaceAll("\\s+", "");
+        QuestionOptions options;
+        try {
+            options = readQuestionOptions(jsonOptions);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            logger.warn("解析JSON选项失败，使用标准选项: {}", jsonOptions, e);
+            options = QuestionOptions.STANDARD;
+        }
 
-            // 匹配每个选项对象
-            Pattern pattern = Pattern.compile("\\{\"text\":\"([^\"]+)\",\"value\":(\\d+)\\}");
-            Matcher matcher = pattern.matcher(cleanJson);
+        optionsCache.put(jsonOptions, options);
+        return options;
+    }
 
-            while (matcher.find()) {
-                Map<String, Object> option = new HashMap<>();
-                option.put("text", matcher.group(1));
-                option.put("value", Integer.parseInt(matcher.group(2)));
-                options.add(option);
+    private static QuestionOptions readQuestionOptions(String jsonOptions) throws IOException {
+        List<String> texts = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(new StringReader(jsonOptions))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String text = null;
+                Integer value = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("text".equals(name)) {
+                        text = reader.nextString();
+                    } else if ("value".equals(name)) {
+                        value = reader.nextInt();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (text != null && value != null) {
+                    texts.add(text);
+                    values.add(value);
+                }
             }
-
-            logger.info("成功解析 " + options.size() + " 个选项");
-
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "解析JSON选项失败: " + jsonOptions, e);
-            // 返回默认选项作为后备
-            return createDefaultOptions();
+            reader.endArray();
         }
 
-        return options;
+        if (texts.isEmpty()) {
+            return QuestionOptions.STANDARD;
+        }
+        int[] valueArray = new int[values.size()];
+        for (int i = 0; i < valueArray.length; i++) {
+            valueArray[i] = values.get(i);
+        }
+        return new QuestionOptions(texts.toArray(new String[0]), valueArray);
     }
 
     /**
-     * 创建默认选项（后备方案）
+     * 解析测评题目的JSON选项为 text / value 列表
      */
-    private static List<Map<String, Object>> createDefaultOptions() {
-        List<Map<String, Object>> defaultOptions = new ArrayList<>();
-
-        String[] texts = {"完全没有", "有几天", "一半以上时间", "几乎每天"};
-
-        for (int i = 0; i < texts.length; i++) {
+    public static List<Map<String, Object>> parseOptions(String jsonOptions) {
+        QuestionOptions parsed = parseQuestionOptions(jsonOptions);
+        List<Map<String, Object>> options = new ArrayList<>(parsed.size());
+        for (int i = 0; i < parsed.size(); i++) {
             Map<String, Object> option = new HashMap<>();
-            option.put("text", texts[i]);
-            option.put("value", i);
-            defaultOptions.add(option);
+            option.put("text", parsed.getText(i));
+            option.put("value", parsed.getValue(i));
+            options.add(option);
         }
-
-        return defaultOptions;
+        return options;
     }
 
     /**
@@ -0,0 +1,248 @@
+package com.university.mentalhealth.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 加盐的密码摘要（JDK 自带的 PBKDF2WithHmacSHA256）和专用的计算线程池。
+ *
+ * 存储格式自描述：pbkdf2_sha256$迭代次数$盐(Base64)$摘要(Base64)。迭代次数随摘要保存，
+ * 调整 password.pbkdf2.iterations 后旧摘要照常校验，needsRehash() 为 true，用户下次登录成功时按新参数重新生成。
+ * 早期的无盐 SHA-256 摘要和明文密码同样可以校验，并在登录时升级。
+ *
+ * 一次摘要计算会占满一个 CPU 核几十毫秒。为了不让登录高峰挤占其他请求的 CPU，计算不在调用线程中进行，
+ * 而是提交到 password.hashThreads 个线程（0 表示 CPU 核数；要给其他请求预留 CPU 时设得更小）的线程池，
+ * 最多排队 password.hashQueueCapacity 个。队列已满或排队超过 password.hashTimeoutMillis 时
+ * 抛出 BusyException，服务器返回 503，客户端稍后重试。
+ */
+public final class PasswordHasher {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    static final String PBKDF2_PREFIX = "pbkdf2_sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int SHA256_BASE64_LENGTH = 44;
+
+    private static final PasswordHasher INSTANCE = new PasswordHasher(
+            AppConfig.getInt("password.pbkdf2.iterations", 210000),
+            AppConfig.getInt("password.hashThreads", 0),
+            AppConfig.getInt("password.hashQueueCapacity", 64),
+            AppConfig.getLong("password.hashTimeoutMillis", 10000));
+
+    private final int iterations;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+    private final SecureRandom random = new SecureRandom();
+    private final LongAdder rejected = new LongAdder();
+
+    PasswordHasher(int iterations, int threads, int queueCapacity, long timeoutMillis) {
+        this.iterations = iterations;
+        this.timeoutMillis = timeoutMillis;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "password-hasher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static PasswordHasher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 用新的随机盐和当前迭代次数生成存储格式的摘要
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = compute(() -> pbkdf2(password, salt, iterations));
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PBKDF2_PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * 校验密码，比较耗时与第一个不同字节的位置无关
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PBKDF2_PREFIX)) {
+            // 早期格式：无盐 SHA-256 摘要或明文，计算量很小，不经过线程池
+            String expected = isLegacySha256(stored) ? sha256(password) : password;
+            return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.substring(PBKDF2_PREFIX.length()).split("\\$");
+        if (parts.length != 3) {
+            logger.warn("无法识别的密码摘要格式");
+            return false;
+        }
+        int storedIterations;
+        byte[] salt;
+        byte[] expected;
+        try {
+            storedIterations = Integer.parseInt(parts[0]);
+            salt = Base64.getDecoder().decode(parts[1]);
+            expected = Base64.getDecoder().decode(parts[2]);
+        } catch (IllegalArgumentException e) {
+            logger.warn("无法识别的密码摘要格式");
+            return false;
+        }
+        byte[] actual = compute(() -> pbkdf2(password, salt, storedIterations));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /**
+     * 用户名不存在时代替 verify() 调用：按当前迭代次数做一次同样的计算并丢弃结果，
+     * 响应时间和线程池占用与校验真实用户的密码相同，不能据此判断用户名是否存在
+     */
+    public void verifyDummy(String password) {
+        if (password == null) {
+            return;
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        compute(() -> pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * 存储的摘要不是 PBKDF2 格式，或迭代次数低于当前配置
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PBKDF2_PREFIX)) {
+            return true;
+        }
+        int end = stored.indexOf('$', PBKDF2_PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PBKDF2_PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 存储格式的说明（诊断用）：PBKDF2 及其迭代次数、早期的无盐 SHA-256、明文
+     */
+    public static String describeFormat(String stored) {
+        if (stored == null) {
+            return "无";
+        }
+        if (stored.startsWith(PBKDF2_PREFIX)) {
+            int end = stored.indexOf('$', PBKDF2_PREFIX.length());
+            return "PBKDF2-SHA256，迭代 " + (end < 0 ? "?" : stored.substring(PBKDF2_PREFIX.length(), end)) + " 次";
+        }
+        return isLegacySha256(stored) ? "无盐 SHA-256 摘要" : "明文";
+    }
+
+    public Stats getStats() {
+        Stats stats = new Stats();
+        stats.iterations = iterations;
+        stats.threads = executor.getMaximumPoolSize();
+        stats.active = executor.getActiveCount();
+        stats.queued = executor.getQueue().size();
+        stats.completed = executor.getCompletedTaskCount();
+        stats.rejected = rejected.sum();
+        return stats;
+    }
+
+    private byte[] compute(Callable<byte[]> task) {
+        Future<byte[]> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException("密码校验排队已满");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejected.increment();
+            throw new BusyException("密码校验等待超时");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new BusyException("密码校验被中断");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("密码摘要计算失败", e.getCause());
+        }
+    }
+
+    static byte[] pbkdf2(String password, byte[] salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    static String sha256(String password) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private static boolean isLegacySha256(String stored) {
+        if (stored.length() != SHA256_BASE64_LENGTH || !stored.endsWith("=")) {
+            return false;
+        }
+        try {
+            return Base64.getDecoder().decode(stored).length == HASH_BITS / 8;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 线程池已满或排队超时，调用方应提示稍后重试（服务器返回 503），不应当作密码错误
+     */
+    public static class BusyException extends RuntimeException {
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 线程池统计
+     */
+    public static class Stats {
+        public int iterations;
+        public int threads;
+        public int active;
+        public int queued;
+        public long completed;
+        public long rejected;
+    }
+}
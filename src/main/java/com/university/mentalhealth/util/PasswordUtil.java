@@ -1,34 +1,34 @@
 package com.university.mentalhealth.util;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-
 public class PasswordUtil {
-    private static final Logger logger = Logger.getLogger(PasswordUtil.class.getName());
-
     /**
-     * 使用SHA-256加密密码
+     * 生成存储用的密码摘要（加盐 PBKDF2，格式见 PasswordHasher）。
+     * 在密码计算线程池中执行，繁忙时抛出 PasswordHasher.BusyException
      */
     public static String encryptPassword(String password) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(password.getBytes());
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException e) {
-            logger.log(Level.SEVERE, "密码加密失败", e);
-            return password; // 加密失败时返回原密码（不安全，仅用于演示）
-        }
+        return PasswordHasher.getInstance().hash(password);
     }
 
     /**
-     * 验证密码是否匹配
+     * 验证密码是否匹配。也接受早期的无盐 SHA-256 摘要和明文，
+     * 验证通过后调用方应检查 needsRehash() 并把新摘要写回数据库
      */
     public static boolean verifyPassword(String inputPassword, String storedPassword) {
-        String encryptedInput = encryptPassword(inputPassword);
-        return encryptedInput.equals(storedPassword);
+        return PasswordHasher.getInstance().verify(inputPassword, storedPassword);
+    }
+
+    /**
+     * 用户名不存在时调用，耗时与 verifyPassword() 校验当前格式的密码相同
+     */
+    public static void verifyDummyPassword(String inputPassword) {
+        PasswordHasher.getInstance().verifyDummy(inputPassword);
+    }
+
+    /**
+     * 存储的密码不是当前格式或参数（明文、SHA-256、迭代次数低于配置），登录成功后应重新生成
+     */
+    public static boolean needsRehash(String storedPassword) {
+        return PasswordHasher.getInstance().needsRehash(storedPassword);
     }
 
     /**
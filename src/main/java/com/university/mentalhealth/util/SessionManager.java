@@ -3,34 +3,129 @@ package com.university.mentalhealth.util;
 import com.university.mentalhealth.entity.User;
 import com.university.mentalhealth.entity.UserType;
 
+/**
+ * 当前调用者的登录会话，服务层通过这里的静态方法取得当前用户。
+ * 线程可以用 bind() 绑定自己的会话（例如服务器为每个请求绑定请求方的会话，压力测试为每个模拟用户绑定），
+ * 因此同一个进程可以在不同线程上同时为不同用户调用服务。
+ * 没有绑定会话的线程（Swing 事件线程、后台加载线程、定时刷新等）使用桌面客户端 login() 登录的默认会话。
+ */
 public class SessionManager {
-    // 全局静态变量存储当前用户信息
-    public static User currentUser = null;
-    public static UserType currentUserType = null;
+    // 当前线程绑定的会话，优先于默认会话
+    private static final ThreadLocal<UserSession> boundSession = new ThreadLocal<>();
+    // 桌面客户端登录的会话
+    private static volatile UserSession defaultSession;
 
-    public static void login(User user, UserType userType) {
-        currentUser = user;
-        currentUserType = userType;
+    /**
+     * 桌面客户端登录：创建会话并设为默认会话
+     */
+    public static UserSession login(User user, UserType userType) {
+        UserSession session = SessionRegistry.getInstance().open(user, userType, true);
+        UserSession previous = defaultSession;
+        defaultSession = session;
+        if (previous != null) {
+            SessionRegistry.getInstance().close(previous.getToken());
+        }
+        return session;
     }
 
+    /**
+     * 登出当前会话（绑定的会话或默认会话）
+     */
     public static void logout() {
-        currentUser = null;
-        currentUserType = null;
+        UserSession session = current();
+        if (session == null) {
+            return;
+        }
+        if (session == defaultSession) {
+            defaultSession = null;
+        }
+        SessionRegistry.getInstance().close(session.getToken());
+    }
+
+    /**
+     * 把会话绑定到当前线程，直到返回的 Scope 关闭，关闭时恢复之前绑定的会话。用法：
+     * <pre>
+     * try (SessionManager.Scope ignored = SessionManager.bind(session)) {
+     *     appointmentService.bookAppointment(timeSlotId, notes);
+     * }
+     * </pre>
+     */
+    public static Scope bind(UserSession session) {
+        Scope scope = new Scope(boundSession.get());
+        boundSession.set(session);
+        return scope;
+    }
+
+    /**
+     * 当前有效的会话：线程绑定的会话，否则为默认会话；已登出或已过期时返回 null
+     */
+    public static UserSession current() {
+        UserSession session = boundSession.get();
+        if (session == null) {
+            session = defaultSession;
+        }
+        return session != null && !session.isClosed() ? session : null;
+    }
+
+    public static User getCurrentUser() {
+        UserSession session = current();
+        return session != null ? session.getUser() : null;
+    }
+
+    public static UserType getCurrentUserType() {
+        UserSession session = current();
+        return session != null ? session.getUserType() : null;
+    }
+
+    /**
+     * 当前用户ID，未登录时抛出 IllegalStateException（调用前应已检查 isLoggedIn()）
+     */
+    public static int getCurrentUserId() {
+        UserSession session = current();
+        if (session == null) {
+            throw new IllegalStateException("当前没有登录用户");
+        }
+        return session.getUserId();
     }
 
     public static boolean isLoggedIn() {
-        return currentUser != null;
+        return current() != null;
     }
 
     public static boolean isStudent() {
-        return currentUserType == UserType.student;
+        return getCurrentUserType() == UserType.student;
     }
 
     public static boolean isCounselor() {
-        return currentUserType == UserType.counselor;
+        return getCurrentUserType() == UserType.counselor;
     }
 
     public static boolean isAdmin() {
-        return currentUserType == UserType.admin;
+        return getCurrentUserType() == UserType.admin;
+    }
+
+    /**
+     * bind() 的作用范围，关闭时恢复之前绑定的会话。只能在 bind() 的同一线程上关闭
+     */
+    public static final class Scope implements AutoCloseable {
+        private final UserSession previous;
+        private boolean closed;
+
+        private Scope(UserSession previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (previous != null) {
+                boundSession.set(previous);
+            } else {
+                boundSession.remove();
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package com.university.mentalhealth.util;
+
+import com.university.mentalhealth.entity.User;
+import com.university.mentalhealth.entity.UserType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话令牌到登录会话的并发注册表。
+ * 登录时 open() 生成随机令牌；之后凭令牌 get() 取回会话（例如服务器处理每个请求时），
+ * 再通过 SessionManager.bind() 绑定到处理线程。
+ * 超过 session.idleTimeoutMinutes 没有通过令牌访问的会话视为过期，get() 时移除，
+ * open() 时也会顺带清理（最多每分钟一次）。
+ */
+public final class SessionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(SessionRegistry.class);
+
+    private static final int TOKEN_BYTES = 32;
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final SessionRegistry INSTANCE = new SessionRegistry(
+            TimeUnit.MINUTES.toMillis(AppConfig.getLong("session.idleTimeoutMinutes", 30)));
+
+    private final Map<String, UserSession> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long idleTimeoutMillis;
+    private volatile long lastPurgeMillis = System.currentTimeMillis();
+
+    SessionRegistry(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public static SessionRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 为已通过认证的用户创建会话
+     */
+    public UserSession open(User user, UserType userType) {
+        return open(user, userType, false);
+    }
+
+    /**
+     * pinned 为 true 时会话不会因空闲而过期，用于桌面客户端（界面没有中途重新登录的流程）
+     */
+    UserSession open(User user, UserType userType, boolean pinned) {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeMillis >= PURGE_INTERVAL_MILLIS) {
+            lastPurgeMillis = now;
+            purgeExpired(now);
+        }
+        UserSession session;
+        do {
+            session = new UserSession(newToken(), user, userType, now, pinned);
+        } while (sessions.putIfAbsent(session.getToken(), session) != null);
+        logger.debug("会话创建: user={}, type={}, 在线会话数={}", user.getUsername(), userType, sessions.size());
+        return session;
+    }
+
+    /**
+     * 按令牌查找会话并刷新最后访问时间；令牌不存在、已登出或已过期时返回 null
+     */
+    public UserSession get(String token) {
+        if (token == null) {
+            return null;
+        }
+        UserSession session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (session.isClosed() || isExpired(session, now)) {
+            remove(session);
+            return null;
+        }
+        session.touch(now);
+        return session;
+    }
+
+    /**
+     * 登出：移除会话，已绑定该会话的线程随后也视为未登录
+     */
+    public void close(String token) {
+        if (token == null) {
+            return;
+        }
+        UserSession session = sessions.remove(token);
+        if (session != null) {
+            session.close();
+            logger.debug("会话关闭: user={}", session.getUser().getUsername());
+        }
+    }
+
+    /**
+     * 当前注册的会话数（包括尚未清理的过期会话）
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * 移除所有过期会话，返回移除的数量
+     */
+    public int purgeExpired() {
+        return purgeExpired(System.currentTimeMillis());
+    }
+
+    private int purgeExpired(long now) {
+        int removed = 0;
+        Iterator<UserSession> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            UserSession session = it.next();
+            if (session.isClosed() || isExpired(session, now)) {
+                it.remove();
+                session.close();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.info("清理过期会话: {} 个, 剩余 {} 个", removed, sessions.size());
+        }
+        return removed;
+    }
+
+    private boolean isExpired(UserSession session, long now) {
+        return !session.isPinned() && idleTimeoutMillis > 0 && now - session.getLastAccessMillis() > idleTimeoutMillis;
+    }
+
+    private void remove(UserSession session) {
+        sessions.remove(session.getToken(), session);
+        session.close();
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
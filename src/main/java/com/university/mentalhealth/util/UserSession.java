@@ -0,0 +1,79 @@
+package com.university.mentalhealth.util;
+
+import com.university.mentalhealth.entity.User;
+import com.university.mentalhealth.entity.UserType;
+
+/**
+ * 一个登录会话：会话令牌和登录用户。
+ * 用户和类型在登录时确定，之后不再改变；一个会话可以被多个线程同时使用。
+ */
+public final class UserSession {
+    private final String token;
+    private final User user;
+    private final UserType userType;
+    private final long createdAtMillis;
+    private final boolean pinned;
+    private volatile long lastAccessMillis;
+    private volatile boolean closed;
+
+    UserSession(String token, User user, UserType userType, long nowMillis, boolean pinned) {
+        this.token = token;
+        this.user = user;
+        this.userType = userType;
+        this.createdAtMillis = nowMillis;
+        this.pinned = pinned;
+        this.lastAccessMillis = nowMillis;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public int getUserId() {
+        return user.getId();
+    }
+
+    public UserType getUserType() {
+        return userType;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    /**
+     * 会话已登出或已过期
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 不会因空闲而过期（桌面客户端的会话），只能主动登出
+     */
+    boolean isPinned() {
+        return pinned;
+    }
+
+    void touch(long nowMillis) {
+        lastAccessMillis = nowMillis;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        // 不输出令牌本身，避免写入日志
+        return "UserSession{user=" + user.getUsername() + ", type=" + userType + ", closed=" + closed + "}";
+    }
+}
@@ -0,0 +1,33 @@
+package com.university.mentalhealth.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 创建处理 HTTP 请求的执行器（Java 21 版本，只在 java21 profile 构建的多版本 JAR 中使用）。
+ * server.virtualThreads=true 时每个请求在自己的虚拟线程中执行：等数据库的请求只占用很少的内存，
+ * 不占用平台线程，数千个并发请求不需要数千个平台线程。同时执行的数量由 RequestLimiter 限制，
+ * 超出的请求在信号量上等待（虚拟线程挂起，不占用载体线程）。
+ *
+ * 在 synchronized 块中阻塞会让虚拟线程钉住（pin）它的载体线程。应用代码中持有锁访问数据库的地方
+ * （IntervalIndex 所有者锁、AssessmentCatalogCache 加载、AppointmentEvent 延迟读取）都已改用 ReentrantLock，
+ * 预约互斥由数据库行锁和条件更新完成，不再有应用层的钉住点。仍会钉住的是 MySQL 驱动 8.0.x：
+ * 它在 synchronized 块中做网络 I/O，此时同时访问数据库的请求数不会超过载体线程数（默认为 CPU 核数）。
+ * 可以用 -Djdk.virtualThreadScheduler.parallelism=N 把载体线程数调到与 server.maxConcurrentRequests 相同，
+ * 用 -Djdk.tracePinnedThreads=short 检查是否发生钉住（构建和冒烟运行的命令见 pom.xml 的 java21 profile）。
+ */
+final class RequestExecutors {
+    private RequestExecutors() {
+    }
+
+    static boolean virtualThreadsAvailable() {
+        return true;
+    }
+
+    static ExecutorService create(boolean virtualThreads, int workerThreads, int queueCapacity) {
+        if (!virtualThreads) {
+            return WorkerPools.platform(workerThreads, queueCapacity);
+        }
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("api-vt-", 0).factory());
+    }
+}
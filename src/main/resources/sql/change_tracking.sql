@@ -0,0 +1,45 @@
+-- 预约和咨询师时间段的变更跟踪（增量刷新）
+-- 插入、修改和删除由触发器写入 change_log，客户端记录读到的最大 seq，下一次只读取之后的变更，
+-- 再按 row_id 回表：查得到的是新增或修改的行，查不到的是被删除的行。
+-- seq 在写入时分配、在事务提交时才可见，客户端会补读暂时空缺的序号（见 ChangeTracking）。
+
+CREATE TABLE IF NOT EXISTS change_log (
+    seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name VARCHAR(64) NOT NULL,
+    row_id INT NOT NULL,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_change_log_changed_at (changed_at)
+);
+
+DROP TRIGGER IF EXISTS trg_appointments_after_insert;
+CREATE TRIGGER trg_appointments_after_insert AFTER INSERT ON appointments
+    FOR EACH ROW INSERT INTO change_log (table_name, row_id) VALUES ('appointments', NEW.id);
+
+DROP TRIGGER IF EXISTS trg_appointments_after_update;
+CREATE TRIGGER trg_appointments_after_update AFTER UPDATE ON appointments
+    FOR EACH ROW INSERT INTO change_log (table_name, row_id) VALUES ('appointments', NEW.id);
+
+DROP TRIGGER IF EXISTS trg_appointments_after_delete;
+CREATE TRIGGER trg_appointments_after_delete AFTER DELETE ON appointments
+    FOR EACH ROW INSERT INTO change_log (table_name, row_id) VALUES ('appointments', OLD.id);
+
+DROP TRIGGER IF EXISTS trg_time_slots_after_insert;
+CREATE TRIGGER trg_time_slots_after_insert AFTER INSERT ON counselor_time_slots
+    FOR EACH ROW INSERT INTO change_log (table_name, row_id) VALUES ('counselor_time_slots', NEW.id);
+
+DROP TRIGGER IF EXISTS trg_time_slots_after_update;
+CREATE TRIGGER trg_time_slots_after_update AFTER UPDATE ON counselor_time_slots
+    FOR EACH ROW INSERT INTO change_log (table_name, row_id) VALUES ('counselor_time_slots', NEW.id);
+
+DROP TRIGGER IF EXISTS trg_time_slots_after_delete;
+CREATE TRIGGER trg_time_slots_after_delete AFTER DELETE ON counselor_time_slots
+    FOR EACH ROW INSERT INTO change_log (table_name, row_id) VALUES ('counselor_time_slots', OLD.id);
+
+-- 变更日志保留 1 天，每小时清理一次；超过 23 小时没有刷新的客户端会收到过期标记并全量重新加载。
+-- 需要开启事件调度器：SET GLOBAL event_scheduler = ON（或在 my.cnf 中配置 event_scheduler=ON）
+DROP EVENT IF EXISTS evt_purge_change_log;
+CREATE EVENT evt_purge_change_log ON SCHEDULE EVERY 1 HOUR
+    DO DELETE FROM change_log WHERE changed_at < NOW(3) - INTERVAL 1 DAY;
+
+-- 旧版本基于 updated_at 和墓碑表的变更跟踪不再使用（updated_at 列保留，不影响使用）
+DROP TABLE IF EXISTS change_tombstones;
@@ -0,0 +1,81 @@
+-- 预约压力测试（BookingLoadTest）使用的表结构，只包含预约流程涉及的表和列。
+-- 同时兼容 MySQL 8 和 H2 的 MySQL 模式（jdbc:h2:mem:...;MODE=MySQL;DATABASE_TO_LOWER=TRUE）。
+-- 只用于测试库，会删除同名表。
+
+DROP TABLE IF EXISTS notification_outbox;
+DROP TABLE IF EXISTS appointments;
+DROP TABLE IF EXISTS counselor_time_slots;
+DROP TABLE IF EXISTS counselors;
+DROP TABLE IF EXISTS students;
+DROP TABLE IF EXISTS users;
+
+CREATE TABLE users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE students (
+    user_id INT PRIMARY KEY,
+    student_id VARCHAR(20) NOT NULL UNIQUE,
+    name VARCHAR(50) NOT NULL,
+    department VARCHAR(100),
+    contact_phone VARCHAR(20),
+    emergency_contact VARCHAR(50),
+    emergency_phone VARCHAR(20),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE counselors (
+    user_id INT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    title VARCHAR(50),
+    specialization VARCHAR(200),
+    is_available BOOLEAN NOT NULL DEFAULT TRUE,
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE counselor_time_slots (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    counselor_id INT NOT NULL,
+    start_time DATETIME NOT NULL,
+    end_time DATETIME NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'available',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (counselor_id) REFERENCES counselors (user_id)
+);
+CREATE INDEX idx_time_slots_counselor_start ON counselor_time_slots (counselor_id, start_time);
+
+CREATE TABLE appointments (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id INT NOT NULL,
+    counselor_id INT NOT NULL,
+    time_slot_id INT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'pending',
+    notes TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (student_id) REFERENCES students (user_id),
+    FOREIGN KEY (counselor_id) REFERENCES counselors (user_id),
+    FOREIGN KEY (time_slot_id) REFERENCES counselor_time_slots (id)
+);
+CREATE INDEX idx_appointments_student ON appointments (student_id, status);
+CREATE INDEX idx_appointments_counselor ON appointments (counselor_id, status);
+CREATE INDEX idx_appointments_time_slot ON appointments (time_slot_id, status);
+
+CREATE TABLE notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    appointment_id INT NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'pending',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    claimed_by VARCHAR(64) NULL,
+    last_error VARCHAR(500) NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    delivered_at TIMESTAMP(3) NULL
+);
+CREATE INDEX idx_outbox_status_next ON notification_outbox (status, next_attempt_at);
+CREATE INDEX idx_outbox_claimed_by ON notification_outbox (claimed_by);
@@ -0,0 +1,22 @@
+-- 预约通知发件箱（transactional outbox）
+-- 预约创建和状态变更时在同一事务中写入一行，由 OutboxDispatcher 在后台分批投递。
+-- 投递中的行通过 claimed_by 认领，并把 next_attempt_at 推后一个租约时长；
+-- 投递进程异常退出时，租约到期后行会被重新认领。
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    appointment_id INT NOT NULL,
+    event_type VARCHAR(20) NOT NULL,              -- created, confirmed, cancelled, completed
+    status VARCHAR(20) NOT NULL DEFAULT 'pending', -- pending, delivered, failed
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    claimed_by VARCHAR(64) NULL,
+    last_error VARCHAR(500) NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    delivered_at TIMESTAMP(3) NULL,
+    INDEX idx_outbox_status_next (status, next_attempt_at),
+    INDEX idx_outbox_claimed_by (claimed_by)
+);
+
+-- 已投递的行只用于排查问题，可定期清理
+-- DELETE FROM notification_outbox WHERE status = 'delivered' AND delivered_at < NOW(3) - INTERVAL 7 DAY;
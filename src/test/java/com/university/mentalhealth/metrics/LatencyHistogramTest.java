@@ -0,0 +1,128 @@
+package com.university.mentalhealth.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0.0, histogram.getMeanMicros(), 0.0);
+        assertEquals(0, histogram.getPercentileMicros(50));
+        assertEquals(0, histogram.getPercentileMicros(99.9));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(50, histogram.getCount());
+        assertEquals(25.5, histogram.getMeanMicros(), 1e-9);
+        assertEquals(1, histogram.getPercentileMicros(0));
+        assertEquals(25, histogram.getPercentileMicros(50));
+        assertEquals(50, histogram.getPercentileMicros(100));
+        assertEquals(50, histogram.getMaxMicros());
+    }
+
+    @Test
+    public void percentileIsBucketUpperBoundWithinRelativeError() {
+        long[] values = {64, 65, 100, 127, 128, 1000, 4095, 4096, 123456, 10000000L, 3000000000L};
+        for (long value : values) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            // 再记录一个大得多的值，使 p50 落在 value 所在的桶而不被最大值截断
+            histogram.record(value * 100);
+
+            long p50 = histogram.getPercentileMicros(50);
+            assertTrue("p50 " + p50 + " < " + value, p50 >= value);
+            assertTrue("p50 " + p50 + " too far above " + value, p50 - value <= value / 32);
+        }
+    }
+
+    @Test
+    public void percentileNeverExceedsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+
+        assertEquals(1000, histogram.getPercentileMicros(50));
+        assertEquals(1000, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    public void percentilesOfUniformRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+
+        assertWithin(5000, histogram.getPercentileMicros(50));
+        assertWithin(9900, histogram.getPercentileMicros(99));
+        assertWithin(9990, histogram.getPercentileMicros(99.9));
+        assertEquals(10000, histogram.getPercentileMicros(100));
+        assertEquals(5000.5, histogram.getMeanMicros(), 1e-9);
+    }
+
+    @Test
+    public void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getPercentileMicros(100));
+
+        histogram.record(Long.MAX_VALUE);
+        long max = histogram.getMaxMicros();
+        assertEquals((1L << 36) - 1, max);
+        assertEquals(max, histogram.getPercentileMicros(100));
+        assertEquals(2, histogram.getCount());
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(10);
+        histogram.record(20000);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getPercentileMicros(99));
+
+        histogram.record(7);
+        assertEquals(7, histogram.getPercentileMicros(50));
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            int offset = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    histogram.record(offset * 1000 + j % 1000);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80000, histogram.getCount());
+        assertEquals(7999, histogram.getMaxMicros());
+        assertEquals(7999, histogram.getPercentileMicros(100));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                actual >= expected && actual - expected <= expected / 32);
+    }
+}
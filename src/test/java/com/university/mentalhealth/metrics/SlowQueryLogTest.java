@@ -0,0 +1,91 @@
+package com.university.mentalhealth.metrics;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class SlowQueryLogTest {
+
+    private static BitSet bits(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int index : indexes) {
+            bits.set(index);
+        }
+        return bits;
+    }
+
+    private static void assertRedacted(String sql, int... expected) {
+        assertEquals(sql, bits(expected), SlowQueryLog.redactedParameters(sql));
+    }
+
+    @Test
+    public void passwordColumnInWhereAndSet() {
+        assertRedacted("SELECT * FROM users WHERE username = ? AND password_hash = ?", 1);
+        assertRedacted("UPDATE users SET password_hash = ? WHERE id = ?", 0);
+        assertRedacted("SELECT id FROM users WHERE PASSWORD_HASH=? AND is_active = ?", 0);
+    }
+
+    @Test
+    public void nonSensitiveColumnsAreKept() {
+        assertRedacted("SELECT * FROM appointments WHERE student_id = ? AND status <> ? AND notes LIKE ?");
+    }
+
+    @Test
+    public void qualifiedAndQuotedIdentifiers() {
+        assertRedacted("SELECT u.id FROM users u WHERE u.password_hash = ?", 0);
+        assertRedacted("SELECT u.id FROM users u WHERE `u`.`password_hash` = ?", 0);
+        assertRedacted("SELECT id FROM users WHERE `password_hash` != ?", 0);
+        assertRedacted("SELECT id FROM users WHERE \"password_hash\" = ?", 0);
+        assertRedacted("SELECT id FROM users u WHERE \"u\".\"password_hash\" = ? AND id = ?", 0);
+    }
+
+    @Test
+    public void inListsRedactEveryElement() {
+        assertRedacted("SELECT * FROM students WHERE contact_phone IN (?, ?, ?) AND name = ?", 0, 1, 2);
+        assertRedacted("SELECT * FROM students WHERE s.emergency_phone NOT IN (?,?) AND user_id IN (?, ?)", 0, 1);
+        assertRedacted("SELECT * FROM students WHERE user_id IN (?, ?) AND contact_phone = ?", 2);
+    }
+
+    @Test
+    public void likeAndNotLike() {
+        assertRedacted("SELECT * FROM students WHERE contact_phone LIKE ?", 0);
+        assertRedacted("SELECT * FROM students WHERE contact_phone NOT LIKE ? AND name LIKE ?", 0);
+    }
+
+    @Test
+    public void insertMapsValuesToColumnList() {
+        assertRedacted("INSERT INTO users (username, password_hash, type) VALUES (?, ?, ?)", 1);
+        assertRedacted("INSERT INTO users (`username`, `password_hash`, `type`) VALUES (?, ?, ?)", 1);
+        assertRedacted("INSERT INTO students (user_id, student_id, name, contact_phone, emergency_contact, emergency_phone) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", 3, 4, 5);
+    }
+
+    @Test
+    public void insertWithFunctionsAndMultipleRows() {
+        assertRedacted("INSERT INTO users (username, password_hash) VALUES (?, SHA2(?, 256))", 1);
+        assertRedacted("INSERT INTO users (username, password_hash) VALUES (?, ?), (?, ?)", 1, 3);
+    }
+
+    @Test
+    public void insertOnDuplicateKeyUpdate() {
+        assertRedacted("INSERT INTO users (username, password_hash) VALUES (?, ?) "
+                + "ON DUPLICATE KEY UPDATE password_hash = ?, type = ?", 1, 2);
+    }
+
+    @Test
+    public void placeholdersInsideStringLiteralsAreIgnored() {
+        assertRedacted("SELECT * FROM users WHERE username = '?' AND password_hash = ?", 0);
+        assertRedacted("SELECT * FROM users WHERE username = 'it''s ?' AND id = ? AND password_hash = ?", 1);
+    }
+
+    @Test
+    public void formatParametersMasksRedactedValues() {
+        String sql = "SELECT * FROM users WHERE username = ? AND password_hash = ? AND id IN (?, ?)";
+
+        assertEquals("['alice', ***, 1, NULL]",
+                SlowQueryLog.formatParameters(sql, new Object[]{"alice", "secret", 1, null}));
+        assertEquals("[]", SlowQueryLog.formatParameters(sql, null));
+    }
+}
@@ -0,0 +1,144 @@
+package com.university.mentalhealth.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LoginGuardTest {
+    private static final long MINUTE = 60000;
+
+    @Test
+    public void locksAfterMaxFailures() {
+        LoginGuard guard = new LoginGuard(MINUTE, 3, MINUTE, 100);
+
+        guard.recordFailure("alice");
+        guard.recordFailure("alice");
+        assertFalse(guard.isLocked("alice"));
+
+        guard.recordFailure("alice");
+        assertTrue(guard.isLocked("alice"));
+        assertFalse(guard.isLocked("bob"));
+    }
+
+    @Test
+    public void lockKeyIgnoresCaseAndSpaces() {
+        LoginGuard guard = new LoginGuard(MINUTE, 2, MINUTE, 100);
+
+        guard.recordFailure("Alice");
+        guard.recordFailure(" ALICE ");
+
+        assertTrue(guard.isLocked("alice"));
+    }
+
+    @Test
+    public void successResetsFailureCount() {
+        LoginGuard guard = new LoginGuard(MINUTE, 2, MINUTE, 100);
+
+        guard.recordFailure("alice");
+        guard.recordSuccess("alice");
+        guard.recordFailure("alice");
+
+        assertFalse(guard.isLocked("alice"));
+    }
+
+    @Test
+    public void lockoutExpires() throws Exception {
+        LoginGuard guard = new LoginGuard(MINUTE, 1, 50, 100);
+
+        guard.recordFailure("alice");
+        assertTrue(guard.isLocked("alice"));
+
+        Thread.sleep(80);
+        assertFalse(guard.isLocked("alice"));
+    }
+
+    @Test
+    public void disabledLockoutNeverLocks() {
+        LoginGuard guard = new LoginGuard(MINUTE, 0, MINUTE, 100);
+        for (int i = 0; i < 10; i++) {
+            guard.recordFailure("alice");
+        }
+
+        assertFalse(guard.isLocked("alice"));
+        assertEquals(0, guard.trackedFailureCount());
+    }
+
+    @Test
+    public void unknownUsernamesAreCachedUntilExpiry() throws Exception {
+        LoginGuard guard = new LoginGuard(50, 5, MINUTE, 100);
+
+        guard.recordUnknown("ghost");
+        assertTrue(guard.isKnownUnknown("ghost"));
+        // 不存在的用户名按原样记录，大小写不同的用户名仍然查库
+        assertFalse(guard.isKnownUnknown("Ghost"));
+
+        Thread.sleep(80);
+        assertFalse(guard.isKnownUnknown("ghost"));
+    }
+
+    @Test
+    public void forgetUnknownAfterUserIsCreated() {
+        LoginGuard guard = new LoginGuard(MINUTE, 5, MINUTE, 100);
+
+        guard.recordUnknown("newcomer");
+        guard.forgetUnknown("newcomer");
+
+        assertFalse(guard.isKnownUnknown("newcomer"));
+    }
+
+    @Test
+    public void fullFailureTableKeepsActiveLockouts() {
+        LoginGuard guard = new LoginGuard(MINUTE, 3, MINUTE, 10);
+        for (int i = 0; i < 3; i++) {
+            guard.recordFailure("victim");
+        }
+        assertTrue(guard.isLocked("victim"));
+
+        // 大量其他用户名的失败不能挤掉锁定记录
+        for (int i = 0; i < 50; i++) {
+            guard.recordFailure("spray" + i);
+        }
+
+        assertTrue(guard.isLocked("victim"));
+        assertTrue(guard.trackedFailureCount() <= 10);
+    }
+
+    @Test
+    public void fullFailureTableEvictsOldestUnlockedFirst() throws Exception {
+        LoginGuard guard = new LoginGuard(MINUTE, 3, MINUTE, 10);
+        guard.recordFailure("oldest");
+        Thread.sleep(5);
+        for (int i = 0; i < 9; i++) {
+            guard.recordFailure("user" + i);
+        }
+        Thread.sleep(5);
+        // 记录已满，触发淘汰：最早失败的 oldest 被移除，它之前的失败次数不再计入
+        guard.recordFailure("user8");
+
+        guard.recordFailure("newest");
+        guard.recordFailure("oldest");
+        guard.recordFailure("oldest");
+        assertFalse(guard.isLocked("oldest"));
+
+        guard.recordFailure("user8");
+        assertTrue(guard.isLocked("user8"));
+    }
+
+    @Test
+    public void fullUnknownCacheEvictsOldestInsteadOfClearing() throws Exception {
+        LoginGuard guard = new LoginGuard(MINUTE, 5, MINUTE, 10);
+        for (int i = 0; i < 10; i++) {
+            guard.recordUnknown("ghost" + i);
+            Thread.sleep(2);
+        }
+
+        guard.recordUnknown("latest");
+
+        assertTrue(guard.trackedUnknownCount() <= 10);
+        assertFalse(guard.isKnownUnknown("ghost0"));
+        assertTrue(guard.isKnownUnknown("ghost9"));
+        assertTrue(guard.isKnownUnknown("latest"));
+    }
+}
@@ -0,0 +1,217 @@
+package com.university.mentalhealth.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalIndexTest {
+    private static final int OWNER = 7;
+    private static final LocalDateTime NINE = LocalDateTime.now().plusDays(3).withHour(9).withMinute(0).withSecond(0).withNano(0);
+
+    private final Map<Integer, List<IntervalIndex.Interval>> database = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private IntervalIndex index;
+
+    @Before
+    public void setUp() {
+        database.clear();
+        loads.set(0);
+        index = newIndex(60000);
+    }
+
+    private IntervalIndex newIndex(long ttlMillis) {
+        return new IntervalIndex("test", (ownerId, from) -> {
+            loads.incrementAndGet();
+            List<IntervalIndex.Interval> intervals = database.get(ownerId);
+            return intervals != null ? new ArrayList<>(intervals) : new ArrayList<>();
+        }, ttlMillis, 1);
+    }
+
+    private void store(int id, LocalDateTime start, LocalDateTime end) {
+        database.computeIfAbsent(OWNER, k -> new ArrayList<>()).add(IntervalIndex.Interval.of(id, start, end));
+    }
+
+    @Test
+    public void adjacentIntervalsDoNotOverlap() {
+        store(1, NINE, NINE.plusHours(1));
+
+        assertFalse(index.overlaps(OWNER, NINE.plusHours(1), NINE.plusHours(2)));
+        assertFalse(index.overlaps(OWNER, NINE.minusHours(1), NINE));
+    }
+
+    @Test
+    public void partialOverlapOnEitherSide() {
+        store(1, NINE, NINE.plusHours(1));
+
+        assertTrue(index.overlaps(OWNER, NINE.plusMinutes(59), NINE.plusHours(2)));
+        assertTrue(index.overlaps(OWNER, NINE.minusHours(1), NINE.plusMinutes(1)));
+    }
+
+    @Test
+    public void containmentInBothDirections() {
+        store(1, NINE, NINE.plusHours(1));
+        store(2, NINE.plusHours(2), NINE.plusHours(8));
+
+        assertTrue(index.overlaps(OWNER, NINE.minusHours(1), NINE.plusHours(3)));
+        assertTrue(index.overlaps(OWNER, NINE.plusMinutes(10), NINE.plusMinutes(20)));
+        // 查询区间落在长区间中部，长区间的开始时间早于查询开始时间 maxLength 以内
+        assertTrue(index.overlaps(OWNER, NINE.plusHours(5), NINE.plusHours(6)));
+    }
+
+    @Test
+    public void gapBetweenIntervalsIsFree() {
+        store(1, NINE, NINE.plusHours(1));
+        store(2, NINE.plusHours(2), NINE.plusHours(3));
+
+        assertFalse(index.overlaps(OWNER, NINE.plusHours(1), NINE.plusHours(2)));
+        assertFalse(index.overlaps(OWNER, NINE.plusMinutes(70), NINE.plusMinutes(110)));
+    }
+
+    @Test
+    public void emptyOrReversedQueryNeverOverlaps() {
+        store(1, NINE, NINE.plusHours(1));
+
+        assertFalse(index.overlaps(OWNER, NINE.plusMinutes(30), NINE.plusMinutes(30)));
+        assertFalse(index.overlaps(OWNER, NINE.plusMinutes(40), NINE.plusMinutes(20)));
+    }
+
+    @Test
+    public void ownersAreIndependent() {
+        store(1, NINE, NINE.plusHours(1));
+
+        assertFalse(index.overlaps(OWNER + 1, NINE, NINE.plusHours(1)));
+    }
+
+    @Test
+    public void addAndRemoveUpdateLoadedOwner() {
+        assertFalse(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+
+        index.add(OWNER, 5, NINE, NINE.plusHours(1));
+        assertTrue(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+
+        index.remove(OWNER, 5);
+        assertFalse(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void addReplacesIntervalWithSameId() {
+        index.preload(OWNER);
+        index.add(OWNER, 5, NINE, NINE.plusHours(1));
+        index.add(OWNER, 5, NINE.plusHours(3), NINE.plusHours(4));
+
+        assertFalse(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+        assertTrue(index.overlaps(OWNER, NINE.plusHours(3), NINE.plusHours(4)));
+    }
+
+    @Test
+    public void addToUnloadedOwnerIsIgnoredUntilLoad() {
+        index.add(OWNER, 5, NINE, NINE.plusHours(1));
+        assertEquals(0, loads.get());
+
+        // 数据库中没有该区间，加载后也不应出现
+        assertFalse(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidateForcesReload() {
+        assertFalse(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+        store(1, NINE, NINE.plusHours(1));
+        assertFalse(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+
+        index.invalidate(OWNER);
+        assertTrue(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void expiredEntryIsReloaded() {
+        index = newIndex(0);
+        index.overlaps(OWNER, NINE, NINE.plusHours(1));
+        index.overlaps(OWNER, NINE, NINE.plusHours(1));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void queryBeforeLoadedRangeReloadsFromEarlierStart() {
+        LocalDateTime lastWeek = LocalDateTime.now().minusDays(7).withNano(0);
+        List<LocalDateTime> froms = new ArrayList<>();
+        index = new IntervalIndex("test", (ownerId, from) -> {
+            froms.add(from);
+            return new ArrayList<>();
+        }, 60000, 1);
+
+        index.overlaps(OWNER, NINE, NINE.plusHours(1));
+        index.overlaps(OWNER, lastWeek, lastWeek.plusHours(1));
+
+        assertEquals(2, froms.size());
+        assertEquals(lastWeek, froms.get(1));
+    }
+
+    @Test
+    public void addDuringReloadIsAppliedToPublishedSet() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        index = new IntervalIndex("test", (ownerId, from) -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // 加载结果不包含并发写入的区间（查询早于写入提交）
+            return new ArrayList<>();
+        }, 60000, 1);
+
+        Thread reader = new Thread(() -> index.preload(OWNER));
+        reader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        Thread writer = new Thread(() -> index.add(OWNER, 9, NINE, NINE.plusHours(1)));
+        writer.start();
+        // 写线程应等待加载完成，而不是写到即将被替换的旧集合
+        writer.join(200);
+        assertTrue(writer.isAlive());
+
+        release.countDown();
+        reader.join(5000);
+        writer.join(5000);
+
+        assertTrue(index.overlaps(OWNER, NINE, NINE.plusHours(1)));
+    }
+
+    @Test
+    public void ownerLocksAreReleasedAfterUse() throws Exception {
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            int owner = i % 3;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 200; j++) {
+                    index.add(owner, j, NINE.plusHours(j), NINE.plusHours(j + 1));
+                    index.overlaps(owner, NINE, NINE.plusHours(1));
+                    index.remove(owner, j);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, index.lockedOwnerCount());
+    }
+}
@@ -0,0 +1,128 @@
+package com.university.mentalhealth.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PasswordHasherTest {
+    // "123456" 的无盐 SHA-256 摘要（早期版本的存储格式）
+    private static final String LEGACY_SHA256 = "jZae727K08KaOmKSgOaGzww/XVqGr/PKEgIMkjrcbJI=";
+
+    private static PasswordHasher hasher(int iterations) {
+        return new PasswordHasher(iterations, 1, 4, 10000);
+    }
+
+    @Test
+    public void hashUsesSelfDescribingFormat() {
+        String stored = hasher(1000).hash("secret1");
+
+        String[] parts = stored.split("\\$");
+        assertEquals(4, parts.length);
+        assertEquals("pbkdf2_sha256", parts[0]);
+        assertEquals("1000", parts[1]);
+        assertEquals("PBKDF2-SHA256，迭代 1000 次", PasswordHasher.describeFormat(stored));
+    }
+
+    @Test
+    public void verifyAcceptsOnlyTheRightPassword() {
+        PasswordHasher hasher = hasher(1000);
+        String stored = hasher.hash("secret1");
+
+        assertTrue(hasher.verify("secret1", stored));
+        assertFalse(hasher.verify("secret2", stored));
+        assertFalse(hasher.verify("", stored));
+    }
+
+    @Test
+    public void samePasswordGetsDifferentSalt() {
+        PasswordHasher hasher = hasher(1000);
+        String first = hasher.hash("secret1");
+        String second = hasher.hash("secret1");
+
+        assertNotEquals(first, second);
+        assertTrue(hasher.verify("secret1", first));
+        assertTrue(hasher.verify("secret1", second));
+    }
+
+    @Test
+    public void olderIterationCountStillVerifiesButNeedsRehash() {
+        String stored = hasher(1000).hash("secret1");
+        PasswordHasher current = hasher(2000);
+
+        assertTrue(current.verify("secret1", stored));
+        assertTrue(current.needsRehash(stored));
+        assertFalse(current.needsRehash(current.hash("secret1")));
+        // 迭代次数高于当前配置（例如配置被调低）时不降级
+        assertFalse(hasher(500).needsRehash(stored));
+    }
+
+    @Test
+    public void legacySha256DigestVerifiesAndNeedsRehash() {
+        PasswordHasher hasher = hasher(1000);
+
+        assertTrue(hasher.verify("123456", LEGACY_SHA256));
+        assertFalse(hasher.verify("1234567", LEGACY_SHA256));
+        assertTrue(hasher.needsRehash(LEGACY_SHA256));
+        assertEquals(LEGACY_SHA256, PasswordHasher.sha256("123456"));
+        assertEquals("无盐 SHA-256 摘要", PasswordHasher.describeFormat(LEGACY_SHA256));
+    }
+
+    @Test
+    public void legacyPlaintextVerifiesAndNeedsRehash() {
+        PasswordHasher hasher = hasher(1000);
+
+        assertTrue(hasher.verify("abc123", "abc123"));
+        assertFalse(hasher.verify("abc124", "abc123"));
+        assertTrue(hasher.needsRehash("abc123"));
+        assertEquals("明文", PasswordHasher.describeFormat("abc123"));
+    }
+
+    @Test
+    public void malformedStoredValuesNeverVerify() {
+        PasswordHasher hasher = hasher(1000);
+
+        assertFalse(hasher.verify("secret1", "pbkdf2_sha256$1000$onlysalt"));
+        assertFalse(hasher.verify("secret1", "pbkdf2_sha256$many$c2FsdA$aGFzaA"));
+        assertFalse(hasher.verify("secret1", "pbkdf2_sha256$1000$!!!$aGFzaA"));
+        assertTrue(hasher.needsRehash("pbkdf2_sha256$many$c2FsdA$aGFzaA"));
+        assertTrue(hasher.needsRehash("pbkdf2_sha256$"));
+    }
+
+    @Test
+    public void nullsAreRejected() {
+        PasswordHasher hasher = hasher(1000);
+
+        assertFalse(hasher.verify(null, hasher.hash("secret1")));
+        assertFalse(hasher.verify("secret1", null));
+        assertFalse(hasher.needsRehash(null));
+        assertEquals("无", PasswordHasher.describeFormat(null));
+        hasher.verifyDummy(null);
+    }
+
+    @Test
+    public void timeoutThrowsBusyException() {
+        PasswordHasher hasher = new PasswordHasher(200000, 1, 1, 0);
+        try {
+            hasher.hash("secret1");
+            fail("expected BusyException");
+        } catch (PasswordHasher.BusyException e) {
+            assertEquals(1, hasher.getStats().rejected);
+        }
+    }
+
+    @Test
+    public void verifyDummyGoesThroughThePoolLikeVerify() {
+        // 与真实校验一样经过线程池，繁忙时同样抛出 BusyException
+        PasswordHasher hasher = new PasswordHasher(200000, 1, 1, 0);
+        try {
+            hasher.verifyDummy("secret1");
+            fail("expected BusyException");
+        } catch (PasswordHasher.BusyException e) {
+            assertEquals(1, hasher.getStats().rejected);
+        }
+    }
+}